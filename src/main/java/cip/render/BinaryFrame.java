@@ -0,0 +1,445 @@
+/*
+ * BinaryFrame.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render;
+
+import cip.render.raytrace.geometry.XfmGeometry;
+import cip.render.raytrace.interfaces.*;
+import cip.render.util3d.Xfm4x4f;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * This is the reader and writer for the binary (precompiled) scene format.  A binary scene is written from a loaded
+ * {@link FrameLoader} and is loaded back into a {@link FrameLoader} - the {@link FrameLoader} recognizes a binary scene
+ * by the header, so a binary scene can be used anywhere a scene description file can be used.
+ * <p>
+ * The binary scene is written to be loaded quickly: all of the float data is a single block that is read with one bulk
+ * read from a memory mapped file; {@link XfmGeometry} (the bulk of any generated scene) is written as a compact record
+ * that is loaded without DOM parsing or reflection; and objects shared by several parents (library objects) are written
+ * once and then written as references, so sharing is preserved.  Objects without a compact record are written as their
+ * XML description, with nested references to named library objects written as <tt>MaterialByRef</tt>,
+ * <tt>GeometryByRef</tt>, or <tt>LightByRef</tt> elements, and are loaded through {@link DynXmlObjLoader}.
+ * <p>
+ * The format is:
+ * <pre>
+ *     int     magic ('CIPF')
+ *     int     version
+ *     float   dimmer
+ *     int     pixelSamples
+ *     int     pixelKernel
+ *     boolean fast precision
+ *     int     lightSamples
+ *     int     maxRecursions
+ *     boolean roulette termination
+ *     float   cutoff
+ *     float   rayBudget
+ *     int     float count, followed by the float block
+ *     int     named library object count, followed by the objects
+ *     object  camera
+ *     object  background
+ *     int     light count, followed by the lights
+ *     int     geometry count, followed by the geometry
+ * </pre>
+ * Where each object starts with a byte record type: null, a reference to a previously written object, a transformed
+ * geometry, or an XML object description.
+ * <p>
+ * <b>Usage:</b>
+ * <pre>
+ *     BinaryFrame <i>&lt;sceneDescFile&gt;</i> <i>&lt;binarySceneFile&gt;</i>
+ * </pre>
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see FrameLoader
+ * @since 1.0
+ */
+public final class BinaryFrame {
+    /**
+     * The magic number that starts a binary scene file.
+     */
+    public static final int MAGIC = 0x43495046;     // 'CIPF'
+    /**
+     * The current version of the binary scene format.  A binary scene of any other version is rejected and should be
+     * re-generated from the scene description.
+     */
+    public static final int VERSION = 3;
+
+    private static final byte RECORD_NULL = 0;
+    private static final byte RECORD_REF = 1;
+    private static final byte RECORD_XFM_GEOMETRY = 2;
+    private static final byte RECORD_XML = 3;
+
+    /**
+     * This is a utility class, there are no instances.
+     */
+    private BinaryFrame() {
+    }
+
+    /**
+     * Test whether a file is a binary scene file.
+     *
+     * @param strFile (String, readonly) The scene file name.
+     * @return Returns <tt>true</tt> if the file starts with the binary scene magic number, <tt>false</tt> otherwise.
+     */
+    public static boolean isBinaryFrame(@NotNull final String strFile) {
+        try (final DataInputStream in = new DataInputStream(new FileInputStream(strFile))) {
+            return in.readInt() == MAGIC;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Writing
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write a loaded scene as a binary scene file.
+     *
+     * @param frameLoader (FrameLoader, readonly) The loaded scene.
+     * @param strFile     (String, readonly) The binary scene file to be written.
+     * @throws Exception Thrown if the scene could not be written.
+     */
+    public static void write(@NotNull final FrameLoader frameLoader, @NotNull final String strFile) throws Exception {
+        final Writer writer = new Writer();
+        // the named library objects
+        final ArrayList<INamedObject> library = new ArrayList<>();
+        for (final INamedObject obj : frameLoader.m_refObjList) {
+            if ((obj != frameLoader.m_defCamera) && !obj.getName().equals(DynXmlObjLoader.DEFAULT_NAME)) {
+                library.add(obj);
+            }
+        }
+        writer.m_records.writeInt(library.size());
+        for (final INamedObject obj : library) {
+            writer.writeObject(obj);
+        }
+        // the camera, background, lights, and geometry
+        writer.writeObject(frameLoader.m_camera);
+        writer.writeObject(frameLoader.m_background);
+        writer.m_records.writeInt(frameLoader.m_lightList.size());
+        for (final IRtLight light : frameLoader.m_lightList) {
+            writer.writeObject(light);
+        }
+        writer.m_records.writeInt(frameLoader.m_objectList.size());
+        for (final IRtGeometry geometry : frameLoader.m_objectList) {
+            writer.writeObject(geometry);
+        }
+
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(strFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeFloat(frameLoader.m_fDimmer);
+            out.writeInt(frameLoader.m_nSamplePerPixel);
+            out.writeInt(frameLoader.m_nSampleKernel);
+            out.writeBoolean(frameLoader.m_bFastMath);
+            out.writeInt(frameLoader.m_nLightSamples);
+            out.writeInt(frameLoader.m_nMaxRecursions);
+            out.writeBoolean(frameLoader.m_bRoulette);
+            out.writeFloat(frameLoader.m_fCutoff);
+            out.writeFloat(frameLoader.m_fRayBudget);
+            out.writeInt(writer.m_nFloats);
+            writer.m_floatBytes.writeTo(out);
+            writer.m_recordBytes.writeTo(out);
+        }
+    }
+
+    /**
+     * The state of a binary scene being written.
+     */
+    private static class Writer {
+        final ByteArrayOutputStream m_floatBytes = new ByteArrayOutputStream();
+        final DataOutputStream m_floats = new DataOutputStream(m_floatBytes);
+        int m_nFloats = 0;
+        final ByteArrayOutputStream m_recordBytes = new ByteArrayOutputStream();
+        final DataOutputStream m_records = new DataOutputStream(m_recordBytes);
+        // the written objects, and the written named objects by name
+        final IdentityHashMap<Object, Integer> m_objIds = new IdentityHashMap<>();
+        final HashMap<String, Object> m_namedObjs = new HashMap<>();
+        final float[] m_fXfm = new float[16];
+        final Transformer m_transformer;
+        final Document m_doc;
+
+        Writer() throws Exception {
+            m_transformer = TransformerFactory.newInstance().newTransformer();
+            m_transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            m_doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        }
+
+        void writeObject(@Nullable final Object obj) throws Exception {
+            if (null == obj) {
+                m_records.writeByte(RECORD_NULL);
+                return;
+            }
+            final Integer id = m_objIds.get(obj);
+            if (null != id) {
+                m_records.writeByte(RECORD_REF);
+                m_records.writeInt(id);
+                return;
+            }
+            m_objIds.put(obj, m_objIds.size());
+            if ((obj instanceof INamedObject) && !((INamedObject) obj).getName().equals(DynXmlObjLoader.DEFAULT_NAME)) {
+                m_namedObjs.putIfAbsent(((INamedObject) obj).getName(), obj);
+            }
+
+            if (obj.getClass() == XfmGeometry.class) {
+                final XfmGeometry xfmGeometry = (XfmGeometry) obj;
+                m_records.writeByte(RECORD_XFM_GEOMETRY);
+                writeString(xfmGeometry.getName());
+                final Xfm4x4f xfm = new Xfm4x4f();
+                xfmGeometry.getXfm(xfm);
+                xfm.get(m_fXfm, 0);
+                for (final float f : m_fXfm) {
+                    m_floats.writeFloat(f);
+                }
+                m_nFloats += m_fXfm.length;
+                writeObject(xfmGeometry.getGeometry());
+            } else if (obj instanceof IDynXmlObject) {
+                m_records.writeByte(RECORD_XML);
+                final Element parentEl = m_doc.createElement("parent");
+                ((IDynXmlObject) obj).toChildXmlElement(parentEl);
+                final Element element = (Element) parentEl.getFirstChild();
+                replaceWithRefs(element);
+                final StringWriter strWriter = new StringWriter();
+                m_transformer.transform(new DOMSource(element), new StreamResult(strWriter));
+                writeString(strWriter.toString());
+            } else {
+                throw new DynXmlObjParseException(
+                        String.format("%s cannot be written to a binary scene", obj.getClass().getName()));
+            }
+        }
+
+        // Replace nested descriptions of already written named objects with references to those objects.
+        private void replaceWithRefs(@NotNull final Element element) {
+            Node domNode = element.getFirstChild();
+            while (null != domNode) {
+                final Node next = domNode.getNextSibling();
+                if (domNode instanceof Element) {
+                    final Element childEl = (Element) domNode;
+                    final String strRefTag = getRefTag(childEl);
+                    if (null != strRefTag) {
+                        final Element refEl = m_doc.createElement(strRefTag);
+                        refEl.setAttribute(DynXmlObjLoader.XML_ATTR_NAME, childEl.getAttribute(DynXmlObjLoader.XML_ATTR_NAME));
+                        element.replaceChild(refEl, childEl);
+                    } else {
+                        replaceWithRefs(childEl);
+                    }
+                }
+                domNode = next;
+            }
+        }
+
+        private String getRefTag(@NotNull final Element element) {
+            if (!element.getTagName().equalsIgnoreCase(DynXmlObjLoader.XML_TAG)) {
+                return null;
+            }
+            final Object obj = m_namedObjs.get(element.getAttribute(DynXmlObjLoader.XML_ATTR_NAME));
+            if ((null == obj) || !obj.getClass().getName().equals(element.getAttribute(DynXmlObjLoader.XML_ATTR_CLASS))) {
+                return null;
+            }
+            if (obj instanceof IRtMaterial) {
+                return FrameLoader.XML_TAG_MATERIAL_REF;
+            } else if (obj instanceof IRtGeometry) {
+                return FrameLoader.XML_TAG_GEOMETRY_REF;
+            } else if (obj instanceof IRtLight) {
+                return FrameLoader.XML_TAG_LIGHT_REF;
+            }
+            return null;
+        }
+
+        private void writeString(@NotNull final String str) throws IOException {
+            final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            m_records.writeInt(bytes.length);
+            m_records.write(bytes);
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Reading
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Read a binary scene file into a frame loader.
+     *
+     * @param frameLoader (FrameLoader, modified) The frame loader to be loaded with the scene.
+     * @param strFile     (String, readonly) The binary scene file.
+     * @throws DynXmlObjParseException Thrown if the scene could not be read.
+     */
+    static void read(@NotNull final FrameLoader frameLoader, @NotNull final String strFile) throws DynXmlObjParseException {
+        try (final FileChannel channel = new FileInputStream(strFile).getChannel()) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new DynXmlObjParseException(String.format("%s is not a binary scene file.", strFile));
+            }
+            final int nVersion = buffer.getInt();
+            if (nVersion != VERSION) {
+                throw new DynXmlObjParseException(String.format(
+                        "%s is binary scene version %d, version %d is required - regenerate it from the scene description.",
+                        strFile, nVersion, VERSION));
+            }
+            frameLoader.m_fDimmer = buffer.getFloat();
+            frameLoader.m_nSamplePerPixel = buffer.getInt();
+            frameLoader.m_nSampleKernel = buffer.getInt();
+            frameLoader.m_bFastMath = (0 != buffer.get());
+            frameLoader.m_nLightSamples = buffer.getInt();
+            frameLoader.m_nMaxRecursions = buffer.getInt();
+            frameLoader.m_bRoulette = (0 != buffer.get());
+            frameLoader.m_fCutoff = buffer.getFloat();
+            frameLoader.m_fRayBudget = buffer.getFloat();
+            // the float block in one bulk read
+            final float[] fFloats = new float[buffer.getInt()];
+            buffer.asFloatBuffer().get(fFloats);
+            buffer.position(buffer.position() + (fFloats.length * 4));
+
+            final Reader reader = new Reader(frameLoader, buffer, fFloats);
+            for (int nLibrary = buffer.getInt(); nLibrary > 0; nLibrary--) {
+                reader.readObject();
+            }
+            final Object camera = reader.readObject();
+            if (camera instanceof IRtCamera) {
+                frameLoader.m_camera = (IRtCamera) camera;
+            }
+            final Object background = reader.readObject();
+            if (background instanceof IRtBackground) {
+                frameLoader.m_background = (IRtBackground) background;
+            }
+            for (int nLights = buffer.getInt(); nLights > 0; nLights--) {
+                frameLoader.m_lightList.add((IRtLight) reader.readObject());
+            }
+            for (int nGeometry = buffer.getInt(); nGeometry > 0; nGeometry--) {
+                final IRtGeometry geometry = (IRtGeometry) reader.readObject();
+                frameLoader.m_objectList.add(geometry);
+                frameLoader.m_objectFlatList.add(geometry);
+            }
+        } catch (final Throwable t) {
+            if (t instanceof DynXmlObjParseException) {
+                throw (DynXmlObjParseException) t;
+            } else {
+                throw new DynXmlObjParseException("Binary scene read exception", t);
+            }
+        }
+    }
+
+    /**
+     * The state of a binary scene being read.
+     */
+    private static class Reader {
+        final FrameLoader m_frameLoader;
+        final ByteBuffer m_buffer;
+        final float[] m_fFloats;
+        int m_nFloat = 0;
+        final ArrayList<Object> m_objs = new ArrayList<>();
+        final DocumentBuilder m_db;
+
+        Reader(@NotNull final FrameLoader frameLoader, @NotNull final ByteBuffer buffer, @NotNull final float[] fFloats)
+                throws Exception {
+            m_frameLoader = frameLoader;
+            m_buffer = buffer;
+            m_fFloats = fFloats;
+            m_db = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        }
+
+        Object readObject() throws Exception {
+            final byte nRecord = m_buffer.get();
+            switch (nRecord) {
+                case RECORD_NULL:
+                    return null;
+                case RECORD_REF:
+                    return m_objs.get(m_buffer.getInt());
+                case RECORD_XFM_GEOMETRY: {
+                    final XfmGeometry xfmGeometry = new XfmGeometry();
+                    m_objs.add(xfmGeometry);
+                    final String strName = readString();
+                    final Xfm4x4f xfm = new Xfm4x4f().setValue(m_fFloats, m_nFloat);
+                    m_nFloat += 16;
+                    // set the transform before the geometry so the chain is only collapsed once, for the geometry
+                    xfmGeometry.setName(strName);
+                    xfmGeometry.setXfm(xfm);
+                    xfmGeometry.setGeometry((IRtGeometry) readObject());
+                    if (!strName.equals(DynXmlObjLoader.DEFAULT_NAME)) {
+                        m_frameLoader.m_refObjList.add(xfmGeometry);
+                    }
+                    return xfmGeometry;
+                }
+                case RECORD_XML: {
+                    final int nId = m_objs.size();
+                    m_objs.add(null);
+                    final Element element = m_db.parse(new InputSource(new StringReader(readString()))).getDocumentElement();
+                    final Object obj = DynXmlObjLoader.LoadObject(element, m_frameLoader.m_refObjList);
+                    m_objs.set(nId, obj);
+                    return obj;
+                }
+                default:
+                    throw new DynXmlObjParseException(String.format("Unrecognized binary scene record type %d", nRecord));
+            }
+        }
+
+        private String readString() {
+            final byte[] bytes = new byte[m_buffer.getInt()];
+            m_buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Convert a scene description file into a binary scene file, and report the load times for both.
+     *
+     * @param args The arguments: the scene description file and the binary scene file.
+     */
+    public static void main(final String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: BinaryFrame <sceneDescFile> <binarySceneFile>");
+            return;
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            final FrameLoader frameLoader = new FrameLoader(args[0]);
+            System.out.println(String.format("XML scene load time: %dms", (System.currentTimeMillis() - startTime)));
+            write(frameLoader, args[1]);
+            startTime = System.currentTimeMillis();
+            new FrameLoader(args[1]);
+            System.out.println(String.format("Binary scene load time: %dms", (System.currentTimeMillis() - startTime)));
+        } catch (final Throwable t) {
+            t.printStackTrace();
+        }
+    }
+}
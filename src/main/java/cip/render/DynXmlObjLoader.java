@@ -24,7 +24,15 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.w3c.dom.Element;
 
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -39,6 +47,10 @@ import java.util.logging.Logger;
  *     &lt;/DynamicallyLoadedObject&gt;
  * </pre>
  *
+ * Instantiation goes through a per-class factory: either a direct factory registered by an {@link IDynXmlObjFactory}
+ * provider, or a cached reflective constructor.  Instantiation counts and times are kept per class for load profiling,
+ * see {@link #getLoadStatistics()}.
+ *
  * @author royster.hall@gmail.com
  * @version 1.0
  * @see cip.render.IDynXmlObject
@@ -57,10 +69,96 @@ public final class DynXmlObjLoader {
     public static final String XML_ATTR_CLASS = "class";
     public static final String XML_ATTR_NAME = "name";
 
+    // The factories by class name.  This starts with the factories registered by IDynXmlObjFactory providers, and
+    //  reflective factories are added the first time a class without a registered factory is loaded.
+    private static final ConcurrentHashMap<String, Supplier<Object>> s_factories = new ConcurrentHashMap<>();
+    // The load statistics by class name.
+    private static final ConcurrentHashMap<String, ClassStats> s_stats = new ConcurrentHashMap<>();
+
+    static {
+        final HashMap<String, Supplier<Object>> factories = new HashMap<>();
+        for (final IDynXmlObjFactory provider : ServiceLoader.load(IDynXmlObjFactory.class)) {
+            provider.registerFactories(factories);
+        }
+        s_factories.putAll(factories);
+    }
+
+    /**
+     * The instantiation counts and times for a class.
+     */
+    private static class ClassStats {
+        final LongAdder m_nCount = new LongAdder();
+        final LongAdder m_nInstantiateNanos = new LongAdder();
+        final LongAdder m_nLoadNanos = new LongAdder();
+
+        void add(final long nInstantiateNanos, final long nLoadNanos) {
+            m_nCount.increment();
+            m_nInstantiateNanos.add(nInstantiateNanos);
+            m_nLoadNanos.add(nLoadNanos);
+        }
+    }
+
     private DynXmlObjLoader() {
         // This is a utility class and cannot be instantiated
     }
 
+    /**
+     * Get the factory for a dynamically loaded class.  If no factory has been registered for the class, a factory that
+     * calls the cached no-argument constructor of the class is created and registered.
+     *
+     * @param strClass (String, readonly) The fully qualified class name.
+     * @return Returns the factory for the class.
+     * @throws ReflectiveOperationException Thrown if the class could not be found or has no public no-argument
+     *                                      constructor.
+     */
+    @NotNull
+    static Supplier<Object> getFactory(@NotNull final String strClass) throws ReflectiveOperationException {
+        Supplier<Object> factory = s_factories.get(strClass);
+        if (null == factory) {
+            final Constructor<?> constructor = Class.forName(strClass).getConstructor();
+            factory = () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (final ReflectiveOperationException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            };
+            final Supplier<Object> existing = s_factories.putIfAbsent(strClass, factory);
+            if (null != existing) {
+                factory = existing;
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Get the load statistics for all classes loaded since the statistics were last reset: the number of objects loaded,
+     * the time spent instantiating them, and the time spent in <tt>loadFromXml</tt> (which includes the loading of any
+     * nested objects).
+     *
+     * @return Returns the formatted load statistics, one line per class, most loaded class first.
+     */
+    @NotNull
+    public static String getLoadStatistics() {
+        final ArrayList<Map.Entry<String, ClassStats>> entries = new ArrayList<>(s_stats.entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue().m_nCount.sum(), e1.getValue().m_nCount.sum()));
+        final StringBuilder strBuilder = new StringBuilder(
+                String.format("%10s %14s %12s  %s%n", "count", "instantiate ms", "load ms", "class"));
+        for (final Map.Entry<String, ClassStats> entry : entries) {
+            strBuilder.append(String.format("%10d %14.3f %12.3f  %s%n", entry.getValue().m_nCount.sum(),
+                    entry.getValue().m_nInstantiateNanos.sum() / 1.0e6, entry.getValue().m_nLoadNanos.sum() / 1.0e6,
+                    entry.getKey()));
+        }
+        return strBuilder.toString();
+    }
+
+    /**
+     * Reset the load statistics.
+     */
+    public static void resetLoadStatistics() {
+        s_stats.clear();
+    }
+
     /**
      * Load a dynamically loaded object from an XML description.  The XML description includes a class
      * that will be instantiated.  Once an object of that class is instantiated, it will be tested to
@@ -94,16 +192,20 @@ public final class DynXmlObjLoader {
             logger.finer(String.format("Loading: class='%s', name=%s", strClass, strName));
         }
         final Object obj;
+        final long nStart = System.nanoTime();
         try {
-            obj = Class.forName(strClass).newInstance();
+            obj = getFactory(strClass).get();
         } catch (final Exception t) {
             throw new DynXmlObjParseException(
                     String.format("Error Loading: class='%s', name=%s, wraps:\n   %s", strClass, strName, t.getMessage()), t);
         }
+        final long nInstantiated = System.nanoTime();
         // read the object from the XML node
         if (obj instanceof IDynXmlObject) {
             try {
                 ((IDynXmlObject) obj).loadFromXml(xmlElement, refObjectList);
+                s_stats.computeIfAbsent(strClass, k -> new ClassStats()).add(nInstantiated - nStart,
+                        System.nanoTime() - nInstantiated);
                 if (obj instanceof INamedObject) {
                     ((INamedObject) obj).setName(strName);
                     if (null != refObjectList) {
@@ -0,0 +1,361 @@
+/*
+ * FrameBuilder.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render;
+
+import cip.render.raytrace.geometry.XfmGeometry;
+import cip.render.raytrace.interfaces.IRtBackground;
+import cip.render.raytrace.interfaces.IRtCamera;
+import cip.render.raytrace.interfaces.IRtGeometry;
+import cip.render.raytrace.interfaces.IRtLight;
+import cip.render.raytrace.interfaces.IRtMaterial;
+import cip.render.raytrace.light.XfmLight;
+import cip.render.util3d.Xfm4x4f;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This is a builder for assembling a frame in memory, without writing and parsing an XML scene description.  The frame
+ * is assembled from objects constructed directly by the application and is the same frame a {@link FrameLoader} would
+ * load from the equivalent scene description:
+ * <pre>
+ *     final Whitted red = new Whitted("red", new RGBf(1.0f, 0.0f, 0.0f), false, new AngleF(AngleF.DEGREES, 10.0f));
+ *     final Sphere sphere = new Sphere();
+ *     sphere.setMaterial(red);
+ *     final FrameLoader frame = new FrameBuilder()
+ *             .camera(new PinHole().setPosition(new Point3f(0, 0, 0), new Point3f(0, -10, 2), 4.0f))
+ *             .background(new ConstantColour(new RGBf(0.1f, 0.1f, 0.2f)))
+ *             .library(red)
+ *             .light(new Ambient())
+ *             .light(point, new Xfm4x4f().identity().translate(5.0f, -5.0f, 10.0f))
+ *             .geometry(sphere)
+ *             .build();
+ *     renderXml.loadScene(frame);
+ * </pre>
+ * Named objects added to the frame are registered for reference just as they are when loaded by a
+ * <tt>FrameLoader</tt>, so later objects can be added by reference ({@link #geometryRef(String)},
+ * {@link #lightRef(String)}, and {@link #material(String)}).  References are resolved when they are added, and an
+ * unresolved reference is an error.  {@link #build()} validates that the frame has the geometry and lights needed for
+ * rendering.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see FrameLoader
+ * @since 1.0
+ */
+public class FrameBuilder {
+    private FrameLoader m_frame = new FrameLoader();
+
+    /**
+     * Creates a new instance of <tt>FrameBuilder</tt> for an empty frame.
+     */
+    public FrameBuilder() {
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Set the light source global dimmer, the same as the <tt>dimmer</tt> frame attribute.
+     *
+     * @param fDimmer (float) The dimmer, normally between 0 and 1.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder dimmer(final float fDimmer) {
+        if (fDimmer < 0.0f) {
+            throw new IllegalArgumentException("The dimmer cannot be negative.");
+        }
+        lclFrame().m_fDimmer = fDimmer;
+        return this;
+    }
+
+    /**
+     * Set the size of one side of the pixel sampling grid, the same as the <tt>pixelSamples</tt> frame attribute.
+     *
+     * @param nSamplesPerPixel (int) The size of one side of the sampling grid, 1 or more.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder pixelSamples(final int nSamplesPerPixel) {
+        if (nSamplesPerPixel < 1) {
+            throw new IllegalArgumentException("There must be at least 1 sample per pixel.");
+        }
+        lclFrame().m_nSamplePerPixel = nSamplesPerPixel;
+        return this;
+    }
+
+    /**
+     * Set the size of the pixel sampling kernel, the same as the <tt>pixelKernel</tt> frame attribute.
+     *
+     * @param nSampleKernel (int) The size of the sampling kernel, 1 or more.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder pixelKernel(final int nSampleKernel) {
+        if (nSampleKernel < 1) {
+            throw new IllegalArgumentException("The pixel kernel must be at least 1.");
+        }
+        lclFrame().m_nSampleKernel = nSampleKernel;
+        return this;
+    }
+
+    /**
+     * Set the precision of the shading math, the same as the <tt>precision</tt> frame attribute.
+     *
+     * @param bFastMath (boolean) <tt>true</tt> for the <tt>fast</tt> approximations, <tt>false</tt> for the
+     *                  <tt>exact</tt> math.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder fastMath(final boolean bFastMath) {
+        lclFrame().m_bFastMath = bFastMath;
+        return this;
+    }
+
+    /**
+     * Set the number of lights sampled at each intersection, the same as the <tt>lightSamples</tt> frame attribute.
+     *
+     * @param nLightSamples (int) The number of lights sampled at each intersection, 0 to evaluate every light.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder lightSamples(final int nLightSamples) {
+        lclFrame().m_nLightSamples = nLightSamples;
+        return this;
+    }
+
+    /**
+     * Set the maximum depth of the reflected and transmitted rays, the same as the <tt>maxRecursions</tt> frame attribute.
+     *
+     * @param nMaxRecursions (int) The maximum recursion depth, 0 or more.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder maxRecursions(final int nMaxRecursions) {
+        if (nMaxRecursions < 0) {
+            throw new IllegalArgumentException("The max recursions cannot be negative.");
+        }
+        lclFrame().m_nMaxRecursions = nMaxRecursions;
+        return this;
+    }
+
+    /**
+     * Set the termination of reflected and transmitted rays, the same as the <tt>termination</tt>, <tt>cutoff</tt>, and
+     * <tt>rayBudget</tt> frame attributes.
+     *
+     * @param bRoulette  (boolean) <tt>true</tt> for <tt>roulette</tt>, <tt>false</tt> for <tt>cutoff</tt>.
+     * @param fCutoff    (float) The cutoff contribution, greater than 0.
+     * @param fRayBudget (float) The average number of reflected and transmitted rays per sample, 0 for no budget.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder termination(final boolean bRoulette, final float fCutoff, final float fRayBudget) {
+        if (!(fCutoff > 0.0f) || (fRayBudget < 0.0f)) {
+            throw new IllegalArgumentException("The cutoff must be greater than 0 and the ray budget cannot be negative.");
+        }
+        final FrameLoader frame = lclFrame();
+        frame.m_bRoulette = bRoulette;
+        frame.m_fCutoff = fCutoff;
+        frame.m_fRayBudget = fRayBudget;
+        return this;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Set the camera.  If no camera is set the frame uses the default {@link cip.render.raytrace.camera.PinHole} camera.
+     *
+     * @param camera (IRtCamera, readonly) The camera.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder camera(@NotNull final IRtCamera camera) {
+        lclRegister(camera);
+        lclFrame().m_camera = camera;
+        return this;
+    }
+
+    /**
+     * Set the background.  If no background is set the frame uses a black background.
+     *
+     * @param background (IRtBackground, readonly) The background.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder background(@NotNull final IRtBackground background) {
+        lclRegister(background);
+        lclFrame().m_background = background;
+        return this;
+    }
+
+    /**
+     * Add a library object.  Library objects are registered for reference by name, but are not part of the scene unless
+     * they are referenced - the same as the objects in a <tt>LibraryObjects</tt> element.
+     *
+     * @param obj (INamedObject, readonly) The library object.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder library(@NotNull final INamedObject obj) {
+        if (obj.getName().equals(DynXmlObjLoader.DEFAULT_NAME)) {
+            throw new IllegalArgumentException(String.format("Library %s has no name, it cannot be referenced.",
+                    obj.getClass().getSimpleName()));
+        }
+        lclFrame().m_refObjList.add(obj);
+        return this;
+    }
+
+    /**
+     * Add geometry to the scene.
+     *
+     * @param geometry (IRtGeometry, readonly) The geometry.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder geometry(@NotNull final IRtGeometry geometry) {
+        lclRegister(geometry);
+        lclFrame().m_objectList.add(geometry);
+        lclFrame().m_objectFlatList.add(geometry);
+        return this;
+    }
+
+    /**
+     * Add transformed geometry to the scene, the same as geometry described within an <tt>XfmGeometry</tt>.
+     *
+     * @param geometry (IRtGeometry, readonly) The geometry.
+     * @param xfm      (Xfm4x4f, readonly) The object to world transform for the geometry.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder geometry(@NotNull final IRtGeometry geometry, @NotNull final Xfm4x4f xfm) {
+        final XfmGeometry xfmGeometry = new XfmGeometry();
+        xfmGeometry.setGeometry(geometry);
+        xfmGeometry.setXfm(xfm);
+        return geometry(xfmGeometry);
+    }
+
+    /**
+     * Add a light to the scene.
+     *
+     * @param light (IRtLight, readonly) The light.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder light(@NotNull final IRtLight light) {
+        lclRegister(light);
+        lclFrame().m_lightList.add(light);
+        return this;
+    }
+
+    /**
+     * Add a transformed light to the scene, the same as a light described within an <tt>XfmLight</tt>.
+     *
+     * @param light (IRtLight, readonly) The light.
+     * @param xfm   (Xfm4x4f, readonly) The light to world transform for the light.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder light(@NotNull final IRtLight light, @NotNull final Xfm4x4f xfm) {
+        final XfmLight xfmLight = new XfmLight();
+        xfmLight.setLight(light);
+        xfmLight.setXfm(xfm);
+        return light(xfmLight);
+    }
+
+    /**
+     * Add a previously added geometry to the scene by name, the same as a <tt>GeometryByRef</tt> element.
+     *
+     * @param strName (String, readonly) The geometry name.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder geometryRef(@NotNull final String strName) {
+        final IRtGeometry geometry = lclResolve(strName, IRtGeometry.class, "geometry");
+        lclFrame().m_objectList.add(geometry);
+        lclFrame().m_objectFlatList.add(geometry);
+        return this;
+    }
+
+    /**
+     * Add a previously added light to the scene by name, the same as a <tt>LightByRef</tt> element.
+     *
+     * @param strName (String, readonly) The light name.
+     * @return Returns this builder.
+     */
+    @NotNull
+    public FrameBuilder lightRef(@NotNull final String strName) {
+        lclFrame().m_lightList.add(lclResolve(strName, IRtLight.class, "light"));
+        return this;
+    }
+
+    /**
+     * Get a previously added material by name, the same as a <tt>MaterialByRef</tt> element.
+     *
+     * @param strName (String, readonly) The material name.
+     * @return Returns the material.
+     */
+    @NotNull
+    public IRtMaterial material(@NotNull final String strName) {
+        return lclResolve(strName, IRtMaterial.class, "material");
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Finish building the frame.  The builder cannot be used after the frame is built.
+     *
+     * @return Returns the frame.
+     * @throws IllegalStateException Thrown if the frame has no geometry or no lights.
+     */
+    @NotNull
+    public FrameLoader build() {
+        final FrameLoader frame = lclFrame();
+        if (frame.m_objectList.isEmpty()) {
+            throw new IllegalStateException("No geometry to be rendered was added.");
+        }
+        if (frame.m_lightList.isEmpty()) {
+            throw new IllegalStateException("No lights illuminating the scene were added.");
+        }
+        m_frame = null;
+        return frame;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    private FrameLoader lclFrame() {
+        if (null == m_frame) {
+            throw new IllegalStateException("The frame has already been built.");
+        }
+        return m_frame;
+    }
+
+    // Named objects are registered for reference as they are by the frame loader.
+    private void lclRegister(@NotNull final Object obj) {
+        if (obj instanceof INamedObject) {
+            lclFrame().m_refObjList.add((INamedObject) obj);
+        }
+    }
+
+    private <T> T lclResolve(@NotNull final String strName, @NotNull final Class<T> type, @NotNull final String strType) {
+        final T obj = lclFrame().m_refObjList.lookup(strName, type);
+        if (null == obj) {
+            throw new IllegalArgumentException(String.format("Referenced %s \"%s\" cannot be resolved.", strType, strName));
+        }
+        return obj;
+    }
+}
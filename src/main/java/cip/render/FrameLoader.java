@@ -21,6 +21,7 @@
 package cip.render;
 
 import cip.render.raytrace.interfaces.*;
+import cip.render.raytrace.material.PackageConstants;
 import cip.render.util2d.Point2f;
 import cip.render.util3d.Point3f;
 import cip.render.utilColour.RGBf;
@@ -33,8 +34,15 @@ import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import java.io.File;
 import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -65,6 +73,7 @@ import java.util.logging.Logger;
  *               <b>.</b>
  *               <b>.</b></font>
  *         <font style="color:blue">&lt;/<b>LibraryObjects</b>&gt;</font>
+ *         <font style="color:blue">&lt;<b>Include</b> file="<font style="color:magenta"><i>libraryFile</i></font>"/&gt;</font>
  *
  *         <font style="color:gray">&lt;!-- These objects are the scene objects --&gt;</font>
  *         <font style="color:blue">&lt;<b>DynamicallyLoadedObject</b> class="<font style="color:magenta"><i>classname</i></font>"
@@ -115,6 +124,53 @@ import java.util.logging.Logger;
  * {@link IRenderScene} used to render the scene.
  * </td>
  * </tr>
+ * <tr>
+ * <td><tt>precision</tt></td>
+ * <td>The precision of the shading math, either <tt>exact</tt> or <tt>fast</tt>.  With <tt>fast</tt> the slope
+ * distribution functions, spot light falloff, and sphere texture coordinates use the approximations of
+ * {@link cip.render.util.FastMath} rather than the exact <tt>java.lang.Math</tt> functions, and the Fresnel reflectance of
+ * dielectrics is interpolated from tables built for each material.  The difference is not
+ * visible in an 8 bit per channel image.  The default is <tt>exact</tt> if <tt>precision</tt> is not specified.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td><tt>lightSamples</tt></td>
+ * <td>The number of lights sampled at each intersection for scenes with many lights.  The local lights (point and spot
+ * lights) are sampled from a light hierarchy weighted by intensity and bounded by each light's reach (see
+ * {@link cip.render.raytrace.light.LightTree}), so the cost of lighting an intersection does not grow with the number of
+ * lights.  The sampling adds noise that averages out with more <tt>pixelSamples</tt>.  The default is 0 (every light is
+ * evaluated at every intersection) if <tt>lightSamples</tt> is not specified.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td><tt>maxRecursions</tt></td>
+ * <td>The maximum depth of the reflected and transmitted rays that are followed.  The default is 10 if
+ * <tt>maxRecursions</tt> is not specified.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td><tt>termination</tt></td>
+ * <td>How the reflected and transmitted rays are terminated before the maximum depth (see
+ * {@link cip.render.raytrace.material.RayTermination}), either <tt>cutoff</tt> or <tt>roulette</tt>.  With
+ * <tt>cutoff</tt> a ray that can contribute less than the <tt>cutoff</tt> to the pixel is not followed.  With
+ * <tt>roulette</tt> such a ray is followed at random in proportion to its contribution and weighted to make up for the
+ * rays that are not followed, so the image is not darkened, and a higher <tt>cutoff</tt> (0.05 to 0.2) traces far fewer
+ * rays in scenes with a lot of glass.  The default is <tt>cutoff</tt> if <tt>termination</tt> is not specified.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td><tt>cutoff</tt></td>
+ * <td>The contribution to the pixel below which reflected and transmitted rays are terminated.  The default is 0.002 if
+ * <tt>cutoff</tt> is not specified.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td><tt>rayBudget</tt></td>
+ * <td>The average number of reflected and transmitted rays per pixel sample.  The <tt>cutoff</tt> is raised while
+ * rendering to keep the frame near the budget, which bounds the render time of scenes that would otherwise trace
+ * deep ray trees.  The default is 0 (no budget) if <tt>rayBudget</tt> is not specified.
+ * </td>
+ * </tr>
  * </table>
  * </td>
  * </tr>
@@ -133,6 +189,15 @@ import java.util.logging.Logger;
  * </td>
  * </tr>
  * <tr>
+ * <td><tt>Include</tt></td>
+ * <td>Include the library objects of an external library file.  The <tt>file</tt> attribute names the library file, a
+ * relative name is relative to the directory of the including file.  A library file has a <tt>LibraryObjects</tt> root
+ * element with the same content as a <tt>LibraryObjects</tt> element of a scene, and may include other libraries.
+ * <tt>Include</tt> may also be used within a <tt>LibraryObjects</tt> element.  Parsed libraries are shared by all the
+ * frames loaded in the JVM, see {@link cip.render.LibraryCache}.
+ * </td>
+ * </tr>
+ * <tr>
  * <td><tt>DynamicallyLoadedObject</tt></td>
  * <td>These are dynamically loaded objects (see {@link cip.render.DynXmlObjLoader}) that are either geometry
  * implement the {@link cip.render.IDynXmlObject} interface for loading from an XML file, the
@@ -177,20 +242,36 @@ import java.util.logging.Logger;
 public class FrameLoader {
     static final Logger logger = Logger.getLogger(FrameLoader.class.getName());
     static boolean loggingWarning = logger.isLoggable(Level.WARNING);
+    static boolean loggingFine = logger.isLoggable(Level.FINE);
 
-    private static final String XML_TAG_ROOT = "RenderedFrame";
-    private static final String XML_TAG_LIB_OBJ = "LibraryObjects";
-    private static final String XML_TAG_GEOMETRY_REF = "GeometryByRef";
-    private static final String XML_TAG_LIGHT_REF = "LightByRef";
-    private static final String XML_TAG_MATERIAL_REF = "MaterialByRef";
+    static final String XML_TAG_ROOT = "RenderedFrame";
+    static final String XML_TAG_LIB_OBJ = "LibraryObjects";
+    static final String XML_TAG_GEOMETRY_REF = "GeometryByRef";
+    static final String XML_TAG_LIGHT_REF = "LightByRef";
+    static final String XML_TAG_MATERIAL_REF = "MaterialByRef";
+    static final String XML_TAG_INCLUDE = "Include";
 
-    private static final String XML_ATTR_DIMMER = "dimmer";
-    private static final String XML_ATTR_PIXELSAMPLES = "pixelSamples";
-    private static final String XML_ATTR_PIXELKERNEL = "pixelKernel";
+    static final String XML_ATTR_DIMMER = "dimmer";
+    static final String XML_ATTR_PIXELSAMPLES = "pixelSamples";
+    static final String XML_ATTR_PIXELKERNEL = "pixelKernel";
+    static final String XML_ATTR_PRECISION = "precision";
+    static final String XML_ATTR_LIGHTSAMPLES = "lightSamples";
+    static final String XML_ATTR_MAXRECURSIONS = "maxRecursions";
+    static final String XML_ATTR_TERMINATION = "termination";
+    static final String XML_ATTR_CUTOFF = "cutoff";
+    static final String XML_ATTR_RAYBUDGET = "rayBudget";
+    static final String PRECISION_EXACT = "exact";
+    static final String PRECISION_FAST = "fast";
+    static final String TERMINATION_CUTOFF = "cutoff";
+    static final String TERMINATION_ROULETTE = "roulette";
+    // the RenderedFrame attributes, in the order they are added to the content hash
+    static final String[] FRAME_ATTRS = {XML_ATTR_DIMMER, XML_ATTR_PIXELSAMPLES, XML_ATTR_PIXELKERNEL, XML_ATTR_PRECISION,
+            XML_ATTR_LIGHTSAMPLES, XML_ATTR_MAXRECURSIONS, XML_ATTR_TERMINATION, XML_ATTR_CUTOFF, XML_ATTR_RAYBUDGET};
+    static final String XML_ATTR_FILE = "file";
 
     // instance fields
     // The reference list of all loaded and named objects
-    protected LinkedList<INamedObject> m_refObjList = new LinkedList<>();
+    protected NamedObjectRegistry m_refObjList = new NamedObjectRegistry();
     // the camera
     protected IRtCamera m_defCamera = new cip.render.raytrace.camera.PinHole();
     protected IRtCamera m_camera = null;
@@ -208,6 +289,99 @@ public class FrameLoader {
     // pixel sampling
     protected int m_nSamplePerPixel = 1;
     protected int m_nSampleKernel = 1;
+    // the precision of the shading math
+    protected boolean m_bFastMath = false;
+    // the number of lights sampled at each intersection, 0 to evaluate every light
+    protected int m_nLightSamples = 0;
+    // the termination of reflected and transmitted rays
+    protected int m_nMaxRecursions = 10;
+    protected boolean m_bRoulette = false;
+    protected float m_fCutoff = PackageConstants.CUTOFF_CONTRIBUTION;
+    protected float m_fRayBudget = 0.0f;
+    // the directory of the scene description, included libraries are relative to this
+    protected File m_dirBase = null;
+    // the reload tracker, null if this load is not tracked for reuse by a reload
+    private ReloadTracker m_tracker = null;
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The system property that disables the parallel load of runs of independent top-level objects when set to
+     * <tt>false</tt>.
+     */
+    public static final String PROPERTY_PARALLEL_LOAD = "cip.render.parallelLoad";
+    // whether runs of independent top-level objects are loaded in parallel
+    private static volatile boolean s_bParallelLoad =
+            !Boolean.FALSE.toString().equalsIgnoreCase(System.getProperty(PROPERTY_PARALLEL_LOAD));
+    /**
+     * The minimum number of consecutive top-level objects that are loaded in parallel.  Shorter runs are not worth the
+     * overhead and are loaded sequentially.
+     */
+    public static final int PARALLEL_LOAD_MIN_BATCH = 16;
+
+    /**
+     * Test whether runs of independent top-level objects are loaded in parallel.
+     *
+     * @return Returns <tt>true</tt> if runs of independent top-level objects are loaded in parallel, <tt>false</tt> if
+     * all objects are loaded in order.
+     */
+    public static boolean isParallelLoad() {
+        return s_bParallelLoad;
+    }
+
+    /**
+     * Set whether runs of independent top-level objects are loaded in parallel.  The default is set by the
+     * <tt>cip.render.parallelLoad</tt> system property, and is <tt>true</tt> if the property is not specified.
+     *
+     * @param bParallelLoad (boolean) <tt>true</tt> to load runs of independent top-level objects in parallel,
+     *                      <tt>false</tt> to load all objects in order.
+     */
+    public static void setParallelLoad(final boolean bParallelLoad) {
+        s_bParallelLoad = bParallelLoad;
+    }
+
+    /**
+     * Scene description files larger than this are loaded with a {@link StreamingFrameLoader} by {@link #load(String)}.
+     */
+    public static final long STREAMING_THRESHOLD = 16L * 1024L * 1024L;
+
+    /**
+     * Load a scene with the loader best suited to the scene file: a binary scene is read directly, a large scene
+     * description is streamed by a {@link StreamingFrameLoader}, and anything else is parsed into a DOM and loaded.  A
+     * scene loaded into a DOM is tracked so that its objects can be reused by a {@link #reload(String, FrameLoader)}.
+     *
+     * @param strSceneFile The name of the scene description or binary scene file.
+     * @return Returns the loaded scene.
+     * @throws Exception An exception is thrown if the scene could not be loaded.
+     */
+    public static FrameLoader load(@NotNull final String strSceneFile) throws Exception {
+        if (BinaryFrame.isBinaryFrame(strSceneFile)) {
+            return new FrameLoader(strSceneFile);
+        } else if (new File(strSceneFile).length() > STREAMING_THRESHOLD) {
+            return new StreamingFrameLoader(strSceneFile);
+        }
+        return new FrameLoader(strSceneFile, new ReloadTracker(null));
+    }
+
+    /**
+     * Reload a scene that has been edited, reusing the objects of the previous load of the scene whose descriptions did
+     * not change.  An object is reused if its XML description, and the descriptions of all the objects it references, are
+     * identical to the description of an object in the previous load.  Only a scene description loaded into a DOM is
+     * tracked for reuse - binary and streamed scenes are always loaded completely.
+     *
+     * @param strSceneFile The name of the scene description file.
+     * @param previous     The previous load of the scene, <tt>null</tt> if there is none.  The previous load should not be
+     *                     used after the reload as its objects may now be part of the reloaded scene.
+     * @return Returns the loaded scene.
+     * @throws Exception An exception is thrown if the scene could not be loaded.
+     */
+    public static FrameLoader reload(@NotNull final String strSceneFile, @Nullable final FrameLoader previous)
+            throws Exception {
+        if ((new File(strSceneFile).length() > STREAMING_THRESHOLD) || BinaryFrame.isBinaryFrame(strSceneFile)) {
+            return load(strSceneFile);
+        }
+        return new FrameLoader(strSceneFile, new ReloadTracker((null == previous) ? null : previous.m_tracker));
+    }
 
     //-------------------------------------------------------------------------------------------------------------------------
 
@@ -218,12 +392,30 @@ public class FrameLoader {
      * @throws Exception An exception is thrown if the scene could not be loaded.
      */
     public FrameLoader(final String strXmlFile) throws Exception {
+        this(strXmlFile, null);
+    }
+
+    private FrameLoader(final String strXmlFile, @Nullable final ReloadTracker tracker) throws Exception {
 
         m_refObjList.add((INamedObject) m_defCamera);
+        m_dirBase = new File(strXmlFile).getAbsoluteFile().getParentFile();
+
+        // a precompiled binary scene skips the XML parsing entirely, and is never tracked
+        if (BinaryFrame.isBinaryFrame(strXmlFile)) {
+            BinaryFrame.read(this, strXmlFile);
+            return;
+        }
+        m_tracker = tracker;
 
         // load the XML file into a DOM Document, then start parsing.  The DOM document should be a RenderedFrame node
         //  which includes rendering attributes, a camera, light(s), and geometry.
         final javax.xml.parsers.DocumentBuilderFactory dbf = javax.xml.parsers.DocumentBuilderFactory.newInstance();
+        try {
+            // elements of the document are loaded in parallel, so fully build the DOM now rather than on first access
+            dbf.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
+        } catch (final javax.xml.parsers.ParserConfigurationException e) {
+            // not the JDK parser, its DOM is assumed to be fully built
+        }
         final javax.xml.parsers.DocumentBuilder db = dbf.newDocumentBuilder();
         final org.w3c.dom.Document domDoc = db.parse(strXmlFile);
         final Element domDocEl = domDoc.getDocumentElement();
@@ -233,99 +425,223 @@ public class FrameLoader {
             throw new DynXmlObjParseException("The XML document is not a RenderedFrame document.");
         }
         // parse the attributes for render
-        final String strDimmer = domDocEl.getAttribute(XML_ATTR_DIMMER);
-        if (!strDimmer.equals("")) m_fDimmer = Float.parseFloat(strDimmer.trim());
-        final String strSamplesPerPixel = domDocEl.getAttribute(XML_ATTR_PIXELSAMPLES);
-        if (!strSamplesPerPixel.equals("")) m_nSamplePerPixel = Integer.parseInt(strSamplesPerPixel.trim());
-        final String strSamplesKernel = domDocEl.getAttribute(XML_ATTR_PIXELKERNEL);
-        if (!strSamplesKernel.equals("")) m_nSampleKernel = Integer.parseInt(strSamplesKernel.trim());
+        lclSetFrameAttributes(domDocEl::getAttribute);
+        if (null != m_tracker) {
+            for (final String strAttr : FRAME_ATTRS) {
+                m_tracker.addFrameAttributes(domDocEl.getAttribute(strAttr));
+            }
+        }
 
-        // loop through the nodes in the RenderedFrame and build the frame description
+        // loop through the nodes in the RenderedFrame and build the frame description.  Runs of consecutive dynamically
+        //  loaded objects only reference objects loaded before the run, so they are loaded as a parallel batch.
+        final ArrayList<Element> batch = new ArrayList<>();
         Node domNode = domDocEl.getFirstChild();
         while (null != domNode) {
             if (domNode instanceof Element) {
                 final Element domEl = (Element) domNode;
-
                 if (domEl.getTagName().equalsIgnoreCase(DynXmlObjLoader.XML_TAG)) {
-                    // this is a dynamically loaded scene object -- we don't know what it is yet.  we need to load it and
-                    //  then ask it to find out.
-                    final Object obj = DynXmlObjLoader.LoadObject(domEl, m_refObjList);
-                    boolean bCanRender = false;
-                    // now that we have loaded it, lets find out what it is
-                    if (obj instanceof IRtGeometry) {
-                        bCanRender = true;
-                        m_objectList.add((IRtGeometry) obj);
-                        m_objectFlatList.add((IRtGeometry) obj);
-                    }
-                    if (obj instanceof IRtLight) {
-                        bCanRender = true;
-                        m_lightList.add((IRtLight) obj);
-                    }
+                    batch.add(domEl);
+                } else {
+                    lclLoadFrameBatch(batch);
+                    lclLoadFrameElement(domEl);
+                }
+            }
+            domNode = domNode.getNextSibling();
+        }
+        lclLoadFrameBatch(batch);
+        if (null != m_tracker) {
+            m_tracker.endLoad();
+            logger.info(String.format("Scene load: %d objects reused, %d objects loaded.",
+                    m_tracker.getReusedCount(), m_tracker.getLoadedCount()));
+        }
+    }
 
-                    if (obj instanceof IRtBackground) {
-                        bCanRender = true;
-                        if (null == m_background) {
-                            m_background = (IRtBackground) obj;
-                        }
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Load a batch of dynamically loaded RenderedFrame children.  Each object is loaded on the fork/join pool with its own
+    //  overlay of the reference objects loaded before the batch, then the objects, and any named objects they loaded, are
+    //  added to the frame in document order so the loaded frame is the same as a sequential load.  An object that fails
+    //  to load in parallel (most likely because it references an earlier object in the same batch, which is normal scene
+    //  structure, so it is only logged at FINE) is re-loaded in order after the objects before it have been added - a
+    //  real parse error is then thrown by the re-load.
+    private void lclLoadFrameBatch(@NotNull final ArrayList<Element> batch) throws Exception {
+        if (!s_bParallelLoad || (batch.size() < PARALLEL_LOAD_MIN_BATCH)) {
+            for (final Element domEl : batch) {
+                lclLoadFrameElement(domEl);
+            }
+            batch.clear();
+            return;
+        }
+        // the content hashes must be computed in document order, and reused objects are not loaded again
+        final ArrayList<String> hashes = new ArrayList<>(batch.size());
+        final ArrayList<ReloadTracker.LoadedObject> reused = new ArrayList<>(batch.size());
+        for (final Element domEl : batch) {
+            final String strHash = (null == m_tracker) ? null : m_tracker.hashElement(domEl);
+            hashes.add(strHash);
+            reused.add((null == strHash) ? null : m_tracker.takeReusable(strHash));
+        }
+        final ArrayList<Future<NamedObjectRegistry>> futures = new ArrayList<>(batch.size());
+        final ArrayList<Object> objs = new ArrayList<>(batch.size());
+        for (final Element domEl : batch) {
+            final int iObj = objs.size();
+            objs.add(null);
+            if (null != reused.get(iObj)) {
+                futures.add(null);
+                continue;
+            }
+            futures.add(ForkJoinPool.commonPool().submit(() -> {
+                final NamedObjectRegistry localRefObjList = new NamedObjectRegistry(m_refObjList);
+                try {
+                    objs.set(iObj, DynXmlObjLoader.LoadObject(domEl, localRefObjList));
+                } catch (final DynXmlObjParseException e) {
+                    if (loggingFine) {
+                        logger.fine(String.format("Parallel load of <%s name=\"%s\"> failed, loading it in order: %s",
+                                domEl.getTagName(), domEl.getAttribute(DynXmlObjLoader.XML_ATTR_NAME), e.getMessage()));
                     }
+                    return null;
+                }
+                return localRefObjList;
+            }));
+        }
+        // wait for the whole batch before the reference objects are modified
+        final ArrayList<NamedObjectRegistry> loaded = new ArrayList<>(batch.size());
+        for (final Future<NamedObjectRegistry> future : futures) {
+            loaded.add((null == future) ? null : future.get());
+        }
+        for (int iObj = 0; iObj < batch.size(); iObj++) {
+            final ReloadTracker.LoadedObject reusedObj = reused.get(iObj);
+            if (null != reusedObj) {
+                m_refObjList.addAll(reusedObj.m_named);
+                lclAddFrameObject(reusedObj.m_obj);
+            } else if (null == loaded.get(iObj)) {
+                lclAddFrameObject(lclLoadObject(batch.get(iObj), hashes.get(iObj)));
+            } else {
+                m_refObjList.addAll(loaded.get(iObj).getLocalObjects());
+                lclAddFrameObject(objs.get(iObj));
+                if (null != m_tracker) {
+                    m_tracker.track(hashes.get(iObj),
+                            new ReloadTracker.LoadedObject(objs.get(iObj), loaded.get(iObj).getLocalObjects()));
+                }
+            }
+        }
+        batch.clear();
+    }
 
-                    if (obj instanceof IRtCamera) {
-                        bCanRender = true;
-                        if (null == m_camera) {
-                            m_camera = (IRtCamera) obj;
-                        }
-                    }
+    /**
+     * Creates a new instance of <tt>FrameLoader</tt> with no scene loaded.  This is for loaders that extend this loader
+     * and read the scene description differently.
+     */
+    protected FrameLoader() {
+        m_refObjList.add((INamedObject) m_defCamera);
+    }
 
-                    if (!bCanRender) {
-                        if (loggingWarning) {
-                            logger.warning(String.format("Loaded object %s cannot be rendered.", obj.getClass().getName()));
-                        }
-                    }
-                } else if (domEl.getTagName().equalsIgnoreCase(XML_TAG_GEOMETRY_REF)) {
-                    // look through the ref objects for a geometry of this name and add it to the scene
-                    int iObj = -1;
-                    final String strName = domEl.getAttribute(DynXmlObjLoader.XML_ATTR_NAME);
-                    if (!strName.equals("") && (null != m_refObjList)) {
-                        for (iObj = 0; iObj < m_refObjList.size(); iObj++) {
-                            final Object obj = m_refObjList.get(iObj);
-                            if ((obj instanceof IRtGeometry) && ((INamedObject) obj).getName().equals(strName)) {
-                                m_objectList.add((IRtGeometry) obj);
-                                m_objectFlatList.add((IRtGeometry) obj);
-                                break;
-                            }
-                        }
-                    }
-                    if ((iObj < 0) || (iObj >= m_refObjList.size())) {
-                        if (loggingWarning) {
-                            logger.warning(String.format("Referenced geometry \"%s\" cannot be resolved.", strName));
-                        }
-                    }
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Set the frame attributes from the RenderedFrame attribute values - the attribute getter returns an empty value for
+    //  an attribute that is not specified.
+    protected void lclSetFrameAttributes(@NotNull final UnaryOperator<String> attributes) throws DynXmlObjParseException {
+        final String strDimmer = attributes.apply(XML_ATTR_DIMMER);
+        final String strSamplesPerPixel = attributes.apply(XML_ATTR_PIXELSAMPLES);
+        final String strSamplesKernel = attributes.apply(XML_ATTR_PIXELKERNEL);
+        final String strPrecision = attributes.apply(XML_ATTR_PRECISION);
+        final String strLightSamples = attributes.apply(XML_ATTR_LIGHTSAMPLES);
+        final String strMaxRecursions = attributes.apply(XML_ATTR_MAXRECURSIONS);
+        final String strTermination = attributes.apply(XML_ATTR_TERMINATION);
+        final String strCutoff = attributes.apply(XML_ATTR_CUTOFF);
+        final String strRayBudget = attributes.apply(XML_ATTR_RAYBUDGET);
+        if (!strDimmer.equals("")) m_fDimmer = Float.parseFloat(strDimmer.trim());
+        if (!strSamplesPerPixel.equals("")) m_nSamplePerPixel = Integer.parseInt(strSamplesPerPixel.trim());
+        if (!strSamplesKernel.equals("")) m_nSampleKernel = Integer.parseInt(strSamplesKernel.trim());
+        if (!strLightSamples.equals("")) m_nLightSamples = Integer.parseInt(strLightSamples.trim());
+        if (!strMaxRecursions.equals("")) m_nMaxRecursions = Integer.parseInt(strMaxRecursions.trim());
+        if (!strCutoff.equals("")) m_fCutoff = Float.parseFloat(strCutoff.trim());
+        if (!strRayBudget.equals("")) m_fRayBudget = Float.parseFloat(strRayBudget.trim());
+        if (!(m_fCutoff > 0.0f) || (m_fRayBudget < 0.0f) || (m_nMaxRecursions < 0)) {
+            throw new DynXmlObjParseException(String.format(
+                    "The cutoff (%f) must be greater than 0, and the ray budget (%f) and max recursions (%d) cannot be negative.",
+                    m_fCutoff, m_fRayBudget, m_nMaxRecursions));
+        }
+        if (!strTermination.equals("")) {
+            if (strTermination.trim().equalsIgnoreCase(TERMINATION_ROULETTE)) {
+                m_bRoulette = true;
+            } else if (strTermination.trim().equalsIgnoreCase(TERMINATION_CUTOFF)) {
+                m_bRoulette = false;
+            } else {
+                throw new DynXmlObjParseException(String.format("Unrecognized termination \"%s\", expected \"%s\" or \"%s\".",
+                        strTermination.trim(), TERMINATION_CUTOFF, TERMINATION_ROULETTE));
+            }
+        }
+        if (!strPrecision.equals("")) {
+            if (strPrecision.trim().equalsIgnoreCase(PRECISION_FAST)) {
+                m_bFastMath = true;
+            } else if (strPrecision.trim().equalsIgnoreCase(PRECISION_EXACT)) {
+                m_bFastMath = false;
+            } else {
+                throw new DynXmlObjParseException(String.format("Unrecognized precision \"%s\", expected \"%s\" or \"%s\".",
+                        strPrecision.trim(), PRECISION_EXACT, PRECISION_FAST));
+            }
+        }
+    }
 
-                } else if (domEl.getTagName().equalsIgnoreCase(XML_TAG_LIGHT_REF)) {
-                    // look through the ref objects for a light of this name and add it to the scene
-                    int iObj = -1;
-                    final String strName = domEl.getAttribute(DynXmlObjLoader.XML_ATTR_NAME);
-                    if (!strName.equals("") && (null != m_refObjList)) {
-                        for (iObj = 0; iObj < m_refObjList.size(); iObj++) {
-                            final Object obj = m_refObjList.get(iObj);
-                            if ((obj instanceof IRtLight) && ((INamedObject) obj).getName().equals(strName)) {
-                                m_lightList.add((IRtLight) obj);
-                                break;
-                            }
-                        }
-                    }
-                    if ((iObj < 0) || (iObj >= m_refObjList.size())) {
-                        if (loggingWarning) {
-                            logger.warning(String.format("Warning: referenced light \"" + strName + "\" cannot be resolved."));
-                        }
-                    }
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Load an element that is a child of the RenderedFrame into the frame description.
+    protected void lclLoadFrameElement(@NotNull final Element domEl) throws Exception {
+        if (domEl.getTagName().equalsIgnoreCase(DynXmlObjLoader.XML_TAG)) {
+            // this is a dynamically loaded scene object -- we don't know what it is yet.  we need to load it and
+            //  then ask it to find out.
+            lclAddFrameObject(lclLoadObject(domEl, (null == m_tracker) ? null : m_tracker.hashElement(domEl)));
+        } else if (domEl.getTagName().equalsIgnoreCase(XML_TAG_GEOMETRY_REF)) {
+            // look up the geometry of this name and add it to the scene
+            final String strName = domEl.getAttribute(DynXmlObjLoader.XML_ATTR_NAME);
+            final IRtGeometry obj = m_refObjList.lookup(strName, IRtGeometry.class);
+            if (null != obj) {
+                m_objectList.add(obj);
+                m_objectFlatList.add(obj);
+            } else if (loggingWarning) {
+                logger.warning(String.format("Referenced geometry \"%s\" cannot be resolved.", strName));
+            }
+
+        } else if (domEl.getTagName().equalsIgnoreCase(XML_TAG_LIGHT_REF)) {
+            // look up the light of this name and add it to the scene
+            final String strName = domEl.getAttribute(DynXmlObjLoader.XML_ATTR_NAME);
+            final IRtLight obj = m_refObjList.lookup(strName, IRtLight.class);
+            if (null != obj) {
+                m_lightList.add(obj);
+            } else if (loggingWarning) {
+                logger.warning(String.format("Referenced light \"%s\" cannot be resolved.", strName));
+            }
+
+        } else if (domEl.getTagName().equalsIgnoreCase(XML_TAG_LIB_OBJ)) {
+            // This is the start of a section of dynamically loaded reference objects.
+            loadRefObjects(domEl);
 
-                } else if (domEl.getTagName().equalsIgnoreCase(XML_TAG_LIB_OBJ)) {
-                    // This is the start of a section of dynamically loaded reference objects.
-                    loadRefObjects(domEl);
+        } else if (domEl.getTagName().equalsIgnoreCase(XML_TAG_INCLUDE)) {
+            // an external library of reference objects
+            lclLoadInclude(domEl, m_dirBase, new LinkedHashSet<>());
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Load the reference objects from an included library, the parsed library comes from the library cache.  The files
+    //  being included are tracked, outermost first, to catch include cycles.
+    private void lclLoadInclude(@NotNull final Element include, @Nullable final File dirBase,
+                                @NotNull final LinkedHashSet<File> including)
+            throws DynXmlObjParseException {
+        final File file = LibraryCache.beginInclude(including, LibraryCache.resolveInclude(include, dirBase));
+        try {
+            final LibraryCache.Library library = LibraryCache.getLibrary(file);
+            Node domNode = library.m_root.getFirstChild();
+            while (null != domNode) {
+                if (domNode instanceof Element) {
+                    final Element element = (Element) domNode;
+                    if (element.getTagName().equalsIgnoreCase(XML_TAG_INCLUDE)) {
+                        lclLoadInclude(element, file.getParentFile(), including);
+                    } else {
+                        lclLoadRefObject(element);
+                    }
                 }
+                domNode = domNode.getNextSibling();
             }
-            domNode = domNode.getNextSibling();
+        } finally {
+            including.remove(file);
         }
     }
 
@@ -335,14 +651,7 @@ public class FrameLoader {
             while (null != domNode) {
                 if (domNode instanceof Element) {
                     final Element element = (Element) domNode;
-                    if (element.getTagName().equalsIgnoreCase(DynXmlObjLoader.XML_TAG)) {
-                        // if this should be the contained geometry - note, we can load only one, and the last
-                        //  one we encounter is the one that is saved.
-                        final Object obj = DynXmlObjLoader.LoadObject(element, m_refObjList);
-                    } else {
-                        throw new DynXmlObjParseException("Unrecognized Reference Object element <" +
-                                element.getTagName() + ">");
-                    }
+                    lclLoadRefObject(element);
                 }
                 domNode = domNode.getNextSibling();
             }
@@ -355,6 +664,76 @@ public class FrameLoader {
         }
     }
 
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Add a dynamically loaded child of the RenderedFrame to the frame description.
+    protected void lclAddFrameObject(@NotNull final Object obj) {
+        boolean bCanRender = false;
+        // now that we have loaded it, lets find out what it is
+        if (obj instanceof IRtGeometry) {
+            bCanRender = true;
+            m_objectList.add((IRtGeometry) obj);
+            m_objectFlatList.add((IRtGeometry) obj);
+        }
+        if (obj instanceof IRtLight) {
+            bCanRender = true;
+            m_lightList.add((IRtLight) obj);
+        }
+
+        if (obj instanceof IRtBackground) {
+            bCanRender = true;
+            if (null == m_background) {
+                m_background = (IRtBackground) obj;
+            }
+        }
+
+        if (obj instanceof IRtCamera) {
+            bCanRender = true;
+            if (null == m_camera) {
+                m_camera = (IRtCamera) obj;
+            }
+        }
+
+        if (!bCanRender) {
+            if (loggingWarning) {
+                logger.warning(String.format("Loaded object %s cannot be rendered.", obj.getClass().getName()));
+            }
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Load an element that is a child of the LibraryObjects into the reference objects.
+    protected void lclLoadRefObject(@NotNull final Element element) throws DynXmlObjParseException {
+        if (element.getTagName().equalsIgnoreCase(DynXmlObjLoader.XML_TAG)) {
+            lclLoadObject(element, (null == m_tracker) ? null : m_tracker.hashElement(element));
+        } else if (element.getTagName().equalsIgnoreCase(XML_TAG_INCLUDE)) {
+            lclLoadInclude(element, m_dirBase, new LinkedHashSet<>());
+        } else {
+            throw new DynXmlObjParseException("Unrecognized Reference Object element <" +
+                    element.getTagName() + ">");
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Load a dynamically loaded object into the reference objects.  When the load is tracked the object is reused from the
+    //  previous load if there is an object with the same content hash, otherwise it is loaded and tracked along with the
+    //  named objects it added to the reference objects.
+    private Object lclLoadObject(@NotNull final Element element, @Nullable final String strHash)
+            throws DynXmlObjParseException {
+        if (null == strHash) {
+            return DynXmlObjLoader.LoadObject(element, m_refObjList);
+        }
+        final ReloadTracker.LoadedObject reused = m_tracker.takeReusable(strHash);
+        if (null != reused) {
+            m_refObjList.addAll(reused.m_named);
+            return reused.m_obj;
+        }
+        final int nNamed = m_refObjList.getLocalObjects().size();
+        final Object obj = DynXmlObjLoader.LoadObject(element, m_refObjList);
+        final List<INamedObject> localObjs = m_refObjList.getLocalObjects();
+        m_tracker.track(strHash, new ReloadTracker.LoadedObject(obj, localObjs.subList(nNamed, localObjs.size())));
+        return obj;
+    }
+
     /**
      * A method to try to parse an element in an XML description of a geometry or texture as a material. The loader for the
      * geometry or texture can call this method for elements that could be material descriptions or references..
@@ -382,12 +761,9 @@ public class FrameLoader {
         } else if (element.getTagName().equalsIgnoreCase(XML_TAG_MATERIAL_REF)) {
             // a material reference
             final String strName = element.getAttribute(DynXmlObjLoader.XML_ATTR_NAME);
-            if (!strName.equals("") && (null != refObjectList)) {
-                for (final Object obj : refObjectList) {
-                    if ((obj instanceof IRtMaterial) && ((INamedObject) obj).getName().equals(strName)) {
-                        return (IRtMaterial) obj;
-                    }
-                }
+            final IRtMaterial mtl = NamedObjectRegistry.lookup(refObjectList, strName, IRtMaterial.class);
+            if (null != mtl) {
+                return mtl;
             }
             throw new DynXmlObjParseException(String.format("Referenced material \"%s\" was not found.",strName));
         }
@@ -433,6 +809,43 @@ public class FrameLoader {
         }
     }
 
+    /**
+     * Returns the named object loaded with the scene.  Named objects include the library objects and any named top
+     * level object.  If more than one object has the same name, the first loaded object is returned.
+     *
+     * @param strName (String, readonly) The object name.
+     * @return Returns the named object, <tt>null</tt> if there is no object of that name.
+     */
+    public INamedObject getNamedObject(@NotNull final String strName) {
+        return m_refObjList.lookup(strName, INamedObject.class);
+    }
+
+    /**
+     * Returns the content hash of the scene description if the scene description was loaded into a DOM by
+     * {@link #load(String)} or {@link #reload(String, FrameLoader)}.  Two loads with the same content hash loaded the
+     * same scene.
+     *
+     * @return Returns the content hash, <tt>null</tt> if the load was not tracked.
+     */
+    @Nullable
+    public String getContentHash() {
+        return (null == m_tracker) ? null : m_tracker.getSceneHash();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the registry of named objects loaded with the scene.  The registry lookup counters can be used to check
+     * reference resolution during loading.
+     *
+     * @return Returns the named object registry.
+     */
+    public NamedObjectRegistry getNamedObjects() {
+        return m_refObjList;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
     /**
      * Return the camera.  If a camera is not specified in the scene description file, this defaults to a front view through
      * a {@link cip.render.raytrace.camera.PinHole} camera.  If more than one camera is specified in the scene
@@ -534,6 +947,72 @@ public class FrameLoader {
 
     //-------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Returns whether the shading math should use the fast approximations of {@link cip.render.util.FastMath}.  The
+     * default is the exact math if not specified in the scene description.
+     *
+     * @return Returns <tt>true</tt> if the precision is <tt>fast</tt>, <tt>false</tt> if it is <tt>exact</tt>.
+     */
+    public boolean isFastMath() {
+        return m_bFastMath;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the number of lights sampled at each intersection.  The default is 0, every light is evaluated, if not
+     * specified in the scene description.
+     *
+     * @return Returns the number of lights sampled at each intersection, 0 if every light is evaluated.
+     */
+    public int getLightSamples() {
+        return m_nLightSamples;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the maximum depth of the reflected and transmitted rays.  The default is 10 if not specified in the scene
+     * description.
+     *
+     * @return Returns the maximum recursion depth.
+     */
+    public int getMaxRecursions() {
+        return m_nMaxRecursions;
+    }
+
+    /**
+     * Returns whether reflected and transmitted rays are terminated by roulette.  The default is the cutoff if not
+     * specified in the scene description.
+     *
+     * @return Returns <tt>true</tt> if the termination is <tt>roulette</tt>, <tt>false</tt> if it is <tt>cutoff</tt>.
+     */
+    public boolean isRoulette() {
+        return m_bRoulette;
+    }
+
+    /**
+     * Returns the contribution below which reflected and transmitted rays are terminated.  The default is
+     * {@link PackageConstants#CUTOFF_CONTRIBUTION} if not specified in the scene description.
+     *
+     * @return Returns the cutoff contribution.
+     */
+    public float getCutoff() {
+        return m_fCutoff;
+    }
+
+    /**
+     * Returns the average number of reflected and transmitted rays per pixel sample.  The default is 0, no budget, if
+     * not specified in the scene description.
+     *
+     * @return Returns the ray budget, 0 if there is no budget.
+     */
+    public float getRayBudget() {
+        return m_fRayBudget;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
     /**
      * This main is for the express purpose of testing the loader.  It reads an XML scene description then writes it
      * back out from the loaded description.  This tests both the scene loading at a high level, and the
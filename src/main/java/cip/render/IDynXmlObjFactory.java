@@ -0,0 +1,48 @@
+/*
+ * IDynXmlObjFactory.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * This is the interface for a provider of direct (non-reflective) factories for dynamically loaded objects.  Providers
+ * are found by {@link java.util.ServiceLoader}, so a provider is registered by listing the provider class in
+ * <tt>META-INF/services/cip.render.IDynXmlObjFactory</tt>.  {@link DynXmlObjLoader} uses a registered factory for
+ * a class name instead of reflectively instantiating the class.  Classes without a registered factory are still
+ * loaded reflectively.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see DynXmlObjLoader
+ * @since 1.0
+ */
+public interface IDynXmlObjFactory {
+    /**
+     * Register the factories of this provider.
+     *
+     * @param factories (Map, modified) The factory map, from the fully qualified class name as it appears in the
+     *                  <tt>class</tt> attribute of a <tt>DynamicallyLoadedObject</tt>, to the factory for that class.
+     */
+    void registerFactories(@NotNull Map<String, Supplier<Object>> factories);
+}
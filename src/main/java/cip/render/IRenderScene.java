@@ -44,6 +44,52 @@ public interface IRenderScene {
      */
     void loadScene(String strSceneDesc) throws Exception;
 
+    /**
+     * Reload the scene after the scene description file has been edited.  Implementations may reuse the parts of the
+     * current scene that did not change.  The default implementation loads the scene again.
+     *
+     * @param strSceneDesc (String, not null) The scene description file.
+     * @return Returns <tt>true</tt> if the scene changed and should be re-rendered, <tt>false</tt> if the scene did not
+     * change.
+     * @throws Exception Thrown if the scene could not be loaded.
+     */
+    default boolean reloadScene(@NotNull final String strSceneDesc) throws Exception {
+        loadScene(strSceneDesc);
+        return true;
+    }
+
+    /**
+     * Enable relighting - recording what is needed when a frame is rendered so the frame can be relit when the dimmer
+     * changes, rather than rendered again.  This is called before the scene is loaded.  The default implementation does
+     * not support relighting.
+     *
+     * @return Returns <tt>true</tt> if relighting is supported and has been enabled, <tt>false</tt> otherwise.
+     */
+    default boolean enableRelighting() {
+        return false;
+    }
+
+    /**
+     * Get the global dimmer of the lights in the loaded scene.  The default implementation returns 1.
+     *
+     * @return Returns the global dimmer.
+     */
+    default float getDimmer() {
+        return 1.0f;
+    }
+
+    /**
+     * Set the global dimmer of the lights in the loaded scene.  The implementation either relights the rendered frame or
+     * renders the scene again the next time it is drawn.  The default implementation does not support changing the
+     * dimmer.
+     *
+     * @param fDimmer (float) The global dimmer.
+     * @return Returns <tt>true</tt> if the dimmer changed and the scene should be redrawn, <tt>false</tt> otherwise.
+     */
+    default boolean setDimmer(final float fDimmer) {
+        return false;
+    }
+
     /**
      * Get the title that should be used for the displayed rendering window. This method will be called after the
      * {@link #loadScene(String)} method is called. This allows the title to be part of the loaded scene description.
@@ -0,0 +1,279 @@
+/*
+ * LibraryCache.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render;
+
+import cip.render.util.LruCache;
+import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.LinkedHashSet;
+import java.util.logging.Logger;
+
+/**
+ * This is the process-wide cache of parsed library files included into scene descriptions by the <tt>Include</tt>
+ * element (see {@link FrameLoader}).  A library file is a <tt>LibraryObjects</tt> element holding the descriptions of
+ * shared materials, geometry, and lights.  Libraries are keyed by the SHA-256 hash of the file content, so every frame
+ * and every job in the JVM that includes the same library content - from whatever path - shares one parsed DOM, and a
+ * library edited on disk is parsed again the next time it is included.
+ * <p>
+ * Only the parsed description is shared.  Each frame loads its own objects from the description, so frames can modify
+ * their objects (as in animation) without affecting each other.  The parsed description must be treated as read-only.
+ * <p>
+ * The cache is bounded by a size cap in bytes of library file content, least recently included libraries are dropped
+ * first.  The cap is set by the <tt>cip.render.libraryCache.maxMB</tt> system property, default 64.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class LibraryCache {
+    private static final Logger logger = Logger.getLogger(LibraryCache.class.getName());
+
+    /**
+     * The system property specifying the cache size cap in megabytes.
+     */
+    public static final String PROPERTY_MAX_MB = "cip.render.libraryCache.maxMB";
+    /**
+     * The default cache size cap in megabytes.
+     */
+    public static final long DEFAULT_MAX_MB = 64L;
+
+    private static final LruCache<Library> s_libraries = new LruCache<>(LruCache.getMaxBytes(PROPERTY_MAX_MB, DEFAULT_MAX_MB),
+            library -> library.m_nBytes);
+    private static long s_nHits = 0;
+    private static long s_nMisses = 0;
+
+    /**
+     * A parsed library.
+     */
+    public static final class Library {
+        /**
+         * The hex SHA-256 hash of the library file content.
+         */
+        public final String m_strHash;
+        /**
+         * The <tt>LibraryObjects</tt> root element of the library, read-only.
+         */
+        public final Element m_root;
+        private final long m_nBytes;
+
+        Library(@NotNull final String strHash, @NotNull final Element root, final long nBytes) {
+            m_strHash = strHash;
+            m_root = root;
+            m_nBytes = nBytes;
+        }
+    }
+
+    private LibraryCache() {
+    }
+
+    /**
+     * Get a parsed library, parsing it if the library content is not in the cache.
+     *
+     * @param file (File, readonly) The library file.
+     * @return Returns the parsed library.
+     * @throws DynXmlObjParseException Thrown if the library file cannot be read or is not a <tt>LibraryObjects</tt> document.
+     */
+    @NotNull
+    public static Library getLibrary(@NotNull final File file) throws DynXmlObjParseException {
+        final byte[] content;
+        final String strHash;
+        try {
+            content = Files.readAllBytes(file.toPath());
+            strHash = LruCache.toHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (final Throwable t) {
+            throw new DynXmlObjParseException("Cannot read library <" + file.getPath() + ">", t);
+        }
+        synchronized (LibraryCache.class) {
+            final Library library = s_libraries.get(strHash);
+            if (null != library) {
+                s_nHits++;
+                return library;
+            }
+            s_nMisses++;
+        }
+        // parse outside the lock, if two threads race for the same library the first one cached wins
+        final Library library = new Library(strHash, lclParse(file, content), content.length);
+        logger.fine(String.format("Library cache parsed: %s (%d bytes)", file.getPath(), content.length));
+        synchronized (LibraryCache.class) {
+            final Library cached = s_libraries.get(strHash);
+            if (null != cached) {
+                return cached;
+            }
+            s_libraries.put(strHash, library);
+        }
+        return library;
+    }
+
+    /**
+     * Resolve the file named by an <tt>Include</tt> element.  A relative path is relative to the directory of the file
+     * that contains the <tt>Include</tt> element.
+     *
+     * @param include (Element, readonly) The <tt>Include</tt> element.
+     * @param dirBase (File, nullable) The directory of the including file, <tt>null</tt> for the current directory.
+     * @return Returns the included file.
+     * @throws DynXmlObjParseException Thrown if the <tt>Include</tt> element does not name a file.
+     */
+    @NotNull
+    public static File resolveInclude(@NotNull final Element include, final File dirBase) throws DynXmlObjParseException {
+        final String strFile = include.getAttribute(FrameLoader.XML_ATTR_FILE).trim();
+        if (strFile.isEmpty()) {
+            throw new DynXmlObjParseException(String.format("<%s> has no %s attribute", include.getTagName(),
+                    FrameLoader.XML_ATTR_FILE));
+        }
+        final File file = new File(strFile);
+        return (file.isAbsolute() || (null == dirBase)) ? file : new File(dirBase, strFile);
+    }
+
+    /**
+     * Add the content hashes of all the libraries included by a scene description element, and the libraries they
+     * include, to a digest.  This lets a scene hash reflect edits to the libraries it includes.
+     *
+     * @param element (Element, readonly) The scene description element.
+     * @param dirBase (File, nullable) The directory of the scene description file.
+     * @param digest  (MessageDigest, modified) The digest.
+     * @throws DynXmlObjParseException Thrown if an included library cannot be read.
+     */
+    public static void digestIncludes(@NotNull final Element element, final File dirBase,
+                                      @NotNull final MessageDigest digest) throws DynXmlObjParseException {
+        lclDigestIncludes(element, dirBase, digest, new LinkedHashSet<>());
+    }
+
+    /**
+     * Start including a library file.  The files being included are tracked from the outermost include inwards, so an
+     * include cycle is reported as soon as a library includes itself, directly or through other libraries.
+     *
+     * @param including (LinkedHashSet, modified) The canonical library files being included, outermost first.  The
+     *                  library file is added, and must be removed by the caller when the library has been included.
+     * @param file      (File, readonly) The library file.
+     * @return Returns the canonical library file.
+     * @throws DynXmlObjParseException Thrown if the library file is already being included, the message lists the cycle.
+     */
+    @NotNull
+    static File beginInclude(@NotNull final LinkedHashSet<File> including, @NotNull final File file)
+            throws DynXmlObjParseException {
+        File fileCanonical;
+        try {
+            fileCanonical = file.getCanonicalFile();
+        } catch (final IOException e) {
+            fileCanonical = file.getAbsoluteFile();
+        }
+        if (!including.add(fileCanonical)) {
+            final StringBuilder strCycle = new StringBuilder();
+            boolean bCycle = false;
+            for (final File fileIncluding : including) {
+                bCycle |= fileIncluding.equals(fileCanonical);
+                if (bCycle) {
+                    strCycle.append(fileIncluding.getPath()).append(" -> ");
+                }
+            }
+            throw new DynXmlObjParseException("Library include cycle: " + strCycle + fileCanonical.getPath());
+        }
+        return fileCanonical;
+    }
+
+    /**
+     * Get the cache statistics.
+     *
+     * @return Returns a one line summary of the cache hits, misses, and size.
+     */
+    @NotNull
+    public static synchronized String getStatistics() {
+        return String.format("library cache: %d hits, %d misses, %d libraries, %d bytes", s_nHits, s_nMisses,
+                s_libraries.size(), s_libraries.getBytes());
+    }
+
+    /**
+     * Set the cache size cap, and evict libraries if the cache is over the new cap.
+     *
+     * @param nMaxBytes (long) The size cap for the cache in bytes.
+     */
+    public static synchronized void setMaxBytes(final long nMaxBytes) {
+        s_libraries.setMaxBytes(nMaxBytes);
+    }
+
+    /**
+     * Drop all libraries from the cache.
+     */
+    public static synchronized void clear() {
+        s_libraries.clear();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    private static Element lclParse(@NotNull final File file, @NotNull final byte[] content)
+            throws DynXmlObjParseException {
+        try {
+            final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+            try {
+                // the parsed library is read by many threads, so fully build the DOM now rather than on first access
+                dbf.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
+            } catch (final ParserConfigurationException e) {
+                // not the JDK parser, its DOM is assumed to be fully built
+            }
+            final Element root = dbf.newDocumentBuilder()
+                    .parse(new ByteArrayInputStream(content), file.getAbsoluteFile().toURI().toString())
+                    .getDocumentElement();
+            if (!root.getTagName().equalsIgnoreCase(FrameLoader.XML_TAG_LIB_OBJ)) {
+                throw new DynXmlObjParseException(String.format("<%s> is not a %s document", file.getPath(),
+                        FrameLoader.XML_TAG_LIB_OBJ));
+            }
+            return root;
+        } catch (final Throwable t) {
+            if (t instanceof DynXmlObjParseException) {
+                throw (DynXmlObjParseException) t;
+            } else {
+                throw new DynXmlObjParseException("Library <" + file.getPath() + "> parse exception", t);
+            }
+        }
+    }
+
+    private static void lclDigestIncludes(@NotNull final Element element, final File dirBase,
+                                          @NotNull final MessageDigest digest, @NotNull final LinkedHashSet<File> including)
+            throws DynXmlObjParseException {
+        Node node = element.getFirstChild();
+        while (null != node) {
+            if (node instanceof Element) {
+                final Element child = (Element) node;
+                if (child.getTagName().equalsIgnoreCase(FrameLoader.XML_TAG_INCLUDE)) {
+                    final File file = beginInclude(including, resolveInclude(child, dirBase));
+                    try {
+                        final Library library = getLibrary(file);
+                        digest.update(library.m_strHash.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                        lclDigestIncludes(library.m_root, file.getParentFile(), digest, including);
+                    } finally {
+                        including.remove(file);
+                    }
+                } else if (child.getTagName().equalsIgnoreCase(FrameLoader.XML_TAG_LIB_OBJ)) {
+                    lclDigestIncludes(child, dirBase, digest, including);
+                }
+            }
+            node = node.getNextSibling();
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * NamedObjectRegistry.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This is the registry of named objects loaded with a scene - the reference object list that is passed to
+ * {@link IDynXmlObject#loadFromXml(org.w3c.dom.Element, LinkedList)} and used to resolve <tt>GeometryByRef</tt>,
+ * <tt>MaterialByRef</tt>, and <tt>LightByRef</tt> references.  The registry is still the {@link LinkedList} of
+ * loaded objects in load order (so existing code that walks the reference object list keeps working), and it is
+ * also hashed by name so references resolve in constant time.
+ * <p>
+ * Objects are normally only added to the registry, which keeps the name index up to date.  The list may be modified
+ * in any other way (removing, replacing, inserting, or clearing objects, directly or through an iterator or sub-list),
+ * the index is then rebuilt from the list by the next lookup.
+ * <p>
+ * <b>Duplicate names:</b> names are not required to be unique.  A reference resolves to the <i>first</i> registered
+ * object with that name that is of the requested type - exactly as the original linear search through the reference
+ * object list did.  Registering a second object of the same class and name is logged (at <tt>FINE</tt>, generated
+ * scenes commonly repeat names) because the second object can never be resolved by reference.
+ * <p>
+ * A registry may be an overlay on a parent registry.  The overlay list holds only the objects added to the overlay,
+ * references resolve against the parent first and then against the objects added to the overlay.  This is used to
+ * load objects in parallel, each against its own overlay, without modifying or copying the shared parent.  The lookup
+ * counters are shared with the parent so they report the lookups for the whole scene.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see FrameLoader
+ * @since 1.0
+ */
+public class NamedObjectRegistry extends LinkedList<INamedObject> {
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = Logger.getLogger(NamedObjectRegistry.class.getName());
+    private static boolean loggingFine = logger.isLoggable(Level.FINE);
+
+    private final NamedObjectRegistry m_parent;
+    private final HashMap<String, ArrayList<INamedObject>> m_index = new HashMap<>();
+    // the list modification count the index is up to date with, and whether an object was replaced since - replacing
+    //  an object is not counted as a modification of the list
+    private int m_nIndexedModCount = 0;
+    private boolean m_bIndexStale = false;
+    private final AtomicLong m_nLookups;
+    private final AtomicLong m_nProbes;
+    private final AtomicLong m_nMisses;
+
+    /**
+     * Creates a new empty instance of <tt>NamedObjectRegistry</tt>.
+     */
+    public NamedObjectRegistry() {
+        m_parent = null;
+        m_nLookups = new AtomicLong();
+        m_nProbes = new AtomicLong();
+        m_nMisses = new AtomicLong();
+    }
+
+    /**
+     * Creates a new instance of <tt>NamedObjectRegistry</tt> that is an overlay on a parent registry.  The parent must
+     * not be modified while the overlay is in use.
+     *
+     * @param parent (NamedObjectRegistry, readonly) The parent registry.
+     */
+    public NamedObjectRegistry(@NotNull final NamedObjectRegistry parent) {
+        m_parent = parent;
+        m_nLookups = parent.m_nLookups;
+        m_nProbes = parent.m_nProbes;
+        m_nMisses = parent.m_nMisses;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public boolean add(@NotNull final INamedObject obj) {
+        lclIndex();
+        if (loggingFine && !obj.getName().equals(DynXmlObjLoader.DEFAULT_NAME) && lclHasClass(obj.getName(), obj.getClass())) {
+            logger.fine(String.format("Duplicate %s name \"%s\" - references resolve to the first one loaded.",
+                    obj.getClass().getSimpleName(), obj.getName()));
+        }
+        super.add(obj);
+        m_index.computeIfAbsent(obj.getName(), k -> new ArrayList<>(1)).add(obj);
+        m_nIndexedModCount = modCount;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(@NotNull final Collection<? extends INamedObject> objs) {
+        for (final INamedObject obj : objs) {
+            add(obj);
+        }
+        return !objs.isEmpty();
+    }
+
+    @Override
+    public INamedObject set(final int nIndex, @NotNull final INamedObject obj) {
+        m_bIndexStale = true;
+        return super.set(nIndex, obj);
+    }
+
+    @Override
+    public ListIterator<INamedObject> listIterator(final int nIndex) {
+        // every iterator of the list, and of its sub-lists, comes from here - replacing an object through the iterator
+        //  must be seen by the index
+        final ListIterator<INamedObject> it = super.listIterator(nIndex);
+        return new ListIterator<INamedObject>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public INamedObject next() {
+                return it.next();
+            }
+
+            @Override
+            public boolean hasPrevious() {
+                return it.hasPrevious();
+            }
+
+            @Override
+            public INamedObject previous() {
+                return it.previous();
+            }
+
+            @Override
+            public int nextIndex() {
+                return it.nextIndex();
+            }
+
+            @Override
+            public int previousIndex() {
+                return it.previousIndex();
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+
+            @Override
+            public void set(final INamedObject obj) {
+                m_bIndexStale = true;
+                it.set(obj);
+            }
+
+            @Override
+            public void add(final INamedObject obj) {
+                it.add(obj);
+            }
+        };
+    }
+
+    @Override
+    public Object clone() {
+        // the clone needs its own index rather than a shallow copy of this one
+        final NamedObjectRegistry clone = (null == m_parent) ? new NamedObjectRegistry() : new NamedObjectRegistry(m_parent);
+        clone.addAll(this);
+        return clone;
+    }
+
+    /**
+     * Get the objects that have been added to this registry, not including objects in the parent registry.
+     *
+     * @return Returns the objects added to this registry, in the order they were added.
+     */
+    @NotNull
+    public List<INamedObject> getLocalObjects() {
+        return this;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Look up a named object of a specified type.
+     *
+     * @param strName (String, readonly) The object name.
+     * @param type    (Class, readonly) The type the object must be, normally one of the rendering interfaces.
+     * @param <T>     The type of the object.
+     * @return Returns the first registered object with that name and type, <tt>null</tt> if there is none.
+     */
+    @Nullable
+    public <T> T lookup(@NotNull final String strName, @NotNull final Class<T> type) {
+        m_nLookups.incrementAndGet();
+        final INamedObject obj = lclLookup(strName, type);
+        if (null == obj) {
+            m_nMisses.incrementAndGet();
+        }
+        return type.cast(obj);
+    }
+
+    private INamedObject lclLookup(@NotNull final String strName, @NotNull final Class<?> type) {
+        if (null != m_parent) {
+            final INamedObject obj = m_parent.lclLookup(strName, type);
+            if (null != obj) {
+                return obj;
+            }
+        }
+        lclIndex();
+        final ArrayList<INamedObject> named = m_index.get(strName);
+        if (null != named) {
+            for (final INamedObject obj : named) {
+                m_nProbes.incrementAndGet();
+                if (type.isInstance(obj)) {
+                    return obj;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Test whether an object of exactly this class and name has been registered (not counted as a lookup).
+    private boolean lclHasClass(@NotNull final String strName, @NotNull final Class<?> cls) {
+        if ((null != m_parent) && m_parent.lclHasClass(strName, cls)) {
+            return true;
+        }
+        lclIndex();
+        final ArrayList<INamedObject> named = m_index.get(strName);
+        if (null != named) {
+            for (final INamedObject obj : named) {
+                if (obj.getClass() == cls) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Bring the name index up to date with the list.  A parent registry is not modified while it has overlays, so its
+    //  index is only read by the overlay lookups.
+    private void lclIndex() {
+        if (m_bIndexStale || (m_nIndexedModCount != modCount)) {
+            m_index.clear();
+            for (final INamedObject obj : this) {
+                m_index.computeIfAbsent(obj.getName(), k -> new ArrayList<>(1)).add(obj);
+            }
+            m_nIndexedModCount = modCount;
+            m_bIndexStale = false;
+        }
+    }
+
+    /**
+     * Look up a named object of a specified type in a reference object list.  If the list is a registry, this is a hashed
+     * lookup, otherwise the list is searched.  This is the resolution that should be used by all loaders.
+     *
+     * @param refObjectList (LinkedList, nullable, readonly) The reference object list.
+     * @param strName       (String, readonly) The object name.
+     * @param type          (Class, readonly) The type the object must be.
+     * @param <T>           The type of the object.
+     * @return Returns the first object in the list with that name and type, <tt>null</tt> if there is none or the name
+     * is empty.
+     */
+    @Nullable
+    public static <T> T lookup(@Nullable final LinkedList<?> refObjectList, @NotNull final String strName,
+                               @NotNull final Class<T> type) {
+        if (strName.equals("") || (null == refObjectList)) {
+            return null;
+        }
+        if (refObjectList instanceof NamedObjectRegistry) {
+            return ((NamedObjectRegistry) refObjectList).lookup(strName, type);
+        }
+        for (final Object obj : refObjectList) {
+            if (type.isInstance(obj) && (obj instanceof INamedObject) && ((INamedObject) obj).getName().equals(strName)) {
+                return type.cast(obj);
+            }
+        }
+        return null;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get the number of lookups.
+     *
+     * @return Returns the number of lookups performed on this registry (and any overlays).
+     */
+    public long getLookupCount() {
+        return m_nLookups.get();
+    }
+
+    /**
+     * Get the number of objects examined by lookups.  For constant time resolution this should be close to the lookup
+     * count - it grows beyond the lookup count only when names are shared by objects of different types.
+     *
+     * @return Returns the number of objects examined by lookups.
+     */
+    public long getProbeCount() {
+        return m_nProbes.get();
+    }
+
+    /**
+     * Get the number of lookups that did not resolve.
+     *
+     * @return Returns the number of lookups that did not find an object.
+     */
+    public long getMissCount() {
+        return m_nMisses.get();
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * ReloadTracker.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This tracks the objects loaded by a {@link FrameLoader} by the content hash of their XML description so that a reload
+ * of an edited scene description can reuse the objects whose descriptions did not change.
+ * <p>
+ * The content hash of an object description is the hash of the canonical form of the element (tag, sorted attributes,
+ * trimmed text, and children) where every <tt>*ByRef</tt> element also includes the content hash of the description of
+ * the object it references.  So an object is reused only if its description, and the descriptions of everything it
+ * references, are unchanged - editing a library material causes every geometry that references it to be reloaded.
+ * The hash is computed from the XML alone, before any object is loaded, in document order.
+ * <p>
+ * The tracker of one load becomes the previous tracker of the next load.  The previous tracker gives up each loaded
+ * object at most once, so objects are never shared between two places in the reloaded scene.  The previous tracker is
+ * released when the load ends, so a long editing session only holds the objects of the current scene.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see FrameLoader#reload(String, FrameLoader)
+ * @since 1.0
+ */
+class ReloadTracker {
+    private static final String REF_TAG_SUFFIX = "byref";
+
+    /**
+     * A loaded object, and the named objects that were added to the reference object list while it was loaded.
+     */
+    static class LoadedObject {
+        final Object m_obj;
+        final ArrayList<INamedObject> m_named;
+
+        LoadedObject(@NotNull final Object obj, @NotNull final List<INamedObject> named) {
+            m_obj = obj;
+            m_named = new ArrayList<>(named);
+        }
+    }
+
+    private ReloadTracker m_previous;
+    private final HashMap<String, ArrayDeque<LoadedObject>> m_loaded = new HashMap<>();
+    private final HashMap<String, String> m_hashByName = new HashMap<>();
+    private final MessageDigest m_sceneDigest;
+    private String m_strSceneHash = null;
+    private int m_nReused = 0;
+    private int m_nLoaded = 0;
+
+    ReloadTracker(@Nullable final ReloadTracker previous) {
+        m_previous = previous;
+        m_sceneDigest = lclNewDigest();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Add the frame attributes to the scene content hash.
+     *
+     * @param strValues (String[], readonly) The frame attribute values.
+     */
+    void addFrameAttributes(@NotNull final String... strValues) {
+        for (final String strValue : strValues) {
+            m_sceneDigest.update(strValue.trim().getBytes(StandardCharsets.UTF_8));
+            m_sceneDigest.update((byte) 0);
+        }
+    }
+
+    /**
+     * Compute the content hash of an object description and register the names of the objects it describes.  This must be
+     * called for the elements of the scene description in document order.
+     *
+     * @param element (Element, readonly) The object description.
+     * @return Returns the content hash.
+     */
+    @NotNull
+    String hashElement(@NotNull final Element element) {
+        final MessageDigest digest = lclNewDigest();
+        lclDigestElement(digest, element);
+        final String strHash = Base64.getEncoder().encodeToString(digest.digest());
+        lclRegisterNames(element, strHash);
+        m_sceneDigest.update(strHash.getBytes(StandardCharsets.UTF_8));
+        return strHash;
+    }
+
+    /**
+     * Take a reusable object from the previous load.
+     *
+     * @param strHash (String, readonly) The content hash of the object description.
+     * @return Returns the object loaded from an identical description by the previous load, <tt>null</tt> if there is none.
+     */
+    @Nullable
+    LoadedObject takeReusable(@NotNull final String strHash) {
+        if (null != m_previous) {
+            final ArrayDeque<LoadedObject> loaded = m_previous.m_loaded.get(strHash);
+            if ((null != loaded) && !loaded.isEmpty()) {
+                final LoadedObject obj = loaded.poll();
+                track(strHash, obj);
+                m_nReused++;
+                return obj;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Record a loaded object.
+     *
+     * @param strHash (String, readonly) The content hash of the object description.
+     * @param obj     (LoadedObject, readonly) The loaded object.
+     */
+    void track(@NotNull final String strHash, @NotNull final LoadedObject obj) {
+        m_loaded.computeIfAbsent(strHash, k -> new ArrayDeque<>(1)).add(obj);
+        m_nLoaded++;
+    }
+
+    /**
+     * End the load.  The previous load, and every object of it that was not reused, is released.
+     */
+    void endLoad() {
+        m_previous = null;
+    }
+
+    /**
+     * Get the content hash of the whole scene.  Two loads with the same scene hash loaded the same scene.  This must only
+     * be called after the scene has been loaded.
+     *
+     * @return Returns the scene hash.
+     */
+    @NotNull
+    String getSceneHash() {
+        if (null == m_strSceneHash) {
+            m_strSceneHash = Base64.getEncoder().encodeToString(m_sceneDigest.digest());
+        }
+        return m_strSceneHash;
+    }
+
+    int getReusedCount() {
+        return m_nReused;
+    }
+
+    int getLoadedCount() {
+        return m_nLoaded - m_nReused;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    private void lclDigestElement(@NotNull final MessageDigest digest, @NotNull final Element element) {
+        digest.update((byte) '<');
+        digest.update(element.getTagName().getBytes(StandardCharsets.UTF_8));
+        final NamedNodeMap attrs = element.getAttributes();
+        final String[] strAttrs = new String[attrs.getLength()];
+        for (int iAttr = 0; iAttr < strAttrs.length; iAttr++) {
+            final Node attr = attrs.item(iAttr);
+            strAttrs[iAttr] = attr.getNodeName() + '=' + attr.getNodeValue();
+        }
+        Arrays.sort(strAttrs);
+        for (final String strAttr : strAttrs) {
+            digest.update((byte) ' ');
+            digest.update(strAttr.getBytes(StandardCharsets.UTF_8));
+        }
+        if (element.getTagName().toLowerCase().endsWith(REF_TAG_SUFFIX)) {
+            // the description of the referenced object is part of this description
+            final String strRefHash = m_hashByName.get(element.getAttribute(DynXmlObjLoader.XML_ATTR_NAME));
+            digest.update((byte) '#');
+            digest.update(((null == strRefHash) ? "?" : strRefHash).getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) '>');
+        Node node = element.getFirstChild();
+        while (null != node) {
+            if (node instanceof Element) {
+                lclDigestElement(digest, (Element) node);
+            } else if ((node.getNodeType() == Node.TEXT_NODE) || (node.getNodeType() == Node.CDATA_SECTION_NODE)) {
+                final String strText = node.getNodeValue().trim();
+                if (!strText.isEmpty()) {
+                    digest.update(strText.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            node = node.getNextSibling();
+        }
+        digest.update((byte) '/');
+    }
+
+    // Every named object in the description resolves to the description hash.  Names are not required to be unique, a
+    //  name shared by several descriptions resolves to the combined hash of all of them.
+    private void lclRegisterNames(@NotNull final Element element, @NotNull final String strHash) {
+        if (element.getTagName().equalsIgnoreCase(DynXmlObjLoader.XML_TAG)) {
+            final String strName = element.getAttribute(DynXmlObjLoader.XML_ATTR_NAME);
+            if (!strName.isEmpty() && !strName.equals(DynXmlObjLoader.DEFAULT_NAME)) {
+                m_hashByName.merge(strName, strHash, (strOld, strNew) -> {
+                    if (strOld.equals(strNew)) {
+                        return strOld;
+                    }
+                    final MessageDigest digest = lclNewDigest();
+                    digest.update(strOld.getBytes(StandardCharsets.UTF_8));
+                    digest.update(strNew.getBytes(StandardCharsets.UTF_8));
+                    return Base64.getEncoder().encodeToString(digest.digest());
+                });
+            }
+        }
+        Node node = element.getFirstChild();
+        while (null != node) {
+            if (node instanceof Element) {
+                lclRegisterNames((Element) node, strHash);
+            }
+            node = node.getNextSibling();
+        }
+    }
+
+    private static MessageDigest lclNewDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final Exception e) {
+            // SHA-256 is required of every JRE, this should never happen
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -40,7 +40,7 @@ import java.util.logging.StreamHandler;
  * <p>
  * <b>Usage:</b>
  * <pre>
- *     RenderWindow &lt;-r <i>IRenderSceneImpl</i>&gt; &lt;-d <i>sceneDescFile</i>&gt; &lt;-l <i>loggingLevel</i>&gt;
+ *     RenderWindow &lt;-r <i>IRenderSceneImpl</i>&gt; &lt;-d <i>sceneDescFile</i>&gt; &lt;-l <i>loggingLevel</i>&gt; &lt;-w&gt; &lt;-g&gt;
  * </pre>
  * <table border="0" width="90%">
  * <caption style="text-align:left">where:</caption>
@@ -55,8 +55,9 @@ import java.util.logging.StreamHandler;
  * dev environment without worrying about the arguments to the container, set this field to your class when the container is
  * constructed.
  * <p>
- * This container uses only the <tt>loadScene</tt> and <tt>renderScene</tt> methods of the
- * {@link IRenderScene} interface.
+ * This container uses only the <tt>loadScene</tt>, <tt>reloadScene</tt>, and <tt>renderScene</tt> methods of the
+ * {@link IRenderScene} interface, and the relighting methods when the dimmer is changed from the <tt>Lighting</tt>
+ * menu.
  * </td>
  * </tr>
  * <tr>
@@ -69,6 +70,19 @@ import java.util.logging.StreamHandler;
  * The <tt>loadScene</tt> method of the renderer implementation is called only if a scene description file has been specified.
  * </td>
  * </tr>
+ * <tr>
+ * <td style="width:5%">-w</td>
+ * <td>Watch the scene description file while it is being edited.  Whenever the file is saved the <tt>reloadScene</tt>
+ * method of the renderer implementation is called and, if the scene changed, the scene is re-rendered.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td style="width:5%">-g</td>
+ * <td>Enable relighting.  The renderer records a G-buffer as it renders, so changing the dimmer from the
+ * <tt>Lighting</tt> menu relights the rendered frame rather than rendering it again.  Without this, or if the renderer
+ * does not support relighting, changing the dimmer renders the frame again.
+ * </td>
+ * </tr>
  * </table>
  * </td>
  * </tr>
@@ -96,6 +110,7 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
     private final MenuItem m_menuItem_File_Exit;   // the menu file-exit button
     private final MenuItem m_menuItem_File_Load;   // the menu file-load button
     private final MenuItem m_menuItem_File_Save;   // the menu file-save button
+    private final MenuItem m_menuItem_Lighting_Dimmer; // the menu lighting-dimmer button
     private final JFileChooser m_dlgFileLoad = new JFileChooser();
     private final JFileChooser m_dlgFileSave = new JFileChooser();
     private final RenderCanvas m_canvas;               // the rendering canvas (defined at the end of this file)
@@ -106,6 +121,14 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
     // The default scene description file.  Set this to be the scene you are currently working on if you
     //  want this to default to that scene.
     private String m_strRenderSceneDesc;
+    // Whether the scene description file is watched for edits, and the thread watching it.
+    private final boolean m_bWatch;
+    private Thread m_watcher = null;
+    // The time to wait for an editor to finish writing the scene description file before it is reloaded.
+    private static final long WATCH_SETTLE_MS = 100;
+    // Whether the renderer relights the frame when the dimmer changes, and the range of the dimmer slider in percent.
+    private final boolean m_bRelighting;
+    private static final int DIMMER_MAX_PERCENT = 200;
 
     /**
      * This is the <tt>main</tt> that starts the container.
@@ -119,6 +142,8 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
 
         String strRenderSceneImpl = null;
         String strRenderSceneDesc = null;
+        boolean bWatch = false;
+        boolean bRelight = false;
         // parse the commandline arguments
         for (int ix = 0; ix < args.length; ix++) {
             if (args[ix].equalsIgnoreCase("-r") && (ix < (args.length - 1))) {
@@ -127,6 +152,10 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
             } else if (args[ix].equalsIgnoreCase("-d") && (ix < (args.length - 1))) {
                 ix++;
                 strRenderSceneDesc = args[ix];
+            } else if (args[ix].equalsIgnoreCase("-w")) {
+                bWatch = true;
+            } else if (args[ix].equalsIgnoreCase("-g")) {
+                bRelight = true;
             } else if (args[ix].equalsIgnoreCase("-l") && (ix < (args.length - 1))) {
                 ix++;
                 String log_level_str = args[ix];
@@ -162,7 +191,7 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
 
         // start the rendering window
         try {
-            final RenderWindow renderWindow = new RenderWindow(strRenderSceneImpl, strRenderSceneDesc);
+            final RenderWindow renderWindow = new RenderWindow(strRenderSceneImpl, strRenderSceneDesc, bWatch, bRelight);
             renderWindow.setVisible(true);
         } catch (final Throwable t) {
             t.printStackTrace();
@@ -175,10 +204,15 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
      *
      * @param strRenderSceneImpl The {@link IRenderScene} implementation class to use for rendering.
      * @param strRenderSceneDesc The scene description file.
+     * @param bWatch             Whether the scene description file should be watched and reloaded when it is edited.
+     * @param bRelight           Whether the renderer should record what it needs to relight the frame when the dimmer
+     *                           changes.
      * @throws Throwable Thrown if there is a problem during rendering.
      */
-    private RenderWindow(final @Nullable String strRenderSceneImpl, final @Nullable String strRenderSceneDesc) throws Throwable {
+    private RenderWindow(final @Nullable String strRenderSceneImpl, final @Nullable String strRenderSceneDesc,
+                         final boolean bWatch, final boolean bRelight) throws Throwable {
         super("CSE581-render");
+        m_bWatch = bWatch;
         if (null != strRenderSceneImpl) {
             m_strRenderSceneImpl = strRenderSceneImpl;
         }
@@ -202,6 +236,12 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
                     "Cannot render frame as requested, cannot load IRenderScene class %s", m_strRenderSceneImpl));
             throw e;
         }
+        m_bRelighting = bRelight && m_renderScene.enableRelighting();
+        if (bRelight && !m_bRelighting) {
+            System.out.println(String.format(
+                    "%s does not support relighting, the frame will be rendered again when the dimmer changes",
+                    m_strRenderSceneImpl));
+        }
         final long startTime = System.currentTimeMillis();
         if (null != m_strRenderSceneDesc) {
             m_renderScene.loadScene(m_strRenderSceneDesc);
@@ -238,6 +278,11 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
         menuFile.add(m_menuItem_File_Save);
         menuFile.add(new MenuItem("-"));
         menuFile.add(m_menuItem_File_Exit);
+        final Menu menuLighting = new Menu("Lighting");
+        menubar.add(menuLighting);
+        m_menuItem_Lighting_Dimmer = new MenuItem("Dimmer");
+        m_menuItem_Lighting_Dimmer.addActionListener(this);
+        menuLighting.add(m_menuItem_Lighting_Dimmer);
         setMenuBar(menubar);
         // Since the world is so simple, this is the listener for all the window events
         addWindowListener(this);
@@ -248,13 +293,86 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
         m_canvas = new RenderCanvas(m_graphicsConfig, m_renderScene);
         add(m_canvas, BorderLayout.CENTER);
 
+        lclWatchScene();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Start watching the current scene description file (if watching is enabled), replacing any previous watcher.  The
+    //  watcher watches the directory of the file because that is what the WatchService supports, and editors often save
+    //  by replacing the file rather than writing it.  The reload is done on the event dispatch thread so it is never done
+    //  while the canvas is being painted.
+    private void lclWatchScene() {
+        if (null != m_watcher) {
+            m_watcher.interrupt();
+            m_watcher = null;
+        }
+        if (!m_bWatch || (null == m_strRenderSceneDesc)) {
+            return;
+        }
+        final String strSceneDesc = m_strRenderSceneDesc;
+        final java.nio.file.Path path = java.nio.file.Paths.get(strSceneDesc).toAbsolutePath();
+        m_watcher = new Thread(() -> {
+            try (final java.nio.file.WatchService watchService = path.getFileSystem().newWatchService()) {
+                path.getParent().register(watchService, java.nio.file.StandardWatchEventKinds.ENTRY_CREATE,
+                        java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY);
+                while (!Thread.currentThread().isInterrupted()) {
+                    final java.nio.file.WatchKey key = watchService.take();
+                    boolean bChanged = false;
+                    for (final java.nio.file.WatchEvent<?> event : key.pollEvents()) {
+                        if (path.getFileName().equals(event.context())) {
+                            bChanged = true;
+                        }
+                    }
+                    key.reset();
+                    if (bChanged) {
+                        // let the editor finish writing, and collapse the burst of events from a single save
+                        Thread.sleep(WATCH_SETTLE_MS);
+                        final java.nio.file.WatchKey keyBurst = watchService.poll();
+                        if (null != keyBurst) {
+                            keyBurst.pollEvents();
+                            keyBurst.reset();
+                        }
+                        EventQueue.invokeLater(() -> lclReloadScene(strSceneDesc));
+                    }
+                }
+            } catch (final InterruptedException | java.nio.file.ClosedWatchServiceException e) {
+                // the watcher has been replaced or the window closed
+            } catch (final Throwable t) {
+                logger.warning(String.format("Cannot watch scene description <%s>: %s", strSceneDesc, t.getMessage()));
+            }
+        }, "SceneWatcher");
+        m_watcher.setDaemon(true);
+        m_watcher.start();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    private void lclReloadScene(@NotNull final String strSceneDesc) {
+        if (!strSceneDesc.equals(m_strRenderSceneDesc)) {
+            // a different scene has been loaded since the edit
+            return;
+        }
+        try {
+            final long startTime = System.currentTimeMillis();
+            final boolean bChanged = m_renderScene.reloadScene(strSceneDesc);
+            System.out.println(String.format("Frame reload time: %dms%s", System.currentTimeMillis() - startTime,
+                    bChanged ? "" : " (unchanged)"));
+            if (bChanged) {
+                m_canvas.repaint(0, 0, m_canvas.getWidth(), m_canvas.getHeight());
+            }
+        } catch (final Throwable t) {
+            // most likely the scene is being edited and is not valid yet, keep the current scene until the next save
+            System.out.println(String.format("error reloading scene description <%s>: %s", strSceneDesc, t.getMessage()));
+        }
     }
 
     //-------------------------------------------------------------------------------------------------------------------------
     // This is the thing that really closes the app - we dispose of the app window.  We do it either in response to the
     //  menu command or to the close button on the main frame.
     private void exitRenderWindow() {
-        // closing things - dispose of the frame (window) and print object stats
+        // closing things - stop watching the scene, dispose of the frame (window) and print object stats
+        if (null != m_watcher) {
+            m_watcher.interrupt();
+        }
         dispose();
     }
 
@@ -271,6 +389,7 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
                 m_renderScene.loadScene(m_strRenderSceneDesc);
                 System.out.println(String.format("Frame load time: %dms", System.currentTimeMillis() - startTime));
                 m_canvas.repaint(0, 0, m_canvas.getWidth(), m_canvas.getHeight());
+                lclWatchScene();
             } catch (final Throwable t) {
                 System.out.println(String.format("error opening scene description <%s%c%s>", m_dlgFileLoad.getCurrentDirectory(),
                         java.io.File.separatorChar, m_dlgFileLoad.getSelectedFile().getName()));
@@ -305,6 +424,29 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
         }
     }
 
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Adjust the dimmer with a slider.  When the frame is relit the dimmer follows the slider as it is dragged, otherwise
+    //  the frame is rendered again when the slider is released.
+    private void adjustDimmer() {
+        final int nDimmer = Math.round(m_renderScene.getDimmer() * 100.0f);
+        final JSlider slider = new JSlider(0, Math.max(DIMMER_MAX_PERCENT, nDimmer), nDimmer);
+        slider.setMajorTickSpacing(50);
+        slider.setPaintTicks(true);
+        slider.setPaintLabels(true);
+        slider.addChangeListener(event -> {
+            if (m_bRelighting || !slider.getValueIsAdjusting()) {
+                final long startTime = System.currentTimeMillis();
+                if (m_renderScene.setDimmer(slider.getValue() / 100.0f)) {
+                    if (m_bRelighting) {
+                        System.out.println(String.format("Frame relight time: %dms", System.currentTimeMillis() - startTime));
+                    }
+                    m_canvas.repaint(0, 0, m_canvas.getWidth(), m_canvas.getHeight());
+                }
+            }
+        });
+        JOptionPane.showMessageDialog(this, slider, "Dimmer (percent)", JOptionPane.PLAIN_MESSAGE);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // ActionListener interface implementation                                                                               //
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -324,6 +466,8 @@ public class RenderWindow extends Frame implements ActionListener, WindowListene
             loadEnvironment();
         } else if (src == m_menuItem_File_Save) {
             saveImage();
+        } else if (src == m_menuItem_Lighting_Dimmer) {
+            adjustDimmer();
         }
     }
 
@@ -0,0 +1,148 @@
+/*
+ * StreamingFrameLoader.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render;
+
+import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+/**
+ * This is a {@link FrameLoader} that streams the scene description rather than building a DOM of the entire scene
+ * description before any objects are loaded.  The scene description is read with an {@link XMLStreamReader}, and each
+ * child of the <tt>RenderedFrame</tt> (or of the <tt>LibraryObjects</tt>) is built as a small stand-alone DOM
+ * fragment, loaded exactly as {@link FrameLoader} would load it, and then discarded.  Existing {@link IDynXmlObject}
+ * implementations load unchanged, and the peak memory during loading is the loaded scene plus the largest single
+ * top-level object description rather than the loaded scene plus the DOM of the whole file.
+ * <p>
+ * Use {@link FrameLoader#load(String)} to get a streaming loader automatically for large scene description files.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see FrameLoader
+ * @since 1.0
+ */
+public class StreamingFrameLoader extends FrameLoader {
+
+    private final DocumentBuilder m_db;
+
+    /**
+     * Creates a new instance of <tt>StreamingFrameLoader</tt> which is initialized to the described scene.
+     *
+     * @param strXmlFile The name of the scene description file.  See {@link FrameLoader} for format information.
+     * @throws Exception An exception is thrown if the scene could not be loaded.
+     */
+    public StreamingFrameLoader(@NotNull final String strXmlFile) throws Exception {
+        m_db = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        m_dirBase = new java.io.File(strXmlFile).getAbsoluteFile().getParentFile();
+        try (final InputStream in = new BufferedInputStream(new FileInputStream(strXmlFile))) {
+            final XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+            final XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                // find the root element - it should be a RenderedFrame
+                while (reader.hasNext() && (reader.next() != XMLStreamConstants.START_ELEMENT)) {
+                }
+                if (!reader.isStartElement() || !reader.getLocalName().equalsIgnoreCase(XML_TAG_ROOT)) {
+                    throw new DynXmlObjParseException("The XML document is not a RenderedFrame document.");
+                }
+                lclSetFrameAttributes(strName -> getAttribute(reader, strName));
+
+                // stream through the children of the RenderedFrame and build the frame description
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    if (reader.getLocalName().equalsIgnoreCase(XML_TAG_LIB_OBJ)) {
+                        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                            lclLoadRefObject(readFragment(reader));
+                        }
+                    } else {
+                        lclLoadFrameElement(readFragment(reader));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final Throwable t) {
+            if (t instanceof DynXmlObjParseException) {
+                throw (DynXmlObjParseException) t;
+            } else {
+                throw new DynXmlObjParseException("Error streaming <" + strXmlFile + ">", t);
+            }
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Build a stand-alone DOM fragment for the element the reader is positioned at.  On return the reader is positioned
+    //  at the end of that element.
+    private Element readFragment(@NotNull final XMLStreamReader reader) throws Exception {
+        final Document doc = m_db.newDocument();
+        final Element fragmentEl = createElement(doc, reader);
+        doc.appendChild(fragmentEl);
+        Element currentEl = fragmentEl;
+        int nDepth = 1;
+        while (nDepth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT: {
+                    final Element childEl = createElement(doc, reader);
+                    currentEl.appendChild(childEl);
+                    currentEl = childEl;
+                    nDepth++;
+                    break;
+                }
+                case XMLStreamConstants.END_ELEMENT:
+                    if (--nDepth > 0) {
+                        currentEl = (Element) currentEl.getParentNode();
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                    if (!reader.isWhiteSpace()) {
+                        currentEl.appendChild(doc.createTextNode(reader.getText()));
+                    }
+                    break;
+                default:
+                    // comments, processing instructions, and ignorable whitespace are not part of the fragment
+                    break;
+            }
+        }
+        return fragmentEl;
+    }
+
+    private static Element createElement(@NotNull final Document doc, @NotNull final XMLStreamReader reader) {
+        final Element element = doc.createElement(reader.getLocalName());
+        for (int iAttr = 0; iAttr < reader.getAttributeCount(); iAttr++) {
+            element.setAttribute(reader.getAttributeLocalName(iAttr), reader.getAttributeValue(iAttr));
+        }
+        return element;
+    }
+
+    private static String getAttribute(@NotNull final XMLStreamReader reader, @NotNull final String strName) {
+        final String strValue = reader.getAttributeValue(null, strName);
+        return (null == strValue) ? "" : strValue;
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * GBuffer.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace;
+
+import cip.render.raytrace.interfaces.IRtBackground;
+import cip.render.raytrace.interfaces.IRtGeometry;
+import cip.render.raytrace.interfaces.IRtLight;
+import cip.render.raytrace.interfaces.IRtMaterial;
+import cip.render.util2d.Point2f;
+import cip.render.util3d.Bv3fIntersection;
+import cip.render.util3d.Line3f;
+import cip.render.util3d.Point3f;
+import cip.render.util3d.Vector3f;
+import cip.render.utilColour.RGBf;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A G-buffer (geometry buffer) recording the primary hit of every pixel of a rendered frame so the frame can be relit
+ * when the dimmer or the light intensities change, without tracing any rays.  For each pixel the G-buffer holds the
+ * surface description of the primary hit - the position, normals, material, and natural and texture coordinates - and
+ * whether each light was shadowed.  Relighting loads the hit back into an intersection and evaluates the material
+ * against the lights with the shadow tests answered from the recorded visibility, so only the material and light terms
+ * are evaluated.
+ * <p>
+ * The reflected and transmitted colour needs rays, so it is recorded rather than evaluated.  The colour of the pixel
+ * less the colour of the primary hit evaluated with no recursions is split into the part lit by the local lights and
+ * the part that is not - the background and the lights that are not local, like ambient lights, which the dimmer does
+ * not change - by tracing the reflected and transmitted rays again with only the lights that are not local.  Relighting
+ * scales the lit part by the change in the light scale, the dimmer times the average dimmer of the local lights.  A
+ * frame relit for a new dimmer is the frame that would be rendered; when individual lights change, the illumination of
+ * the primary hits is exact and the reflected and transmitted illumination follows the average change of the lights.
+ * <p>
+ * The G-buffer is filled by the rendering threads, each pixel by one thread.  Relighting evaluates the pixels on the
+ * common fork-join pool, and must not be done while the frame is being rendered.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see RenderXml
+ * @since 1.0
+ */
+final class GBuffer {
+    // the floats recorded for each pixel: the distance, point, normal, vector to the eye, object point, object normal
+    private static final int GEOMETRY = 16;
+    // the natural coordinates: the point and the UV vectors
+    private static final int NATURAL = 9;
+    // the texture coordinates: the point and the texture vectors
+    private static final int TEXTURE = 12;
+    private static final byte FLAG_NATURAL = 1;
+    private static final byte FLAG_TEXTURE = 2;
+    // the rows relit by each task
+    private static final int RELIGHT_ROWS = 16;
+
+    private final int m_nWidth;
+    private final int m_nHeight;
+    private final IRtLight[] m_lights;                  // the rendered lights
+    private final IRtLight[] m_staticLights;            // the rendered lights that are not local
+    private final IRtGeometry[] m_rtObjects;            // the scene geometry
+    private final IRtBackground m_bkg;
+    private final int m_nMaxRecursions;
+    private final float m_fLightScale;                  // the light scale the frame was rendered with
+    private final IdentityHashMap<IRtLight, Integer> m_lightIndex = new IdentityHashMap<>();
+    private final int m_nWords;                         // the visibility words for each pixel
+    // The primary hits.  The material is null if the pixel did not hit anything, or could not be recorded.
+    private final IRtMaterial[] m_mtl;
+    private final IRtGeometry[] m_rtObj;
+    private final byte[] m_nFlags;
+    private final float[] m_fGeometry;
+    private final float[] m_fNatural;
+    private final float[] m_fTexture;
+    // a bit for each light, set if the light was not shadowed
+    private final long[] m_nVisible;
+    // the reflected and transmitted colour that is not lit by the local lights, and the part that is
+    private final float[] m_fStatic;
+    private final float[] m_fLit;
+
+    /**
+     * Creates a new instance of <tt>GBuffer</tt> for a frame about to be rendered.
+     *
+     * @param nWidth         (int) The pixel width of the frame.
+     * @param nHeight        (int) The pixel height of the frame.
+     * @param lights         (IRtLight[], readonly) The lights the frame is rendered with.
+     * @param staticLights   (IRtLight[], readonly) The lights in <tt>lights</tt> that are not local.
+     * @param rtObjects      (IRtGeometry[], readonly) The scene geometry.
+     * @param bkg            (IRtBackground, readonly) The scene background.
+     * @param nMaxRecursions (int) The maximum recursions the frame is rendered with.
+     * @param fLightScale    (float) The light scale the frame is rendered with, the dimmer times the average dimmer of
+     *                       the local lights.
+     */
+    GBuffer(final int nWidth, final int nHeight, @NotNull final IRtLight[] lights, @NotNull final IRtLight[] staticLights,
+            @NotNull final IRtGeometry[] rtObjects, @NotNull final IRtBackground bkg, final int nMaxRecursions,
+            final float fLightScale) {
+        final int nPixels = nWidth * nHeight;
+        m_nWidth = nWidth;
+        m_nHeight = nHeight;
+        m_lights = lights;
+        m_staticLights = staticLights;
+        m_rtObjects = rtObjects;
+        m_bkg = bkg;
+        m_nMaxRecursions = nMaxRecursions;
+        m_fLightScale = fLightScale;
+        for (int iLgt = 0; iLgt < lights.length; iLgt++) {
+            m_lightIndex.put(lights[iLgt], iLgt);
+        }
+        m_nWords = (lights.length + 63) >>> 6;
+        m_mtl = new IRtMaterial[nPixels];
+        m_rtObj = new IRtGeometry[nPixels];
+        m_nFlags = new byte[nPixels];
+        m_fGeometry = new float[nPixels * GEOMETRY];
+        m_fNatural = new float[nPixels * NATURAL];
+        m_fTexture = new float[nPixels * TEXTURE];
+        m_nVisible = new long[nPixels * m_nWords];
+        m_fStatic = new float[nPixels * 3];
+        m_fLit = new float[nPixels * 3];
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Record the primary hit of a pixel.
+     *
+     * @param nX      (int) The X location of the pixel in the frame.
+     * @param nY      (int) The Y location of the pixel in the frame.
+     * @param hit     (RayIntersection, readonly) The primary hit as it was before the material was evaluated.
+     * @param rgb     (RGBf, readonly) The colour of the pixel before it was clamped.
+     * @param shadows (Shadows, modified) The shadow tests of the rendering thread.
+     */
+    void record(final int nX, final int nY, @NotNull final RayIntersection hit, @NotNull final RGBf rgb,
+                @NotNull final Shadows shadows) {
+        final int nPixel = (nY * m_nWidth) + nX;
+        final int nMark = hit.mark();
+        boolean bRecorded = false;
+        try {
+            final RayIntersection intersection = hit.borrowIntersection();
+            final Vector3f vFromEye = hit.borrowVector();
+            final RGBf rgbDirect = hit.borrowRGB();
+            final RGBf rgbStatic = hit.borrowRGB();
+            final RGBf rgbStaticDirect = hit.borrowRGB();
+            lclSave(nPixel, hit);
+            // the colour of the primary hit without reflection and transmission, recording the shadow tests
+            shadows.m_nPixel = nPixel;
+            shadows.m_bRecord = true;
+            lclLoad(nPixel, intersection, vFromEye);
+            intersection.m_mtl.getColor(rgbDirect, intersection, m_lights, shadows.m_rtShadows, m_bkg, 0, 0, 0);
+            shadows.m_bRecord = false;
+            if ((rgb.r != rgbDirect.r) || (rgb.g != rgbDirect.g) || (rgb.b != rgbDirect.b)) {
+                // there is reflected or transmitted colour - split it into the part lit by the local lights and the part
+                //  that is not
+                lclLoad(nPixel, intersection, vFromEye);
+                intersection.m_mtl.getColor(rgbStatic, intersection, m_staticLights, m_rtObjects, m_bkg, m_nMaxRecursions, 0, 0);
+                lclLoad(nPixel, intersection, vFromEye);
+                intersection.m_mtl.getColor(rgbStaticDirect, intersection, m_staticLights, m_rtObjects, m_bkg, 0, 0, 0);
+                final int nRGB = nPixel * 3;
+                m_fStatic[nRGB] = rgbStatic.r - rgbStaticDirect.r;
+                m_fStatic[nRGB + 1] = rgbStatic.g - rgbStaticDirect.g;
+                m_fStatic[nRGB + 2] = rgbStatic.b - rgbStaticDirect.b;
+                m_fLit[nRGB] = (rgb.r - rgbDirect.r) - m_fStatic[nRGB];
+                m_fLit[nRGB + 1] = (rgb.g - rgbDirect.g) - m_fStatic[nRGB + 1];
+                m_fLit[nRGB + 2] = (rgb.b - rgbDirect.b) - m_fStatic[nRGB + 2];
+            }
+            bRecorded = true;
+        } finally {
+            if (!bRecorded) {
+                m_mtl[nPixel] = null;
+            }
+            shadows.m_bRecord = false;
+            hit.reset(nMark);
+        }
+    }
+
+    /**
+     * Relight the frame for the current intensities of the lights.  The pixels that do not have a recorded primary hit
+     * keep their colour.
+     *
+     * @param bi          (BufferedImage, modified) The rendered frame, relit in place.
+     * @param fLightScale (float) The new light scale, the dimmer times the average dimmer of the local lights.
+     * @throws InterruptedException Thrown if relighting was interrupted, the frame is partly relit.
+     * @throws ExecutionException   Thrown if relighting failed, the frame is partly relit.
+     */
+    void relight(@NotNull final BufferedImage bi, final float fLightScale) throws InterruptedException, ExecutionException {
+        final int[] nRGB = bi.getRGB(0, 0, m_nWidth, m_nHeight, null, 0, m_nWidth);
+        final float fLitScale = (0.0f == m_fLightScale) ? 0.0f : fLightScale / m_fLightScale;
+        final ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int nY = 0; nY < m_nHeight; nY += RELIGHT_ROWS) {
+            final int nFrom = nY * m_nWidth;
+            final int nTo = Math.min(nY + RELIGHT_ROWS, m_nHeight) * m_nWidth;
+            futures.add(ForkJoinPool.commonPool().submit(() -> lclRelight(nRGB, nFrom, nTo, fLitScale)));
+        }
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        bi.setRGB(0, 0, m_nWidth, m_nHeight, nRGB, 0, m_nWidth);
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Relight the pixels nFrom to nTo.
+    private void lclRelight(@NotNull final int[] nRGB, final int nFrom, final int nTo, final float fLitScale) {
+        final RayIntersection intersection = new RayIntersection();
+        final Vector3f vFromEye = new Vector3f();
+        final RGBf rgb = new RGBf();
+        final Shadows shadows = new Shadows(this);
+        for (int nPixel = nFrom; nPixel < nTo; nPixel++) {
+            if (null == m_mtl[nPixel]) {
+                continue;
+            }
+            try {
+                shadows.m_nPixel = nPixel;
+                lclLoad(nPixel, intersection, vFromEye);
+                intersection.m_mtl.getColor(rgb, intersection, m_lights, shadows.m_rtShadows, m_bkg, 0, 0, 0);
+                final int nColour = nPixel * 3;
+                rgb.r += m_fStatic[nColour] + (m_fLit[nColour] * fLitScale);
+                rgb.g += m_fStatic[nColour + 1] + (m_fLit[nColour + 1] * fLitScale);
+                rgb.b += m_fStatic[nColour + 2] + (m_fLit[nColour + 2] * fLitScale);
+                rgb.clamp();
+                nRGB[nPixel] = new Color(rgb.r, rgb.g, rgb.b).getRGB();
+            } catch (final Throwable t) {
+                // something bad happened - color code this pixel yellow
+                t.printStackTrace();
+                nRGB[nPixel] = Color.YELLOW.getRGB();
+            }
+        }
+    }
+
+    // Save the primary hit of a pixel.
+    private void lclSave(final int nPixel, @NotNull final RayIntersection hit) {
+        final int nGeo = nPixel * GEOMETRY;
+        m_fGeometry[nGeo] = hit.m_fDist;
+        lclSave(m_fGeometry, nGeo + 1, hit.m_pt);
+        lclSave(m_fGeometry, nGeo + 4, hit.m_vNormal);
+        lclSave(m_fGeometry, nGeo + 7, hit.m_vToEye);
+        lclSave(m_fGeometry, nGeo + 10, hit.m_ptObject);
+        lclSave(m_fGeometry, nGeo + 13, hit.m_vObjNormal);
+        byte nFlags = 0;
+        if (hit.m_bNatural) {
+            final int nNat = nPixel * NATURAL;
+            lclSave(m_fNatural, nNat, hit.m_ptNatural);
+            lclSave(m_fNatural, nNat + 3, hit.m_vNatural[0]);
+            lclSave(m_fNatural, nNat + 6, hit.m_vNatural[1]);
+            nFlags |= FLAG_NATURAL;
+        }
+        if (hit.m_bTexture) {
+            final int nTex = nPixel * TEXTURE;
+            lclSave(m_fTexture, nTex, hit.m_ptTexture);
+            lclSave(m_fTexture, nTex + 3, hit.m_vTexture[0]);
+            lclSave(m_fTexture, nTex + 6, hit.m_vTexture[1]);
+            lclSave(m_fTexture, nTex + 9, hit.m_vTexture[2]);
+            nFlags |= FLAG_TEXTURE;
+        }
+        m_nFlags[nPixel] = nFlags;
+        m_rtObj[nPixel] = hit.m_rtObj;
+        m_mtl[nPixel] = hit.m_mtl;
+        for (int nWord = nPixel * m_nWords; nWord < ((nPixel + 1) * m_nWords); nWord++) {
+            m_nVisible[nWord] = 0L;
+        }
+    }
+
+    private static void lclSave(@NotNull final float[] f, final int n, @NotNull final Point3f pt) {
+        f[n] = pt.x;
+        f[n + 1] = pt.y;
+        f[n + 2] = pt.z;
+    }
+
+    private static void lclSave(@NotNull final float[] f, final int n, @NotNull final Vector3f v) {
+        f[n] = v.i;
+        f[n + 1] = v.j;
+        f[n + 2] = v.k;
+    }
+
+    // Load the primary hit of a pixel into an intersection, as it was before the material was evaluated.
+    private void lclLoad(final int nPixel, @NotNull final RayIntersection intersection, @NotNull final Vector3f vFromEye) {
+        final float[] f = m_fGeometry;
+        final int nGeo = nPixel * GEOMETRY;
+        intersection.initialize(vFromEye.setValue(-f[nGeo + 7], -f[nGeo + 8], -f[nGeo + 9]));
+        intersection.m_fDist = f[nGeo];
+        intersection.m_pt.setValue(f[nGeo + 1], f[nGeo + 2], f[nGeo + 3]);
+        intersection.m_vNormal.setValue(f[nGeo + 4], f[nGeo + 5], f[nGeo + 6]);
+        intersection.m_ptObject.setValue(f[nGeo + 10], f[nGeo + 11], f[nGeo + 12]);
+        intersection.m_vObjNormal.setValue(f[nGeo + 13], f[nGeo + 14], f[nGeo + 15]);
+        if (intersection.m_bNatural = (0 != (m_nFlags[nPixel] & FLAG_NATURAL))) {
+            final int nNat = nPixel * NATURAL;
+            intersection.m_ptNatural.setValue(m_fNatural[nNat], m_fNatural[nNat + 1], m_fNatural[nNat + 2]);
+            intersection.m_vNatural[0].setValue(m_fNatural[nNat + 3], m_fNatural[nNat + 4], m_fNatural[nNat + 5]);
+            intersection.m_vNatural[1].setValue(m_fNatural[nNat + 6], m_fNatural[nNat + 7], m_fNatural[nNat + 8]);
+        }
+        if (intersection.m_bTexture = (0 != (m_nFlags[nPixel] & FLAG_TEXTURE))) {
+            final int nTex = nPixel * TEXTURE;
+            intersection.m_ptTexture.setValue(m_fTexture[nTex], m_fTexture[nTex + 1], m_fTexture[nTex + 2]);
+            intersection.m_vTexture[0].setValue(m_fTexture[nTex + 3], m_fTexture[nTex + 4], m_fTexture[nTex + 5]);
+            intersection.m_vTexture[1].setValue(m_fTexture[nTex + 6], m_fTexture[nTex + 7], m_fTexture[nTex + 8]);
+            intersection.m_vTexture[2].setValue(m_fTexture[nTex + 9], m_fTexture[nTex + 10], m_fTexture[nTex + 11]);
+        }
+        intersection.m_mtl = m_mtl[nPixel];
+        intersection.m_rtObj = m_rtObj[nPixel];
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The shadow tests of a rendering or relighting thread.  This is passed to the material as the only scene geometry
+     * when the primary hit is evaluated, and either tests the scene geometry for shadows and records the visibility of
+     * each light, or answers from the recorded visibility.  A light that is not one of the rendered lights is always
+     * tested against the scene geometry.
+     */
+    static final class Shadows implements IRtGeometry {
+        private final GBuffer m_gBuffer;
+        private final IRtGeometry[] m_rtShadows = {this};
+        private int m_nPixel;
+        private boolean m_bRecord = false;
+
+        /**
+         * Creates a new instance of <tt>Shadows</tt> for a thread rendering into or relighting from a G-buffer.
+         *
+         * @param gBuffer (GBuffer, readonly) The G-buffer.
+         */
+        Shadows(@NotNull final GBuffer gBuffer) {
+            m_gBuffer = gBuffer;
+        }
+
+        @NotNull
+        @Override
+        public String getType() {
+            return "G-buffer shadows";
+        }
+
+        @Override
+        public boolean testShadow(final RayIntersection intersection, final Vector3f vLight, final float fDistLight,
+                                  final IRtLight light, final int nSample, final int nRandom) {
+            final Integer nLight = m_gBuffer.m_lightIndex.get(light);
+            if (m_bRecord || (null == nLight)) {
+                boolean bInShadow = false;
+                for (final IRtGeometry rtObject : m_gBuffer.m_rtObjects) {
+                    // the same test as the materials make - the object of the intersection is not tested if it is convex
+                    if (((intersection.m_rtObj != rtObject) || (!rtObject.isConvex())) &&
+                            rtObject.testShadow(intersection, vLight, fDistLight, light, nSample, nRandom)) {
+                        bInShadow = true;
+                        break;
+                    }
+                }
+                if (m_bRecord && (null != nLight) && !bInShadow) {
+                    m_gBuffer.m_nVisible[(m_nPixel * m_gBuffer.m_nWords) + (nLight >>> 6)] |= 1L << nLight;
+                }
+                return bInShadow;
+            }
+            return 0L == (m_gBuffer.m_nVisible[(m_nPixel * m_gBuffer.m_nWords) + (nLight >>> 6)] & (1L << nLight));
+        }
+
+        @Override
+        public void initSampling(final int nSample, final float[] f1dSample, final float[] f1dRandom,
+                                 final Point2f[] pt2dSample, final Point2f[] pt2dRandom,
+                                 final Point3f[] pt3dSample, final Point3f[] pt3dRandom) {
+        }
+
+        @Override
+        public boolean isConvex() {
+            return false;
+        }
+
+        @Override
+        public boolean isInside(final Point3f pt) {
+            return false;
+        }
+
+        @Override
+        public Point3f[] getConvexHullVertices() {
+            return null;
+        }
+
+        @Override
+        public boolean getBvIntersection(final Bv3fIntersection bvInt, final Line3f ray) {
+            return false;
+        }
+
+        @Override
+        public boolean getRayIntersection(@NotNull final RayIntersection intersection, @NotNull final Line3f ray,
+                                          final boolean bStartsInside, final int nSample, final int nRandom) {
+            return false;
+        }
+
+        @Override
+        public void getNaturalCoordinates(@NotNull final RayIntersection intersection) {
+        }
+    }
+}
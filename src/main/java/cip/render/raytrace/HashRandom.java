@@ -0,0 +1,77 @@
+/*
+ * HashRandom.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace;
+
+import cip.render.util3d.Point3f;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Repeatable random numbers for the stochastic decisions made while shading (which light to sample, whether to continue
+ * a ray), computed as a hash of the intersection and the pixel sub-sample rather than drawn from a generator.  A frame
+ * then renders the same every time, and on any number of threads, while the decisions still vary from intersection to
+ * intersection and from sub-sample to sub-sample.  The hash is built from the 32 bit finalizer of MurmurHash3.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class HashRandom {
+    private HashRandom() {
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get a random number from a hash of an intersection, the pixel sub-sample, and a stream number.
+     *
+     * @param pt      (Point3f, readonly) The intersection.
+     * @param nSeed   (int) A seed that separates the users of the hash, so they do not make correlated decisions at the
+     *                same intersection.
+     * @param nSample (int) The pixel sub-sample.
+     * @param nRandom (int) The random offset of the pixel sub-sample.
+     * @param nStream (int) The stream number, which separates the decisions of one user at the same intersection (the
+     *                branch of the ray tree, the light sample).
+     * @return Returns a random number, 0 to 1 (exclusive).
+     */
+    public static float get(@NotNull final Point3f pt, final int nSeed, final int nSample, final int nRandom,
+                            final int nStream) {
+        int h = mix(Float.floatToRawIntBits(pt.x) ^ nSeed);
+        h = mix(h ^ Float.floatToRawIntBits(pt.y));
+        h = mix(h ^ Float.floatToRawIntBits(pt.z));
+        h = mix(h ^ ((nSample * 0x9e3779b9) + (nRandom * 0x85ebca6b) + (nStream * 0xc2b2ae35)));
+        return (h >>> 8) * 0x1.0p-24f;
+    }
+
+    /**
+     * The 32 bit finalizer of MurmurHash3, which mixes every bit of the input into every bit of the output.
+     *
+     * @param h (int) The value to be mixed.
+     * @return Returns the mixed value.
+     */
+    public static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * LightInfluence.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace;
+
+import cip.render.util3d.BvMinMax3f;
+import cip.render.util3d.Point3f;
+import cip.render.util3d.Vector3f;
+import cip.render.util3d.Xfm4x4f;
+import cip.render.utilColour.RGBf;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The volume of space a light can illuminate.  A light does not illuminate any point outside its influence, so the
+ * light can be skipped for any intersection outside its influence without asking the light for its illumination.  The
+ * influence is the intersection of a sphere about the light (the falloff radius) and a cone from the light (a spotlight
+ * cone), either of which may be unbounded.  An unbounded influence contains every point.
+ * <p>
+ * The influence is conservative - a point inside the influence may still not be illuminated by the light (it might face
+ * away from the light or be outside the light's own tests), but a point outside the influence is never illuminated.
+ * <p>
+ * A local light (a light at a position in the scene) also reports its position and its greatest intensity, which are
+ * used to weight the light when lights are sampled (see {@link cip.render.raytrace.light.LightTree}).
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see cip.render.raytrace.interfaces.IRtLight#getInfluence(LightInfluence)
+ * @since 1.0
+ */
+public class LightInfluence {
+    public final Point3f m_ptApex = new Point3f();      // the light position, the center of the sphere and apex of the cone
+    public final Vector3f m_vAxis = new Vector3f();     // the cone axis, a unit vector
+    public boolean m_bCone = false;                     // true if the influence is limited to the cone
+    public float m_fCos = 0.0f;                         // the cosine of the cone half angle, 0 to 1
+    public float m_fRadius = Float.POSITIVE_INFINITY;   // the falloff radius
+    public boolean m_bLocal = false;                    // true if the light is at m_ptApex, bounded or not
+    public final RGBf m_rgb = new RGBf(0.0f, 0.0f, 0.0f); // the greatest dimmed intensity of a local light
+
+    /**
+     * Creates a new instance of an unbounded <tt>LightInfluence</tt>.
+     */
+    public LightInfluence() {
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Set this influence to unbounded - every point is inside the influence.
+     *
+     * @return Returns this influence after it has been set to unbounded.
+     */
+    public LightInfluence setUnbounded() {
+        m_ptApex.setValue(0.0f, 0.0f, 0.0f);
+        m_bCone = false;
+        m_fRadius = Float.POSITIVE_INFINITY;
+        m_bLocal = false;
+        m_rgb.setValue(0.0f, 0.0f, 0.0f);
+        return this;
+    }
+
+    /**
+     * Set this influence to a sphere about a light.
+     *
+     * @param ptLight      (Point3f, readonly) The light position.
+     * @param fRadius      (float) The falloff radius, <tt>Float.POSITIVE_INFINITY</tt> if the light is not limited by
+     *                     distance.
+     * @param rgbIntensity (RGBf, readonly) The greatest intensity of the light, after dimming.
+     * @return Returns this influence after it has been set to the sphere.
+     */
+    public LightInfluence setSphere(@NotNull final Point3f ptLight, final float fRadius, @NotNull final RGBf rgbIntensity) {
+        m_ptApex.setValue(ptLight);
+        m_bCone = false;
+        m_fRadius = fRadius;
+        m_bLocal = true;
+        m_rgb.setValue(rgbIntensity);
+        return this;
+    }
+
+    /**
+     * Set this influence to a cone from a light, limited by a falloff radius.
+     *
+     * @param ptLight      (Point3f, readonly) The light position.
+     * @param vAxis        (Vector3f, readonly) The cone axis, a unit vector.
+     * @param fCos         (float) The cosine of the cone half angle, 0 (the half-space in front of the light) to 1.
+     * @param fRadius      (float) The falloff radius, <tt>Float.POSITIVE_INFINITY</tt> if the light is not limited by
+     *                     distance.
+     * @param rgbIntensity (RGBf, readonly) The greatest intensity of the light (on the cone axis), after dimming.
+     * @return Returns this influence after it has been set to the cone.
+     */
+    public LightInfluence setCone(@NotNull final Point3f ptLight, @NotNull final Vector3f vAxis, final float fCos,
+                                  final float fRadius, @NotNull final RGBf rgbIntensity) {
+        m_ptApex.setValue(ptLight);
+        m_vAxis.setValue(vAxis);
+        m_bCone = true;
+        m_fCos = fCos;
+        m_fRadius = fRadius;
+        m_bLocal = true;
+        m_rgb.setValue(rgbIntensity);
+        return this;
+    }
+
+    /**
+     * Set this influence to another influence.
+     *
+     * @param influence (LightInfluence, readonly) The influence to be copied.
+     * @return Returns this influence after it has been set.
+     */
+    public LightInfluence setValue(@NotNull final LightInfluence influence) {
+        m_ptApex.setValue(influence.m_ptApex);
+        m_vAxis.setValue(influence.m_vAxis);
+        m_bCone = influence.m_bCone;
+        m_fCos = influence.m_fCos;
+        m_fRadius = influence.m_fRadius;
+        m_bLocal = influence.m_bLocal;
+        m_rgb.setValue(influence.m_rgb);
+        return this;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Test whether this influence is unbounded.
+     *
+     * @return Returns <tt>true</tt> if every point is inside this influence, <tt>false</tt> otherwise.
+     */
+    public boolean isUnbounded() {
+        return !m_bCone && (m_fRadius == Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Transform this influence by a rigid-body (rotation and translation only) transform.
+     *
+     * @param xfm (Xfm4x4f, readonly) The transform.
+     * @return Returns this influence after it has been transformed.
+     */
+    public LightInfluence transform(@NotNull final Xfm4x4f xfm) {
+        xfm.transform(m_ptApex);
+        xfm.transform(m_vAxis);
+        return this;
+    }
+
+    /**
+     * Test whether a point is inside this influence.  This is a few multiplies and compares, with no square roots.
+     *
+     * @param pt (Point3f, readonly) The point to be tested.
+     * @return Returns <tt>true</tt> if the point is inside this influence and may be illuminated by the light,
+     * <tt>false</tt> if the point cannot be illuminated by the light.
+     */
+    public boolean contains(@NotNull final Point3f pt) {
+        final float x = pt.x - m_ptApex.x;
+        final float y = pt.y - m_ptApex.y;
+        final float z = pt.z - m_ptApex.z;
+        final float fDistSq = (x * x) + (y * y) + (z * z);
+        if (fDistSq > (m_fRadius * m_fRadius)) {
+            return false;
+        }
+        if (m_bCone) {
+            final float fDot = (x * m_vAxis.i) + (y * m_vAxis.j) + (z * m_vAxis.k);
+            return (fDot >= 0.0f) && ((fDot * fDot) >= ((m_fCos * m_fCos) * fDistSq));
+        }
+        return true;
+    }
+
+    /**
+     * Get an axis-aligned box bounding this influence.
+     *
+     * @param bv (BvMinMax3f, modified) Set to the box bounding this influence, infinite if this influence is not limited
+     *           by a falloff radius.
+     * @return Returns the bounding box, <tt>bv</tt>.
+     */
+    public BvMinMax3f getBounds(@NotNull final BvMinMax3f bv) {
+        if (m_fRadius == Float.POSITIVE_INFINITY) {
+            return bv.setInfinite();
+        }
+        return bv.setEmpty()
+                .union(new Point3f(m_ptApex.x - m_fRadius, m_ptApex.y - m_fRadius, m_ptApex.z - m_fRadius))
+                .union(new Point3f(m_ptApex.x + m_fRadius, m_ptApex.y + m_fRadius, m_ptApex.z + m_fRadius));
+    }
+}
@@ -22,9 +22,11 @@ package cip.render.raytrace;
 
 import cip.render.raytrace.interfaces.IRtGeometry;
 import cip.render.raytrace.interfaces.IRtMaterial;
+import cip.render.raytrace.material.RayTermination;
 import cip.render.util.AngleF;
 import cip.render.util3d.*;
 import cip.render.utilColour.RGBf;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * This is the description of the surface at the intersection of a ray with a geometric object.  Because ray intersections
@@ -32,9 +34,20 @@ import cip.render.utilColour.RGBf;
  * a good place to hold the object cache for temporary geometric objects they use in the computation
  * of the intersection tree.
  * <p>
- * The <tt>RayIntersection</tt> maintains a non-thread-safe object cache.
- * If a given <tt>RayIntersection</tt> is only accessed by a single thread, then the object cache maintained
- * by that intersection may be used to borrow/return objects of most 3d utility types with no synchronization overhead.
+ * The <tt>RayIntersection</tt> provides a non-thread-safe {@link ScratchArena} of temporary objects, shared by the
+ * intersection and all the intersections borrowed from it.  If a given <tt>RayIntersection</tt> is only accessed by a
+ * single thread, then objects of most 3d utility types may be borrowed from it with no synchronization overhead.  Take a
+ * {@link #mark()} before borrowing, and {@link #reset(int)} to the mark (normally in a <tt>finally</tt>) to release
+ * everything borrowed since the mark:
+ * <pre>
+ *     final int nMark = intersection.mark();
+ *     try {
+ *         final Vector3f v = intersection.borrowVector();
+ *           <b>.</b>
+ *     } finally {
+ *         intersection.reset(nMark);
+ *     }
+ * </pre>
  * This is useful in the context of either a single or multi-threading because
  * the <tt>new</tt> operator is thread-safe which imposes high synchronization overhead, and garbage collecting when the object
  * goes out-of-scope also imposes high overhead. In tests, the local
@@ -48,7 +61,6 @@ import cip.render.utilColour.RGBf;
  * @since 1.0
  */
 public class RayIntersection {
-    private RayIntersection m_next = null;
 
     //-------------------------------------------------------------------------------------------------------------------------
     // the properties of a ray intersection with a surface - these are properties of the intersection that are normally
@@ -163,6 +175,33 @@ public class RayIntersection {
      */
     public IRtGeometry m_rtObj;
 
+    //------------------------------------------------------------------
+    // The compact hit record.  A geometry may defer computing the surface attributes of an intersection (the point,
+    //  normal, object space point and normal, and material) until it is known to be the closest intersection - during
+    //  intersection testing it records just the distance, the primitive hit, and whatever parametric data it needs to
+    //  compute the attributes later.  See resolveHit().
+    /**
+     * The geometry that completes the surface attributes of a deferred hit.  The hit is deferred only while this is the
+     * same geometry as {@link #m_rtObj}.
+     */
+    public IRtGeometry m_rtHit;
+    /**
+     * The primitive hit (a face or clipping plane index, for example) - geometry specific.
+     */
+    public int m_nHitPrim;
+    /**
+     * Parametric data for the hit (barycentric or surface coordinates, for example) - geometry specific.
+     */
+    public float m_fHitU;
+    /**
+     * Parametric data for the hit - geometry specific.
+     */
+    public float m_fHitV;
+    /**
+     * Parametric data for the hit - geometry specific.
+     */
+    public float m_fHitW;
+
     //------------------------------------------------------------------
     /**
      * The maximum contribution this intersection can make to the final colour at a pixel.  This value is normalized to the
@@ -173,21 +212,9 @@ public class RayIntersection {
     public float m_fMaxContribution;
 
     //------------------------------------------------------------------
-    // this are the heads of the local cache lists.  The local cache assumes that only one thread is working
-    //  with this ray intersection so tha cache attached to the intersection can be used without synchronization
-    //  since it is only accessed by a single thread.
-    private RayIntersection m_cacheIntersection;
-    private LightInfo m_cacheLgtInfo;
-    private Point3f m_cachePoint;
-    private Line3f m_cacheLine;
-    private Vector3f m_cacheVector;
-    private Plane3f m_cachePlane;
-    private Plane3fIntersection m_cachePlnInt;
-    private Bv3fIntersection m_cacheBvInt;
-    private Quadric3fIntersection m_cacheQuadInt;
-    private Xfm4x4f m_cacheXfm;
-    private RGBf m_cacheRGB;
-    private AngleF m_cacheAngle;
+    // The scratch arena.  The arena assumes that only one thread is working with this ray intersection (and the
+    //  intersections borrowed from it) so it can be used without synchronization.
+    private final ScratchArena m_arena;
 
     //-------------------------------------------------------------------------------------------------------------------------
 
@@ -195,6 +222,12 @@ public class RayIntersection {
      * Creates a new uninitialized instance of <tt>RayIntersection</tt>
      */
     public RayIntersection() {
+        m_arena = new ScratchArena();
+    }
+
+    // Creates a new uninitialized instance of RayIntersection that shares a scratch arena.
+    RayIntersection(@NotNull final ScratchArena arena) {
+        m_arena = arena;
     }
 
     //-------------------------------------------------------------------------------------------------------------------------
@@ -218,10 +251,53 @@ public class RayIntersection {
         m_bTexture = false;
         m_mtl = null;
         m_rtObj = null;
+        m_rtHit = null;
         m_fMaxContribution = 1.0f;
         return this;
     }
 
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Record a deferred hit.  The geometry has already set {@link #m_fDist}, and will compute the surface attributes in
+     * {@link IRtGeometry#getHitAttributes(RayIntersection, Line3f)} if this is the closest hit.
+     *
+     * @param rtObj (IRtGeometry, readonly) The geometry that was hit.
+     * @param nPrim (int) The primitive hit.
+     * @return Returns this <tt>RayIntersection</tt>.
+     */
+    public RayIntersection deferHit(@NotNull final IRtGeometry rtObj, final int nPrim) {
+        m_rtObj = rtObj;
+        m_rtHit = rtObj;
+        m_nHitPrim = nPrim;
+        return this;
+    }
+
+    /**
+     * Test whether the surface attributes of the current hit are deferred.
+     *
+     * @return Returns <tt>true</tt> if the surface attributes have not yet been computed, <tt>false</tt> otherwise.
+     */
+    public boolean isHitDeferred() {
+        return (null != m_rtHit) && (m_rtHit == m_rtObj);
+    }
+
+    /**
+     * Compute the surface attributes of the closest hit if they were deferred.  This is called once the ray has been
+     * tested against all the geometry and before the intersection is used for anything other than its distance.
+     *
+     * @param ray (Line3f, readonly) The ray the intersection is for.
+     * @return Returns this <tt>RayIntersection</tt>.
+     */
+    public RayIntersection resolveHit(@NotNull final Line3f ray) {
+        if (isHitDeferred()) {
+            final IRtGeometry rtHit = m_rtHit;
+            m_rtHit = null;
+            rtHit.getHitAttributes(this, ray);
+        }
+        return this;
+    }
+
     //-------------------------------------------------------------------------------------------------------------------------
     public RayIntersection setValue(final RayIntersection intInit) {
         m_fDist = intInit.m_fDist;
@@ -245,308 +321,169 @@ public class RayIntersection {
         }
         m_mtl = intInit.m_mtl;
         m_rtObj = intInit.m_rtObj;
+        m_rtHit = intInit.m_rtHit;
+        m_nHitPrim = intInit.m_nHitPrim;
+        m_fHitU = intInit.m_fHitU;
+        m_fHitV = intInit.m_fHitV;
+        m_fHitW = intInit.m_fHitW;
         return this;
     }
     //-------------------------------------------------------------------------------------------------------------------------
 
     /**
-     * Borrow a ray intersection object.  The borrowed ray intersection object should be returned to the
-     * <tt>RayIntersection</tt> from which it was borrowed.  This function <b>is not</b> thread-safe.
+     * Mark the scratch arena before borrowing objects.  Everything borrowed after the mark is released by
+     * {@link #reset(int)}.  Marks nest, and must be reset in the reverse of the order they were taken.
      *
-     * @return Returns an un-initialized ray intersection object.
+     * @return Returns the mark.
      */
-    public RayIntersection borrowIntersection() {
-        final RayIntersection intersection = m_cacheIntersection;
-        if (null == intersection) {
-            return new RayIntersection();
-        }
-        m_cacheIntersection = intersection.m_next;
-        return intersection;
+    public int mark() {
+        return m_arena.mark();
     }
 
     /**
-     * Returns a borrowed ray intersection object.  This function <b>is not</b> thread-safe.
+     * Release all the objects borrowed since a mark.  The released objects must not be used after the reset.
      *
-     * @param intersection The ray intersection object being returned.
+     * @param nMark (int) The mark from {@link #mark()}.
      */
-    public void returnIntersection(final RayIntersection intersection) {
-        intersection.m_next = m_cacheIntersection;
-        m_cacheIntersection = intersection;
+    public void reset(final int nMark) {
+        m_arena.reset(nMark);
     }
 
     /**
-     * Borrow a light information object.  The borrowed light information object should be returned to the
-     * <tt>RayIntersection</tt> from which it was borrowed.  This function <b>is not</b> thread-safe.
+     * Get the scratch arena of this intersection.
      *
-     * @return Returns an un-initialized borrowed light information object.
+     * @return Returns the scratch arena.
      */
-    public LightInfo borrowLightInfo() {
-        final LightInfo lgtInfo = m_cacheLgtInfo;
-        if (null == lgtInfo) {
-            return new LightInfo();
-        }
-        m_cacheLgtInfo = lgtInfo.m_next;
-        return lgtInfo;
+    public ScratchArena getArena() {
+        return m_arena;
     }
 
     /**
-     * Returns a borrowed light information object.  This function <b>is not</b> thread-safe.
+     * Get the termination of the reflected and transmitted branches for the frame being rendered.  This is shared by this
+     * intersection and all the intersections borrowed from it.
      *
-     * @param lgtInfo The light information object being returned.
+     * @return Returns the ray termination, {@link RayTermination#DEFAULT} if none has been set.
      */
-    public void returnLightInfo(final LightInfo lgtInfo) {
-        lgtInfo.m_next = m_cacheLgtInfo;
-        m_cacheLgtInfo = lgtInfo;
+    @NotNull
+    public RayTermination getTermination() {
+        return m_arena.m_termination;
     }
 
     /**
-     * Borrow a point.  The borrowed point should be returned to the <tt>RayIntersection</tt> from which it
-     * was borrowed.  This function <b>is not</b> thread-safe.
+     * Set the termination of the reflected and transmitted branches for this intersection and all the intersections
+     * borrowed from it.  The renderer sets this on the root intersection of each rendering thread.
      *
-     * @return Returns an un-initialized borrowed point.
+     * @param termination (RayTermination, readonly) The ray termination of the frame being rendered.
      */
-    public Point3f borrowPoint() {
-        final Point3f pt = m_cachePoint;
-        if (null == pt) {
-            return new Point3f();
-        }
-        m_cachePoint = pt.m_next;
-        return pt;
+    public void setTermination(@NotNull final RayTermination termination) {
+        m_arena.m_termination = termination;
     }
 
     /**
-     * Returns a borrowed pt.  This function <b>is not</b> thread-safe.
+     * Borrow a ray intersection object until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
-     * @param pt The point being returned.
+     * @return Returns an un-initialized borrowed ray intersection object.
      */
-    public void returnPoint(final Point3f pt) {
-        pt.m_next = m_cachePoint;
-        m_cachePoint = pt;
+    public RayIntersection borrowIntersection() {
+        return m_arena.borrowIntersection();
     }
 
     /**
-     * Borrow a line.  The borrowed line should be returned to the <tt>RayIntersection</tt> from which it
-     * was borrowed.  This function <b>is not</b> thread-safe.
+     * Borrow a light information object until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
-     * @return Returns an un-initialized borrowed line.
+     * @return Returns an un-initialized borrowed light information object.
      */
-    public Line3f borrowLine() {
-        final Line3f line = m_cacheLine;
-        if (null == line) {
-            return new Line3f();
-        }
-        m_cacheLine = line.m_next;
-        return line;
+    public LightInfo borrowLightInfo() {
+        return m_arena.borrowLightInfo();
     }
 
     /**
-     * Returns a borrowed line.  This function <b>is not</b> thread-safe.
+     * Borrow a point until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
-     * @param line The line being returned.
+     * @return Returns an un-initialized borrowed point.
      */
-    public void returnLine(final Line3f line) {
-        line.m_next = m_cacheLine;
-        m_cacheLine = line;
+    public Point3f borrowPoint() {
+        return m_arena.borrowPoint();
     }
 
     /**
-     * Borrow a vector.  The borrowed vector should be returned to the <tt>RayIntersection</tt> from which it
-     * was borrowed.  This function <b>is not</b> thread-safe.
+     * Borrow a line until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
-     * @return Returns an un-initialized borrowed vector.
+     * @return Returns an un-initialized borrowed line.
      */
-    public Vector3f borrowVector() {
-        final Vector3f v = m_cacheVector;
-        if (null == v) {
-            return new Vector3f();
-        }
-        m_cacheVector = v.m_next;
-        return v;
+    public Line3f borrowLine() {
+        return m_arena.borrowLine();
     }
 
     /**
-     * Returns a borrowed vector.  This function <b>is not</b> thread-safe.
+     * Borrow a vector until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
-     * @param v The vector being returned.
+     * @return Returns an un-initialized borrowed vector.
      */
-    public void returnVector(final Vector3f v) {
-        v.m_next = m_cacheVector;
-        m_cacheVector = v;
+    public Vector3f borrowVector() {
+        return m_arena.borrowVector();
     }
 
     /**
-     * Borrow a plane.  The borrowed plane should be returned to the <tt>RayIntersection</tt> from which it
-     * was borrowed.  This function <b>is not</b> thread-safe.
+     * Borrow a plane until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
      * @return Returns an un-initialized borrowed plane.
      */
     public Plane3f borrowPlane() {
-        final Plane3f pln = m_cachePlane;
-        if (null == pln) {
-            return new Plane3f();
-        }
-        m_cachePlane = pln.m_next;
-        return pln;
+        return m_arena.borrowPlane();
     }
 
     /**
-     * Returns a borrowed plane.  This function <b>is not</b> thread-safe.
-     *
-     * @param pln The plane being returned.
-     */
-    public void returnPlane(final Plane3f pln) {
-        pln.m_next = m_cachePlane;
-        m_cachePlane = pln;
-    }
-
-    /**
-     * Borrow a plane intersection information object.  The borrowed plane intersection information object should be returned to the
-     * <tt>RayIntersection</tt> from which it was borrowed.  This function <b>is not</b> thread-safe.
+     * Borrow a plane intersection information object until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
      * @return Returns an un-initialized borrowed plane intersection information object.
      */
     public Plane3fIntersection borrowPlaneInt() {
-        final Plane3fIntersection plnInt = m_cachePlnInt;
-        if (null == plnInt) {
-            return new Plane3fIntersection();
-        }
-        m_cachePlnInt = plnInt.m_next;
-        return plnInt;
-    }
-
-    /**
-     * Returns a borrowed plane intersection.  This function <b>is not</b> thread-safe.
-     *
-     * @param plnInt The plane intersection information object being returned.
-     */
-    public void returnPlaneInt(final Plane3fIntersection plnInt) {
-        plnInt.m_next = m_cachePlnInt;
-        m_cachePlnInt = plnInt;
+        return m_arena.borrowPlaneInt();
     }
 
     /**
-     * Borrow a bounding volume intersection information object.  The borrowed bounding volumen intersection
-     * information object should be returned to the  <tt>RayIntersection</tt> from which it was borrowed.
-     * This function <b>is not</b> thread-safe.
+     * Borrow a bounding volume intersection information object until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
      * @return Returns an un-initialized borrowed bounding volume intersection information object.
      */
     public Bv3fIntersection borrowBvInt() {
-        final Bv3fIntersection bvInt = m_cacheBvInt;
-        if (null == bvInt) {
-            return new Bv3fIntersection();
-        }
-        m_cacheBvInt = bvInt.m_next;
-        return bvInt;
-    }
-
-    /**
-     * Returns a borrowed bounding volume intersection.  This function <b>is not</b> thread-safe.
-     *
-     * @param bvInt The bounding volume intersection information object being returned.
-     */
-    public void returnBvInt(final Bv3fIntersection bvInt) {
-        bvInt.m_next = m_cacheBvInt;
-        m_cacheBvInt = bvInt;
+        return m_arena.borrowBvInt();
     }
 
     /**
-     * Borrow a quadric intersection information object.  The borrowed quadric intersection information object should be
-     * returned to the <tt>RayIntersection</tt> from which it was borrowed.  This function <b>is not</b> thread-safe.
+     * Borrow a quadric intersection information object until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
      * @return Returns an un-initialized borrowed quadric intersection information object.
      */
     public Quadric3fIntersection borrowQuadricInt() {
-        final Quadric3fIntersection quadInt = m_cacheQuadInt;
-        if (null == quadInt) {
-            return new Quadric3fIntersection();
-        }
-        m_cacheQuadInt = quadInt.m_next;
-        return quadInt;
-    }
-
-    /**
-     * Returns a borrowed quadric intersection.  This function <b>is not</b> thread-safe.
-     *
-     * @param quadInt The quadric intersection information object being returned.
-     */
-    public void returnQuadricInt(final Quadric3fIntersection quadInt) {
-        quadInt.m_next = m_cacheQuadInt;
-        m_cacheQuadInt = quadInt;
+        return m_arena.borrowQuadricInt();
     }
 
     /**
-     * Borrow a transformation.  The borrowed transformation should be returned to the
-     * <tt>RayIntersection</tt> from which it was borrowed.  This function <b>is not</b> thread-safe.
+     * Borrow a transform until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
-     * @return Returns an un-initialized borrowed transformation.
+     * @return Returns an un-initialized borrowed transform.
      */
     public Xfm4x4f borrowXfm() {
-        final Xfm4x4f xfm = m_cacheXfm;
-        if (null == xfm) {
-            return new Xfm4x4f();
-        }
-        m_cacheXfm = xfm.m_next;
-        return xfm;
-    }
-
-    /**
-     * Returns a borrowed transformation.  This function <b>is not</b> thread-safe.
-     *
-     * @param xfm The transformation being returned.
-     */
-    public void returnXfm(final Xfm4x4f xfm) {
-        xfm.m_next = m_cacheXfm;
-        m_cacheXfm = xfm;
+        return m_arena.borrowXfm();
     }
 
     /**
-     * Borrow an RGB colour.  The borrowed colour should be returned to the <tt>RayIntersection</tt> from which it
-     * was borrowed.  This function <b>is not</b> thread-safe.
+     * Borrow a colour until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
      * @return Returns an un-initialized borrowed colour.
      */
     public RGBf borrowRGB() {
-        final RGBf rgb = m_cacheRGB;
-        if (null == rgb) {
-            return new RGBf();
-        }
-        m_cacheRGB = rgb.m_next;
-        return rgb;
-    }
-
-    /**
-     * Returns a borrowed colour.  This function <b>is not</b> thread-safe.
-     *
-     * @param rgb The colour being returned.
-     */
-    public void returnRGB(final RGBf rgb) {
-        rgb.m_next = m_cacheRGB;
-        m_cacheRGB = rgb;
+        return m_arena.borrowRGB();
     }
 
     /**
-     * Borrow an angle.  The borrowed angle should be returned to the <tt>RayIntersection</tt> from which it
-     * was borrowed.  This function <b>is not</b> thread-safe.
+     * Borrow a angle until the scratch arena is reset.  This function <b>is not</b> thread-safe.
      *
      * @return Returns an un-initialized borrowed angle.
      */
     public AngleF borrowAngle() {
-        final AngleF angle = m_cacheAngle;
-        if (null == angle) {
-            return new AngleF();
-        }
-        m_cacheAngle = angle.m_next;
-        return angle;
-    }
-
-    /**
-     * Returns a borrowed angle.  This function <b>is not</b> thread-safe.
-     *
-     * @param angle The angle being returned.
-     */
-    public void returnAngle(final AngleF angle) {
-        angle.m_next = m_cacheAngle;
-        m_cacheAngle = angle;
+        return m_arena.borrowAngle();
     }
 }
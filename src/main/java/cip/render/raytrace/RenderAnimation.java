@@ -0,0 +1,256 @@
+/*
+ * RenderAnimation.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace;
+
+import cip.render.DynXmlObjParseException;
+import cip.render.INamedObject;
+import cip.render.raytrace.camera.ACamera;
+import cip.render.raytrace.geometry.XfmGeometry;
+import cip.render.util3d.Xfm4x4f;
+import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * This is a batch renderer for animated sequences.  The base scene is loaded once, and all of the scene objects (library
+ * objects, materials, texture images, geometry) stay resident for the whole sequence.  Each frame applies a set of
+ * overrides to the resident scene and renders it off-screen, so a 300 frame sequence is 1 scene load and 300 renderings
+ * rather than 300 scene loads.
+ * <p>
+ * The animation description is an XML file of the form:
+ * <pre>
+ * &lt;Animation scene="<i>baseScene.xml</i>" width="640" height="480" output="frames/frame%04d.png"
+ *            renderer="cip.render.raytrace.RenderXmlOSJ"&gt;
+ *     &lt;Frame dimmer="0.8"&gt;
+ *         &lt;camera&gt;
+ *             &lt;position originX="0" originY="-8" originZ="2" aimedAt="0,0,0"/&gt;
+ *         &lt;/camera&gt;
+ *         &lt;geometry name="<i>xfmGeometryName</i>"&gt;
+ *             &lt;position originZ="1.5"/&gt;
+ *         &lt;/geometry&gt;
+ *     &lt;/Frame&gt;
+ *     ...
+ * &lt;/Animation&gt;
+ * </pre>
+ * The <tt>camera</tt> element takes the same children as the camera description in the scene file, the <tt>geometry</tt>
+ * element names a {@link XfmGeometry} in the scene and takes its <tt>position</tt>, and the <tt>dimmer</tt> attribute
+ * sets the global light dimmer.  Overrides are cumulative - a frame starts with the scene state left by the previous
+ * frame.  The <tt>output</tt> is a {@link String#format(String, Object...)} pattern given the frame number.  Writing the
+ * image for frame N is overlapped with rendering frame N+1.
+ * <p>
+ * <b>Usage:</b>
+ * <pre>
+ *     RenderAnimation <i>&lt;animationDescFile&gt;</i>
+ * </pre>
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see RenderXml
+ * @since 1.0
+ */
+public class RenderAnimation {
+    private static final Logger logger = Logger.getLogger(RenderAnimation.class.getName());
+
+    private static final String XML_TAG_ROOT = "Animation";
+    private static final String XML_TAG_FRAME = "Frame";
+    private static final String XML_TAG_CAMERA = "camera";
+    private static final String XML_TAG_GEOMETRY = "geometry";
+    private static final String XML_TAG_POSITION = "position";
+    private static final String XML_ATTR_SCENE = "scene";
+    private static final String XML_ATTR_WIDTH = "width";
+    private static final String XML_ATTR_HEIGHT = "height";
+    private static final String XML_ATTR_OUTPUT = "output";
+    private static final String XML_ATTR_RENDERER = "renderer";
+    private static final String XML_ATTR_DIMMER = "dimmer";
+    private static final String XML_ATTR_NAME = "name";
+
+    private static final String DEFAULT_RENDERER = "cip.render.raytrace.RenderXmlOSJ";
+
+    private final String m_strSceneDesc;
+    private final String m_strOutput;
+    private final int m_nWidth;
+    private final int m_nHeight;
+    private final RenderXml m_renderer;
+    private final LinkedList<Element> m_frames = new LinkedList<>();
+
+    /**
+     * Creates a new instance of <tt>RenderAnimation</tt> from an animation description file.
+     *
+     * @param strAnimationDesc (String, readonly) The animation description file.
+     * @throws Exception Thrown if the animation description could not be parsed or the renderer could not be created.
+     */
+    public RenderAnimation(@NotNull final String strAnimationDesc) throws Exception {
+        final Element domDocEl = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(strAnimationDesc).
+                getDocumentElement();
+        if (!domDocEl.getTagName().equalsIgnoreCase(XML_TAG_ROOT)) {
+            throw new DynXmlObjParseException("The XML document is not an Animation document.");
+        }
+        // the scene description is relative to the animation description
+        final File fileScene = new File(domDocEl.getAttribute(XML_ATTR_SCENE).trim());
+        m_strSceneDesc = fileScene.isAbsolute() ? fileScene.getPath() :
+                new File(new File(strAnimationDesc).getAbsoluteFile().getParentFile(), fileScene.getPath()).getPath();
+        m_strOutput = domDocEl.getAttribute(XML_ATTR_OUTPUT).trim().isEmpty() ?
+                "frame%04d.png" : domDocEl.getAttribute(XML_ATTR_OUTPUT).trim();
+        m_nWidth = Integer.parseInt(domDocEl.getAttribute(XML_ATTR_WIDTH).trim());
+        m_nHeight = Integer.parseInt(domDocEl.getAttribute(XML_ATTR_HEIGHT).trim());
+        final String strRenderer = domDocEl.getAttribute(XML_ATTR_RENDERER).trim();
+        m_renderer = (RenderXml) Class.forName(strRenderer.isEmpty() ? DEFAULT_RENDERER : strRenderer).newInstance();
+
+        Node domNode = domDocEl.getFirstChild();
+        while (null != domNode) {
+            if (domNode instanceof Element) {
+                final Element domEl = (Element) domNode;
+                if (!domEl.getTagName().equalsIgnoreCase(XML_TAG_FRAME)) {
+                    throw new DynXmlObjParseException("Unrecognized Animation element <" + domEl.getTagName() + ">");
+                }
+                m_frames.add(domEl);
+            }
+            domNode = domNode.getNextSibling();
+        }
+    }
+
+    /**
+     * Load the base scene and render all of the frames.
+     *
+     * @throws Exception Thrown if the scene could not be loaded, a frame override could not be applied, or a frame
+     *                   image could not be written.
+     */
+    public void render() throws Exception {
+        long startTime = System.currentTimeMillis();
+        m_renderer.loadSceneResident(m_strSceneDesc);
+        logger.info(String.format("Scene load time: %dms", (System.currentTimeMillis() - startTime)));
+
+        // frame images are written on a separate thread so writing frame N overlaps rendering frame N+1
+        final ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> lastWrite = null;
+            int nFrame = 0;
+            for (final Element frameEl : m_frames) {
+                startTime = System.currentTimeMillis();
+                applyFrame(frameEl);
+                final BufferedImage bi = m_renderer.renderFrame(m_nWidth, m_nHeight);
+                final File file = new File(String.format(m_strOutput, nFrame));
+                if (null != lastWrite) {
+                    lastWrite.get();
+                }
+                lastWrite = writer.submit(() -> {
+                    final File dir = file.getAbsoluteFile().getParentFile();
+                    if ((null != dir) && !dir.isDirectory() && !dir.mkdirs()) {
+                        throw new java.io.IOException("Cannot create " + dir.getPath());
+                    }
+                    ImageIO.write(bi, "png", file);
+                    return null;
+                });
+                logger.info(String.format("Frame %d render time: %dms", nFrame, (System.currentTimeMillis() - startTime)));
+                nFrame++;
+            }
+            if (null != lastWrite) {
+                lastWrite.get();
+            }
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Apply the overrides for a frame to the resident scene.
+    private void applyFrame(@NotNull final Element frameEl) throws DynXmlObjParseException {
+        try {
+            final String strDimmer = frameEl.getAttribute(XML_ATTR_DIMMER).trim();
+            if (!strDimmer.isEmpty()) {
+                m_renderer.setDimmer(Float.parseFloat(strDimmer));
+            }
+            Node domNode = frameEl.getFirstChild();
+            while (null != domNode) {
+                if (domNode instanceof Element) {
+                    final Element element = (Element) domNode;
+                    if (element.getTagName().equalsIgnoreCase(XML_TAG_CAMERA)) {
+                        if (!(m_renderer.m_camera instanceof ACamera)) {
+                            throw new DynXmlObjParseException("The scene camera cannot be repositioned.");
+                        }
+                        ((ACamera) m_renderer.m_camera).reposition(element);
+                    } else if (element.getTagName().equalsIgnoreCase(XML_TAG_GEOMETRY)) {
+                        applyGeometry(element);
+                    } else {
+                        throw new DynXmlObjParseException("Unrecognized Frame element <" + element.getTagName() + ">");
+                    }
+                }
+                domNode = domNode.getNextSibling();
+            }
+        } catch (final Throwable t) {
+            if (t instanceof DynXmlObjParseException) {
+                throw (DynXmlObjParseException) t;
+            } else {
+                throw new DynXmlObjParseException("Animation frame parse exception", t);
+            }
+        }
+    }
+
+    private void applyGeometry(@NotNull final Element geometryEl) throws Exception {
+        final String strName = geometryEl.getAttribute(XML_ATTR_NAME);
+        final INamedObject obj = m_renderer.m_frameLoader.getNamedObject(strName);
+        if (!(obj instanceof XfmGeometry)) {
+            throw new DynXmlObjParseException(String.format("Animated geometry \"%s\" is not a named XfmGeometry.", strName));
+        }
+        Node domNode = geometryEl.getFirstChild();
+        while (null != domNode) {
+            if (domNode instanceof Element) {
+                final Element element = (Element) domNode;
+                if (!element.getTagName().equalsIgnoreCase(XML_TAG_POSITION)) {
+                    throw new DynXmlObjParseException("Unrecognized geometry element <" + element.getTagName() + ">");
+                }
+                ((XfmGeometry) obj).setXfm(new Xfm4x4f().setValue(element, false, false));
+            }
+            domNode = domNode.getNextSibling();
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Render an animation described by an animation description file.
+     *
+     * @param args The arguments, the first argument is the animation description file.
+     */
+    public static void main(final String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: RenderAnimation <animationDescFile>");
+            return;
+        }
+        try {
+            final long startTime = System.currentTimeMillis();
+            new RenderAnimation(args[0]).render();
+            System.out.println(String.format("Animation render time: %dms", (System.currentTimeMillis() - startTime)));
+        } catch (final Throwable t) {
+            t.printStackTrace();
+        }
+    }
+}
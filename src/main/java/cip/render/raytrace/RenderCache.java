@@ -0,0 +1,278 @@
+/*
+ * RenderCache.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace;
+
+import cip.render.LibraryCache;
+import cip.render.util.LruCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Logger;
+
+/**
+ * This is an on-disk cache of finished frames.  A rendered frame is stored as a <tt>.png</tt> file named by a key that
+ * is the SHA-256 hash of the renderer class, the canonical form of the scene description, and the resolution of the
+ * rendered image - different renderers produce different images of the same scene.  The
+ * canonical form of the scene description is the parsed XML DOM with comments and whitespace-only text removed, so
+ * re-formatting a scene description file does not invalidate the cache, but any change to the camera, background,
+ * lights, geometry, materials, or the <tt>pixelSamples</tt> and <tt>pixelKernel</tt> attributes of the
+ * <tt>RenderedFrame</tt> does.
+ * <p>
+ * The scene is hashed from the DOM rather than from the loaded scene objects so a cache hit can be returned without
+ * dynamically loading and constructing any of the scene geometry.  Files referenced by the scene description (texture
+ * images, for example) are not part of the key - clear the cache if they are edited in place.
+ * <p>
+ * The cache is bounded by a size cap in bytes.  When storing a frame pushes the cache over the cap, the least recently
+ * used frames (by file modification time, which is refreshed on every cache hit) are deleted until the cache is back
+ * under the cap.
+ * <p>
+ * The cache used by {@link RenderXml} is configured through system properties:
+ * <table border="1" summary="">
+ * <tr><td><tt>cip.render.cache.dir</tt></td><td>The cache directory.  If not specified, frames are not cached.</td></tr>
+ * <tr><td><tt>cip.render.cache.maxMB</tt></td><td>The size cap in megabytes, default 256.</td></tr>
+ * </table>
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class RenderCache {
+    private static final Logger logger = Logger.getLogger(RenderCache.class.getName());
+
+    /**
+     * The system property specifying the cache directory.
+     */
+    public static final String PROPERTY_DIR = "cip.render.cache.dir";
+    /**
+     * The system property specifying the cache size cap in megabytes.
+     */
+    public static final String PROPERTY_MAX_MB = "cip.render.cache.maxMB";
+    /**
+     * The default cache size cap in megabytes.
+     */
+    public static final long DEFAULT_MAX_MB = 256L;
+
+    private static final String FILE_EXT = ".png";
+
+    private final File m_dir;
+    private final long m_nMaxBytes;
+
+    /**
+     * Creates a new instance of <tt>RenderCache</tt>.
+     *
+     * @param dir       (File, readonly) The cache directory. It is created if it does not exist.
+     * @param nMaxBytes (long) The size cap for the cache in bytes.
+     */
+    public RenderCache(@NotNull final File dir, final long nMaxBytes) {
+        m_dir = dir;
+        m_nMaxBytes = nMaxBytes;
+        if (!m_dir.isDirectory() && !m_dir.mkdirs()) {
+            logger.warning("Could not create render cache directory: " + m_dir.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Create the render cache described by the <tt>cip.render.cache.*</tt> system properties.
+     *
+     * @return Returns the render cache, <tt>null</tt> if no cache directory has been specified.
+     */
+    @Nullable
+    public static RenderCache fromSystemProperties() {
+        final String strDir = System.getProperty(PROPERTY_DIR);
+        if ((null == strDir) || strDir.trim().isEmpty()) {
+            return null;
+        }
+        return new RenderCache(new File(strDir.trim()), LruCache.getMaxBytes(PROPERTY_MAX_MB, DEFAULT_MAX_MB));
+    }
+
+    /**
+     * Compute the resolution independent hash of a scene description file.  The scene description is parsed into a
+     * DOM, but none of the dynamically loaded scene objects are constructed.  The content of included libraries is part
+     * of the hash.
+     *
+     * @param strSceneDesc (String, readonly) The scene description file.
+     * @return Returns the hex-encoded SHA-256 hash of the canonical scene description.
+     * @throws Exception Thrown if the scene description cannot be parsed or serialized.
+     */
+    @NotNull
+    public static String hashScene(@NotNull final String strSceneDesc) throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setIgnoringComments(true);
+        factory.setCoalescing(true);
+        final Document doc = factory.newDocumentBuilder().parse(new File(strSceneDesc));
+        lclStripWhitespace(doc.getDocumentElement());
+        doc.normalizeDocument();
+
+        final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        transformer.setOutputProperty(OutputKeys.INDENT, "no");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transformer.transform(new DOMSource(doc), new StreamResult(out));
+
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(out.toByteArray());
+        // the included libraries are part of the scene
+        LibraryCache.digestIncludes(doc.getDocumentElement(), new File(strSceneDesc).getAbsoluteFile().getParentFile(), digest);
+        return LruCache.toHex(digest.digest());
+    }
+
+    /**
+     * Build the cache key for a frame.
+     *
+     * @param strRenderer  (String, readonly) The class name of the renderer that renders the frame.
+     * @param strSceneHash (String, readonly) The scene hash from {@link #hashScene(String)}.
+     * @param nWidth       (int) The pixel width of the rendered frame.
+     * @param nHeight      (int) The pixel height of the rendered frame.
+     * @return Returns the cache key.
+     */
+    @NotNull
+    public static String getKey(@NotNull final String strRenderer, @NotNull final String strSceneHash, final int nWidth,
+                                final int nHeight) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((strRenderer + ':').getBytes(StandardCharsets.UTF_8));
+            digest.update(strSceneHash.getBytes(StandardCharsets.UTF_8));
+            digest.update((":" + nWidth + "x" + nHeight).getBytes(StandardCharsets.UTF_8));
+            return LruCache.toHex(digest.digest());
+        } catch (final Exception e) {
+            // SHA-256 is required of every JRE, this should never happen
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get a cached frame.
+     *
+     * @param strKey (String, readonly) The cache key from {@link #getKey(String, String, int, int)}.
+     * @return Returns the cached frame, <tt>null</tt> if the frame is not in the cache.
+     */
+    @Nullable
+    public synchronized BufferedImage get(@NotNull final String strKey) {
+        final File file = new File(m_dir, strKey + FILE_EXT);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            final BufferedImage bi = ImageIO.read(file);
+            if (null != bi) {
+                // touch the file so it is the most recently used
+                //noinspection ResultOfMethodCallIgnored
+                file.setLastModified(System.currentTimeMillis());
+                logger.info("Render cache hit: " + strKey);
+            }
+            return bi;
+        } catch (final IOException e) {
+            logger.warning("Could not read cached frame " + file.getAbsolutePath() + ": " + e.getMessage());
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Store a rendered frame in the cache, and evict least recently used frames if the cache is over the size cap.
+     *
+     * @param strKey (String, readonly) The cache key from {@link #getKey(String, String, int, int)}.
+     * @param bi     (BufferedImage, readonly) The rendered frame.
+     */
+    public synchronized void put(@NotNull final String strKey, @NotNull final BufferedImage bi) {
+        final File file = new File(m_dir, strKey + FILE_EXT);
+        final File fileTmp = new File(m_dir, strKey + ".tmp");
+        try {
+            // write to a temporary and rename so a partially written frame is never read as a cache hit
+            if (!ImageIO.write(bi, "png", fileTmp) || !(fileTmp.renameTo(file) || (file.delete() && fileTmp.renameTo(file)))) {
+                logger.warning("Could not cache frame " + file.getAbsolutePath());
+                //noinspection ResultOfMethodCallIgnored
+                fileTmp.delete();
+                return;
+            }
+        } catch (final IOException e) {
+            logger.warning("Could not cache frame " + file.getAbsolutePath() + ": " + e.getMessage());
+            //noinspection ResultOfMethodCallIgnored
+            fileTmp.delete();
+            return;
+        }
+        lclEvict();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Delete the least recently used frames until the cache is under the size cap.
+    private void lclEvict() {
+        final File[] files = m_dir.listFiles((dir, name) -> name.endsWith(FILE_EXT));
+        if (null == files) {
+            return;
+        }
+        long nTotal = 0;
+        for (final File file : files) {
+            nTotal += file.length();
+        }
+        if (nTotal <= m_nMaxBytes) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (final File file : files) {
+            if (nTotal <= m_nMaxBytes) {
+                break;
+            }
+            final long nLength = file.length();
+            if (file.delete()) {
+                nTotal -= nLength;
+                logger.fine("Render cache evicted: " + file.getName());
+            }
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    private static void lclStripWhitespace(@NotNull final Node node) {
+        Node child = node.getFirstChild();
+        while (null != child) {
+            final Node next = child.getNextSibling();
+            if ((child.getNodeType() == Node.TEXT_NODE) && child.getNodeValue().trim().isEmpty()) {
+                node.removeChild(child);
+            } else if (child.getNodeType() == Node.TEXT_NODE) {
+                child.setNodeValue(child.getNodeValue().trim());
+            } else if (child.getNodeType() == Node.COMMENT_NODE) {
+                node.removeChild(child);
+            } else {
+                lclStripWhitespace(child);
+            }
+            child = next;
+        }
+    }
+}
@@ -20,20 +20,27 @@
  */
 package cip.render.raytrace;
 
+import cip.render.DynXmlObjLoader;
 import cip.render.DynXmlObjParseException;
 import cip.render.FrameLoader;
+import cip.render.INamedObject;
 import cip.render.IRenderScene;
 import cip.render.raytrace.interfaces.IRtBackground;
 import cip.render.raytrace.interfaces.IRtCamera;
 import cip.render.raytrace.interfaces.IRtGeometry;
 import cip.render.raytrace.interfaces.IRtLight;
+import cip.render.raytrace.light.LightTree;
+import cip.render.raytrace.material.RayTermination;
+import cip.render.util.FastMath;
 import cip.render.util3d.Line3f;
 import cip.render.utilColour.RGBf;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
@@ -75,6 +82,11 @@ import java.util.logging.Logger;
  * lets us use inheritance through extensions of this renderer that include oversampling and distributed ray
  * tracing.
  * </p>
+ * <p>
+ * When relighting is enabled (see {@link #enableRelighting()}) the primary hit of every pixel is recorded in a
+ * {@link GBuffer} as the frame is rendered, and a change of the dimmer ({@link #setDimmer(float)}) or of the dimmer of a
+ * light ({@link #setLightDimmer(String, float)}) relights the frame from the G-buffer rather than rendering it again.
+ * </p>
  *
  * @author royster.hall@gmail.com
  * @version 1.0
@@ -105,6 +117,7 @@ public class RenderXml implements IRenderScene {
         int m_nSampleCt = 0;
         Line3f m_ray = new Line3f();
         RayIntersection m_intersection = new RayIntersection();
+        final GBuffer.Shadows m_shadows;
 
         /**
          * Instantiate a pixel render to be run in a rendering thread.
@@ -113,6 +126,8 @@ public class RenderXml implements IRenderScene {
          */
         RenderPixel(final RenderXml parent) {
             m_parent = parent;
+            m_shadows = (null == parent.m_gBuffer) ? null : new GBuffer.Shadows(parent.m_gBuffer);
+            m_intersection.setTermination(parent.m_termination);
         }
 
         /**
@@ -124,7 +139,8 @@ public class RenderXml implements IRenderScene {
             // render pixels while there are pixels to render
             while (m_parent.dispatchPixel(this)) {
                 m_nSampleCt++;
-                final Color clr = m_parent.getSampleColor(m_ray, m_intersection);
+                final Color clr = m_parent.getSampleColor(this);
+                m_intersection.getTermination().endSample();
                 m_parent.setPixelColor(m_nX, m_nY, clr);
             }
 
@@ -145,7 +161,9 @@ public class RenderXml implements IRenderScene {
     //------------------------------------------------------------------------------------------------------------------------------
     // RenderXmlHierarchy
     //------------------------------------------------------------------------------------------------------------------------------
-    final int m_nMaxRecursions = 10;
+    int m_nMaxRecursions = 10;
+    // The termination of the ray tree for the loaded frame, attached to the root intersection of every rendering thread.
+    RayTermination m_termination = RayTermination.DEFAULT;
 
     protected boolean m_bNewScene = true;
     // the camera for viewing the scene
@@ -157,6 +175,31 @@ public class RenderXml implements IRenderScene {
     // the light array
     protected IRtLight[] m_rtLights = null;
 
+    // the render cache, null if finished frames are not cached
+    private static final RenderCache s_renderCache = RenderCache.fromSystemProperties();
+    // the scene description file, the hash of the scene description for the render cache, and whether the scene
+    //  objects have been loaded (loading is deferred until a render cache miss when the render cache is enabled).  A
+    //  deferred load that failed is remembered so the scene is not parsed again (and the error logged again) on every
+    //  repaint.
+    private String m_strSceneDesc = null;
+    private String m_strSceneHash = null;
+    private boolean m_bSceneLoaded = false;
+    private Exception m_loadFailure = null;
+    // the loader for the current scene, retained so named scene objects can be found after loading
+    FrameLoader m_frameLoader = null;
+
+    // The lights of the scene before any are replaced for light sampling, the global dimmer and the dimmer of each light,
+    //  and whether the dimmers have been changed since the scene was loaded.  The dimmer of a light is the global dimmer
+    //  times the light dimmer.
+    private IRtLight[] m_frameLights = null;
+    private boolean[] m_bLocalLights = null;
+    private float m_fDimmer = 1.0f;
+    private float[] m_fLightDimmers = null;
+    private boolean m_bRelit = false;
+    // whether relighting is enabled, and the G-buffer of the last rendered frame if it is
+    private boolean m_bRelighting = false;
+    GBuffer m_gBuffer = null;
+
     // The rendering window description and where we are in dispatching pixels
     int m_nXmin;                            // the minimum X
     int m_nYmin;                            // the minimum Y
@@ -191,10 +234,14 @@ public class RenderXml implements IRenderScene {
     //-------------------------------------------------------------------------------------------------------------------------
     //  Here we do the work of getting the pixel colour.  The RayIntersection object is a cached object so that
     //  we could use this function in a multi-threaded environment without the need to create a new intersection
-    //  object at every invocation.
-    Color getSampleColor(final Line3f ray, final RayIntersection intersection) {
+    //  object at every invocation.  If a G-buffer is being recorded the primary hit is recorded in it.
+    Color getSampleColor(final RenderPixel pixel) {
+        final Line3f ray = pixel.m_ray;
+        final RayIntersection intersection = pixel.m_intersection;
         boolean bIntersectObj = false;
         Color clr;
+        // the sample is mark 0 of the root arena, see lclEndSample()
+        intersection.mark();
         final RGBf rgb = intersection.borrowRGB();
 
         try {
@@ -204,7 +251,13 @@ public class RenderXml implements IRenderScene {
                 }
             }
             if (bIntersectObj) {
+                intersection.resolveHit(ray);
+                // the material may change the intersection, so the G-buffer records the hit as it was before
+                final RayIntersection hit = (null == m_gBuffer) ? null : intersection.borrowIntersection().setValue(intersection);
                 intersection.m_mtl.getColor(rgb, intersection, m_rtLights, m_rtObjects, m_bkg, m_nMaxRecursions, 0, 0);
+                if (null != hit) {
+                    m_gBuffer.record(pixel.m_nX, pixel.m_nY, hit, rgb, pixel.m_shadows);
+                }
                 rgb.clamp();
             } else {
                 m_bkg.getColor(rgb, ray, null);
@@ -214,11 +267,23 @@ public class RenderXml implements IRenderScene {
             // something bad happened - color code this pixel yellow
             t.printStackTrace();
             clr = Color.YELLOW;
-        } finally {
-            intersection.returnRGB(rgb);
         }
 
-        return clr;
+        return lclEndSample(intersection, clr);
+    }
+
+    // The sample is complete, reset the root arena to the mark of the sample whatever the debug setting, so everything
+    //  borrowed during the sample is released even if a reset was missed.  In debug mode unbalanced scratch use is
+    //  reported - color code the pixel yellow.
+    private static Color lclEndSample(final RayIntersection intersection, final Color clr) {
+        try {
+            intersection.reset(0);
+            intersection.getArena().checkBalanced();
+            return clr;
+        } catch (final IllegalStateException e) {
+            logger.severe(e.getMessage());
+            return Color.YELLOW;
+        }
 
     }
 
@@ -226,55 +291,313 @@ public class RenderXml implements IRenderScene {
     // IRenderScene interface implementation                                                                                 //
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     public void loadScene(final String strSceneDesc) throws Exception {
-        try {
-            final FrameLoader frameLoader = new FrameLoader(strSceneDesc);
-            final LinkedList<IRtGeometry> objectList = frameLoader.getGeometryHierarchy();
-            final LinkedList<IRtLight> lightList = frameLoader.getLights();
-
-            if (objectList.isEmpty()) {
-                throw new DynXmlObjParseException("No geometry to be rendered was loaded.");
-            }
-            if (lightList.isEmpty()) {
-                throw new DynXmlObjParseException("No lights illuminating the scene were loaded.");
+        m_strSceneDesc = strSceneDesc;
+        m_strSceneHash = null;
+        m_bSceneLoaded = false;
+        m_loadFailure = null;
+        m_bNewScene = true;
+        if ((null != s_renderCache) && !m_bRelighting) {
+            // Defer loading the scene objects until we know the frame is not in the cache.
+            try {
+                m_strSceneHash = RenderCache.hashScene(strSceneDesc);
+                return;
+            } catch (final Throwable t) {
+                logger.warning("Could not hash <" + strSceneDesc + "> for the render cache: " + t.getMessage());
             }
-            if (null == frameLoader.getBackground()) {
-                throw new DynXmlObjParseException("No background was loaded.");
+        }
+        lclLoadFrame(strSceneDesc, false);
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Load the scene objects from the scene description file.  A reload reuses the unchanged objects of the current scene.
+    private void lclLoadFrame(final String strSceneDesc, final boolean bReload) throws Exception {
+        try {
+            lclSetFrame(bReload ? FrameLoader.reload(strSceneDesc, m_frameLoader) : FrameLoader.load(strSceneDesc));
+        } catch (final Throwable t) {
+            if (t instanceof DynXmlObjParseException) {
+                throw (DynXmlObjParseException) t;
+            } else {
+                throw new DynXmlObjParseException("Error parsing <" + strSceneDesc + "> into an XML DOM", t);
             }
-            if (null == frameLoader.getCamera()) {
-                throw new DynXmlObjParseException("No camera was loaded for rendering.");
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Load the scene objects that were deferred for the render cache.  A failure is logged and remembered, so a scene
+    //  that cannot be loaded is only parsed once - it is not retried until a scene is loaded again.
+    private boolean lclLoadDeferred() {
+        if (null == m_loadFailure) {
+            try {
+                lclLoadFrame(m_strSceneDesc, false);
+                return true;
+            } catch (final Exception e) {
+                m_loadFailure = e;
+                logger.severe("Could not load <" + m_strSceneDesc + ">: " + e.getMessage());
             }
+        }
+        return false;
+    }
 
-            lclConditionLoadedEnvironment(frameLoader);
-            // -----------------------------------------------------------------------------------------------------
-            // now pull out the information we need to render the frame.
-            m_bkg = frameLoader.getBackground();
-            m_camera = frameLoader.getCamera();
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Validate a loaded frame and set it up as the scene to be rendered.
+    private void lclSetFrame(@NotNull final FrameLoader frameLoader) throws DynXmlObjParseException {
+        final LinkedList<IRtGeometry> objectList = frameLoader.getGeometryHierarchy();
+        final LinkedList<IRtLight> lightList = frameLoader.getLights();
+
+        if (objectList.isEmpty()) {
+            throw new DynXmlObjParseException("No geometry to be rendered was loaded.");
+        }
+        if (lightList.isEmpty()) {
+            throw new DynXmlObjParseException("No lights illuminating the scene were loaded.");
+        }
+        if (null == frameLoader.getBackground()) {
+            throw new DynXmlObjParseException("No background was loaded.");
+        }
+        if (null == frameLoader.getCamera()) {
+            throw new DynXmlObjParseException("No camera was loaded for rendering.");
+        }
+
+        lclConditionLoadedEnvironment(frameLoader);
+        // -----------------------------------------------------------------------------------------------------
+        // now pull out the information we need to render the frame.
+        m_bkg = frameLoader.getBackground();
+        m_camera = frameLoader.getCamera();
+
+        // Now that we've completely parsed the scene definition file, transfer the geometry and light lists into
+        //  arrays for optimal performance when looping through the lists.
+
+        // setup the geometry list
+        m_rtObjects = new IRtGeometry[objectList.size()];
+        for (int iObj = 0; iObj < objectList.size(); iObj++) {
+            m_rtObjects[iObj] = objectList.get(iObj);
+        }
+
+        // setup the light list
+        m_rtLights = new IRtLight[lightList.size()];
+        m_bLocalLights = new boolean[lightList.size()];
+        m_fLightDimmers = new float[lightList.size()];
+        final LightInfluence influence = new LightInfluence();
+        for (int iLgt = 0; iLgt < lightList.size(); iLgt++) {
+            m_rtLights[iLgt] = lightList.get(iLgt);
+            m_rtLights[iLgt].setDimmer(frameLoader.getDimmer());
+            m_rtLights[iLgt].getInfluence(influence);
+            m_bLocalLights[iLgt] = influence.m_bLocal;
+            m_fLightDimmers[iLgt] = 1.0f;
+        }
+        m_frameLights = m_rtLights;
+        m_fDimmer = frameLoader.getDimmer();
+        m_bRelit = false;
+        m_gBuffer = null;
+        m_rtLights = LightTree.buildLights(m_rtLights, frameLoader.getLightSamples());
+        // NOTE: the precision mode is shared by everything rendering in the JVM, so two renderers with different fastMath
+        //  settings must not render at the same time - the last scene loaded sets the mode for both.
+        FastMath.setFast(frameLoader.isFastMath());
+        m_nMaxRecursions = frameLoader.getMaxRecursions();
+        m_termination = new RayTermination(frameLoader.isRoulette(), frameLoader.getCutoff(), frameLoader.getRayBudget());
+
+        m_frameLoader = frameLoader;
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Scene object load statistics:\n" + DynXmlObjLoader.getLoadStatistics());
+        }
+        m_bNewScene = true;
+        m_bSceneLoaded = true;
+        m_loadFailure = null;
+    }
+
+    /**
+     * Load a scene that was assembled in memory by a {@link cip.render.FrameBuilder}, bypassing the scene description
+     * file and the render cache.
+     *
+     * @param frame (FrameLoader, readonly) The frame.
+     * @throws DynXmlObjParseException Thrown if the frame cannot be rendered.
+     */
+    public void loadScene(@NotNull final FrameLoader frame) throws DynXmlObjParseException {
+        m_strSceneDesc = null;
+        m_strSceneHash = null;
+        m_bSceneLoaded = false;
+        lclSetFrame(frame);
+    }
+
+    /**
+     * Reload the scene after the scene description has been edited.  Objects whose descriptions did not change are reused
+     * from the current scene (see {@link FrameLoader#reload(String, FrameLoader)}), and the scene is not marked for
+     * re-rendering if nothing in the scene description changed.  The render cache is bypassed while editing.
+     *
+     * @param strSceneDesc (String, readonly) The scene description file.
+     * @return Returns <tt>true</tt> if the scene changed and should be re-rendered, <tt>false</tt> otherwise.
+     * @throws Exception Thrown if the scene could not be loaded, the current scene is retained.
+     */
+    @Override
+    public boolean reloadScene(@NotNull final String strSceneDesc) throws Exception {
+        final String strPrevHash = (null == m_frameLoader) ? null : m_frameLoader.getContentHash();
+        final boolean bNewScene = m_bNewScene;
+        final boolean bRelit = m_bRelit;
+        m_strSceneDesc = strSceneDesc;
+        m_strSceneHash = null;
+        lclLoadFrame(strSceneDesc, true);
+        if (!bRelit && (null != strPrevHash) && strPrevHash.equals(m_frameLoader.getContentHash())) {
+            m_bNewScene = bNewScene;
+            return false;
+        }
+        return true;
+    }
 
-            // Now that we've completely parsed the scene definition file, transfer the geometry and light lists into
-            //  arrays for optimal performance when looping through the lists.
+    /**
+     * Load a scene and keep all of the scene objects resident, bypassing the render cache.  This is used when the loaded
+     * scene will be modified between renderings, as in rendering an animation.
+     *
+     * @param strSceneDesc (String, readonly) The scene description file.
+     * @throws Exception Thrown if the scene could not be loaded.
+     */
+    void loadSceneResident(final String strSceneDesc) throws Exception {
+        m_strSceneDesc = strSceneDesc;
+        m_strSceneHash = null;
+        m_bSceneLoaded = false;
+        lclLoadFrame(strSceneDesc, false);
+    }
 
-            // setup the geometry list
-            m_rtObjects = new IRtGeometry[objectList.size()];
-            for (int iObj = 0; iObj < objectList.size(); iObj++) {
-                m_rtObjects[iObj] = objectList.get(iObj);
+    /**
+     * Render the loaded scene into an off-screen image.
+     *
+     * @param nWidth  (int) The pixel width of the image.
+     * @param nHeight (int) The pixel height of the image.
+     * @return Returns the rendered image.
+     */
+    public BufferedImage renderFrame(final int nWidth, final int nHeight) {
+        final Canvas canvas = new Canvas();
+        canvas.setSize(nWidth, nHeight);
+        final BufferedImage biTarget = new BufferedImage(nWidth, nHeight, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D gc = biTarget.createGraphics();
+        try {
+            gc.setClip(0, 0, nWidth, nHeight);
+            m_bNewScene = true;
+            renderScene(canvas, gc);
+        } finally {
+            gc.dispose();
+        }
+        return biTarget;
+    }
+
+    /**
+     * Enable relighting.  The primary hit of every pixel is recorded in a {@link GBuffer} as each frame is rendered, so
+     * changes to the dimmers relight the frame instead of rendering it again.  This should be called before the scene
+     * is loaded, the render cache is bypassed while relighting is enabled.
+     *
+     * @return Returns <tt>true</tt>.
+     */
+    @Override
+    public boolean enableRelighting() {
+        m_bRelighting = true;
+        return true;
+    }
+
+    /**
+     * Get the global dimmer of the lights.  This is the dimmer of the scene description until it is changed by
+     * {@link #setDimmer(float)}.
+     *
+     * @return Returns the global dimmer.
+     */
+    @Override
+    public float getDimmer() {
+        lclLoadResident();
+        return m_fDimmer;
+    }
+
+    /**
+     * Set the global dimmer of the lights.  The frame is relit if a G-buffer was recorded when it was rendered,
+     * otherwise it is rendered again when it is next drawn.
+     *
+     * @param fDimmer (float) The global dimmer.
+     * @return Returns <tt>true</tt> if the frame should be redrawn, <tt>false</tt> if no scene is loaded.
+     */
+    @Override
+    public boolean setDimmer(final float fDimmer) {
+        if (!lclLoadResident()) {
+            return false;
+        }
+        m_fDimmer = fDimmer;
+        return lclRelight();
+    }
+
+    /**
+     * Set the dimmer of a light, a multiplier of the global dimmer for that light.  If the light is one of the lights
+     * sampled from the light tree (see {@link LightTree}), it keeps the sampling probability it was loaded with.
+     *
+     * @param strLight (String, readonly) The name of the light.
+     * @param fDimmer  (float) The light dimmer.
+     * @return Returns <tt>true</tt> if the frame should be redrawn, <tt>false</tt> if there is no light of that name.
+     */
+    public boolean setLightDimmer(@NotNull final String strLight, final float fDimmer) {
+        if (!lclLoadResident()) {
+            return false;
+        }
+        for (int iLgt = 0; iLgt < m_frameLights.length; iLgt++) {
+            if ((m_frameLights[iLgt] instanceof INamedObject) &&
+                    strLight.equals(((INamedObject) m_frameLights[iLgt]).getName())) {
+                m_fLightDimmers[iLgt] = fDimmer;
+                return lclRelight();
+            }
+        }
+        return false;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Make sure the scene objects are loaded (they may have been deferred for the render cache), and bypass the render
+    //  cache because the lights are about to differ from the scene description.
+    private boolean lclLoadResident() {
+        if (!m_bSceneLoaded) {
+            if (null == m_strSceneDesc) {
+                return false;
             }
+            if (!lclLoadDeferred()) {
+                return false;
+            }
+        }
+        m_strSceneHash = null;
+        return true;
+    }
 
-            // setup the light list
-            m_rtLights = new IRtLight[lightList.size()];
-            for (int iLgt = 0; iLgt < lightList.size(); iLgt++) {
-                m_rtLights[iLgt] = lightList.get(iLgt);
-                m_rtLights[iLgt].setDimmer(frameLoader.getDimmer());
+    // Set the light dimmers, then relight the frame from the G-buffer or have it rendered again.
+    private boolean lclRelight() {
+        for (int iLgt = 0; iLgt < m_frameLights.length; iLgt++) {
+            m_frameLights[iLgt].setDimmer(m_fDimmer * m_fLightDimmers[iLgt]);
+        }
+        m_bRelit = true;
+        if ((null != m_gBuffer) && !m_bNewScene) {
+            try {
+                m_gBuffer.relight(m_bi, lclLightScale());
+                return true;
+            } catch (final Exception e) {
+                logger.warning("Could not relight the frame, rendering it again: " + e.getMessage());
             }
+        }
+        m_bNewScene = true;
+        return true;
+    }
 
-            m_bNewScene = true;
+    // The rendered lights that are not local, these are not dimmed.
+    @NotNull
+    private IRtLight[] lclStaticLights() {
+        final ArrayList<IRtLight> staticLights = new ArrayList<>();
+        for (int iLgt = 0; iLgt < m_frameLights.length; iLgt++) {
+            if (!m_bLocalLights[iLgt]) {
+                staticLights.add(m_frameLights[iLgt]);
+            }
+        }
+        return staticLights.toArray(new IRtLight[0]);
+    }
 
-        } catch (final Throwable t) {
-            if (t instanceof DynXmlObjParseException) {
-                throw (DynXmlObjParseException) t;
-            } else {
-                throw new DynXmlObjParseException("Error parsing <" + strSceneDesc + "> into an XML DOM", t);
+    // The light scale - the global dimmer times the average dimmer of the local lights.
+    private float lclLightScale() {
+        float fSum = 0.0f;
+        int nLocal = 0;
+        for (int iLgt = 0; iLgt < m_frameLights.length; iLgt++) {
+            if (m_bLocalLights[iLgt]) {
+                fSum += m_fLightDimmers[iLgt];
+                nLocal++;
             }
         }
+        return (0 == nLocal) ? m_fDimmer : (m_fDimmer * fSum) / nLocal;
     }
 
     protected void lclConditionLoadedEnvironment(FrameLoader frameLoader) {
@@ -304,8 +627,6 @@ public class RenderXml implements IRenderScene {
         // get the bounds of the hither plane (picture plane)
         final Rectangle rectRender = gc.getClipBounds();
 
-        m_camera.initPicturePlane(dimScreen.width, dimScreen.height, 1.0f);
-
         if ((dimScreen.width != m_pixArrayWidth) || (dimScreen.height != m_pixArrayHeight)) {
             // allocate and initialize the pixel array and the image buffer
             m_pixArrayWidth = dimScreen.width;
@@ -315,6 +636,31 @@ public class RenderXml implements IRenderScene {
             lclAllocateKernelSamplingBuffer();
         }
 
+        // If this frame has been rendered before, just draw the cached frame.
+        String strCacheKey = null;
+        if (m_bNewScene && (null != m_strSceneHash)) {
+            strCacheKey = RenderCache.getKey(getClass().getName(), m_strSceneHash, m_pixArrayWidth, m_pixArrayHeight);
+            final BufferedImage biCached = s_renderCache.get(strCacheKey);
+            if (null != biCached) {
+                m_bi.getGraphics().drawImage(biCached, 0, 0, null);
+                m_bNewScene = false;
+                gc.drawImage(m_bi, 0, 0, null);
+                return;
+            }
+        }
+        if (!m_bSceneLoaded) {
+            if (!m_bNewScene) {
+                // the frame came from the cache, just redraw it
+                gc.drawImage(m_bi, 0, 0, null);
+                return;
+            }
+            if (!lclLoadDeferred()) {
+                return;
+            }
+        }
+
+        m_camera.initPicturePlane(dimScreen.width, dimScreen.height, 1.0f);
+
         if (m_bNewScene) {
             m_nXDmin = m_nXmin = 0;
             m_nYDmin = m_nYmin = 0;
@@ -332,6 +678,8 @@ public class RenderXml implements IRenderScene {
         m_nYcur = m_nYDmin;
 
         if (m_bNewScene) {
+            m_gBuffer = m_bRelighting ? new GBuffer(m_pixArrayWidth, m_pixArrayHeight, m_rtLights, lclStaticLights(),
+                    m_rtObjects, m_bkg, m_nMaxRecursions, lclLightScale()) : null;
             // now start the threads
             final int nProcessors = Runtime.getRuntime().availableProcessors();
             final int nThreads = nProcessors;     // start a rendering thread for each processor
@@ -348,21 +696,31 @@ public class RenderXml implements IRenderScene {
             //  returns.  There are alternate ways to implement this -- this thread could also be computing pixels.
             //  I find it hard (as in needlessly confusing - especially when reviewing code later) to implement the
             //  multiple use for this thread, so I just block this thread while the rendering threads do their stuff.
+            final boolean bComplete;
             synchronized (m_threadLock) {
                 m_threadCt = 0;
+                m_nSampleCt = 0;
+                m_termination.startFrame();
                 for (int iThread = 0; iThread < nThreads; iThread++) {
                     m_threadCt++;
                     lclCreateRenderingThread();
 //                    new Thread(new RenderPixel(this)).start();
                 }
                 try {
-                    m_threadLock.wait();
+                    while (m_threadCt > 0) {
+                        m_threadLock.wait();
+                    }
                 } catch (final Throwable t) {
                     // the wait was interrupted, probably because the window closed
                 }
+                bComplete = (m_threadCt <= 0);
             }
             m_bNewScene = false;
             gc.drawImage(m_bi, m_nXmin, m_nYmin, m_nXmax, m_nYmax, m_nXmin, m_nYmin, m_nXmax, m_nYmax, null);
+            // only a completely rendered frame is cached
+            if (bComplete && (null != strCacheKey)) {
+                s_renderCache.put(strCacheKey, m_bi);
+            }
 
         } else {
             gc.drawImage(m_bi, m_nXmin, m_nYmin, m_nXmax, m_nYmax, m_nXmin, m_nYmin, m_nXmax, m_nYmax, null);
@@ -405,16 +405,16 @@ public class RenderXmlOS extends RenderXml {
         public void run() {
             // this is the actual rendering part.
             m_intersection = new RayIntersection();
-            final RGBf rgb = m_intersection.borrowRGB();
-            final RGBf rgbTmp = m_intersection.borrowRGB();
+            m_intersection.setTermination(m_parent.m_termination);
+            final RGBf rgb = new RGBf();
+            final RGBf rgbTmp = new RGBf();
             // render pixels ahile there are pixels to render
             while (m_parent.dispatchPixel(this)) {
                 m_nSampleCt++;
                 m_parent.getSampleColor(rgb, m_ray, m_intersection, m_nSamp, m_nRandom);
+                m_intersection.getTermination().endSample();
                 m_parent.setSampleColor(m_nX, m_nY, m_nSamp, rgb, rgbTmp);
             }
-            m_intersection.returnRGB(rgbTmp);
-            m_intersection.returnRGB(rgb);
 
             // let the main thread know we are done
             synchronized (m_parent.m_threadLock) {
@@ -467,6 +467,8 @@ public class RenderXmlOS extends RenderXml {
     //  object at every invocation.
     void getSampleColor(final RGBf rgb, final Line3f ray, final RayIntersection intersection, final int nSamp, final int nRandom) {
         boolean bIntersectObj = false;
+        // the sample is mark 0 of the root arena, it is reset when the sample is complete
+        intersection.mark();
 
         try {
             for (IRtGeometry m_rtObject : m_rtObjects) {
@@ -475,6 +477,7 @@ public class RenderXmlOS extends RenderXml {
                 }
             }
             if (bIntersectObj) {
+                intersection.resolveHit(ray);
                 intersection.m_mtl.getColor(rgb, intersection, m_rtLights, m_rtObjects, m_bkg, m_nMaxRecursions, nSamp, nRandom);
             } else {
                 m_bkg.getColor(rgb, ray, null);
@@ -484,11 +487,32 @@ public class RenderXmlOS extends RenderXml {
             t.printStackTrace();
             rgb.setValue(1.0f, 1.0f, 0.0f);
         }
+        // the sample is complete, reset the root arena to the mark of the sample whatever the debug setting, so everything
+        //  borrowed during the sample is released even if a reset was missed.  In debug mode unbalanced scratch use is
+        //  reported.
+        try {
+            intersection.reset(0);
+            intersection.getArena().checkBalanced();
+        } catch (final IllegalStateException e) {
+            logger.severe(e.getMessage());
+            rgb.setValue(1.0f, 1.0f, 0.0f);
+        }
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // IRenderScene interface implementation                                                                                      //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /**
+     * Relighting is not supported - the G-buffer records one sample for each pixel, and the samples here are filtered
+     * into the pixels.  Changing the dimmer renders the frame again.
+     *
+     * @return Returns <tt>false</tt>.
+     */
+    @Override
+    public boolean enableRelighting() {
+        return false;
+    }
+
     @Override
     protected void lclConditionLoadedEnvironment(FrameLoader frameLoader) {
         // setup the sampling
@@ -0,0 +1,86 @@
+/*
+ * RtObjectFactories.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace;
+
+import cip.render.IDynXmlObjFactory;
+import cip.render.raytrace.background.ConstantColour;
+import cip.render.raytrace.camera.Aperture;
+import cip.render.raytrace.camera.PinHole;
+import cip.render.raytrace.geometry.*;
+import cip.render.raytrace.light.Ambient;
+import cip.render.raytrace.light.Point;
+import cip.render.raytrace.light.Spot;
+import cip.render.raytrace.light.XfmLight;
+import cip.render.raytrace.material.Blinn;
+import cip.render.raytrace.material.Hall;
+import cip.render.raytrace.material.Whitted;
+import cip.render.raytrace.material.D.Gaussian;
+import cip.render.raytrace.material.D.Phong;
+import cip.render.raytrace.material.D.TrowRietz;
+import cip.render.raytrace.material.G.Torrance;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The direct factories for the ray tracing geometry, lights, materials, cameras, and backgrounds that are part of
+ * this package.  These are the classes that appear thousands of times in generated scene descriptions.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see IDynXmlObjFactory
+ * @since 1.0
+ */
+public class RtObjectFactories implements IDynXmlObjFactory {
+    @Override
+    public void registerFactories(@NotNull final Map<String, Supplier<Object>> factories) {
+        // geometry
+        factories.put(Sphere.class.getName(), Sphere::new);
+        factories.put(Ellipsoid.class.getName(), Ellipsoid::new);
+        factories.put(Cylinder.class.getName(), Cylinder::new);
+        factories.put(Cone.class.getName(), Cone::new);
+        factories.put(Paraboloid.class.getName(), Paraboloid::new);
+        factories.put(Hyperboloid.class.getName(), Hyperboloid::new);
+        factories.put(HyperParaboloid.class.getName(), HyperParaboloid::new);
+        factories.put(PlanarPolyhedra.class.getName(), PlanarPolyhedra::new);
+        factories.put(SphereFlake.class.getName(), SphereFlake::new);
+        factories.put(XfmGeometry.class.getName(), XfmGeometry::new);
+        // materials and illumination model components
+        factories.put(Blinn.class.getName(), Blinn::new);
+        factories.put(Whitted.class.getName(), Whitted::new);
+        factories.put(Hall.class.getName(), Hall::new);
+        factories.put(cip.render.raytrace.material.D.Blinn.class.getName(), cip.render.raytrace.material.D.Blinn::new);
+        factories.put(Phong.class.getName(), Phong::new);
+        factories.put(Gaussian.class.getName(), Gaussian::new);
+        factories.put(TrowRietz.class.getName(), TrowRietz::new);
+        factories.put(Torrance.class.getName(), Torrance::new);
+        // lights
+        factories.put(Ambient.class.getName(), Ambient::new);
+        factories.put(Point.class.getName(), Point::new);
+        factories.put(Spot.class.getName(), Spot::new);
+        factories.put(XfmLight.class.getName(), XfmLight::new);
+        // cameras and backgrounds
+        factories.put(PinHole.class.getName(), PinHole::new);
+        factories.put(Aperture.class.getName(), Aperture::new);
+        factories.put(ConstantColour.class.getName(), ConstantColour::new);
+    }
+}
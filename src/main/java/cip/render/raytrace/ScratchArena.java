@@ -0,0 +1,300 @@
+/*
+ * ScratchArena.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace;
+
+import cip.render.raytrace.material.RayTermination;
+import cip.render.util.AngleF;
+import cip.render.util3d.*;
+import cip.render.utilColour.RGBf;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * This is the scratch object arena shared by a root {@link RayIntersection} and all the intersections borrowed from it.
+ * The arena is used by a single thread and has stack discipline: a computation takes a {@link #mark()} before it
+ * borrows scratch objects, and releases everything borrowed since the mark with a single {@link #reset(int)} when it is
+ * done, normally in a <tt>finally</tt>.  Marks nest with the recursion of the ray tree, so a reflected ray marks and
+ * resets within the mark of the ray that spawned it.
+ * <p>
+ * The arena is a stack of frames keyed to the mark depth, a mark enters the next frame and a reset returns to the frame
+ * of the mark.  Each frame has one pool per scratch type.  Scratch objects are allocated the first time a frame's pool
+ * grows to them and are then reused for the life of the arena, so borrowing is an array read and an index bump.  Leaving
+ * a frame bumps its generation, and a pool whose generation is behind its frame's is empty - so a mark and a reset are
+ * each a single store no matter how many scratch objects are released.
+ * <p>
+ * A reset also releases the frames of any later marks that were never reset, and the renderers reset to the mark of the
+ * sample after every sample, so a missed reset cannot grow the arena from one sample to the next.  Setting the
+ * <tt>cip.render.arena.debug</tt> system property to <tt>true</tt> enables reporting unbalanced use: a reset that is not
+ * for the innermost outstanding mark, and scratch objects still borrowed when a sample is complete (see
+ * {@link #checkBalanced()}), throw an {@link IllegalStateException}.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see RayIntersection#mark()
+ * @since 1.0
+ */
+public final class ScratchArena {
+    /**
+     * The system property enabling the unbalanced use checks.
+     */
+    public static final String PROPERTY_DEBUG = "cip.render.arena.debug";
+    static final boolean DEBUG = Boolean.getBoolean(PROPERTY_DEBUG);
+
+    private static final int INITIAL_POOL_SIZE = 4;
+    private static final int INITIAL_DEPTH = 16;
+
+    private Frame[] m_frames = new Frame[INITIAL_DEPTH];
+    private int m_nDepth = 0;
+    // The ray termination of the frame being rendered - the arena is shared by all the intersections of a ray tree, so
+    //  this is where they all find it (see RayIntersection.getTermination()).
+    RayTermination m_termination = RayTermination.DEFAULT;
+
+    /**
+     * The scratch objects of one type in one frame.  The objects below the count are borrowed if the pool generation is the
+     * frame generation, otherwise the pool is empty.
+     *
+     * @param <T> The type of the scratch objects.
+     */
+    private static final class Pool<T> {
+        private final Supplier<T> m_factory;
+        private T[] m_objs;
+        private int m_nCount = 0;
+        private int m_nGen = 0;
+
+        Pool(@NotNull final T[] objs, @NotNull final Supplier<T> factory) {
+            m_objs = objs;
+            m_factory = factory;
+        }
+
+        T borrow(final int nFrameGen) {
+            if (m_nGen != nFrameGen) {
+                m_nGen = nFrameGen;
+                m_nCount = 0;
+            }
+            final int nTop = m_nCount++;
+            if (nTop == m_objs.length) {
+                m_objs = Arrays.copyOf(m_objs, nTop * 2);
+            }
+            T obj = m_objs[nTop];
+            if (null == obj) {
+                obj = m_objs[nTop] = m_factory.get();
+            }
+            return obj;
+        }
+
+        int getBorrowedCount(final int nFrameGen) {
+            return (m_nGen == nFrameGen) ? m_nCount : 0;
+        }
+    }
+
+    /**
+     * The scratch objects of one mark depth, one pool per scratch type.
+     */
+    private static final class Frame {
+        int m_nGen = 0;
+        final Pool<RayIntersection> m_intersections;
+        final Pool<LightInfo> m_lightInfos = new Pool<>(new LightInfo[INITIAL_POOL_SIZE], LightInfo::new);
+        final Pool<Point3f> m_points = new Pool<>(new Point3f[INITIAL_POOL_SIZE], Point3f::new);
+        final Pool<Line3f> m_lines = new Pool<>(new Line3f[INITIAL_POOL_SIZE], Line3f::new);
+        final Pool<Vector3f> m_vectors = new Pool<>(new Vector3f[INITIAL_POOL_SIZE], Vector3f::new);
+        final Pool<Plane3f> m_planes = new Pool<>(new Plane3f[INITIAL_POOL_SIZE], Plane3f::new);
+        final Pool<Plane3fIntersection> m_planeInts = new Pool<>(new Plane3fIntersection[INITIAL_POOL_SIZE],
+                Plane3fIntersection::new);
+        final Pool<Bv3fIntersection> m_bvInts = new Pool<>(new Bv3fIntersection[INITIAL_POOL_SIZE],
+                Bv3fIntersection::new);
+        final Pool<Quadric3fIntersection> m_quadricInts = new Pool<>(new Quadric3fIntersection[INITIAL_POOL_SIZE],
+                Quadric3fIntersection::new);
+        final Pool<Xfm4x4f> m_xfms = new Pool<>(new Xfm4x4f[INITIAL_POOL_SIZE], Xfm4x4f::new);
+        final Pool<RGBf> m_rgbs = new Pool<>(new RGBf[INITIAL_POOL_SIZE], RGBf::new);
+        final Pool<AngleF> m_angles = new Pool<>(new AngleF[INITIAL_POOL_SIZE], AngleF::new);
+
+        Frame(@NotNull final ScratchArena arena) {
+            m_intersections = new Pool<>(new RayIntersection[INITIAL_POOL_SIZE], () -> new RayIntersection(arena));
+        }
+
+        int getBorrowedCount() {
+            return m_intersections.getBorrowedCount(m_nGen) + m_lightInfos.getBorrowedCount(m_nGen) +
+                    m_points.getBorrowedCount(m_nGen) + m_lines.getBorrowedCount(m_nGen) +
+                    m_vectors.getBorrowedCount(m_nGen) + m_planes.getBorrowedCount(m_nGen) +
+                    m_planeInts.getBorrowedCount(m_nGen) + m_bvInts.getBorrowedCount(m_nGen) +
+                    m_quadricInts.getBorrowedCount(m_nGen) + m_xfms.getBorrowedCount(m_nGen) +
+                    m_rgbs.getBorrowedCount(m_nGen) + m_angles.getBorrowedCount(m_nGen);
+        }
+    }
+
+    /**
+     * Creates a new empty instance of <tt>ScratchArena</tt>.
+     */
+    public ScratchArena() {
+        m_frames[0] = new Frame(this);
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Mark the current borrowing position of the arena.
+     *
+     * @return Returns the mark that should be passed to {@link #reset(int)} to release everything borrowed after the mark.
+     */
+    public int mark() {
+        return m_nDepth++;
+    }
+
+    /**
+     * Release everything borrowed since a mark, including everything borrowed since any later marks that were not reset.
+     * The renderers reset the root arena to the mark of the sample after every sample, so a missed reset is repaired at
+     * the end of the sample it happened in.
+     *
+     * @param nMark (int) The mark from {@link #mark()}.
+     * @throws IllegalStateException Thrown in debug mode, after the reset, if the mark is not the innermost outstanding
+     *                               mark.
+     */
+    public void reset(final int nMark) {
+        final int nDepth = m_nDepth;
+        m_nDepth = nMark;
+        // empty the frame of the mark and the frames of any marks that were missed, normally this is just the frame of the
+        //  mark.  A frame that was never entered is already empty.
+        for (int nFrame = nMark + 1; (nFrame <= Math.max(nDepth, nMark + 1)) && (nFrame < m_frames.length); nFrame++) {
+            if (null != m_frames[nFrame]) {
+                m_frames[nFrame].m_nGen++;
+            }
+        }
+        if (DEBUG && (nDepth != nMark + 1)) {
+            throw new IllegalStateException(String.format(
+                    "Unbalanced scratch arena use: reset to %d, the innermost outstanding mark was %s", nMark,
+                    (0 == nDepth) ? "none" : Integer.toString(nDepth - 1)));
+        }
+    }
+
+    /**
+     * In debug mode, check that there are no outstanding marks or borrowed objects.  This is called when a sample is
+     * complete.
+     *
+     * @throws IllegalStateException Thrown in debug mode if the arena is not balanced.
+     */
+    public void checkBalanced() {
+        if (DEBUG && ((0 != m_nDepth) || (0 != m_frames[0].getBorrowedCount()))) {
+            final int nBorrowed = getBorrowedCount();
+            final int nMarks = m_nDepth;
+            // clear the arena so one leak is not reported for every following sample
+            for (int iFrame = 0; (iFrame <= m_nDepth) && (iFrame < m_frames.length); iFrame++) {
+                if (null != m_frames[iFrame]) {
+                    m_frames[iFrame].m_nGen++;
+                }
+            }
+            m_nDepth = 0;
+            throw new IllegalStateException(String.format(
+                    "Unbalanced scratch arena use: %d objects still borrowed, %d marks outstanding", nBorrowed, nMarks));
+        }
+    }
+
+    /**
+     * Get the number of scratch objects currently borrowed.
+     *
+     * @return Returns the number of borrowed scratch objects.
+     */
+    public int getBorrowedCount() {
+        int nBorrowed = 0;
+        for (int iFrame = 0; (iFrame <= m_nDepth) && (iFrame < m_frames.length); iFrame++) {
+            if (null != m_frames[iFrame]) {
+                nBorrowed += m_frames[iFrame].getBorrowedCount();
+            }
+        }
+        return nBorrowed;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    RayIntersection borrowIntersection() {
+        final Frame frame = lclFrame();
+        return frame.m_intersections.borrow(frame.m_nGen);
+    }
+
+    LightInfo borrowLightInfo() {
+        final Frame frame = lclFrame();
+        return frame.m_lightInfos.borrow(frame.m_nGen);
+    }
+
+    Point3f borrowPoint() {
+        final Frame frame = lclFrame();
+        return frame.m_points.borrow(frame.m_nGen);
+    }
+
+    Line3f borrowLine() {
+        final Frame frame = lclFrame();
+        return frame.m_lines.borrow(frame.m_nGen);
+    }
+
+    Vector3f borrowVector() {
+        final Frame frame = lclFrame();
+        return frame.m_vectors.borrow(frame.m_nGen);
+    }
+
+    Plane3f borrowPlane() {
+        final Frame frame = lclFrame();
+        return frame.m_planes.borrow(frame.m_nGen);
+    }
+
+    Plane3fIntersection borrowPlaneInt() {
+        final Frame frame = lclFrame();
+        return frame.m_planeInts.borrow(frame.m_nGen);
+    }
+
+    Bv3fIntersection borrowBvInt() {
+        final Frame frame = lclFrame();
+        return frame.m_bvInts.borrow(frame.m_nGen);
+    }
+
+    Quadric3fIntersection borrowQuadricInt() {
+        final Frame frame = lclFrame();
+        return frame.m_quadricInts.borrow(frame.m_nGen);
+    }
+
+    Xfm4x4f borrowXfm() {
+        final Frame frame = lclFrame();
+        return frame.m_xfms.borrow(frame.m_nGen);
+    }
+
+    RGBf borrowRGB() {
+        final Frame frame = lclFrame();
+        return frame.m_rgbs.borrow(frame.m_nGen);
+    }
+
+    AngleF borrowAngle() {
+        final Frame frame = lclFrame();
+        return frame.m_angles.borrow(frame.m_nGen);
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Get the frame of the current mark depth, creating it the first time the depth is reached.
+    private Frame lclFrame() {
+        final int nDepth = m_nDepth;
+        if (nDepth >= m_frames.length) {
+            m_frames = Arrays.copyOf(m_frames, nDepth * 2);
+        }
+        Frame frame = m_frames[nDepth];
+        if (null == frame) {
+            frame = m_frames[nDepth] = new Frame(this);
+        }
+        return frame;
+    }
+}
@@ -21,6 +21,7 @@
 package cip.render.raytrace.camera;
 
 import cip.render.DynXmlObjLoader;
+import cip.render.DynXmlObjParseException;
 import cip.render.IDynXmlObject;
 import cip.render.INamedObject;
 import cip.render.raytrace.RayIntersection;
@@ -189,6 +190,38 @@ public abstract class ACamera implements IDynXmlObject, INamedObject, IRtCamera
         return true;
     }
 
+    /**
+     * Reposition a loaded camera.  The element children are parsed exactly as the camera <tt>position</tt>,
+     * <tt>targetWidth</tt>, and <tt>targetDist</tt> elements of the camera description, and the camera is
+     * re-initialized for rendering.  This is used to move the camera between frames without reloading the scene.
+     *
+     * @param xmlElement (Element, readonly) The element containing the new camera position elements.
+     * @throws DynXmlObjParseException Thrown if an element is not recognized or could not be parsed.
+     */
+    public void reposition(final @NotNull Element xmlElement) throws DynXmlObjParseException {
+        try {
+            initForParse();
+            Node domNode = xmlElement.getFirstChild();
+            while (null != domNode) {
+                if (domNode instanceof Element) {
+                    final Element element = (Element) domNode;
+                    if (!parseACameraTag(element)) {
+                        throw new DynXmlObjParseException("Unrecognized camera reposition element <" +
+                                element.getTagName() + ">");
+                    }
+                }
+                domNode = domNode.getNextSibling();
+            }
+            initForRender();
+        } catch (final Throwable t) {
+            if (t instanceof DynXmlObjParseException) {
+                throw (DynXmlObjParseException) t;
+            } else {
+                throw new DynXmlObjParseException("Camera reposition parse exception", t);
+            }
+        }
+    }
+
     protected void resetCamVectors() {
         m_vView.setValue(-m_xfmOrientation.get(0, 1), -m_xfmOrientation.get(1, 1), -m_xfmOrientation.get(2, 1));
         m_vSide.setValue(-m_xfmOrientation.get(0, 0), -m_xfmOrientation.get(1, 0), -m_xfmOrientation.get(2, 0));
@@ -125,6 +125,24 @@ public abstract class AGeometry implements IDynXmlObject, INamedObject, IRtGeome
         return null;
     }
 
+    /**
+     * Append a face (spatial clipping plane) to the XML description of a geometry, in the form read by
+     * {@link #tryParseFace(Element, LinkedList)}.
+     *
+     * @param element (not null, modified) The XML element of the geometry the face is appended to.
+     * @param face    (not null, readonly) The face.
+     */
+    void pkgFaceToXml(@NotNull final Element element, @NotNull final Face face) {
+        final Element elFace = element.getOwnerDocument().createElement(XML_TAG_FACE);
+        element.appendChild(elFace);
+        elFace.setAttribute(XML_ATTR_FACE_PLANE, new StringBuilder(64).append(face.m_pln.m_fA).append(',').
+                append(face.m_pln.m_fB).append(',').append(face.m_pln.m_fC).append(',').
+                append(face.m_pln.m_fD).toString());
+        if (null != face.m_mtl) {
+            ((IDynXmlObject) face.m_mtl).toChildXmlElement(elFace);
+        }
+    }
+
     //------------------------------------------------------------------------------------------------------------------------------
     // Accessor/Mutator functions
     public IRtMaterial getMaterial() {
@@ -238,12 +256,9 @@ public abstract class AGeometry implements IDynXmlObject, INamedObject, IRtGeome
      * @throws DynXmlObjParseException Thrown if the geometry cannot be found in the reference object list.
      */
     IRtGeometry resolveGeometryRef(final String strName, final LinkedList refObjectList) throws DynXmlObjParseException {
-        if (!strName.equals("") && (null != refObjectList)) {
-            for (final Object obj : refObjectList) {
-                if ((obj instanceof IRtGeometry) && ((INamedObject) obj).getName().equals(strName)) {
-                    return (IRtGeometry) obj;
-                }
-            }
+        final IRtGeometry obj = NamedObjectRegistry.lookup(refObjectList, strName, IRtGeometry.class);
+        if (null != obj) {
+            return obj;
         }
         throw new DynXmlObjParseException(String.format("Referenced geometry \"%s\" was not found.", strName));
     }
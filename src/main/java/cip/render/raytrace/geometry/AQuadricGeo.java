@@ -28,6 +28,9 @@ abstract class AQuadricGeo extends AGeometry {
     private static final int NO_CLIP_INTERSECT = 0;
     private static final int CLIP_NEGATES_INTERSECT = -1;
 
+    // The deferred hit primitive for the quadric surface, the primitive of a clipping plane hit is the clipping plane index
+    static final int HIT_QUADRIC = -1;
+
     //------------------------------------------------------------------------------------------------------------------------------
     AQuadricGeo() {
         super();
@@ -62,6 +65,31 @@ abstract class AQuadricGeo extends AGeometry {
         m__tmpClipPlanes = null;
     }
 
+    /**
+     * Test whether this quadric has clipping planes.  A quadric without clipping planes is just the quadric surface, so
+     * a subclass may intersect it with a path specialized for its shape.
+     *
+     * @return Returns <tt>true</tt> if there are clipping planes, <tt>false</tt> otherwise.
+     */
+    boolean pkgHasClipPlanes() {
+        return (null != m_clipPlanes) && (0 != m_clipPlanes.length);
+    }
+
+    /**
+     * Append the clipping planes to the XML description of this quadric.  Each quadric calls this from its
+     * <tt>pkgToXml()</tt> so the clipping planes are written along with the quadric specific elements.
+     *
+     * @param element (not null, modified) The XML element of this quadric.
+     */
+    void pkgClipPlanesToXml(@NotNull final Element element) {
+        if (null != m_clipPlanes) {
+            for (final Face clipPlane : m_clipPlanes) {
+                pkgFaceToXml(element, clipPlane);
+            }
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
     @Override
     public boolean isConvex() {
         return m_quadric.isConvex();
@@ -80,6 +108,7 @@ abstract class AQuadricGeo extends AGeometry {
     @Override
     public boolean getRayIntersection(@NotNull final RayIntersection intersection, @NotNull final Line3f ray,
                                       final boolean bStartsInside, final int nSample, final int nRandom) {
+        final int nMark = intersection.mark();
         final Quadric3fIntersection qInt = intersection.borrowQuadricInt();
         try {
             m_quadric.getIntersection(qInt, ray, bStartsInside);
@@ -157,27 +186,40 @@ abstract class AQuadricGeo extends AGeometry {
                 intersection.m_fDist = fDistIn;
             }
 
-            // Update the intersection structure with information for this intersection
-            ray.pointAtDistance(intersection.m_pt, intersection.m_fDist);
-            m_quadric.getNormal(intersection.m_vNormal, intersection.m_pt);
-            intersection.m_bNatural = false;
-            intersection.m_ptObject.setValue(intersection.m_pt);
-            intersection.m_vObjNormal.setValue(intersection.m_vNormal);
-            intersection.m_xfmObjToWorldNormal.identity();
-            intersection.m_mtl = m_mtl;
-
+            // Record the hit, the intersection is updated in getHitAttributes() if this is the closest hit
+            intersection.deferHit(this, HIT_QUADRIC);
             return true;
         } finally {
-            intersection.returnQuadricInt(qInt);
+            intersection.reset(nMark);
         }
     }
 
+    //------------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public void getHitAttributes(@NotNull final RayIntersection intersection, @NotNull final Line3f ray) {
+        // Update the intersection structure with information for this intersection
+        ray.pointAtDistance(intersection.m_pt, intersection.m_fDist);
+        if (HIT_QUADRIC == intersection.m_nHitPrim) {
+            m_quadric.getNormal(intersection.m_vNormal, intersection.m_pt);
+            intersection.m_mtl = m_mtl;
+        } else {
+            final Face clipPlane = m_clipPlanes[intersection.m_nHitPrim];
+            clipPlane.m_pln.getNormal(intersection.m_vNormal);
+            intersection.m_mtl = (null != clipPlane.m_mtl) ? clipPlane.m_mtl : m_mtl;
+        }
+        intersection.m_bNatural = false;
+        intersection.m_ptObject.setValue(intersection.m_pt);
+        intersection.m_vObjNormal.setValue(intersection.m_vNormal);
+        intersection.m_xfmObjToWorldNormal.identity();
+    }
+
     //------------------------------------------------------------------------------------------------------------------------------
     private int lclTestClippingPlanes(@NotNull final RayIntersection intersection, @NotNull final Line3f ray,
                                       boolean bStartsInside, float fDistIn, float fDistOut) {
         if ((null == m_clipPlanes) || (0 == m_clipPlanes.length)) {
             return NO_CLIP_INTERSECT;
         }
+        final int nMark = intersection.mark();
         final Plane3fIntersection plnInt = intersection.borrowPlaneInt();
         try {
             //  We are testing spatial clipping planes after testing for a quadric intersection
@@ -221,8 +263,7 @@ abstract class AQuadricGeo extends AGeometry {
                     return NO_CLIP_INTERSECT;
                 }
                 intersection.m_fDist = fDistOut;
-                m_clipPlanes[nOut].m_pln.getNormal(intersection.m_vNormal);
-                intersection.m_mtl = (null != m_clipPlanes[nOut].m_mtl) ? m_clipPlanes[nOut].m_mtl : m_mtl;
+                intersection.deferHit(this, nOut);
             } else {
                 //  Test the intersection distance - if
                 //  this intersection is behind the eye, or, is not closer than a previously computed intersection.
@@ -230,28 +271,20 @@ abstract class AQuadricGeo extends AGeometry {
                     return NO_CLIP_INTERSECT;
                 }
                 intersection.m_fDist = fDistIn;
-                m_clipPlanes[nIn].m_pln.getNormal(intersection.m_vNormal);
-                intersection.m_mtl = (null != m_clipPlanes[nIn].m_mtl) ? m_clipPlanes[nIn].m_mtl : m_mtl;
+                intersection.deferHit(this, nIn);
             }
-
-            // Update the intersection structure with information for this intersection
-            ray.pointAtDistance(intersection.m_pt, intersection.m_fDist);
-            intersection.m_ptObject.setValue(intersection.m_pt);
-            intersection.m_vObjNormal.setValue(intersection.m_vNormal);
-            intersection.m_bNatural = false;
-            intersection.m_xfmObjToWorldNormal.identity();
-            intersection.m_rtObj = this;
             return CLIP_INTERSECT;
         } catch (final Throwable t) {
             return NO_CLIP_INTERSECT;
         } finally {
-            intersection.returnPlaneInt(plnInt);
+            intersection.reset(nMark);
         }
     }
 
     //------------------------------------------------------------------------------------------------------------------------------
     public boolean testShadow(final RayIntersection intersection, final Vector3f vLight, final float fDistLight,
                               final IRtLight light, final int nSample, final int nRandom) {
+        final int nMark = intersection.mark();
         final Quadric3fIntersection qInt = intersection.borrowQuadricInt();
         try {
             m_quadric.getIntersection(qInt, intersection.m_pt, vLight, false);
@@ -299,7 +332,7 @@ abstract class AQuadricGeo extends AGeometry {
             }
             return (!(fDistIn < 0.0f)) && (!(fDistIn > fDistLight));
         } finally {
-            intersection.returnQuadricInt(qInt);
+            intersection.reset(nMark);
         }
     }
 
@@ -310,6 +343,7 @@ abstract class AQuadricGeo extends AGeometry {
         if ((null == m_clipPlanes) || (0 == m_clipPlanes.length)) {
             return NO_CLIP_INTERSECT;
         }
+        final int nMark = intersection.mark();
         final Plane3fIntersection plnInt = intersection.borrowPlaneInt();
 
         try {
@@ -356,7 +390,7 @@ abstract class AQuadricGeo extends AGeometry {
         } catch (final Throwable t) {
             return NO_CLIP_INTERSECT;
         } finally {
-            intersection.returnPlaneInt(plnInt);
+            intersection.reset(nMark);
         }
     }
 }
@@ -225,10 +225,9 @@ public class Cone extends AQuadricGeo {
         final Element elRadius = element.getOwnerDocument().createElement(XML_TAG_RADIUS);
         element.appendChild(elRadius);
         if (getRadiusX() == getRadiusY()) {
-            elRadius.appendChild(element.getOwnerDocument().createTextNode(String.format("%f", getRadiusX())));
+            elRadius.appendChild(element.getOwnerDocument().createTextNode(Float.toString(getRadiusX())));
         } else {
-            elRadius.appendChild(element.getOwnerDocument().createTextNode(String.format("%f,%f",
-                    getRadiusX(), getRadiusY())));
+            elRadius.appendChild(element.getOwnerDocument().createTextNode(getRadiusX() + "," + getRadiusY()));
         }
         // The Height
         final Element elHeight = element.getOwnerDocument().createElement(XML_TAG_HEIGHT);
@@ -238,6 +237,8 @@ public class Cone extends AQuadricGeo {
         if ((m_mtl != DEFAULT_MATERIAL) && (m_mtl instanceof IDynXmlObject)) {
             ((IDynXmlObject) m_mtl).toChildXmlElement(element);
         }
+        // The clipping planes
+        pkgClipPlanesToXml(element);
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -285,6 +286,7 @@ public class Cone extends AQuadricGeo {
     public void getNaturalCoordinates(final RayIntersection intersection) {
         if (intersection.m_bNatural) return;
 
+        final int nMark = intersection.mark();
         final Vector3f vN = intersection.borrowVector().setValue(intersection.m_vObjNormal);
         // the natural coordinates are longitude and latitude.
         final float xyLen = (float) Math.sqrt((double) ((vN.i * vN.i) + (vN.j * vN.j)));
@@ -302,13 +304,12 @@ public class Cone extends AQuadricGeo {
             final AngleF ang = intersection.borrowAngle();
             intersection.m_ptNatural.x = ang.atan2(vN.j, vN.i).getDegrees();
             intersection.m_ptNatural.y = ang.atan2(vN.k, xyLen).getDegrees();
-            intersection.returnAngle(ang);
 
             intersection.m_vNatural[0].setValue(-vN.j / xyLen, vN.i / xyLen, 0.0f);
             intersection.m_vNatural[1].setValue(-(vN.k * vN.i) / xyLen, -(vN.k * vN.j) / xyLen, xyLen);
         }
         intersection.m_bNatural = true;
-        intersection.returnVector(vN);
+        intersection.reset(nMark);
     }
 
 
@@ -130,8 +130,7 @@ public class Ellipsoid extends Sphere {
      */
     public Ellipsoid() {
         super();
-        m_quadric.setEllipsoid(1.0f, 2.0f, 3.0f);
-        m_strType = m_quadric.getQuadricType();
+        pkgSetRadii(1.0f, 2.0f, 3.0f);
         m_strName = "ellipsoid";
     }
 
@@ -148,7 +147,7 @@ public class Ellipsoid extends Sphere {
     }
 
     public void setRadius(final float fRx, final float fRy, final float fRz) {
-        m_quadric.setEllipsoid(fRx, fRy, fRz);
+        pkgSetRadii(fRx, fRy, fRz);
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -192,14 +191,16 @@ public class Ellipsoid extends Sphere {
         final Element elRadius = element.getOwnerDocument().createElement(XML_TAG_RADIUS);
         element.appendChild(elRadius);
         if ((getRadiusX() == getRadiusY()) && (getRadiusX() == getRadiusZ())) {
-            elRadius.appendChild(element.getOwnerDocument().createTextNode(String.format("%f", getRadiusX())));
+            elRadius.appendChild(element.getOwnerDocument().createTextNode(Float.toString(getRadiusX())));
         } else {
-            elRadius.appendChild(element.getOwnerDocument().createTextNode(String.format("%f,%f,%f",
-                    getRadiusX(),getRadiusY(),getRadiusZ())));
+            elRadius.appendChild(element.getOwnerDocument().createTextNode(
+                    getRadiusX() + "," + getRadiusY() + "," + getRadiusZ()));
         }
         // The material
         if ((m_mtl != DEFAULT_MATERIAL) && (m_mtl instanceof IDynXmlObject)) {
             ((IDynXmlObject) m_mtl).toChildXmlElement(element);
         }
+        // The clipping planes
+        pkgClipPlanesToXml(element);
     }
 }
@@ -110,15 +110,15 @@ public class HyperParaboloid extends AQuadricGeo {
     }
 
     public float getRadiusX() {
-        return m_quadric.getQ(1);
+        return (float) Math.sqrt(1.0f / m_quadric.getQ(1));
     }
 
     public float getRadiusY() {
-        return m_quadric.getQ(2);
+        return (float) Math.sqrt(-1.0f / m_quadric.getQ(2));
     }
 
     public float getRadiusZ() {
-        return m_quadric.getQ(3);
+        return -1.0f / m_quadric.getQ(9);
     }
 
     public void setRadius(final float fRx, final float fRy, final float fRz) {
@@ -181,15 +181,17 @@ public class HyperParaboloid extends AQuadricGeo {
         final Element elRadius = element.getOwnerDocument().createElement(XML_TAG_RADIUS);
         element.appendChild(elRadius);
         if ((getRadiusX() == getRadiusY()) && (getRadiusX() == getRadiusZ())) {
-            elRadius.appendChild(element.getOwnerDocument().createTextNode(String.format("%f", getRadiusX())));
+            elRadius.appendChild(element.getOwnerDocument().createTextNode(Float.toString(getRadiusX())));
         } else {
-            elRadius.appendChild(element.getOwnerDocument().createTextNode(String.format("%f,%f,%f",
-                    getRadiusX(), getRadiusY(), getRadiusZ())));
+            elRadius.appendChild(element.getOwnerDocument().createTextNode(
+                    getRadiusX() + "," + getRadiusY() + "," + getRadiusZ()));
         }
         // The material
         if ((m_mtl != DEFAULT_MATERIAL) && (m_mtl instanceof IDynXmlObject)) {
             ((IDynXmlObject) m_mtl).toChildXmlElement(element);
         }
+        // The clipping planes
+        pkgClipPlanesToXml(element);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
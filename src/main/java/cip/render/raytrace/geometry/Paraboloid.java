@@ -147,7 +147,7 @@ public class Paraboloid extends AQuadricGeo {
     }
 
     public float getHeight() {
-        return -1.0f / m_quadric.getQ(3);
+        return -1.0f / m_quadric.getQ(9);
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -210,10 +210,9 @@ public class Paraboloid extends AQuadricGeo {
         final Element elRadius = element.getOwnerDocument().createElement(XML_TAG_RADIUS);
         element.appendChild(elRadius);
         if (getRadiusX() == getRadiusY()) {
-            elRadius.appendChild(element.getOwnerDocument().createTextNode(String.format("%f", getRadiusX())));
+            elRadius.appendChild(element.getOwnerDocument().createTextNode(Float.toString(getRadiusX())));
         } else {
-            elRadius.appendChild(element.getOwnerDocument().createTextNode(String.format("%f,%f",
-                    getRadiusX(), getRadiusY())));
+            elRadius.appendChild(element.getOwnerDocument().createTextNode(getRadiusX() + "," + getRadiusY()));
         }
         // The Height
         final Element elHeight = element.getOwnerDocument().createElement(XML_TAG_HEIGHT);
@@ -223,6 +222,8 @@ public class Paraboloid extends AQuadricGeo {
         if ((m_mtl != DEFAULT_MATERIAL) && (m_mtl instanceof IDynXmlObject)) {
             ((IDynXmlObject) m_mtl).toChildXmlElement(element);
         }
+        // The clipping planes
+        pkgClipPlanesToXml(element);
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
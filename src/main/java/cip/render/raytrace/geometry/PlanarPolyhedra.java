@@ -113,6 +113,12 @@ import java.util.LinkedList;
  *         <font style="color:blue">&lt;<b>MaterialByRef</b>&gt;<font style="color:magenta">red</font>&lt;/<b>MaterialByRef</b>&gt;</font>
  *     <font style="color:blue">&lt;/<b>DynamicallyLoadedObject</b>&gt;</font>
  * </pre>
+ * <p>
+ * The face planes are also kept packed as arrays of plane coefficients so the intersection loops work over primitive
+ * arrays rather than through face and plane objects.  When every face is perpendicular to a coordinate axis and there
+ * is at most one face on each side of each axis (an axis-aligned box, or a floor or wall), the polyhedra is intersected
+ * with a slab test over the axes instead of a plane test for every face.  Rays starting inside the polyhedra use the
+ * plane test.
  *
  * @author royster.hall@gmail.com
  * @version 1.0
@@ -122,6 +128,26 @@ public class PlanarPolyhedra extends AGeometry {
     // These are the planes describing the geometry
     protected Face[] m_faces = null;
     protected LinkedList<Face> m_faceListTmp = new LinkedList<Face>();
+    // The packed face plane coefficients, face ix is the plane m_fA[ix]x + m_fB[ix]y + m_fC[ix]z + m_fD[ix] = 0
+    private float[] m_fA = null;
+    private float[] m_fB = null;
+    private float[] m_fC = null;
+    private float[] m_fD = null;
+    // The slabs of an axis-aligned polyhedra. For each axis the min and max bounds are the faces with the normals in the
+    //  negative and positive directions of the axis, the face index is -1 and the bound is infinite if there is no face.
+    private boolean m_bAxisAligned = false;
+    private float m_xMin;
+    private float m_xMax;
+    private float m_yMin;
+    private float m_yMax;
+    private float m_zMin;
+    private float m_zMax;
+    private int m_nXMinFace;
+    private int m_nXMaxFace;
+    private int m_nYMinFace;
+    private int m_nYMaxFace;
+    private int m_nZMinFace;
+    private int m_nZMaxFace;
 
     /**
      * Creates a new instance of <tt>PlanarPolyhedra</tt>
@@ -135,6 +161,7 @@ public class PlanarPolyhedra extends AGeometry {
     public void clear() {
         m_mtl = DEFAULT_MATERIAL;
         m_faces = null;
+        lclPackFaces();
     }
 
     public IRtMaterial getMaterial() {
@@ -168,6 +195,64 @@ public class PlanarPolyhedra extends AGeometry {
             m_faces = new Face[1];
             m_faces[0] = tmpFace;
         }
+        lclPackFaces();
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    private void lclPackFaces() {
+        final int nFaces = (null == m_faces) ? 0 : m_faces.length;
+        m_fA = new float[nFaces];
+        m_fB = new float[nFaces];
+        m_fC = new float[nFaces];
+        m_fD = new float[nFaces];
+        for (int ix = 0; ix < nFaces; ix++) {
+            m_fA[ix] = m_faces[ix].m_pln.m_fA;
+            m_fB[ix] = m_faces[ix].m_pln.m_fB;
+            m_fC[ix] = m_faces[ix].m_pln.m_fC;
+            m_fD[ix] = m_faces[ix].m_pln.m_fD;
+        }
+        // Check for an axis-aligned polyhedra - every face normal must be exactly an axis direction (the planes are
+        //  normalized, so that component is exactly 1 or -1), and there can be only one face on each side of each axis.
+        m_bAxisAligned = nFaces > 0;
+        m_xMin = m_yMin = m_zMin = Float.NEGATIVE_INFINITY;
+        m_xMax = m_yMax = m_zMax = Float.POSITIVE_INFINITY;
+        m_nXMinFace = m_nXMaxFace = m_nYMinFace = m_nYMaxFace = m_nZMinFace = m_nZMaxFace = -1;
+        for (int ix = 0; (ix < nFaces) && m_bAxisAligned; ix++) {
+            // The plane x + D = 0 is the max bound x = -D, and the plane -x + D = 0 is the min bound x = D
+            if ((0.0f == m_fB[ix]) && (0.0f == m_fC[ix])) {
+                if ((1.0f == m_fA[ix]) && (-1 == m_nXMaxFace)) {
+                    m_xMax = -m_fD[ix];
+                    m_nXMaxFace = ix;
+                } else if ((-1.0f == m_fA[ix]) && (-1 == m_nXMinFace)) {
+                    m_xMin = m_fD[ix];
+                    m_nXMinFace = ix;
+                } else {
+                    m_bAxisAligned = false;
+                }
+            } else if ((0.0f == m_fA[ix]) && (0.0f == m_fC[ix])) {
+                if ((1.0f == m_fB[ix]) && (-1 == m_nYMaxFace)) {
+                    m_yMax = -m_fD[ix];
+                    m_nYMaxFace = ix;
+                } else if ((-1.0f == m_fB[ix]) && (-1 == m_nYMinFace)) {
+                    m_yMin = m_fD[ix];
+                    m_nYMinFace = ix;
+                } else {
+                    m_bAxisAligned = false;
+                }
+            } else if ((0.0f == m_fA[ix]) && (0.0f == m_fB[ix])) {
+                if ((1.0f == m_fC[ix]) && (-1 == m_nZMaxFace)) {
+                    m_zMax = -m_fD[ix];
+                    m_nZMaxFace = ix;
+                } else if ((-1.0f == m_fC[ix]) && (-1 == m_nZMinFace)) {
+                    m_zMin = m_fD[ix];
+                    m_nZMinFace = ix;
+                } else {
+                    m_bAxisAligned = false;
+                }
+            } else {
+                m_bAxisAligned = false;
+            }
+        }
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -197,25 +282,17 @@ public class PlanarPolyhedra extends AGeometry {
             m_faces[iFace] = m_faceListTmp.get(iFace);
         }
         m_faceListTmp = null;
+        lclPackFaces();
     }
 
 
     //------------------------------------------------------------------------------------------------------------------------------
     @Override
     protected void pkgToXml(@NotNull final Element element) {
-        final StringBuilder strBuff = new StringBuilder(64);
         // The faces
         if (null != m_faces) {
             for (Face m_face : m_faces) {
-                final Element elFace = element.getOwnerDocument().createElement(XML_TAG_FACE);
-                element.appendChild(elFace);
-                strBuff.delete(0, strBuff.length()).append(m_face.m_pln.m_fA).append(',').
-                        append(m_face.m_pln.m_fB).append(',').append(m_face.m_pln.m_fC).append(',').
-                        append(m_face.m_pln.m_fD);
-                elFace.setAttribute(XML_ATTR_FACE_PLANE, strBuff.substring(0));
-                if (null != m_face.m_mtl) {
-                    ((IDynXmlObject) m_face.m_mtl).toChildXmlElement(elFace);
-                }
+                pkgFaceToXml(element, m_face);
             }
         }
         // The material
@@ -241,35 +318,44 @@ public class PlanarPolyhedra extends AGeometry {
     @Override
     public boolean getRayIntersection(@NotNull final RayIntersection intersection, @NotNull final Line3f ray,
                                       final boolean bStartsInside, final int nSample, final int nRandom) {
-        final Plane3fIntersection plnInt = intersection.borrowPlaneInt();
+        if (m_bAxisAligned && !bStartsInside) {
+            return lclSlabIntersection(intersection, ray);
+        }
         try {
             //  This is the convex polyhedra test where we compute the distence to intersections
             //  into the planes of the polyhedra, and out of the planes of the polyhedra.  If
             //  the furthest in-to is closer than the furthest out-of, then the ray is is
             //  intersecting the polyhedra.
+            final float x = ray.m_ptOrg.x;
+            final float y = ray.m_ptOrg.y;
+            final float z = ray.m_ptOrg.z;
+            final float i = ray.m_vDir.i;
+            final float j = ray.m_vDir.j;
+            final float k = ray.m_vDir.k;
             float fDistIn = Float.NEGATIVE_INFINITY;
             float fDistOut = Float.POSITIVE_INFINITY;
             int nIn = -1;
             int nOut = -1;
-            for (int ix = 0; ix < m_faces.length; ix++) {
-                m_faces[ix].m_pln.getIntersection(plnInt, ray);
-                if (plnInt.m_nCode == Plane3fIntersection.NONE_OUTSIDE) {
-                    // This ray is parallel to and outside one of the planes of the polyhedra
-                    if (!bStartsInside) return false;
-                } else if (plnInt.m_nCode == Plane3fIntersection.NONE_INSIDE) {
-                    // do nothing - parallel and inside the plane, other geometry will be
-                    //  the determining factor
-                } else if (plnInt.m_nCode == Plane3fIntersection.GOING_OUT_OF) {
+            for (int ix = 0; ix < m_fA.length; ix++) {
+                final float fDot = (i * m_fA[ix]) + (j * m_fB[ix]) + (k * m_fC[ix]);
+                final float fDist = (m_fA[ix] * x) + (m_fB[ix] * y) + (m_fC[ix] * z) + m_fD[ix];
+                if (PackageConstants.isZero(fDot)) {
+                    // This ray is parallel to the plane - if it is outside one of the planes of the polyhedra there is
+                    //  no intersection, if it is inside, other geometry will be the determining factor
+                    if ((fDist > 0.0f) && !bStartsInside) return false;
+                } else if (fDot > 0.0f) {
                     // going out of the plane
-                    if (plnInt.m_fDist < fDistOut) {
-                        fDistOut = plnInt.m_fDist;
+                    final float fDistPln = -(fDist / fDot);
+                    if (fDistPln < fDistOut) {
+                        fDistOut = fDistPln;
                         nOut = ix;
                         if (((fDistOut < 0.0f) || (fDistIn > fDistOut)) && !bStartsInside) return false;
                     }
                 } else {
                     // going into the plane - and if this is greater than the current distance in, reset that.
-                    if (plnInt.m_fDist > fDistIn) {
-                        fDistIn = plnInt.m_fDist;
+                    final float fDistPln = -(fDist / fDot);
+                    if (fDistPln > fDistIn) {
+                        fDistIn = fDistPln;
                         nIn = ix;
                         if (fDistIn > fDistOut) {
                             // ooh - the furthest distance in is greater than the closest distance out - so no intersection.
@@ -279,9 +365,10 @@ public class PlanarPolyhedra extends AGeometry {
                 }
             }
             // We got here if the ray intersects the object.
+            // Record the hit on the face, the intersection is updated in getHitAttributes() if this is the closest hit
             if (bStartsInside) {
                 intersection.m_fDist = fDistOut;
-                m_faces[nOut].m_pln.getNormal(intersection.m_vNormal);
+                intersection.deferHit(this, nOut);
             } else {
                 //  Test the intersection distance - if
                 //  this intersection is behind the eye, or, is not closer than a previously computed intersection, return.
@@ -289,31 +376,124 @@ public class PlanarPolyhedra extends AGeometry {
                     return false;
                 }
                 intersection.m_fDist = fDistIn;
-                m_faces[nIn].m_pln.getNormal(intersection.m_vNormal);
+                intersection.deferHit(this, nIn);
             }
-
-            // Update the intersection structure with information for this intersection
-            ray.pointAtDistance(intersection.m_pt, intersection.m_fDist);
-            intersection.m_ptObject.setValue(intersection.m_pt);
-            intersection.m_vObjNormal.setValue(intersection.m_vNormal);
-            intersection.m_bNatural = false;
-            intersection.m_xfmObjToWorldNormal.identity();
-            intersection.m_mtl = (null != m_faces[nIn].m_mtl) ? m_faces[nIn].m_mtl : m_mtl;
-            intersection.m_rtObj = this;
             return true;
         } catch (final Throwable t) {
             return false;
-        } finally {
-            intersection.returnPlaneInt(plnInt);
         }
     }
 
+    //------------------------------------------------------------------------------------------------------------------------------
+    private boolean lclSlabIntersection(@NotNull final RayIntersection intersection, @NotNull final Line3f ray) {
+        // The slab test for an axis-aligned polyhedra and a ray from outside.  The distances to the slab bounds are exactly
+        //  the distances to the face planes computed by the general test, and a ray starting beyond the far bound of a slab
+        //  is rejected before any division - it would go out of that face behind the start. A missing face is an infinite
+        //  bound that is never the face the ray goes into.
+        final float x = ray.m_ptOrg.x;
+        final float y = ray.m_ptOrg.y;
+        final float z = ray.m_ptOrg.z;
+        final float i = ray.m_vDir.i;
+        final float j = ray.m_vDir.j;
+        final float k = ray.m_vDir.k;
+        float fDistIn = Float.NEGATIVE_INFINITY;
+        float fDistOut = Float.POSITIVE_INFINITY;
+        int nIn = -1;
+        float fTmp;
+        // test on X
+        if (PackageConstants.isZero(i)) {
+            if ((x < m_xMin) || (x > m_xMax)) return false;
+        } else if (i < 0.0f) {
+            if (x < m_xMin) return false;
+            fDistIn = (m_xMax - x) / i;
+            fDistOut = (m_xMin - x) / i;
+            nIn = m_nXMaxFace;
+        } else {
+            if (x > m_xMax) return false;
+            fDistIn = (m_xMin - x) / i;
+            fDistOut = (m_xMax - x) / i;
+            nIn = m_nXMinFace;
+        }
+        // test on Y
+        if (PackageConstants.isZero(j)) {
+            if ((y < m_yMin) || (y > m_yMax)) return false;
+        } else if (j < 0.0f) {
+            if (y < m_yMin) return false;
+            if ((fTmp = (m_yMax - y) / j) > fDistIn) {
+                fDistIn = fTmp;
+                nIn = m_nYMaxFace;
+            }
+            if ((fTmp = (m_yMin - y) / j) < fDistOut) {
+                fDistOut = fTmp;
+            }
+        } else {
+            if (y > m_yMax) return false;
+            if ((fTmp = (m_yMin - y) / j) > fDistIn) {
+                fDistIn = fTmp;
+                nIn = m_nYMinFace;
+            }
+            if ((fTmp = (m_yMax - y) / j) < fDistOut) {
+                fDistOut = fTmp;
+            }
+        }
+        if (fDistIn > fDistOut) return false;
+        // test on Z
+        if (PackageConstants.isZero(k)) {
+            if ((z < m_zMin) || (z > m_zMax)) return false;
+        } else if (k < 0.0f) {
+            if (z < m_zMin) return false;
+            if ((fTmp = (m_zMax - z) / k) > fDistIn) {
+                fDistIn = fTmp;
+                nIn = m_nZMaxFace;
+            }
+            if ((fTmp = (m_zMin - z) / k) < fDistOut) {
+                fDistOut = fTmp;
+            }
+        } else {
+            if (z > m_zMax) return false;
+            if ((fTmp = (m_zMin - z) / k) > fDistIn) {
+                fDistIn = fTmp;
+                nIn = m_nZMinFace;
+            }
+            if ((fTmp = (m_zMax - z) / k) < fDistOut) {
+                fDistOut = fTmp;
+            }
+        }
+        //  Test the intersection distance - if this intersection is behind the eye, or, is not closer than a previously
+        //  computed intersection, return.
+        if ((fDistIn > fDistOut) || (fDistIn < 0.0f) || (fDistIn > intersection.m_fDist)) {
+            return false;
+        }
+        // Record the hit on the face, the intersection is updated in getHitAttributes() if this is the closest hit
+        intersection.m_fDist = fDistIn;
+        intersection.deferHit(this, nIn);
+        return true;
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public void getHitAttributes(@NotNull final RayIntersection intersection, @NotNull final Line3f ray) {
+        // Update the intersection structure with information for this intersection
+        final Face face = m_faces[intersection.m_nHitPrim];
+        face.m_pln.getNormal(intersection.m_vNormal);
+        ray.pointAtDistance(intersection.m_pt, intersection.m_fDist);
+        intersection.m_ptObject.setValue(intersection.m_pt);
+        intersection.m_vObjNormal.setValue(intersection.m_vNormal);
+        intersection.m_bNatural = false;
+        intersection.m_xfmObjToWorldNormal.identity();
+        intersection.m_mtl = (null != face.m_mtl) ? face.m_mtl : m_mtl;
+    }
+
     //------------------------------------------------------------------------------------------------------------------------------
     @Override
     public boolean testShadow(@NotNull final RayIntersection intersection, final Vector3f vLight, final float fDistLight,
                               final IRtLight light, final int nSample, final int nRandom) {
-        final Plane3fIntersection plnInt = intersection.borrowPlaneInt();
-
+        final float x = intersection.m_pt.x;
+        final float y = intersection.m_pt.y;
+        final float z = intersection.m_pt.z;
+        if (m_bAxisAligned) {
+            return lclSlabShadow(x, y, z, vLight.i, vLight.j, vLight.k, fDistLight);
+        }
         try {
             //  This is the convex polyhedra test where we compute the distance to intersections
             //  into the planes of the polyhedra, and out of the planes of the polyhedra.  If
@@ -321,20 +501,21 @@ public class PlanarPolyhedra extends AGeometry {
             //  intersecting the polyhedra.
             float fDistIn = Float.NEGATIVE_INFINITY;
             float fDistOut = Float.POSITIVE_INFINITY;
-            for (int ix = 0; ix < m_faces.length; ix++) {
-                m_faces[ix].m_pln.getIntersection(plnInt, intersection.m_pt, vLight);
-                if (plnInt.m_nCode == Plane3fIntersection.NONE_OUTSIDE) {
-                    // This ray is parallel to and outside one of the planes of the polyhedra.
-                    //  An intersection is not possible - we don't need to do anymore testing
-                    return false;
-                } else if (plnInt.m_nCode == Plane3fIntersection.NONE_INSIDE) {
-                    // do nothing - parallel and inside the plane, other geometry will be
-                    //  the determining factor
-                } else if (plnInt.m_nCode == Plane3fIntersection.GOING_OUT_OF) {
+            for (int ix = 0; ix < m_fA.length; ix++) {
+                final float fDot = (vLight.i * m_fA[ix]) + (vLight.j * m_fB[ix]) + (vLight.k * m_fC[ix]);
+                final float fDist = (m_fA[ix] * x) + (m_fB[ix] * y) + (m_fC[ix] * z) + m_fD[ix];
+                if (PackageConstants.isZero(fDot)) {
+                    // This ray is parallel to the plane - if it is outside one of the planes of the polyhedra an
+                    //  intersection is not possible, if it is inside, other geometry will be the determining factor
+                    if (fDist > 0.0f) {
+                        return false;
+                    }
+                } else if (fDot > 0.0f) {
                     // going out of the plane - this is important if it is the closest 'goes out of' we've
                     //  encountered so far.
-                    if (plnInt.m_fDist < fDistOut) {
-                        fDistOut = plnInt.m_fDist;
+                    final float fDistPln = -(fDist / fDot);
+                    if (fDistPln < fDistOut) {
+                        fDistOut = fDistPln;
                         if ((fDistOut < 0.0f) || (fDistIn > fDistOut)) {
                             // if this test is true, an intersection is not possible - we don't
                             //  need to do anymore testing.
@@ -344,8 +525,9 @@ public class PlanarPolyhedra extends AGeometry {
                 } else {
                     // going into the plane - this is important if it is the furthest 'goes into' we've
                     //  encountered so far.
-                    if (plnInt.m_fDist > fDistIn) {
-                        fDistIn = plnInt.m_fDist;
+                    final float fDistPln = -(fDist / fDot);
+                    if (fDistPln > fDistIn) {
+                        fDistIn = fDistPln;
                         if (fDistIn > fDistOut) {
                             // if this test is true, an intersection is not possible - we don't
                             //  need to do anymore testing.
@@ -359,8 +541,53 @@ public class PlanarPolyhedra extends AGeometry {
             return (!(fDistIn < 0.0f)) && (!(fDistIn > fDistLight));
         } catch (final Throwable t) {
             return false;
-        } finally {
-            intersection.returnPlaneInt(plnInt);
         }
     }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    private boolean lclSlabShadow(final float x, final float y, final float z, final float i, final float j, final float k,
+                                  final float fDistLight) {
+        // The same slab test as lclSlabIntersection(), without tracking the face
+        float fDistIn = Float.NEGATIVE_INFINITY;
+        float fDistOut = Float.POSITIVE_INFINITY;
+        float fTmp;
+        // test on X
+        if (PackageConstants.isZero(i)) {
+            if ((x < m_xMin) || (x > m_xMax)) return false;
+        } else if (i < 0.0f) {
+            if (x < m_xMin) return false;
+            fDistIn = (m_xMax - x) / i;
+            fDistOut = (m_xMin - x) / i;
+        } else {
+            if (x > m_xMax) return false;
+            fDistIn = (m_xMin - x) / i;
+            fDistOut = (m_xMax - x) / i;
+        }
+        // test on Y
+        if (PackageConstants.isZero(j)) {
+            if ((y < m_yMin) || (y > m_yMax)) return false;
+        } else if (j < 0.0f) {
+            if (y < m_yMin) return false;
+            if ((fTmp = (m_yMax - y) / j) > fDistIn) fDistIn = fTmp;
+            if ((fTmp = (m_yMin - y) / j) < fDistOut) fDistOut = fTmp;
+        } else {
+            if (y > m_yMax) return false;
+            if ((fTmp = (m_yMin - y) / j) > fDistIn) fDistIn = fTmp;
+            if ((fTmp = (m_yMax - y) / j) < fDistOut) fDistOut = fTmp;
+        }
+        if (fDistIn > fDistOut) return false;
+        // test on Z
+        if (PackageConstants.isZero(k)) {
+            if ((z < m_zMin) || (z > m_zMax)) return false;
+        } else if (k < 0.0f) {
+            if (z < m_zMin) return false;
+            if ((fTmp = (m_zMax - z) / k) > fDistIn) fDistIn = fTmp;
+            if ((fTmp = (m_zMin - z) / k) < fDistOut) fDistOut = fTmp;
+        } else {
+            if (z > m_zMax) return false;
+            if ((fTmp = (m_zMin - z) / k) > fDistIn) fDistIn = fTmp;
+            if ((fTmp = (m_zMax - z) / k) < fDistOut) fDistOut = fTmp;
+        }
+        return (!(fDistIn > fDistOut)) && (!(fDistIn < 0.0f)) && (!(fDistIn > fDistLight));
+    }
 }
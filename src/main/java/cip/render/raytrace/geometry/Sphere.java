@@ -24,7 +24,10 @@ import cip.render.DynXmlObjParseException;
 import cip.render.IDynXmlObject;
 import cip.render.INamedObject;
 import cip.render.raytrace.RayIntersection;
+import cip.render.raytrace.interfaces.IRtLight;
 import cip.render.util.AngleF;
+import cip.render.util.FastMath;
+import cip.render.util3d.Line3f;
 import cip.render.util3d.PackageConstants;
 import cip.render.util3d.Point3f;
 import cip.render.util3d.Vector3f;
@@ -118,6 +121,11 @@ import java.util.logging.Logger;
  *         <font style="color:blue">&lt;<b>MaterialByRef</b> name="<font style="color:magenta"><i>blue</i></font>"/&gt;</font>
  *     <font style="color:blue">&lt;/<b>DynamicallyLoadedObject</b>&gt;</font>
  * </pre>
+ * <p>
+ * A sphere without clipping faces is intersected directly from its radius rather than through the general quadric
+ * solution: rays starting inside or going away from the sphere are rejected before anything else is computed, rays that
+ * pass the sphere are rejected before the square root, and the normal is the intersection point scaled by the inverse
+ * of the radius.  A sphere with clipping faces uses the general quadric intersection.
  *
  * @author royster.hall@gmail.com
  * @version 1.0
@@ -126,6 +134,12 @@ import java.util.logging.Logger;
 public class Sphere extends AQuadricGeo {
     static final Logger logger = Logger.getLogger(Sphere.class.getName());
 
+    // The radius, kept for the specialized intersection of a sphere without clipping faces. An Ellipsoid is a Sphere
+    //  only when its radii are equal.
+    private boolean m_bSphere = true;
+    private float m_fRadiusSq = 1.0f;
+    private float m_fInvRadius = 1.0f;
+
     /**
      * Creates a new instance of <tt>Sphere</tt>.
      */
@@ -143,8 +157,15 @@ public class Sphere extends AQuadricGeo {
     }
 
     public void setRadius(final float fRadius) {
-        m_quadric.setEllipsoid(fRadius, fRadius, fRadius);
+        pkgSetRadii(fRadius, fRadius, fRadius);
+    }
+
+    void pkgSetRadii(final float fRx, final float fRy, final float fRz) {
+        m_quadric.setEllipsoid(fRx, fRy, fRz);
         m_strType = m_quadric.getQuadricType();
+        m_bSphere = (fRx == fRy) && (fRy == fRz);
+        m_fRadiusSq = fRx * fRx;
+        m_fInvRadius = 1.0f / fRx;
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -178,11 +199,126 @@ public class Sphere extends AQuadricGeo {
         if ((m_mtl != DEFAULT_MATERIAL) && (m_mtl instanceof IDynXmlObject)) {
             ((IDynXmlObject) m_mtl).toChildXmlElement(element);
         }
+        // The clipping planes
+        pkgClipPlanesToXml(element);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // IRtGeometry interface implementation                                                                                  //
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    @Override
+    public boolean isInside(final Point3f pt) {
+        if (!m_bSphere) {
+            return super.isInside(pt);
+        }
+        return ((pt.x * pt.x) + (pt.y * pt.y) + (pt.z * pt.z)) < m_fRadiusSq;
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    /**
+     * Tests a ray for an intersection with the sphere.  See {@link cip.render.raytrace.interfaces.IRtGeometry}
+     * description of getRayIntersection().  A sphere without clipping faces is intersected directly, the result is the
+     * same as the general quadric intersection.
+     */
+    @Override
+    public boolean getRayIntersection(@NotNull final RayIntersection intersection, @NotNull final Line3f ray,
+                                      final boolean bStartsInside, final int nSample, final int nRandom) {
+        if (!m_bSphere || pkgHasClipPlanes()) {
+            return super.getRayIntersection(intersection, ray, bStartsInside, nSample, nRandom);
+        }
+        final float fDist = lclIntersect(ray.m_ptOrg, ray.m_vDir, bStartsInside);
+        if (Float.isNaN(fDist)) {
+            return super.getRayIntersection(intersection, ray, bStartsInside, nSample, nRandom);
+        } else if (Float.POSITIVE_INFINITY == fDist) {
+            return false;
+        }
+        // Test the intersection distance - if this intersection is behind the start of the ray, or, is not closer than
+        // a previously computed intersection, return.
+        if (bStartsInside) {
+            intersection.m_fDist = fDist;
+        } else if ((fDist < 0.0f) || (fDist > intersection.m_fDist)) {
+            return false;
+        } else {
+            intersection.m_fDist = fDist;
+        }
+        // Record the hit, the intersection is updated in getHitAttributes() if this is the closest hit
+        intersection.deferHit(this, HIT_QUADRIC);
+        return true;
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public void getHitAttributes(@NotNull final RayIntersection intersection, @NotNull final Line3f ray) {
+        if (!m_bSphere || pkgHasClipPlanes()) {
+            super.getHitAttributes(intersection, ray);
+            return;
+        }
+        // The normal of a sphere centered at the origin is the direction to the intersection point.
+        ray.pointAtDistance(intersection.m_pt, intersection.m_fDist);
+        intersection.m_vNormal.setValue(intersection.m_pt.x * m_fInvRadius, intersection.m_pt.y * m_fInvRadius,
+                intersection.m_pt.z * m_fInvRadius);
+        intersection.m_mtl = m_mtl;
+        intersection.m_bNatural = false;
+        intersection.m_ptObject.setValue(intersection.m_pt);
+        intersection.m_vObjNormal.setValue(intersection.m_vNormal);
+        intersection.m_xfmObjToWorldNormal.identity();
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public boolean testShadow(final RayIntersection intersection, final Vector3f vLight, final float fDistLight,
+                              final IRtLight light, final int nSample, final int nRandom) {
+        if (!m_bSphere || pkgHasClipPlanes()) {
+            return super.testShadow(intersection, vLight, fDistLight, light, nSample, nRandom);
+        }
+        final float fDist = lclIntersect(intersection.m_pt, vLight, false);
+        if (Float.isNaN(fDist)) {
+            return super.testShadow(intersection, vLight, fDistLight, light, nSample, nRandom);
+        } else if (Float.POSITIVE_INFINITY == fDist) {
+            return false;
+        }
+        return (!(fDist < 0.0f)) && (!(fDist > fDistLight));
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    /**
+     * Intersect a ray with the sphere.  With the sphere centered at the origin the quadratic for the intersection
+     * distance <i>t</i> is <i>a t<sup>2</sup> + 2b t + c = 0</i> where <i>a</i> is the squared length of the
+     * direction, <i>b</i> is the dot product of the origin and direction, and <i>c</i> is the squared distance of the
+     * origin from the center less the squared radius.
+     *
+     * @param pt            (Point3f, readonly) The origin of the ray.
+     * @param v             (Vector3f, readonly) The direction of the ray.
+     * @param bStartsInside <tt>true</tt> if the ray was spawned from an intersection with this sphere and is on the
+     *                      inside of the sphere, see {@link cip.render.util3d.Quadric3f#getIntersection(
+     *cip.render.util3d.Quadric3fIntersection, Point3f, Vector3f, boolean)}.
+     * @return Returns the distance to the going out of intersection if the ray starts inside, otherwise the distance
+     * to the going into intersection.  Returns <tt>Float.POSITIVE_INFINITY</tt> if there is no intersection of
+     * interest, and <tt>Float.NaN</tt> if the direction is degenerate and the general quadric intersection should be
+     * used.
+     */
+    private float lclIntersect(@NotNull final Point3f pt, @NotNull final Vector3f v, final boolean bStartsInside) {
+        final float fB = (pt.x * v.i) + (pt.y * v.j) + (pt.z * v.k);
+        final float fC = ((pt.x * pt.x) + (pt.y * pt.y) + (pt.z * pt.z)) - m_fRadiusSq;
+        if (!bStartsInside && ((fC < 0.0f) || (fB > 0.0f))) {
+            // An outside ray that starts inside the sphere, or that starts outside and is going away from it, has no going
+            //  into intersection in front of it.
+            return Float.POSITIVE_INFINITY;
+        }
+        final float fA = (v.i * v.i) + (v.j * v.j) + (v.k * v.k);
+        if (PackageConstants.isZero(fA)) {
+            return Float.NaN;
+        }
+        // The ray passes the sphere if its closest approach to the center is further than the radius - this is the sign
+        //  of the determinant, so it is tested before taking the square root.
+        final float fDet = (fB * fB) - (fA * fC);
+        if (fDet < 0.0f) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return bStartsInside ? ((-fB) + (float) Math.sqrt(fDet)) / fA : ((-fB) - (float) Math.sqrt(fDet)) / fA;
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
     /**
      * Returns an array of 24 points that are the vertices of a convex hull described by a min-max box with the corners
      * trimmed by planes that are perpendicular to the diagonals of the 8 quadrants of a 3D axis system.
@@ -220,6 +356,7 @@ public class Sphere extends AQuadricGeo {
     public void getNaturalCoordinates(@NotNull final RayIntersection intersection) {
         if (intersection.m_bTexture) return;
 
+        final int nMark = intersection.mark();
         final Vector3f vN = intersection.borrowVector().setValue(intersection.m_vObjNormal);
         // the natural coordinates are longitude and latitude.
         final float xyLen = (float) Math.sqrt((double) ((vN.i * vN.i) + (vN.j * vN.j)));
@@ -234,10 +371,14 @@ public class Sphere extends AQuadricGeo {
             intersection.m_vNatural[0].setValue(0.0f, 0.0f, 0.0f);
             intersection.m_vNatural[1].setValue(0.0f, 0.0f, 0.0f);
         } else {
-            final AngleF ang = intersection.borrowAngle();
-            intersection.m_ptNatural.x = ang.atan2(vN.j, vN.i).getDegrees();
-            intersection.m_ptNatural.y = ang.atan2(vN.k, xyLen).getDegrees();
-            intersection.returnAngle(ang);
+            if (FastMath.isFast()) {
+                intersection.m_ptNatural.x = FastMath.atan2(vN.j, vN.i) * AngleF.RADIANS_TO_DEGREES;
+                intersection.m_ptNatural.y = FastMath.atan2(vN.k, xyLen) * AngleF.RADIANS_TO_DEGREES;
+            } else {
+                final AngleF ang = intersection.borrowAngle();
+                intersection.m_ptNatural.x = ang.atan2(vN.j, vN.i).getDegrees();
+                intersection.m_ptNatural.y = ang.atan2(vN.k, xyLen).getDegrees();
+            }
 
             intersection.m_vNatural[0].setValue(-vN.j / xyLen, vN.i / xyLen, 0.0f);
             intersection.m_vNatural[1].setValue(-(vN.k * vN.i) / xyLen, -(vN.k * vN.j) / xyLen, xyLen);
@@ -246,7 +387,7 @@ public class Sphere extends AQuadricGeo {
         intersection.m_vTexture[2].setValue(0.0f, 0.0f, 0.0f);
         intersection.m_bNatural = true;
         logger.finest(String.format("Natural texture coords set to: %f, %f", intersection.m_ptNatural.x, intersection.m_ptNatural.y));
-        intersection.returnVector(vN);
+        intersection.reset(nMark);
     }
 
 }
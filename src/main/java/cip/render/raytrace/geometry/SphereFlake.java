@@ -0,0 +1,502 @@
+/*
+ * SphereFlake.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace.geometry;
+
+import cip.render.DynXmlObjParseException;
+import cip.render.IDynXmlObject;
+import cip.render.INamedObject;
+import cip.render.raytrace.RayIntersection;
+import cip.render.raytrace.interfaces.IRtLight;
+import cip.render.util3d.Line3f;
+import cip.render.util3d.Point3f;
+import cip.render.util3d.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.LinkedList;
+
+/**
+ * This is a procedural sphereflake - the fractal of spheres from Eric Haines' Standard Procedural Databases.  A sphere
+ * has 9 child spheres touching its surface, 3 on top and 6 around the equator, and each child sphere has 9 children
+ * of its own placed the same way relative to the direction from its parent, down to the specified depth.  The child
+ * placement is implicit - the position and orientation of a child is computed from its parent during intersection
+ * testing - so a sphereflake of any depth is a few bytes of scene description and a few bytes of memory (a depth 8
+ * sphereflake is 48 million spheres that would otherwise be tens of megabytes of scene description).
+ * <p>
+ * Every sphere in the sphereflake has an implicit bounding sphere that encloses it and all of its descendants.  A ray
+ * descends into the children of a sphere only if it crosses the bounding sphere closer than the closest intersection
+ * found so far, so the cost of an intersection grows with the depth of the sphereflake, not with the number of spheres.
+ * <p>
+ * The sphereflake is specified as a node in an XML scene description file as:
+ * <pre>
+ *     <font style="color:blue">&lt;<b>DynamicallyLoadedObject</b> class="cip.raytrace.geometry.SphereFlake" name="<font style="color:magenta"><i>sphereFlakeName</i></font>"&gt;</font>
+ *         <font style="color:blue">&lt;<b>radius</b>&gt;<font style="color:magenta"><i>radius</i></font>&lt;/<b>radius</b>&gt;</font>
+ *         <font style="color:blue">&lt;<b>ratio</b>&gt;<font style="color:magenta"><i>ratio</i></font>&lt;/<b>ratio</b>&gt;</font>
+ *         <font style="color:blue">&lt;<b>depth</b>&gt;<font style="color:magenta"><i>depth</i></font>&lt;/<b>depth</b>&gt;</font>
+ *         <font style="color:blue">&lt;<b>MaterialByRef</b> name="<font style="color:magenta"><i>materialName</i></font>"/&gt;</font>
+ *         <font style="color:blue">&lt;<b>DynamicallyLoadedObject</b> class="<font style="color:magenta"><i>materialClass</i></font>"&gt;</font>
+ *               <font style="color:gray"><b>.</b>
+ *             <i>material specific nodes and attributes</i>
+ *               <b>.</b></font>
+ *         <font style="color:blue">&lt;/<b>DynamicallyLoadedObject</b>&gt;</font>
+ *     <font style="color:blue">&lt;/<b>DynamicallyLoadedObject</b>&gt;</font>
+ * </pre>
+ * <table border="0" width="90%">
+ * <caption style="text-align:left">where:</caption> <tr>
+ * <td style="width:5%"></td>
+ * <td><table border="1" summary="">
+ * <tr>
+ * <td><tt>radius</tt></td>
+ * <td>The radius of the center sphere, which is centered at 0,0,0 in the object coordinate system.  The default
+ * radius is 1 if not specified.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td><tt>ratio</tt></td>
+ * <td>The ratio of the radius of a child sphere to the radius of its parent, greater than 0 and less than 1.  The
+ * default ratio is 1/3 if not specified.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td><tt>depth</tt></td>
+ * <td>The number of generations of child spheres, 0 for just the center sphere.  The default depth is 3 if not
+ * specified.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td><tt>MaterialByRef</tt></td>
+ * <td>A material specified by reference to the name of a previously loaded material.  <tt>MaterialByRef</tt> is
+ * mutually exclusive with the <tt>DynamicallyLoadedObject</tt> specification of a material.  If no material
+ * is specified, the material defaults to matte green material.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td><tt>DynamicallyLoadedObject</tt></td>
+ * <td>The specification for a material for the sphereflake.  <tt>MaterialByRef</tt> is
+ * mutually exclusive with the <tt>DynamicallyLoadedObject</tt> specification of a material.  The dynamically
+ * loaded object must implement the  {@link cip.render.raytrace.interfaces.IRtMaterial} interface.  If no material
+ * is specified, the material defaults to matte green material.
+ * </td>
+ * </tr>
+ * </table>
+ * </td>
+ * </tr>
+ * </table><br>
+ * <p>
+ * <b>Example of XML Specification</b>
+ * <p>
+ * The following specifies a sphereflake like the one generated in <tt>resources/test/dataGenerators/sphereflake2_4.xml</tt>:
+ * <pre>
+ *     <font style="color:blue">&lt;<b>DynamicallyLoadedObject</b> class="cip.raytrace.geometry.SphereFlake" name="<font style="color:magenta">flake</font>"&gt;</font>
+ *         <font style="color:blue">&lt;<b>radius</b>&gt;<font style="color:magenta">0.5</font>&lt;/<b>radius</b>&gt;</font>
+ *         <font style="color:blue">&lt;<b>depth</b>&gt;<font style="color:magenta">4</font>&lt;/<b>depth</b>&gt;</font>
+ *         <font style="color:blue">&lt;<b>MaterialByRef</b> name="<font style="color:magenta"><i>sphereMat</i></font>"/&gt;</font>
+ *     <font style="color:blue">&lt;/<b>DynamicallyLoadedObject</b>&gt;</font>
+ * </pre>
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public class SphereFlake extends AGeometry {
+    private static final String XML_TAG_RADIUS = "radius";
+    private static final String XML_TAG_RATIO = "ratio";
+    private static final String XML_TAG_DEPTH = "depth";
+
+    private static final int CHILD_CT = 9;
+    // The tolerance, as a fraction of the sphere radius, for rejecting the intersection of a ray with the sphere it
+    //  was spawned from.
+    private static final float SELF_TOLERANCE = 1.0e-2f;
+
+    // The child placement: the direction from the parent center to the child center in the parent frame, and the
+    //  rotation from the parent frame to the child frame, which maps the parent k axis to that direction.  These are
+    //  the 3 children on top at 54.7 degrees elevation, and the 6 around the equator.
+    private static final float[][] CHILD_DIR = new float[CHILD_CT][];
+    private static final float[][] CHILD_ROT = new float[CHILD_CT][];
+
+    static {
+        final double fTopElevation = Math.asin(Math.sqrt(2.0 / 3.0));
+        for (int iChild = 0; iChild < CHILD_CT; iChild++) {
+            final double fAzimuth = Math.toRadians((iChild < 3) ? (45.0 + (120.0 * iChild)) : (15.0 + (60.0 * (iChild - 3))));
+            final double fElevation = (iChild < 3) ? fTopElevation : 0.0;
+            // the rotation about k by the azimuth, following a rotation about j that tilts k down to the elevation.
+            final double fSinA = Math.sin(fAzimuth);
+            final double fCosA = Math.cos(fAzimuth);
+            final double fSinE = Math.sin(fElevation);
+            final double fCosE = Math.cos(fElevation);
+            CHILD_ROT[iChild] = new float[]{
+                    (float) (fCosA * fSinE), (float) -fSinA, (float) (fCosA * fCosE),
+                    (float) (fSinA * fSinE), (float) fCosA, (float) (fSinA * fCosE),
+                    (float) -fCosE, 0.0f, (float) fSinE};
+            CHILD_DIR[iChild] = new float[]{CHILD_ROT[iChild][2], CHILD_ROT[iChild][5], CHILD_ROT[iChild][8]};
+        }
+    }
+
+    // The instance definition
+    private float m_fRadius = 1.0f;
+    private float m_fRatio = 1.0f / 3.0f;
+    private int m_nDepth = 3;
+    // The bounding sphere radius, as a multiple of the sphere radius, for a sphere with n generations of descendants
+    private float[] m_fBoundScale;
+
+    // The intersection traversal state.  The traversal allocates nothing, this is a per-thread scratch object.
+    private final ThreadLocal<Traversal> m_traversal = ThreadLocal.withInitial(Traversal::new);
+
+    private static class Traversal {
+        float m_fOrgX, m_fOrgY, m_fOrgZ;
+        float m_fDirI, m_fDirJ, m_fDirK;
+        float m_fDirDot;
+        float m_fMaxDist;
+        boolean m_bStartsInside;
+        boolean m_bShadow;
+        // the closest intersection
+        boolean m_bHit;
+        float m_fDist;
+        float m_fHitX, m_fHitY, m_fHitZ;
+        int m_nHitLevel;
+        // the frame of each level of the traversal, 9 floats per level
+        float[] m_fFrames = new float[0];
+    }
+
+    /**
+     * Creates a new instance of <tt>SphereFlake</tt>.
+     */
+    public SphereFlake() {
+        m_strName = "sphereFlake";
+        pkgFinishLoad();
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    // Accessor/Mutator functions
+    public float getRadius() {
+        return m_fRadius;
+    }
+
+    public void setRadius(final float fRadius) {
+        m_fRadius = fRadius;
+    }
+
+    public float getRatio() {
+        return m_fRatio;
+    }
+
+    public void setRatio(final float fRatio) {
+        if (!(fRatio > 0.0f) || !(fRatio < 1.0f)) {
+            throw new IllegalArgumentException("The sphereflake ratio must be greater than 0 and less than 1.");
+        }
+        m_fRatio = fRatio;
+        pkgFinishLoad();
+    }
+
+    public int getDepth() {
+        return m_nDepth;
+    }
+
+    public void setDepth(final int nDepth) {
+        if (nDepth < 0) {
+            throw new IllegalArgumentException("The sphereflake depth must be 0 or greater.");
+        }
+        m_nDepth = nDepth;
+        pkgFinishLoad();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // IDynXmlObject interface implementation                                                                                     //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    @Override
+    boolean pkgParseElement(@NotNull final Element element, final LinkedList<INamedObject> refObjectList)
+            throws DynXmlObjParseException {
+        if (element.getTagName().equalsIgnoreCase(XML_TAG_RADIUS)) {
+            setRadius(Float.parseFloat(lclGetText(element)));
+            return true;
+        } else if (element.getTagName().equalsIgnoreCase(XML_TAG_RATIO)) {
+            setRatio(Float.parseFloat(lclGetText(element)));
+            return true;
+        } else if (element.getTagName().equalsIgnoreCase(XML_TAG_DEPTH)) {
+            setDepth(Integer.parseInt(lclGetText(element)));
+            return true;
+        }
+        return false;
+    }
+
+    private static String lclGetText(@NotNull final Element element) {
+        Node textNode = element.getFirstChild();
+        while (null != textNode) {
+            if (textNode.getNodeType() == Node.TEXT_NODE) {
+                return textNode.getNodeValue().trim();
+            }
+            textNode = textNode.getNextSibling();
+        }
+        return "";
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    @Override
+    void pkgFinishLoad() {
+        // The bounding sphere of a sphere with no children is the sphere.  The bounding sphere of a sphere with n
+        //  generations of children reaches to the far side of the bounding sphere of a child with n-1 generations.
+        m_fBoundScale = new float[m_nDepth + 1];
+        m_fBoundScale[0] = 1.0f;
+        for (int iLevel = 1; iLevel <= m_nDepth; iLevel++) {
+            m_fBoundScale[iLevel] = 1.0f + m_fRatio + (m_fRatio * m_fBoundScale[iLevel - 1]);
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    @Override
+    protected void pkgToXml(@NotNull final Element element) {
+        lclAppendText(element, XML_TAG_RADIUS, Float.toString(m_fRadius));
+        lclAppendText(element, XML_TAG_RATIO, Float.toString(m_fRatio));
+        lclAppendText(element, XML_TAG_DEPTH, Integer.toString(m_nDepth));
+        // The material
+        if ((m_mtl != DEFAULT_MATERIAL) && (m_mtl instanceof IDynXmlObject)) {
+            ((IDynXmlObject) m_mtl).toChildXmlElement(element);
+        }
+    }
+
+    private static void lclAppendText(@NotNull final Element element, @NotNull final String strTag, @NotNull final String strText) {
+        final Element el = element.getOwnerDocument().createElement(strTag);
+        element.appendChild(el);
+        el.appendChild(element.getOwnerDocument().createTextNode(strText));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // IRtGeometry interface implementation                                                                                  //
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    @Override
+    public boolean isInside(final Point3f pt) {
+        return lclIsInside(pt, 0.0f, 0.0f, 0.0f, m_fRadius, IDENTITY_FRAME, m_nDepth);
+    }
+
+    private static final float[] IDENTITY_FRAME = {1.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f, 0.0f, 0.0f, 1.0f};
+
+    private boolean lclIsInside(final Point3f pt, final float fX, final float fY, final float fZ, final float fRadius,
+                                final float[] frame, final int nLevel) {
+        final float fDx = pt.x - fX;
+        final float fDy = pt.y - fY;
+        final float fDz = pt.z - fZ;
+        final float fDist2 = (fDx * fDx) + (fDy * fDy) + (fDz * fDz);
+        final float fBound = fRadius * m_fBoundScale[nLevel];
+        if (fDist2 > (fBound * fBound)) {
+            return false;
+        }
+        if (fDist2 <= (fRadius * fRadius)) {
+            return true;
+        }
+        if (nLevel > 0) {
+            final float fOffset = fRadius * (1.0f + m_fRatio);
+            final float[] childFrame = new float[9];
+            for (int iChild = 0; iChild < CHILD_CT; iChild++) {
+                lclChildFrame(frame, 0, CHILD_ROT[iChild], childFrame, 0);
+                if (lclIsInside(pt, fX + (fOffset * childFrame[2]), fY + (fOffset * childFrame[5]), fZ + (fOffset * childFrame[8]),
+                        fRadius * m_fRatio, childFrame, nLevel - 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the convex hull of the bounding sphere of the sphereflake.
+     */
+    @Override
+    public Point3f[] getConvexHullVertices() {
+        final Sphere bound = new Sphere();
+        bound.setRadius(m_fRadius * m_fBoundScale[m_nDepth]);
+        return bound.getConvexHullVertices();
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Tests a ray for an intersection with the sphereflake.  See {@link cip.render.raytrace.interfaces.IRtGeometry}
+     * description of getRayIntersection().
+     */
+    @Override
+    public boolean getRayIntersection(@NotNull final RayIntersection intersection, @NotNull final Line3f ray,
+                                      final boolean bStartsInside, final int nSample, final int nRandom) {
+        final Traversal trav = lclStartTraversal(ray.m_ptOrg, ray.m_vDir, bStartsInside, false,
+                bStartsInside ? Float.POSITIVE_INFINITY : intersection.m_fDist);
+        lclIntersect(trav, 0.0f, 0.0f, 0.0f, m_fRadius, 0, m_nDepth);
+        if (!trav.m_bHit) {
+            return false;
+        }
+        // Record the hit sphere, the intersection is updated in getHitAttributes() if this is the closest hit
+        intersection.m_fDist = trav.m_fDist;
+        intersection.deferHit(this, trav.m_nHitLevel);
+        intersection.m_fHitU = trav.m_fHitX;
+        intersection.m_fHitV = trav.m_fHitY;
+        intersection.m_fHitW = trav.m_fHitZ;
+        return true;
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public void getHitAttributes(@NotNull final RayIntersection intersection, @NotNull final Line3f ray) {
+        // the hit record is the level and center of the sphere that was hit, the radius is the radius of that level
+        float fRadius = m_fRadius;
+        for (int nLevel = m_nDepth; nLevel > intersection.m_nHitPrim; nLevel--) {
+            fRadius *= m_fRatio;
+        }
+        // Update the intersection structure with information for this intersection
+        ray.pointAtDistance(intersection.m_pt, intersection.m_fDist);
+        intersection.m_vNormal.setValue((intersection.m_pt.x - intersection.m_fHitU) / fRadius,
+                (intersection.m_pt.y - intersection.m_fHitV) / fRadius, (intersection.m_pt.z - intersection.m_fHitW) / fRadius);
+        intersection.m_bNatural = false;
+        intersection.m_ptObject.setValue(intersection.m_pt);
+        intersection.m_vObjNormal.setValue(intersection.m_vNormal);
+        intersection.m_xfmObjToWorldNormal.identity();
+        intersection.m_mtl = m_mtl;
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public boolean testShadow(final RayIntersection intersection, final Vector3f vLight, final float fDistLight,
+                              final IRtLight light, final int nSample, final int nRandom) {
+        final Traversal trav = lclStartTraversal(intersection.m_pt, vLight, false, true, fDistLight);
+        lclIntersect(trav, 0.0f, 0.0f, 0.0f, m_fRadius, 0, m_nDepth);
+        return trav.m_bHit;
+    }
+
+    //------------------------------------------------------------------------------------------------------------------------------
+    private Traversal lclStartTraversal(@NotNull final Point3f ptOrg, @NotNull final Vector3f vDir, final boolean bStartsInside,
+                                        final boolean bShadow, final float fMaxDist) {
+        final Traversal trav = m_traversal.get();
+        trav.m_fOrgX = ptOrg.x;
+        trav.m_fOrgY = ptOrg.y;
+        trav.m_fOrgZ = ptOrg.z;
+        trav.m_fDirI = vDir.i;
+        trav.m_fDirJ = vDir.j;
+        trav.m_fDirK = vDir.k;
+        trav.m_fDirDot = (vDir.i * vDir.i) + (vDir.j * vDir.j) + (vDir.k * vDir.k);
+        trav.m_fMaxDist = fMaxDist;
+        trav.m_bStartsInside = bStartsInside;
+        trav.m_bShadow = bShadow;
+        trav.m_bHit = false;
+        if (trav.m_fFrames.length < (9 * (m_nDepth + 1))) {
+            trav.m_fFrames = new float[9 * (m_nDepth + 1)];
+        }
+        System.arraycopy(IDENTITY_FRAME, 0, trav.m_fFrames, 0, 9);
+        return trav;
+    }
+
+    // Test the sphere and, if the ray crosses its bounding sphere closer than the closest intersection so far, its
+    //  children.  The frame of this sphere is at nFrame in the traversal frames.
+    private void lclIntersect(@NotNull final Traversal trav, final float fX, final float fY, final float fZ,
+                              final float fRadius, final int nFrame, final int nLevel) {
+        final float fOx = trav.m_fOrgX - fX;
+        final float fOy = trav.m_fOrgY - fY;
+        final float fOz = trav.m_fOrgZ - fZ;
+        final float fB = (fOx * trav.m_fDirI) + (fOy * trav.m_fDirJ) + (fOz * trav.m_fDirK);
+        final float fO2 = (fOx * fOx) + (fOy * fOy) + (fOz * fOz);
+        final float fTolerance = SELF_TOLERANCE * fRadius;
+
+        // the bounding sphere of this sphere and all of its descendants
+        if (nLevel > 0) {
+            final float fBound = fRadius * m_fBoundScale[nLevel];
+            final float fDet = (fB * fB) - (trav.m_fDirDot * (fO2 - (fBound * fBound)));
+            if (fDet < 0.0f) {
+                return;
+            }
+            final float fSqrt = (float) Math.sqrt(fDet);
+            if ((((-fB) + fSqrt) / trav.m_fDirDot) < fTolerance ||
+                    (((-fB) - fSqrt) / trav.m_fDirDot) > trav.m_fMaxDist) {
+                return;
+            }
+        }
+
+        // this sphere
+        final float fDet = (fB * fB) - (trav.m_fDirDot * (fO2 - (fRadius * fRadius)));
+        if (fDet >= 0.0f) {
+            final float fSqrt = (float) Math.sqrt(fDet);
+            final float fDistIn = ((-fB) - fSqrt) / trav.m_fDirDot;
+            final float fDistOut = ((-fB) + fSqrt) / trav.m_fDirDot;
+            // a ray leaving the surface of this sphere has a going out intersection at 0 - that is not an intersection
+            if (fDistOut > fTolerance) {
+                if (trav.m_bShadow) {
+                    if (fDistIn < trav.m_fMaxDist) {
+                        trav.m_bHit = true;
+                        trav.m_fMaxDist = Float.NEGATIVE_INFINITY;
+                        return;
+                    }
+                } else if (trav.m_bStartsInside) {
+                    // leaving the sphere the ray started in
+                    if ((fDistIn <= fTolerance) && (fDistOut < trav.m_fMaxDist)) {
+                        lclSetHit(trav, fDistOut, fX, fY, fZ, nLevel);
+                    }
+                } else if ((fDistIn > 0.0f) && (fDistIn < trav.m_fMaxDist)) {
+                    lclSetHit(trav, fDistIn, fX, fY, fZ, nLevel);
+                }
+            }
+        }
+
+        // the children
+        if (nLevel > 0) {
+            final float[] frames = trav.m_fFrames;
+            final int nChildFrame = nFrame + 9;
+            final float fOffset = fRadius * (1.0f + m_fRatio);
+            final float fChildRadius = fRadius * m_fRatio;
+            for (int iChild = 0; iChild < CHILD_CT; iChild++) {
+                // the child center is offset from this center in the child direction in this frame
+                final float[] dir = CHILD_DIR[iChild];
+                final float fDi = (frames[nFrame] * dir[0]) + (frames[nFrame + 1] * dir[1]) + (frames[nFrame + 2] * dir[2]);
+                final float fDj = (frames[nFrame + 3] * dir[0]) + (frames[nFrame + 4] * dir[1]) + (frames[nFrame + 5] * dir[2]);
+                final float fDk = (frames[nFrame + 6] * dir[0]) + (frames[nFrame + 7] * dir[1]) + (frames[nFrame + 8] * dir[2]);
+                if (nLevel > 1) {
+                    lclChildFrame(frames, nFrame, CHILD_ROT[iChild], frames, nChildFrame);
+                }
+                lclIntersect(trav, fX + (fOffset * fDi), fY + (fOffset * fDj), fZ + (fOffset * fDk), fChildRadius,
+                        nChildFrame, nLevel - 1);
+                if (trav.m_bShadow && trav.m_bHit) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void lclSetHit(@NotNull final Traversal trav, final float fDist, final float fX, final float fY,
+                                  final float fZ, final int nLevel) {
+        trav.m_bHit = true;
+        trav.m_fDist = fDist;
+        trav.m_fMaxDist = fDist;
+        trav.m_fHitX = fX;
+        trav.m_fHitY = fY;
+        trav.m_fHitZ = fZ;
+        trav.m_nHitLevel = nLevel;
+    }
+
+    // The child frame is the parent frame times the child rotation.
+    private static void lclChildFrame(final float[] frame, final int nFrame, final float[] rot, final float[] childFrame,
+                                      final int nChildFrame) {
+        for (int iRow = 0; iRow < 3; iRow++) {
+            final float f0 = frame[nFrame + (3 * iRow)];
+            final float f1 = frame[nFrame + (3 * iRow) + 1];
+            final float f2 = frame[nFrame + (3 * iRow) + 2];
+            childFrame[nChildFrame + (3 * iRow)] = (f0 * rot[0]) + (f1 * rot[3]) + (f2 * rot[6]);
+            childFrame[nChildFrame + (3 * iRow) + 1] = (f0 * rot[1]) + (f1 * rot[4]) + (f2 * rot[7]);
+            childFrame[nChildFrame + (3 * iRow) + 2] = (f0 * rot[2]) + (f1 * rot[5]) + (f2 * rot[8]);
+        }
+    }
+}
@@ -32,7 +32,11 @@ import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.Set;
 
 /**
  * This is a transformed geometry implementation.  It applies a transform to a geometry to reposition the
@@ -45,6 +49,12 @@ import java.util.LinkedList;
  * points for any intersection or shadow query are transformed into object space, the object operator is
  * called, and the result is back-transformed to world space if required.
  * <p>
+ * Nested transformed geometry (a transformed geometry that contains another transformed geometry) is collapsed
+ * before rendering: the chain of transforms is precomposed into one transform from the innermost geometry to this
+ * geometry's parent coordinate system, so a ray is transformed once however deep the nesting.  Each transformed
+ * geometry within the chain remembers the chains it is collapsed into, and repositioning it (as in animation)
+ * recomposes them.
+ * <p>
  * The transformed geometry is specified as a node in an XML file as:
  * <pre>
  *     <font style="color:blue">&lt;D<b>ynamicallyLoadedObject</b> class="cip.raytrace.geometry.XfmGeometry" name="<font style="color:magenta"><i>xfmGeomName</i></font>"&gt;</font>
@@ -116,6 +126,13 @@ public class XfmGeometry extends AGeometry {
     private final Xfm4x4f m_xfmWldObj = new Xfm4x4f();        // the world->obj transform (inverse of m_xfm)
     private final Xfm4x4f m_xfmWldObjNormal = new Xfm4x4f();  // the world->obj normal transform (transpose of m_xfm)
     private IRtGeometry m_obj = null;                       // the transformed geometry
+    // The collapsed chain - the render transforms above are for the chain, from m_objLeaf (the innermost geometry that
+    //  is not a transformed geometry) to world.  m_xfm and m_obj are unchanged as specified.
+    private final Xfm4x4f m_xfmChain = new Xfm4x4f();       // the obj->world transform of the whole chain
+    private IRtGeometry m_objLeaf = null;                   // the innermost geometry of the chain
+    private XfmGeometry[] m_collapsed = new XfmGeometry[0];  // the nested transformed geometries collapsed into this
+    private final Set<XfmGeometry> m_chains =                // the parents this is collapsed into
+            Collections.newSetFromMap(new IdentityHashMap<>());
 
     /**
      * Creates a new instance of a <tt>XfmGeometry</tt> transformed geometry object.
@@ -130,6 +147,7 @@ public class XfmGeometry extends AGeometry {
 
     public void setGeometry(final IRtGeometry obj) {
         m_obj = obj;
+        initForRender();
     }
 
     public void getXfm(final Xfm4x4f xfm) {
@@ -142,15 +160,50 @@ public class XfmGeometry extends AGeometry {
     }
 
     //-------------------------------------------------------------------------------------------------------------------------
-    //  This initialization for rendering is the computation of the back transfrom (world->obj) and forward
-    //  transform (obj->world) for normals.  Note that if we do not allow scale and shear, the forward transfor for normals is
-    //  equal to the forward transform for points and directions.  Otherwise the back forward for normals is the transpose
-    //  of the inverse of the  forward transform for points.  NOTE: the back transform is already the inverse of the forward
-    //  transform -- so we only need to transpose that to get the forward transform for normals.
+    //  This initialization for rendering is the collapse of any nested transformed geometry into one chain transform, and
+    //  the computation of the back transfrom (world->obj) and forward transform (obj->world) for normals.  Note that if we
+    //  do not allow scale and shear, the forward transfor for normals is equal to the forward transform for points and
+    //  directions.  Otherwise the back forward for normals is the transpose of the inverse of the  forward transform for
+    //  points.  NOTE: the back transform is already the inverse of the forward transform -- so we only need to transpose
+    //  that to get the forward transform for normals.
     protected final void initForRender() {
-        m_xfmWldObj.setValue(m_xfm).invert();
+        // leave the chains of the previous nested geometry, it may have been replaced
+        for (final XfmGeometry xfmObj : m_collapsed) {
+            synchronized (xfmObj.m_chains) {
+                xfmObj.m_chains.remove(this);
+            }
+        }
+        final ArrayList<XfmGeometry> collapsed = new ArrayList<>();
+        m_xfmChain.setValue(m_xfm);
+        IRtGeometry obj = m_obj;
+        while (obj instanceof XfmGeometry) {
+            final XfmGeometry xfmObj = (XfmGeometry) obj;
+            if (xfmObj == this) {
+                throw new IllegalStateException("Transformed geometry " + m_strName + " contains itself.");
+            }
+            // the nested transform is applied first, then this one
+            m_xfmChain.setValue(new Xfm4x4f(xfmObj.m_xfm).preMul(m_xfmChain));
+            collapsed.add(xfmObj);
+            obj = xfmObj.m_obj;
+        }
+        m_collapsed = collapsed.toArray(new XfmGeometry[0]);
+        for (final XfmGeometry xfmObj : m_collapsed) {
+            synchronized (xfmObj.m_chains) {   // top level objects may be loaded in parallel
+                xfmObj.m_chains.add(this);
+            }
+        }
+        m_objLeaf = obj;
+        m_xfmWldObj.setValue(m_xfmChain).invert();
         m_xfmNormal.setValue(m_xfmWldObj).transpose();
-        m_xfmWldObjNormal.setValue(m_xfm).transpose();
+        m_xfmWldObjNormal.setValue(m_xfmChain).transpose();
+        // recompose the chains this is collapsed into
+        final XfmGeometry[] chains;
+        synchronized (m_chains) {
+            chains = m_chains.toArray(new XfmGeometry[0]);
+        }
+        for (final XfmGeometry chain : chains) {
+            chain.initForRender();
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -226,10 +279,10 @@ public class XfmGeometry extends AGeometry {
      * or the convexity cannot be verified.
      */
     public boolean isConvex() {
-        if (null == m_obj) {
+        if (null == m_objLeaf) {
             return true;
         }
-        return m_obj.isConvex();
+        return m_objLeaf.isConvex();
     }
 
     @Override
@@ -248,19 +301,19 @@ public class XfmGeometry extends AGeometry {
      * queried for intersection on every ray.
      */
     public Point3f[] getConvexHullVertices() {
-        if (null == m_obj) {
+        if (null == m_objLeaf) {
             return null;
         }
-        final Point3f[] pts = m_obj.getConvexHullVertices();
+        final Point3f[] pts = m_objLeaf.getConvexHullVertices();
         if (null != pts) {
-            m_xfm.transform(pts);
+            m_xfmChain.transform(pts);
         }
         return pts;
     }
 
     //-------------------------------------------------------------------------------------------------------------------------
     public boolean getBvIntersection(final Bv3fIntersection bvInt, final Line3f ray) {
-        if (null == m_obj) {
+        if (null == m_objLeaf) {
             return false;
         }
         final float fX;
@@ -277,7 +330,7 @@ public class XfmGeometry extends AGeometry {
         fK = ray.m_vDir.k;
         m_xfmWldObj.transform(ray.m_ptOrg);
         m_xfmWldObj.transform(ray.m_vDir);
-        final boolean bRet = m_obj.getBvIntersection(bvInt, ray);
+        final boolean bRet = m_objLeaf.getBvIntersection(bvInt, ray);
         ray.m_ptOrg.x = fX;
         ray.m_ptOrg.y = fY;
         ray.m_ptOrg.z = fZ;
@@ -292,54 +345,77 @@ public class XfmGeometry extends AGeometry {
 
     //-------------------------------------------------------------------------------------------------------------------------
     public void getNaturalCoordinates(final RayIntersection intersection) {
-        if (null == m_obj) {
+        if (null == m_objLeaf) {
             return;
         }
-        m_obj.getNaturalCoordinates(intersection);
+        m_objLeaf.getNaturalCoordinates(intersection);
     }
 
     //-------------------------------------------------------------------------------------------------------------------------
     public boolean getRayIntersection(@NotNull final RayIntersection intersection, @NotNull final Line3f ray, final boolean bStartsInside, final int nSample, final int nRandom) {
-        if (null == m_obj) {
+        if (null == m_objLeaf) {
             return false;
         }
         // transform the ray to object space.  Do the intersection - if this is a closer intersection,
         //  then transform the relevant intersection info back to world space.
+        final int nMark = intersection.mark();
         final Line3f rayObj = intersection.borrowLine();
         try {
             m_xfmWldObj.transform(ray.m_ptOrg, rayObj.m_ptOrg);
             m_xfmWldObjNormal.transform(ray.m_vDir, rayObj.m_vDir);
-            final boolean bRet = m_obj.getRayIntersection(intersection, rayObj, bStartsInside, nSample, nRandom);
+            final boolean bRet = m_objLeaf.getRayIntersection(intersection, rayObj, bStartsInside, nSample, nRandom);
             if (bRet) {
-                m_xfm.transform(intersection.m_pt);
-                m_xfmNormal.transform(intersection.m_vNormal);
+                if (intersection.isHitDeferred() && (intersection.m_rtHit == m_objLeaf)) {
+                    // the contained geometry deferred the hit, so defer transforming it back to world space as well
+                    intersection.m_rtHit = this;
+                } else {
+                    m_xfmChain.transform(intersection.m_pt);
+                    m_xfmNormal.transform(intersection.m_vNormal);
+                }
                 intersection.m_rtObj = this;
             }
             return bRet;
         } finally {
-            intersection.returnLine(rayObj);
+            intersection.reset(nMark);
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public void getHitAttributes(@NotNull final RayIntersection intersection, @NotNull final Line3f ray) {
+        // transform the ray to object space, have the contained geometry compute the object space intersection, and
+        //  transform the relevant intersection info back to world space.
+        final int nMark = intersection.mark();
+        final Line3f rayObj = intersection.borrowLine();
+        try {
+            m_xfmWldObj.transform(ray.m_ptOrg, rayObj.m_ptOrg);
+            m_xfmWldObjNormal.transform(ray.m_vDir, rayObj.m_vDir);
+            m_objLeaf.getHitAttributes(intersection, rayObj);
+            m_xfmChain.transform(intersection.m_pt);
+            m_xfmNormal.transform(intersection.m_vNormal);
+        } finally {
+            intersection.reset(nMark);
         }
     }
 
     //-------------------------------------------------------------------------------------------------------------------------
     public boolean testShadow(final RayIntersection intersection, final Vector3f vLight, final float fDistLight,
                               final IRtLight light, final int nSample, final int nRandom) {
-        if (null == m_obj) {
+        if (null == m_objLeaf) {
             return false;
         }
         // transform the intersection and light vector into object space and do the intersection calculation
+        final int nMark = intersection.mark();
         final RayIntersection intersectionObj = intersection.borrowIntersection();
         final Vector3f vLightObj = intersection.borrowVector().setValue(vLight);
         try {
             m_xfmWldObj.transform(intersection.m_pt, intersectionObj.m_pt);
             m_xfmWldObjNormal.transform(intersection.m_vNormal, intersectionObj.m_vNormal);
             m_xfmWldObj.transform(vLightObj);
-            final boolean bRet = m_obj.testShadow(intersectionObj, vLightObj, fDistLight, light, nSample, nRandom);
+            final boolean bRet = m_objLeaf.testShadow(intersectionObj, vLightObj, fDistLight, light, nSample, nRandom);
             return bRet;
         } finally {
-            intersection.returnIntersection(intersectionObj);
-            intersection.returnVector(vLightObj);
-
+            intersection.reset(nMark);
         }
     }
 }
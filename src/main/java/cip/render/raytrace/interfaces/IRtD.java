@@ -20,6 +20,7 @@
  */
 package cip.render.raytrace.interfaces;
 
+import cip.render.raytrace.RayIntersection;
 import cip.render.util.AngleF;
 import cip.render.util3d.Vector3f;
 
@@ -46,13 +47,15 @@ public interface IRtD {
      * Evaluate the slope-distribution function.  Most functions use only <b>N</b> and <b>H</b> for the
      * evaluation, however <b>V</b> and <b>L</b> are required for the historically maintained, but seldom
      * used Phong model.  I've not found that passing everything represents a neglibible performance
-     * penalty, so I use this most general set of arguments.
+     * penalty, so I use this most general set of arguments.  The intersection is passed so a function
+     * needing scratch objects can borrow them from the scratch arena of the intersection.
      *
+     * @param intersection The intersection being shaded.
      * @param N The surface normal.
      * @param H The normalized bisector between <b>V</b> and <b>L</b>.
      * @param V The view or eye vector.
      * @param L The light vector.
      * @return The value of the slope distribution function.
      */
-    float evaluate(Vector3f N, Vector3f H, Vector3f V, Vector3f L);
+    float evaluate(RayIntersection intersection, Vector3f N, Vector3f H, Vector3f V, Vector3f L);
 }
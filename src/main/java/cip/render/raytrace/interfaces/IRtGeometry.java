@@ -129,6 +129,13 @@ public interface IRtGeometry {
      * {@link cip.render.raytrace.RayIntersection#m_bNatural} should be set to <tt>true</tt> though it is most
      * common for objects to set this to <tt>false</tt> and not go through the expense of computing
      * natural coordinates unless they are specifically requested later in the rendering process.
+     * <p>
+     * Most intersections found while testing a ray are superseded by closer ones, so rather than filling in the surface
+     * attributes an object may fill in only {@link cip.render.raytrace.RayIntersection#m_fDist} and record a deferred hit
+     * with {@link cip.render.raytrace.RayIntersection#deferHit(IRtGeometry, int)} (and any parametric data it needs in the
+     * intersection hit record).  The surface attributes are then computed by {@link #getHitAttributes(RayIntersection, Line3f)}
+     * only for the closest hit, when the caller resolves the intersection with
+     * {@link cip.render.raytrace.RayIntersection#resolveHit(Line3f)}.
      *
      * @param intersection  (RayIntersection, not null, modified) The intersection of the ray and the surface.  The intersection
      *                      will be either freshly initialized or will contain information about the closest intersection
@@ -145,6 +152,21 @@ public interface IRtGeometry {
     boolean getRayIntersection(@NotNull RayIntersection intersection, @NotNull Line3f ray,
                                boolean bStartsInside, int nSample, int nRandom);
 
+    /**
+     * Compute the surface attributes of a hit that was deferred by {@link #getRayIntersection(RayIntersection, Line3f,
+     * boolean, int, int)}.  The object fills in the {@link cip.render.raytrace.RayIntersection#m_pt},
+     * {@link cip.render.raytrace.RayIntersection#m_vNormal}, {@link cip.render.raytrace.RayIntersection#m_ptObject},
+     * {@link cip.render.raytrace.RayIntersection#m_vObjNormal}, {@link cip.render.raytrace.RayIntersection#m_xfmObjToWorldNormal},
+     * and {@link cip.render.raytrace.RayIntersection#m_mtl} from the distance and hit record, exactly as they would have been
+     * filled in by <tt>getRayIntersection()</tt>.  Objects that never defer hits need not implement this.
+     *
+     * @param intersection (RayIntersection, not null, modified) The intersection, holding the distance and hit record of the
+     *                     deferred hit.
+     * @param ray          (Line3f, not null, readonly) The ray that was tested for intersection.
+     */
+    default void getHitAttributes(@NotNull RayIntersection intersection, @NotNull Line3f ray) {
+    }
+
     /**
      * Get the natural coordinates that are associated with the object-space intersection point.  When called, an object
      * should use the object coordinates intersection set in the <tt>intersection</tt> to generate the natural coordinates
@@ -20,6 +20,7 @@
  */
 package cip.render.raytrace.interfaces;
 
+import cip.render.raytrace.LightInfluence;
 import cip.render.raytrace.LightInfo;
 import cip.render.raytrace.RayIntersection;
 import cip.render.util2d.Point2f;
@@ -83,4 +84,17 @@ public interface IRtLight {
      * is meaningless (probably unchanged).
      */
     boolean getLight(LightInfo lightInfo, RayIntersection intersection, int nSample, int nRandom);
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get the volume of space this light can illuminate, in the coordinate system of the light.  The light must never
+     * illuminate an intersection outside this influence.  The default implementation is an unbounded influence, which is
+     * always correct.
+     *
+     * @param influence (LightInfluence, modified) Set to the influence of this light.
+     */
+    default void getInfluence(LightInfluence influence) {
+        influence.setUnbounded();
+    }
 }
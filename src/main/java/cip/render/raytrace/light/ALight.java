@@ -24,6 +24,7 @@ import cip.render.DynXmlObjLoader;
 import cip.render.DynXmlObjParseException;
 import cip.render.IDynXmlObject;
 import cip.render.INamedObject;
+import cip.render.NamedObjectRegistry;
 import cip.render.raytrace.LightInfo;
 import cip.render.raytrace.RayIntersection;
 import cip.render.raytrace.interfaces.IRtLight;
@@ -79,12 +80,9 @@ public class ALight implements IDynXmlObject, INamedObject, IRtLight {
     }
 
     protected IRtLight resolveLightRef(final String strName, final LinkedList refObjectList) throws DynXmlObjParseException {
-        if (!strName.equals("") && (null != refObjectList)) {
-            for (final Object obj : refObjectList) {
-                if ((obj instanceof IRtLight) && ((INamedObject) obj).getName().equals(strName)) {
-                    return (IRtLight) obj;
-                }
-            }
+        final IRtLight obj = NamedObjectRegistry.lookup(refObjectList, strName, IRtLight.class);
+        if (null != obj) {
+            return obj;
         }
         throw new DynXmlObjParseException("Referenced light \"" + strName + "\" was not found.");
     }
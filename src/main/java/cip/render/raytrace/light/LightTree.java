@@ -0,0 +1,319 @@
+/*
+ * LightTree.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace.light;
+
+import cip.render.raytrace.HashRandom;
+import cip.render.raytrace.LightInfluence;
+import cip.render.raytrace.LightInfo;
+import cip.render.raytrace.RayIntersection;
+import cip.render.raytrace.interfaces.IRtLight;
+import cip.render.util2d.Point2f;
+import cip.render.util3d.Point3f;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A bounding volume hierarchy over the local lights of a scene, used to sample a fixed number of lights at each
+ * intersection instead of evaluating (and casting a shadow ray to) every light.  The cost of direct illumination at an
+ * intersection then stays constant as the number of lights grows.
+ * <p>
+ * Each node of the tree holds the total intensity of its lights and the box around the light influences (see
+ * {@link LightInfluence}), the lights are split at the median of the longest axis of their positions so nearby lights
+ * share nodes.  A light is sampled by walking down from the root, choosing each child with probability proportional to
+ * its importance at the intersection - its intensity, or 0 if the intersection is outside the influence of all its
+ * lights.  The point and spot lights do not fall off with distance, so distance only enters the importance through the
+ * falloff radius and spotlight cone of the influences - weighting by the inverse square distance would make distant
+ * bright lights rare samples with large weights.  The probability of the light reached is the product of the choices
+ * made on the way down, and the light contribution is divided by that probability and the number of samples, so the
+ * sampled illumination is an unbiased estimate of the illumination by all the lights.  Every light that can illuminate
+ * the intersection has a non-zero probability.
+ * <p>
+ * The lights are rendered by replacing the local lights in the scene light array with one sampling light for each
+ * sample (see {@link #buildLights(IRtLight[], int)}), so every material and the shadow tests work unchanged.  The
+ * samples at an intersection are stratified, and the random numbers are a hash of the intersection and the pixel
+ * sub-sample, so a frame renders the same every time and the noise averages out with more <tt>pixelSamples</tt>.
+ * <p>
+ * The local lights (the lights at a position in the scene, the point and spot lights) are sampled whether or not their
+ * influence is bounded.  A light with no falloff radius has an infinite box, so the nodes above it are chosen by
+ * intensity alone (and the cone, for a spot light, at the leaf).  Lights that are not local, like ambient lights, are
+ * always evaluated.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class LightTree {
+    // the largest float less than 1
+    private static final float ONE_MINUS = 0.99999994f;
+
+    private final IRtLight[] m_lights;                  // the sampled lights
+    private final LightInfluence[] m_influences;        // the influences of the sampled lights
+    private float m_fDimmer = Float.NaN;                // the dimmer the tree was built for
+    // The nodes, node 0 is the root.  A leaf has the index of its light, an interior node has -1 and its two children.
+    private final int m_nNodes;
+    private final int[] m_nLight;
+    private final int[] m_nLeft;
+    private final int[] m_nRight;
+    private final float[] m_fPower;                     // the total intensity
+    private final float[] m_fMinX;                      // the box around the light influences
+    private final float[] m_fMinY;
+    private final float[] m_fMinZ;
+    private final float[] m_fMaxX;
+    private final float[] m_fMaxY;
+    private final float[] m_fMaxZ;
+    private int m_nNextNode;                            // the next node while building
+
+    private LightTree(@NotNull final IRtLight[] lights) {
+        m_lights = lights;
+        m_influences = new LightInfluence[lights.length];
+        for (int iLgt = 0; iLgt < lights.length; iLgt++) {
+            m_influences[iLgt] = new LightInfluence();
+        }
+        m_nNodes = (2 * lights.length) - 1;
+        m_nLight = new int[m_nNodes];
+        m_nLeft = new int[m_nNodes];
+        m_nRight = new int[m_nNodes];
+        m_fPower = new float[m_nNodes];
+        m_fMinX = new float[m_nNodes];
+        m_fMinY = new float[m_nNodes];
+        m_fMinZ = new float[m_nNodes];
+        m_fMaxX = new float[m_nNodes];
+        m_fMaxY = new float[m_nNodes];
+        m_fMaxZ = new float[m_nNodes];
+        lclBuild();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Build the light array to be rendered when lights are sampled.  The local lights, bounded or not, are replaced by
+     * <tt>nSamples</tt> lights that each sample one of the local lights at every intersection.  If there are no more local lights than
+     * samples, all the lights are evaluated and the light array is returned unchanged.
+     * <p>
+     * The light influences, including the dimmed intensity, are read when the array is built, so the dimmer should be
+     * set before this is called.  Setting the dimmer of a sampling light sets the dimmer of all the sampled lights and
+     * rebuilds the tree.
+     *
+     * @param lights   (IRtLight[], readonly) The scene lights.
+     * @param nSamples (int) The number of lights sampled at each intersection, 0 or less to evaluate all the lights.
+     * @return Returns the light array to be rendered.
+     */
+    @NotNull
+    public static IRtLight[] buildLights(@NotNull final IRtLight[] lights, final int nSamples) {
+        if (nSamples <= 0) {
+            return lights;
+        }
+        final ArrayList<IRtLight> evaluated = new ArrayList<>();
+        final ArrayList<IRtLight> sampled = new ArrayList<>();
+        final LightInfluence influence = new LightInfluence();
+        for (final IRtLight light : lights) {
+            light.getInfluence(influence);
+            (influence.m_bLocal ? sampled : evaluated).add(light);
+        }
+        if (sampled.size() <= nSamples) {
+            return lights;
+        }
+        final LightTree tree = new LightTree(sampled.toArray(new IRtLight[0]));
+        for (int iSample = 0; iSample < nSamples; iSample++) {
+            evaluated.add(new SampledLight(tree, iSample, nSamples));
+        }
+        return evaluated.toArray(new IRtLight[0]);
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Build the tree by splitting the lights at the median of the longest axis of their positions.
+    private void lclBuild() {
+        for (int iLgt = 0; iLgt < m_lights.length; iLgt++) {
+            m_lights[iLgt].getInfluence(m_influences[iLgt]);
+        }
+        final Integer[] nOrder = new Integer[m_lights.length];
+        for (int iLgt = 0; iLgt < nOrder.length; iLgt++) {
+            nOrder[iLgt] = iLgt;
+        }
+        m_nNextNode = 0;
+        lclBuildNode(nOrder, 0, nOrder.length);
+    }
+
+    private int lclBuildNode(@NotNull final Integer[] nOrder, final int nFrom, final int nTo) {
+        final int nNode = m_nNextNode++;
+        if (1 == (nTo - nFrom)) {
+            final LightInfluence influence = m_influences[nOrder[nFrom]];
+            final float fRadius = influence.m_fRadius;
+            m_nLight[nNode] = nOrder[nFrom];
+            m_fPower[nNode] = Math.max(influence.m_rgb.r + influence.m_rgb.g + influence.m_rgb.b, 0.0f);
+            m_fMinX[nNode] = influence.m_ptApex.x - fRadius;
+            m_fMinY[nNode] = influence.m_ptApex.y - fRadius;
+            m_fMinZ[nNode] = influence.m_ptApex.z - fRadius;
+            m_fMaxX[nNode] = influence.m_ptApex.x + fRadius;
+            m_fMaxY[nNode] = influence.m_ptApex.y + fRadius;
+            m_fMaxZ[nNode] = influence.m_ptApex.z + fRadius;
+            return nNode;
+        }
+        // split at the median of the longest axis of the light positions
+        float fMinX = Float.POSITIVE_INFINITY;
+        float fMinY = Float.POSITIVE_INFINITY;
+        float fMinZ = Float.POSITIVE_INFINITY;
+        float fMaxX = Float.NEGATIVE_INFINITY;
+        float fMaxY = Float.NEGATIVE_INFINITY;
+        float fMaxZ = Float.NEGATIVE_INFINITY;
+        for (int iLgt = nFrom; iLgt < nTo; iLgt++) {
+            final Point3f pt = m_influences[nOrder[iLgt]].m_ptApex;
+            fMinX = Math.min(fMinX, pt.x);
+            fMinY = Math.min(fMinY, pt.y);
+            fMinZ = Math.min(fMinZ, pt.z);
+            fMaxX = Math.max(fMaxX, pt.x);
+            fMaxY = Math.max(fMaxY, pt.y);
+            fMaxZ = Math.max(fMaxZ, pt.z);
+        }
+        final float fDx = fMaxX - fMinX;
+        final float fDy = fMaxY - fMinY;
+        final float fDz = fMaxZ - fMinZ;
+        final Comparator<Integer> axis = (fDx >= fDy) && (fDx >= fDz) ?
+                Comparator.comparingDouble(iLgt -> m_influences[iLgt].m_ptApex.x) : (fDy >= fDz) ?
+                Comparator.comparingDouble(iLgt -> m_influences[iLgt].m_ptApex.y) :
+                Comparator.comparingDouble(iLgt -> m_influences[iLgt].m_ptApex.z);
+        Arrays.sort(nOrder, nFrom, nTo, axis);
+        final int nMid = (nFrom + nTo) >>> 1;
+        final int nLeft = lclBuildNode(nOrder, nFrom, nMid);
+        final int nRight = lclBuildNode(nOrder, nMid, nTo);
+        m_nLight[nNode] = -1;
+        m_nLeft[nNode] = nLeft;
+        m_nRight[nNode] = nRight;
+        m_fPower[nNode] = m_fPower[nLeft] + m_fPower[nRight];
+        m_fMinX[nNode] = Math.min(m_fMinX[nLeft], m_fMinX[nRight]);
+        m_fMinY[nNode] = Math.min(m_fMinY[nLeft], m_fMinY[nRight]);
+        m_fMinZ[nNode] = Math.min(m_fMinZ[nLeft], m_fMinZ[nRight]);
+        m_fMaxX[nNode] = Math.max(m_fMaxX[nLeft], m_fMaxX[nRight]);
+        m_fMaxY[nNode] = Math.max(m_fMaxY[nLeft], m_fMaxY[nRight]);
+        m_fMaxZ[nNode] = Math.max(m_fMaxZ[nLeft], m_fMaxZ[nRight]);
+        return nNode;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Set the dimmer of all the sampled lights and rebuild the tree for the new intensities.
+    private void lclSetDimmer(final float fDimmer) {
+        if (fDimmer != m_fDimmer) {
+            for (final IRtLight light : m_lights) {
+                light.setDimmer(fDimmer);
+            }
+            lclBuild();
+            m_fDimmer = fDimmer;
+        }
+    }
+
+    private void lclInitSampling(final int nSample, final float[] f1dSample, final float[] f1dRandom,
+                                 final Point2f[] pt2dSample, final Point2f[] pt2dRandom,
+                                 final Point3f[] pt3dSample, final Point3f[] pt3dRandom) {
+        for (final IRtLight light : m_lights) {
+            light.initSampling(nSample, f1dSample, f1dRandom, pt2dSample, pt2dRandom, pt3dSample, pt3dRandom);
+        }
+    }
+
+    // The importance of a node at an intersection - 0 if the intersection is outside the influence of all the lights of
+    //  the node, otherwise the intensity.
+    private float lclImportance(final int nNode, @NotNull final Point3f pt) {
+        if ((pt.x < m_fMinX[nNode]) || (pt.x > m_fMaxX[nNode]) || (pt.y < m_fMinY[nNode]) || (pt.y > m_fMaxY[nNode]) ||
+                (pt.z < m_fMinZ[nNode]) || (pt.z > m_fMaxZ[nNode])) {
+            return 0.0f;
+        }
+        if ((m_nLight[nNode] >= 0) && !m_influences[m_nLight[nNode]].contains(pt)) {
+            return 0.0f;
+        }
+        return m_fPower[nNode];
+    }
+
+    // Sample a light for an intersection using the random number fU, 0 to 1, and get its light information with the
+    //  light intensity scaled by fScale over the probability the light was sampled.
+    private boolean lclGetLight(@NotNull final LightInfo lightInfo, @NotNull final RayIntersection intersection,
+                                final int nSample, final int nRandom, final float fU, final float fScale) {
+        float u = Math.min(fU, ONE_MINUS);
+        float fPdf = 1.0f;
+        int nNode = 0;
+        while (m_nLight[nNode] < 0) {
+            final float fLeft = lclImportance(m_nLeft[nNode], intersection.m_pt);
+            final float fRight = lclImportance(m_nRight[nNode], intersection.m_pt);
+            final float fSum = fLeft + fRight;
+            if (!(fSum > 0.0f)) {
+                return false;
+            }
+            final float fProbLeft = fLeft / fSum;
+            if (u < fProbLeft) {
+                u = Math.min(u / fProbLeft, ONE_MINUS);
+                fPdf *= fProbLeft;
+                nNode = m_nLeft[nNode];
+            } else {
+                u = Math.min((u - fProbLeft) / (1.0f - fProbLeft), ONE_MINUS);
+                fPdf *= 1.0f - fProbLeft;
+                nNode = m_nRight[nNode];
+            }
+        }
+        if (!m_lights[m_nLight[nNode]].getLight(lightInfo, intersection, nSample, nRandom)) {
+            return false;
+        }
+        lightInfo.m_rgb.scale(fScale / fPdf);
+        return true;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * One of the lights that replaces the local lights in the rendered light array - each samples one light from the
+     * tree at every intersection, in its own stratum of the random numbers.
+     */
+    private static final class SampledLight implements IRtLight {
+        private final LightTree m_tree;
+        private final int m_nLightSample;
+        private final float m_fSamples;
+
+        private SampledLight(@NotNull final LightTree tree, final int nLightSample, final int nSamples) {
+            m_tree = tree;
+            m_nLightSample = nLightSample;
+            m_fSamples = (float) nSamples;
+        }
+
+        @Override
+        public void initSampling(final int nSample, final float[] f1dSample, final float[] f1dRandom,
+                                 final Point2f[] pt2dSample, final Point2f[] pt2dRandom,
+                                 final Point3f[] pt3dSample, final Point3f[] pt3dRandom) {
+            m_tree.lclInitSampling(nSample, f1dSample, f1dRandom, pt2dSample, pt2dRandom, pt3dSample, pt3dRandom);
+        }
+
+        @Override
+        public void setDimmer(final float fDimmer) {
+            m_tree.lclSetDimmer(fDimmer);
+        }
+
+        @Override
+        public boolean getLight(final LightInfo lightInfo, final RayIntersection intersection, final int nSample,
+                                final int nRandom) {
+            final float fU = (m_nLightSample + HashRandom.get(intersection.m_pt, 0, nSample, nRandom, m_nLightSample)) / m_fSamples;
+            return m_tree.lclGetLight(lightInfo, intersection, nSample, nRandom, fU, 1.0f / m_fSamples);
+        }
+
+        @Override
+        public String toString() {
+            return "sampled light " + m_nLightSample;
+        }
+    }
+}
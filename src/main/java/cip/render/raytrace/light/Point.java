@@ -22,9 +22,11 @@ package cip.render.raytrace.light;
 
 import cip.render.DynXmlObjParseException;
 import cip.render.INamedObject;
+import cip.render.raytrace.LightInfluence;
 import cip.render.raytrace.LightInfo;
 import cip.render.raytrace.RayIntersection;
 import cip.render.util3d.PackageConstants;
+import cip.render.util3d.Point3f;
 import cip.render.utilColour.RGBf;
 import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
@@ -39,6 +41,7 @@ import java.util.LinkedList;
  * <pre>
  *     <font style="color:blue">&lt;<b>DynamicallyLoadedObject</b> class="cip.raytrace.light.Point" name="<font style="color:magenta"><i>pointLightName</i></font>"&gt;</font>
  *       <font style="color:blue">&lt;<b>intensity</b> <font style="color:magenta"><i>RGBf_attributes</i></font>/&gt;</font>
+ *       <font style="color:blue">&lt;<b>radius</b>&gt;<font style="color:magenta"><i>falloffRadius</i></font>&lt;/<b>radius</b>&gt;</font>
  *     <font style="color:blue">&lt;/<b>DynamicallyLoadedObject</b>&gt;</font>
  * </pre>
  * <table border="0" width="90%">
@@ -52,6 +55,13 @@ import java.util.LinkedList;
  * {@link RGBf#setValue(Element, boolean)}<br>
  * </td>
  * </tr>
+ * <tr>
+ * <td><tt>radius</tt></td>
+ * <td>The falloff radius, the point light does not illuminate anything farther than this distance from the light.  The
+ * point light intensity does not fall off with distance, so this is a hard limit that confines the light to the part of
+ * the scene it is meant to light.  The default is unlimited if not specified.
+ * </td>
+ * </tr>
  * </table>
  * </td>
  * </tr>
@@ -72,11 +82,13 @@ import java.util.LinkedList;
  */
 public class Point extends ALight {
     private static final String XML_TAG_INTENSITY = "intensity";
+    private static final String XML_TAG_RADIUS = "radius";
 
     // The instance definition
     private final RGBf m_rgb = new RGBf(1.0f, 1.0f, 1.0f);  // the point light intensity
     private float m_fDimmer = 1.0f;                         // the dimmer value
     private final RGBf m_rgbDimmed = new RGBf(m_rgb);       // the dimmed intensity used in the scene
+    private float m_fRadius = Float.POSITIVE_INFINITY;      // the falloff radius
 
     /**
      * Creates a new instance of a <tt>Point</tt> light source.
@@ -98,6 +110,17 @@ public class Point extends ALight {
         return m_fDimmer;
     }
 
+    public final float getRadius() {
+        return m_fRadius;
+    }
+
+    public final void setRadius(final float fRadius) {
+        if (!(fRadius > 0.0f)) {
+            throw new IllegalArgumentException("Point light radius must be positive, found " + fRadius + ".");
+        }
+        m_fRadius = fRadius;
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // IDynXmlObject interface implementation                                                                                     //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -113,6 +136,11 @@ public class Point extends ALight {
                     if (element.getTagName().equalsIgnoreCase(XML_TAG_INTENSITY)) {
                         // this is the ambient intesnity
                         m_rgb.setValue(element, false);
+                    } else if (element.getTagName().equalsIgnoreCase(XML_TAG_RADIUS)) {
+                        m_fRadius = Float.parseFloat(element.getTextContent().trim());
+                        if (!(m_fRadius > 0.0f)) {
+                            throw new DynXmlObjParseException("Point light radius must be positive, found " + m_fRadius + ".");
+                        }
                     } else {
                         throw new DynXmlObjParseException("Unrecognized point light  XML description element <" +
                                 element.getTagName() + ">.");
@@ -136,6 +164,12 @@ public class Point extends ALight {
         final Element elRGB = element.getOwnerDocument().createElement(XML_TAG_INTENSITY);
         element.appendChild(elRGB);
         m_rgb.toXmlAttr(elRGB);
+        // the falloff radius, if specified
+        if (m_fRadius < Float.POSITIVE_INFINITY) {
+            final Element elRadius = element.getOwnerDocument().createElement(XML_TAG_RADIUS);
+            element.appendChild(elRadius);
+            elRadius.appendChild(element.getOwnerDocument().createTextNode(Float.toString(m_fRadius)));
+        }
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -155,6 +189,12 @@ public class Point extends ALight {
                 (intersection.m_vNormal.j * intersection.m_pt.y) +
                 (intersection.m_vNormal.k * intersection.m_pt.z));
         if (fPerpDist < PackageConstants.ZERO_TOLERANCE_MAX_FLOAT) return false;
+        // check the intersection is inside the falloff radius
+        if ((m_fRadius < Float.POSITIVE_INFINITY) && (((intersection.m_pt.x * intersection.m_pt.x) +
+                (intersection.m_pt.y * intersection.m_pt.y) + (intersection.m_pt.z * intersection.m_pt.z)) >
+                (m_fRadius * m_fRadius))) {
+            return false;
+        }
         // fill in the light info - remember, the intersection has been transformed into the
         //  coordinate syetem of the light.  The light is at 0,0,0 - the position of the
         //  intersection is the light vector to the intersection.
@@ -167,5 +207,9 @@ public class Point extends ALight {
         return true;
     }
 
-
+    //------------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public void getInfluence(final LightInfluence influence) {
+        influence.setSphere(new Point3f(0.0f, 0.0f, 0.0f), m_fRadius, m_rgbDimmed);
+    }
 }
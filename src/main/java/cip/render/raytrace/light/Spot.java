@@ -22,10 +22,14 @@ package cip.render.raytrace.light;
 
 import cip.render.DynXmlObjParseException;
 import cip.render.INamedObject;
+import cip.render.raytrace.LightInfluence;
 import cip.render.raytrace.LightInfo;
 import cip.render.raytrace.RayIntersection;
 import cip.render.util.AngleF;
+import cip.render.util.FastMath;
 import cip.render.util3d.PackageConstants;
+import cip.render.util3d.Point3f;
+import cip.render.util3d.Vector3f;
 import cip.render.utilColour.RGBf;
 import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
@@ -42,6 +46,8 @@ import java.util.LinkedList;
  *                              name="<font style="color:magenta"><i>pointLightName</i></font>"&gt;</font>
  *         <font style="color:blue">&lt;<b>intensity</b> <font style="color:magenta"><i>RGBf_attributes</i></font>/&gt;</font>
  *         <font style="color:blue">&lt;<b>beta</b>&gt;<font style="color:magenta"><i>betaDegrees</i></font>&lt;/<b>beta</b>&gt;</font>
+ *         <font style="color:blue">&lt;<b>cutoff</b>&gt;<font style="color:magenta"><i>cutoffFraction</i></font>&lt;/<b>cutoff</b>&gt;</font>
+ *         <font style="color:blue">&lt;<b>radius</b>&gt;<font style="color:magenta"><i>falloffRadius</i></font>&lt;/<b>radius</b>&gt;</font>
  *     <font style="color:blue">&lt;/<b>DynamicallyLoadedObject</b>&gt;</font>
  * </pre>
  * <table border="0" width="90%">
@@ -62,6 +68,21 @@ import java.util.LinkedList;
  * The default is 10 degree if not specified.
  * </td>
  * </tr>
+ * <tr>
+ * <td><tt>cutoff</tt></td>
+ * <td>The fraction of the intensity on the light source axis below which the spotlight is treated as dark.  This
+ * limits the spotlight influence to the cone inside which the intensity is greater than the cutoff, so intersections
+ * outside the cone are skipped without evaluating the falloff.  Valid values are 0 to less than 1, a small value like 0.001
+ * is invisible in the image.  The default is 0 (no cutoff) if not specified.
+ * </td>
+ * </tr>
+ * <tr>
+ * <td><tt>radius</tt></td>
+ * <td>The falloff radius, the spotlight does not illuminate anything farther than this distance from the light.  The
+ * spotlight intensity does not fall off with distance, so this is a hard limit that confines the spotlight to the
+ * part of the scene it is meant to light.  The default is unlimited if not specified.
+ * </td>
+ * </tr>
  * </table>
  * </td>
  * </tr>
@@ -86,14 +107,21 @@ public class Spot extends ALight {
 
     private static final String XML_TAG_INTENSITY = "intensity";
     private static final String XML_TAG_BETA = "beta";
+    private static final String XML_TAG_CUTOFF = "cutoff";
+    private static final String XML_TAG_RADIUS = "radius";
 
     // The instance definition
     // base specification
     private final RGBf m_rgb = new RGBf();                             // the specified intensity
     private final AngleF m_aBeta = new AngleF(AngleF.DEGREES, 10.0f);    // the angle at which intensity drops to half
     private float m_fDimmer = 1.0f;                               // the dimmer value
+    private float m_fCutoff = 0.0f;                                 // the intensity fraction treated as dark
+    private float m_fRadius = Float.POSITIVE_INFINITY;              // the falloff radius
     // derived values
     private double m_dExp = 5.0;
+    private boolean m_bBounded = false;     // true if the influence is tighter than the half-space in front of the light
+    private float m_fCosSq = 0.0f;          // the square of the cosine of the influence cone half angle
+    private float m_fRadiusSq = Float.POSITIVE_INFINITY;
     private final RGBf m_rgbDimmed = new RGBf();   // the intensity after dimming
 
     /**
@@ -102,6 +130,66 @@ public class Spot extends ALight {
     public Spot() {
     }
 
+    //-------------------------------------------------------------------------------------------------------------------------
+    public final void getIntensity(final RGBf rgbIntensity) {
+        rgbIntensity.setValue(m_rgb);
+    }
+
+    public final void setIntensity(final RGBf rgbIntensity) {
+        m_rgb.setValue(rgbIntensity);
+        m_rgbDimmed.setValue(rgbIntensity).scale(m_fDimmer);
+    }
+
+    public final void getBeta(final AngleF aBeta) {
+        aBeta.setValue(m_aBeta);
+    }
+
+    public final void setBeta(final AngleF aBeta) {
+        m_aBeta.setValue(aBeta);
+        initForRender();
+    }
+
+    public final float getCutoff() {
+        return m_fCutoff;
+    }
+
+    public final void setCutoff(final float fCutoff) {
+        if (!lclIsValidCutoff(fCutoff)) {
+            throw new IllegalArgumentException(lclCutoffError(fCutoff));
+        }
+        m_fCutoff = fCutoff;
+        initForRender();
+    }
+
+    public final float getRadius() {
+        return m_fRadius;
+    }
+
+    public final void setRadius(final float fRadius) {
+        if (!lclIsValidRadius(fRadius)) {
+            throw new IllegalArgumentException(lclRadiusError(fRadius));
+        }
+        m_fRadius = fRadius;
+        initForRender();
+    }
+
+    // The cutoff is a fraction of the axis intensity, 1 or more would be a spotlight that is dark everywhere.
+    private static boolean lclIsValidCutoff(final float fCutoff) {
+        return (fCutoff >= 0.0f) && (fCutoff < 1.0f);
+    }
+
+    private static String lclCutoffError(final float fCutoff) {
+        return "Spot Light cutoff must be 0 to less than 1, found " + fCutoff + ".";
+    }
+
+    private static boolean lclIsValidRadius(final float fRadius) {
+        return fRadius > 0.0f;
+    }
+
+    private static String lclRadiusError(final float fRadius) {
+        return "Spot Light radius must be positive, found " + fRadius + ".";
+    }
+
     protected void initForRender() {
         if (m_aBeta.getDegrees() >= 85.0f) {
             m_dExp = 0.0f;
@@ -110,6 +198,12 @@ public class Spot extends ALight {
             if (dAngle < 2.0) dAngle = 2.0;
             m_dExp = -(Math.log(2.0) / Math.log(Math.cos(dAngle * AngleF.DEGREES_TO_RADIANS)));
         }
+        // the influence cone is where cos^exp is greater than the cutoff, cos = cutoff^(1/exp)
+        final float fCos = ((m_fCutoff > 0.0f) && (m_dExp > 0.0)) ?
+                (float) Math.pow((double) Math.min(m_fCutoff, 1.0f), 1.0 / m_dExp) : 0.0f;
+        m_fCosSq = fCos * fCos;
+        m_fRadiusSq = m_fRadius * m_fRadius;
+        m_bBounded = (m_fCosSq > 0.0f) || (m_fRadius < Float.POSITIVE_INFINITY);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -137,6 +231,16 @@ public class Spot extends ALight {
                             }
                             elBeta = elBeta.getNextSibling();
                         }
+                    } else if (element.getTagName().equalsIgnoreCase(XML_TAG_CUTOFF)) {
+                        m_fCutoff = Float.parseFloat(element.getTextContent().trim());
+                        if (!lclIsValidCutoff(m_fCutoff)) {
+                            throw new DynXmlObjParseException(lclCutoffError(m_fCutoff));
+                        }
+                    } else if (element.getTagName().equalsIgnoreCase(XML_TAG_RADIUS)) {
+                        m_fRadius = Float.parseFloat(element.getTextContent().trim());
+                        if (!lclIsValidRadius(m_fRadius)) {
+                            throw new DynXmlObjParseException(lclRadiusError(m_fRadius));
+                        }
                     } else {
                         throw new DynXmlObjParseException("Unrecognized Spot Light element <" +
                                 element.getTagName() + ">, terminating model parsing.");
@@ -165,6 +269,17 @@ public class Spot extends ALight {
         final Element elBeta = element.getOwnerDocument().createElement(XML_TAG_BETA);
         element.appendChild(elBeta);
         elBeta.appendChild(element.getOwnerDocument().createTextNode(Float.toString(m_aBeta.getDegrees())));
+        // the influence limits, if specified
+        if (m_fCutoff > 0.0f) {
+            final Element elCutoff = element.getOwnerDocument().createElement(XML_TAG_CUTOFF);
+            element.appendChild(elCutoff);
+            elCutoff.appendChild(element.getOwnerDocument().createTextNode(Float.toString(m_fCutoff)));
+        }
+        if (m_fRadius < Float.POSITIVE_INFINITY) {
+            final Element elRadius = element.getOwnerDocument().createElement(XML_TAG_RADIUS);
+            element.appendChild(elRadius);
+            elRadius.appendChild(element.getOwnerDocument().createTextNode(Float.toString(m_fRadius)));
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -188,6 +303,14 @@ public class Spot extends ALight {
         if (intersection.m_pt.y > (-PackageConstants.ZERO_TOLERANCE_MAX_FLOAT)) return false;
         // check surface faces the light
         if (intersection.m_vNormal.j <= 0.0f) return false;
+        // check the intersection is inside the influence cone and falloff radius - the axis is -Y
+        if (m_bBounded) {
+            final float fDistSq = (intersection.m_pt.x * intersection.m_pt.x) +
+                    (intersection.m_pt.y * intersection.m_pt.y) + (intersection.m_pt.z * intersection.m_pt.z);
+            if ((fDistSq > m_fRadiusSq) || ((intersection.m_pt.y * intersection.m_pt.y) < (m_fCosSq * fDistSq))) {
+                return false;
+            }
+        }
         // fill in the light info - remember, the intersection has been transformed into the
         //  coordinate syetem of the light.  The light is at 0,0,0 - the position of the
         //  intersection is the light vector to the intersection
@@ -196,9 +319,16 @@ public class Spot extends ALight {
         lightInfo.m_vDir.setValue(intersection.m_pt.x, intersection.m_pt.y, intersection.m_pt.z);
         lightInfo.m_fDist = lightInfo.m_vDir.getLength();
         lightInfo.m_vDir.scale(1.0f / lightInfo.m_fDist);
-        lightInfo.m_rgb.setValue(m_rgbDimmed).scale((float) (Math.pow((double) (-lightInfo.m_vDir.j), m_dExp)));
+        lightInfo.m_rgb.setValue(m_rgbDimmed).scale(FastMath.isFast() ? FastMath.pow(-lightInfo.m_vDir.j, (float) m_dExp) :
+                (float) (Math.pow((double) (-lightInfo.m_vDir.j), m_dExp)));
         lightInfo.m_fPerpDist = fPerpDist;
         return true;
     }
 
+    //-------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public void getInfluence(final LightInfluence influence) {
+        influence.setCone(new Point3f(0.0f, 0.0f, 0.0f), new Vector3f(0.0f, -1.0f, 0.0f), (float) Math.sqrt(m_fCosSq),
+                m_fRadius, m_rgbDimmed);
+    }
 }
@@ -24,6 +24,7 @@ import cip.render.DynXmlObjLoader;
 import cip.render.DynXmlObjParseException;
 import cip.render.IDynXmlObject;
 import cip.render.INamedObject;
+import cip.render.raytrace.LightInfluence;
 import cip.render.raytrace.LightInfo;
 import cip.render.raytrace.RayIntersection;
 import cip.render.raytrace.interfaces.IRtLight;
@@ -122,6 +123,7 @@ public class XfmLight extends ALight {
     private final Xfm4x4f m_xfxWldLgt = new Xfm4x4f();              // the world-light transform (inverse of m_xfm)
     private final Xfm4x4f m_xfxWldLgtNormal = new Xfm4x4f();        // the world-light normal transform (transpose of m_xfxWldLgt)
     private IRtLight m_lgt = null;                                  // the transformed light
+    private final LightInfluence m_influence = new LightInfluence(); // the influence of the transformed light (world)
 
     /**
      * Creates a new instance of XfmLight
@@ -136,6 +138,7 @@ public class XfmLight extends ALight {
 
     public void setLight(final IRtLight lgt) {
         m_lgt = lgt;
+        lclSetInfluence();
     }
 
     public void getXfm(final Xfm4x4f xfm) {
@@ -157,6 +160,18 @@ public class XfmLight extends ALight {
         m_xfxWldLgt.setValue(m_xfm).invert();
         m_xfmNormal.setValue(m_xfxWldLgt).transpose();
         m_xfxWldLgtNormal.setValue(m_xfm).transpose();
+        lclSetInfluence();
+    }
+
+    // The influence of the transformed light is transformed to world space so intersections outside it are rejected
+    //  before the intersection is transformed into the space of the light.
+    private void lclSetInfluence() {
+        if (null == m_lgt) {
+            m_influence.setUnbounded();
+        } else {
+            m_lgt.getInfluence(m_influence);
+            m_influence.transform(m_xfm);
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -230,14 +245,17 @@ public class XfmLight extends ALight {
         if (null != m_lgt) {
             m_lgt.setDimmer(fDimmer);
         }
+        // the dimmer is set before each frame is rendered, pick up any change to the transformed light influence
+        lclSetInfluence();
     }
 
     //-------------------------------------------------------------------------------------------------------------------------
     @Override
     public boolean getLight(final LightInfo lightInfo, final RayIntersection intersection, final int nSample, final int nRandom) {
         boolean bRet = false;
-        if (null != m_lgt) {
+        if ((null != m_lgt) && m_influence.contains(intersection.m_pt)) {
             // transform the intersection into the space of the light
+            final int nMark = intersection.mark();
             final RayIntersection rayIntTmp = intersection.borrowIntersection();
             try {
                 m_xfxWldLgt.transform(intersection.m_pt, rayIntTmp.m_pt);
@@ -249,13 +267,19 @@ public class XfmLight extends ALight {
                     m_xfmNormal.transform(lightInfo.m_vDir);
                 }
             } finally {
-                // return the temporary ray intersection.
-                intersection.returnIntersection(rayIntTmp);
+                // release the temporary ray intersection.
+                intersection.reset(nMark);
             }
         }
         return bRet;
     }
 
+    //-------------------------------------------------------------------------------------------------------------------------
+    @Override
+    public void getInfluence(final LightInfluence influence) {
+        influence.setValue(m_influence);
+    }
+
     //-------------------------------------------------------------------------------------------------------------------------
     @Override
     public String toString() {
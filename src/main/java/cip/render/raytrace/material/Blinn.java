@@ -472,6 +472,7 @@ public class Blinn implements IDynXmlObject, INamedObject, IRtMaterial {
                          final int nSample, final int nRandom) {
         rgb.setValue(m_rgbEmissive);
         if (null == lights) return;
+        final int nMark = intersection.mark();
         final LightInfo lightInfo = intersection.borrowLightInfo();
         final Vector3f vL = intersection.borrowVector();
         final Vector3f vH = intersection.borrowVector();
@@ -512,7 +513,7 @@ public class Blinn implements IDynXmlObject, INamedObject, IRtMaterial {
                                         //  as a result of numerical error.  Most D and G functions do not respond will to negative
                                         //  values of N.H
                                         vH.normalize();
-                                        float fScale = m_D.evaluate(intersection.m_vNormal, vH, intersection.m_vToEye, vL) * m_fKs;
+                                        float fScale = m_D.evaluate(intersection, intersection.m_vNormal, vH, intersection.m_vToEye, vL) * m_fKs;
                                         if (null != m_G) {
                                             fScale *= m_G.evaluate(intersection.m_vNormal, vH, intersection.m_vToEye, vL);
                                         }
@@ -537,10 +538,7 @@ public class Blinn implements IDynXmlObject, INamedObject, IRtMaterial {
         } catch (final Throwable t) {
             rgb.setValue(1.0f, 1.0f, 0.0f);
         } finally {
-            intersection.returnLightInfo(lightInfo);
-            intersection.returnVector(vH);
-            intersection.returnVector(vL);
-            intersection.returnRGB(rgbTemp);
+            intersection.reset(nMark);
         }
     }
 
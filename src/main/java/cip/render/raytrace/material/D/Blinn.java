@@ -24,8 +24,10 @@ import cip.render.DynXmlObjLoader;
 import cip.render.DynXmlObjParseException;
 import cip.render.IDynXmlObject;
 import cip.render.INamedObject;
+import cip.render.raytrace.RayIntersection;
 import cip.render.raytrace.interfaces.IRtD;
 import cip.render.util.AngleF;
+import cip.render.util.FastMath;
 import cip.render.util3d.Vector3f;
 import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
@@ -50,6 +52,7 @@ import java.util.LinkedList;
  */
 public class Blinn implements IDynXmlObject, IRtD {
     private double m_dNs = 10.0f;
+    private float m_fNs = 10.0f;
 
     /**
      * Creates a new instance of <tt>Blinn</tt> cosine power slope distribution function.
@@ -76,9 +79,13 @@ public class Blinn implements IDynXmlObject, IRtD {
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     public void initialize(final AngleF aBeta) {
         m_dNs = -(Math.log(2.0) / Math.log((double) aBeta.cos()));
+        m_fNs = (float) m_dNs;
     }
 
-    public float evaluate(final Vector3f N, final Vector3f H, final Vector3f V, final Vector3f L) {
+    public float evaluate(final RayIntersection intersection, final Vector3f N, final Vector3f H, final Vector3f V, final Vector3f L) {
+        if (FastMath.isFast()) {
+            return FastMath.pow(N.dot(H), m_fNs);
+        }
         return (float) Math.pow((double) N.dot(H), m_dNs);
     }
 
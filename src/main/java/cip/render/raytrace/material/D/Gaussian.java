@@ -24,8 +24,10 @@ import cip.render.DynXmlObjLoader;
 import cip.render.DynXmlObjParseException;
 import cip.render.IDynXmlObject;
 import cip.render.INamedObject;
+import cip.render.raytrace.RayIntersection;
 import cip.render.raytrace.interfaces.IRtD;
 import cip.render.util.AngleF;
+import cip.render.util.FastMath;
 import cip.render.util3d.Vector3f;
 import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
@@ -50,6 +52,7 @@ import java.util.LinkedList;
  */
 public class Gaussian implements IDynXmlObject, IRtD {
     private double m_dC = 1.0f;
+    private float m_fC = 1.0f;
 
     /**
      * Creates a new instance of <tt>Gaussian</tt>
@@ -76,9 +79,14 @@ public class Gaussian implements IDynXmlObject, IRtD {
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     public void initialize(final AngleF aBeta) {
         m_dC = Math.sqrt(Math.log(2.0)) / (double) aBeta.getRadians();
+        m_fC = (float) m_dC;
     }
 
-    public float evaluate(final Vector3f N, final Vector3f H, final Vector3f V, final Vector3f L) {
+    public float evaluate(final RayIntersection intersection, final Vector3f N, final Vector3f H, final Vector3f V, final Vector3f L) {
+        if (FastMath.isFast()) {
+            final float fTmp = FastMath.acos(N.dot(H)) * m_fC;
+            return FastMath.exp(-(fTmp * fTmp));
+        }
         final double dTmp = Math.acos((double) N.dot(H)) * m_dC;
         return (float) Math.exp(-(dTmp * dTmp));
     }
@@ -24,8 +24,10 @@ import cip.render.DynXmlObjLoader;
 import cip.render.DynXmlObjParseException;
 import cip.render.IDynXmlObject;
 import cip.render.INamedObject;
+import cip.render.raytrace.RayIntersection;
 import cip.render.raytrace.interfaces.IRtD;
 import cip.render.util.AngleF;
+import cip.render.util.FastMath;
 import cip.render.util3d.Vector3f;
 import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
@@ -50,8 +52,7 @@ import java.util.LinkedList;
  */
 public class Phong implements IDynXmlObject, IRtD {
     private double m_dNs = 10.0f;
-
-    private Vector3f m_cacheVector;
+    private float m_fNs = 10.0f;
 
     /**
      * Creates a new instance of Phong slope distribution.
@@ -80,42 +81,24 @@ public class Phong implements IDynXmlObject, IRtD {
         final AngleF tmpAng = new AngleF(aBeta).mult(2.0f);
         if (tmpAng.getDegrees() > 60.0f) tmpAng.setDegrees(60.0f);
         m_dNs = -(Math.log(2.0) / Math.log((double) tmpAng.cos()));
+        m_fNs = (float) m_dNs;
     }
 
-    public float evaluate(final Vector3f N, final Vector3f H, final Vector3f V, final Vector3f L) {
-        final Vector3f R = borrowVector();
+    public float evaluate(final RayIntersection intersection, final Vector3f N, final Vector3f H, final Vector3f V, final Vector3f L) {
+        final int nMark = intersection.mark();
         try {
-            R.setToReflection(N, L);
+            final Vector3f R = intersection.borrowVector().setToReflection(N, L);
             final float fVdotR = V.dot(R);
             if (fVdotR > 0.0f) {
-                return (float) Math.pow((double) fVdotR, m_dNs);
+                return FastMath.isFast() ? FastMath.pow(fVdotR, m_fNs) : (float) Math.pow((double) fVdotR, m_dNs);
             } else {
                 return 0.0f;
             }
         } catch (final Throwable t) {
             return 0.0f;
         } finally {
-            returnVector(R);
-        }
-    }
-
-    private synchronized Vector3f borrowVector() {
-        final Vector3f v = m_cacheVector;
-        if (null == v) {
-            return new Vector3f();
+            intersection.reset(nMark);
         }
-        m_cacheVector = v.m_next;
-        return v;
-    }
-
-    /**
-     * Returns a borrowed vector.  This function <b>is not</b> thread-safe.
-     *
-     * @param v The vector being returned.
-     */
-    public void returnVector(final Vector3f v) {
-        v.m_next = m_cacheVector;
-        m_cacheVector = v;
     }
 
 }
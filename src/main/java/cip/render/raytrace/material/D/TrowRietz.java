@@ -24,6 +24,7 @@ import cip.render.DynXmlObjLoader;
 import cip.render.DynXmlObjParseException;
 import cip.render.IDynXmlObject;
 import cip.render.INamedObject;
+import cip.render.raytrace.RayIntersection;
 import cip.render.raytrace.interfaces.IRtD;
 import cip.render.util.AngleF;
 import cip.render.util3d.Vector3f;
@@ -79,7 +80,7 @@ public class TrowRietz implements IDynXmlObject, IRtD {
         m_dC_2 = ((dCos * dCos) - 1.0) / ((dCos * dCos) - Math.sqrt(2.0));
     }
 
-    public float evaluate(final Vector3f N, final Vector3f H, final Vector3f V, final Vector3f L) {
+    public float evaluate(final RayIntersection intersection, final Vector3f N, final Vector3f H, final Vector3f V, final Vector3f L) {
         final double dNdotH = (double) N.dot(H);
         final double dTmp = m_dC_2 / (((dNdotH * dNdotH) * (m_dC_2 - 1.0)) + 1.0);
         return (float) (dTmp * dTmp);
@@ -56,7 +56,8 @@ import java.util.logging.Logger;
  * This implementation supports a combination of a constant recursion (bounce) depth cutoff and adaptive recusion
  * depth cutoff based upon the contribution that the ray can make to the colour of the pixel.  Generally, depth is
  * adaptively terminated before the absolute cutoff ts reached and the absolute cutoff is a guard against pathologic
- * environments that could reflect rays forever (i.e. 100% reflective).
+ * environments that could reflect rays forever (i.e. 100% reflective).  The adaptive cutoff, or Russian roulette in its
+ * place, is described in {@link RayTermination}.
  * <p>
  * The Hall illuminated material is specified as a node in an XML file as:<br><br>
  * <pre>
@@ -488,6 +489,7 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
     public void getColor(final @NotNull RGBf rgb, final @NotNull RayIntersection intersection, final @NotNull IRtLight[] lights, final @NotNull IRtGeometry[] rtObjects, final @NotNull IRtBackground rtBkg, final int nMaxRecursions,
                          final int nSample, final int nRandom) {
         rgb.setValue(m_rgbEmissive);
+        final int nMark = intersection.mark();
         final LightInfo lightInfo = intersection.borrowLightInfo();
         final Vector3f vL = intersection.borrowVector();
         final Vector3f vH = intersection.borrowVector();
@@ -538,7 +540,7 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
                                             //  as a result of numerical error.  Most D and G functions do not respond will to negative
                                             //  values of N.H
                                             vH.normalize();
-                                            float fScale = m_D.evaluate(intersection.m_vNormal, vH, intersection.m_vToEye, vL) * m_fKs;
+                                            float fScale = m_D.evaluate(intersection, intersection.m_vNormal, vH, intersection.m_vToEye, vL) * m_fKs;
                                             if (null != m_G) {
                                                 fScale *= m_G.evaluate(intersection.m_vNormal, vH, intersection.m_vToEye, vL);
                                             }
@@ -585,7 +587,9 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
             }
             fAveAtten = (rgbTemp.r + rgbTemp.g + rgbTemp.b) / 3.0f;
             // test to see if there are any more recursions left for the material - and get the reflection if there are
-            if ((nMaxRecursions > 0) && ((intersection.m_fMaxContribution * fAveAtten) > PackageConstants.CUTOFF_CONTRIBUTION)) {
+            float fWeight = 1.0f;
+            if ((nMaxRecursions > 0) && ((fWeight = intersection.getTermination().getWeight(intersection, intersection.m_fMaxContribution * fAveAtten,
+                    RayTermination.BRANCH_REFLECTED, nSample, nRandom)) > 0.0f)) {
                 vR.setToReflection(intersection.m_vNormal, intersection.m_vToEye);
                 if (PackageConstants.VALIDITY_CHECKING && vR.dot(intersection.m_vNormal) <= 0.0f) {
                     System.out.println("cip.raytrace.material.Hall(): unexpected negative R.N");
@@ -593,22 +597,26 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
                 // get the reflected vector and do a get colour pass on that
                 lnRflRfr.setValue(intersection.m_pt, vR);
                 intRflRfr.initialize(vR);
-                intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * fAveAtten;
+                intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * fAveAtten * fWeight;
                 for (IRtGeometry rtObject : rtObjects) {
                     if (((intersection.m_rtObj != rtObject) || (!rtObject.isConvex())) &&
                             rtObject.getRayIntersection(intRflRfr, lnRflRfr, false, nSample, nRandom)) {
                         bIntersectObj = true;
                     }
                 }
+            } else if (0.0f == fWeight) {
+                // a terminated branch is either filled with the background or contributes nothing
+                fWeight = intersection.getTermination().getTerminatedWeight();
             }
             if (bIntersectObj) {
                 // get the intersected object colour
+                intRflRfr.resolveHit(lnRflRfr);
                 intRflRfr.m_mtl.getColor(rgbRflRfr, intRflRfr, lights, rtObjects, rtBkg, nMaxRecursions - 1, nSample, nRandom);
             } else {
                 // if there was no intersection with the reflection vector, set the colour to the background
                 rtBkg.getColor(rgbRflRfr, lnRflRfr, null);
             }
-            rgb.add(rgbTemp.mult(rgbRflRfr));
+            rgb.add(rgbTemp.mult(rgbRflRfr).scale(fWeight));
 
             //----------------------------------------------------------------------------------------------------------------
             // Step 3: add in the contribution from the transmitted direction
@@ -617,14 +625,20 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
                 bIntersectObj = false;
                 rgbFt.scale(m_fKs);
                 fAveAtten = (rgbFt.r + rgbFt.g + rgbFt.b) / 3.0f;
-                if ((nMaxRecursions > 0) && ((intersection.m_fMaxContribution * fAveAtten) > PackageConstants.CUTOFF_CONTRIBUTION)) {
+                fWeight = 1.0f;
+                if ((nMaxRecursions > 0) && ((fWeight = intersection.getTermination().getWeight(intersection, intersection.m_fMaxContribution * fAveAtten,
+                        RayTermination.BRANCH_TRANSMITTED, nSample, nRandom)) > 0.0f)) {
                     lnRflRfr.setValue(intersection.m_pt, vT);
                     intRflRfr.initialize(vT);
-                    intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * fAveAtten;
+                    intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * fAveAtten * fWeight;
                     bIntersectObj = intersection.m_rtObj.getRayIntersection(intRflRfr, lnRflRfr, true, nSample, nRandom);
+                } else if (0.0f == fWeight) {
+                    // a terminated branch is either filled with the background or contributes nothing
+                    fWeight = intersection.getTermination().getTerminatedWeight();
                 }
 
                 if (bIntersectObj) {
+                    intRflRfr.resolveHit(lnRflRfr);
                     getInternalColor(rgbRflRfr, intRflRfr, lights, rtObjects, nMaxRecursions, 0, rtBkg, nSample, nRandom);
                 } else {
                     // this can't really happen unless we are just done recursing.  Being inside the object here makes
@@ -633,22 +647,13 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
                     rtBkg.getColor(rgbRflRfr, null, null);
                     rgbRflRfr.scale(0.5f);
                 }
-                rgb.add(rgbRflRfr.mult(rgbFt));
+                rgb.add(rgbRflRfr.mult(rgbFt).scale(fWeight));
             }
 
         } catch (final Throwable t) {
             rgb.setValue(1.0f, 1.0f, 0.0f);
         } finally {
-            intersection.returnIntersection(intRflRfr);
-            intersection.returnRGB(rgbFt);
-            intersection.returnRGB(rgbRflRfr);
-            intersection.returnRGB(rgbTemp);
-            intersection.returnLine(lnRflRfr);
-            intersection.returnVector(vT);
-            intersection.returnVector(vR);
-            intersection.returnVector(vH);
-            intersection.returnVector(vL);
-            intersection.returnLightInfo(lightInfo);
+            intersection.reset(nMark);
         }
     }
 
@@ -660,6 +665,7 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
         //  > direct lighting being transmitted through the object surface from the outside;
         //  > the tramsmitted direction;
         //  > the internally reflected direction.
+        final int nMark = intersection.mark();
         final LightInfo lightInfo = intersection.borrowLightInfo();
         final Vector3f vL = intersection.borrowVector();
         final Vector3f vT = intersection.borrowVector();
@@ -707,7 +713,7 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
                                         // add the specular contribution
                                         if (vHt.setToHt(vL, intersection.m_vToEye, 1.0f, m_fIndexOfRefraction) &&
                                                 (vHt.dot(intersection.m_vNormal) > 0.0f)) {
-                                            final float fScale = m_D.evaluate(intersection.m_vNormal, vHt, null, vL) * m_fKs;
+                                            final float fScale = m_D.evaluate(intersection, intersection.m_vNormal, vHt, null, vL) * m_fKs;
                                             m_F.approxFrFt(rgbFr, rgbFt, vHt, vL, intersection.m_vToEye, true, 1.0f);
                                             rgb.add(rgbFt.mult(lightInfo.m_rgb).scale(fScale));
 //                                        } else {
@@ -739,6 +745,7 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
                     }
                 }
                 if (bIntersectObj) {
+                    intRflRfr.resolveHit(lnRflRfr);
                     intRflRfr.m_mtl.getColor(rgbRflRfr, intRflRfr, lights, rtObjects, rtBkg, nMaxRecursions - 1, nSample, nRandom);
                 } else {
                     rtBkg.getColor(rgbRflRfr, lnRflRfr, null);
@@ -755,14 +762,17 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
             // Step 3: add in the contribution of the reflected ray (the ray internally reflected)
             //
             final float fAveAtten = (rgbFr.r + rgbFr.g + rgbFr.b) / 3.0f;
+            float fWeight = 1.0f;
             if ((nInternalReflections < PackageConstants.MAX_INTERNAL_REFLECTION) &&
-                    ((intersection.m_fMaxContribution * fAveAtten) > PackageConstants.CUTOFF_CONTRIBUTION)) {
+                    ((fWeight = intersection.getTermination().getWeight(intersection, intersection.m_fMaxContribution * fAveAtten,
+                            RayTermination.BRANCH_INTERNAL, nSample, nRandom)) > 0.0f)) {
                 // we continue to recurse the internal refraction into the current object
                 vR.setToReflection(intersection.m_vNormal, intersection.m_vToEye);
                 lnRflRfr.setValue(intersection.m_pt, vR);
                 intRflRfr.initialize(vR);
-                intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * fAveAtten;
+                intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * fAveAtten * fWeight;
                 if (intersection.m_rtObj.getRayIntersection(intRflRfr, lnRflRfr, true, nSample, nRandom)) {
+                    intRflRfr.resolveHit(lnRflRfr);
                     getInternalColor(rgbRflRfr, intRflRfr, lights, rtObjects, nMaxRecursions, nInternalReflections + 1, rtBkg, nSample, nRandom);
                 } else {
                     // did not get an intersection for going out - don't know what to do with this, set the color to orange.
@@ -774,22 +784,17 @@ public class Hall implements IDynXmlObject, INamedObject, IRtMaterial {
                 //  I'm arbitrarily scaling the background colour by 0.5
                 rtBkg.getColor(rgbRflRfr, null, null);
                 rgbRflRfr.scale(0.5f);
+                if (0.0f == fWeight) {
+                    // a terminated branch is either filled with the background or contributes nothing
+                    fWeight = intersection.getTermination().getTerminatedWeight();
+                }
             }
-            rgb.add(rgbFr.mult(rgbRflRfr));
+            rgb.add(rgbFr.mult(rgbRflRfr).scale(fWeight));
 
         } catch (final Throwable t) {
             rgb.setValue(1.0f, 1.0f, 0.0f);
         } finally {
-            intersection.returnIntersection(intRflRfr);
-            intersection.returnLine(lnRflRfr);
-            intersection.returnRGB(rgbRflRfr);
-            intersection.returnRGB(rgbFt);
-            intersection.returnRGB(rgbFr);
-            intersection.returnVector(vHt);
-            intersection.returnVector(vR);
-            intersection.returnVector(vT);
-            intersection.returnVector(vL);
-            intersection.returnLightInfo(lightInfo);
+            intersection.reset(nMark);
         }
     }
 }
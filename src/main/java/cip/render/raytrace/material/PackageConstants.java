@@ -41,7 +41,7 @@ public class PackageConstants {
     /**
      * The contribution below which continuing the ray intersection tree will be assumed to have
      * no meaningful effect and the tree will be adaptively terminated if adaptive depth termination is supported
-     * by the illumination model.
+     * by the illumination model.  This is the default for the <tt>cutoff</tt> frame attribute, see {@link RayTermination}.
      */
     public static float CUTOFF_CONTRIBUTION = 0.002f;
 
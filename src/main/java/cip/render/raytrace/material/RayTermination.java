@@ -0,0 +1,224 @@
+/*
+ * RayTermination.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace.material;
+
+import cip.render.raytrace.HashRandom;
+import cip.render.raytrace.RayIntersection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The termination of the reflected and transmitted branches of the ray tree for the illumination models that recurse
+ * ({@link Whitted} and {@link Hall}).  A branch is described by its contribution - the most it can contribute to the
+ * pixel, which is the {@link RayIntersection#m_fMaxContribution} of the intersection it starts from times the reflectance
+ * or transmittance (the Fresnel reflectance or transmittance for {@link Hall}) of the branch.  There are two modes:
+ * <ul>
+ * <li><b>cutoff</b> - a branch is followed if its contribution is greater than the cutoff, otherwise it is dropped.  This
+ * is the adaptive depth termination of Hall and Greenberg (1983), "A Testbed for Realistic Image Synthesis", IEEE
+ * Computer Graphics and Applications, vol 3, no 8, pp 10-20.  It is deterministic but biased, the dropped branches
+ * darken the image slightly.</li>
+ * <li><b>roulette</b> - a branch with a contribution greater than the cutoff is always followed, a branch with a smaller
+ * contribution is followed with a probability of its contribution divided by the cutoff and its colour is then scaled by
+ * the inverse of that probability.  This is Russian roulette as described in Arvo and Kirk (1990), "Particle Transport
+ * and Image Synthesis", Computer Graphics (SIGGRAPH '90), vol 24, no 4, pp 63-66.  The expected colour is the colour of
+ * the complete ray tree, so the cutoff can be raised to trace far fewer rays at the cost of some noise that averages
+ * out with more pixel samples.</li>
+ * </ul>
+ * The random numbers for roulette are a hash of the intersection, the branch, and the pixel sub-sample, so a frame always
+ * renders the same.
+ * <p>
+ * With a ray budget the cutoff is adaptively raised while rendering so the average number of reflected and transmitted
+ * rays per sample stays near the budget.  The cutoff is never lowered below the cutoff of the frame.  In roulette mode
+ * the image stays unbiased as the cutoff is raised and only gets noisier.  A budgeted frame depends on the order the
+ * samples are rendered, so it can differ a little from one render to the next.
+ * <p>
+ * The renderer creates the termination from the <tt>termination</tt>, <tt>cutoff</tt>, and <tt>rayBudget</tt>
+ * attributes of the rendered frame (see {@link cip.render.FrameLoader}) when a scene is loaded for rendering, and each
+ * rendering thread attaches it to the root intersection of its samples (see {@link RayIntersection#setTermination}), so
+ * the materials get it from the intersection they are shading.  Renderers in the same JVM each have their own
+ * termination.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class RayTermination {
+    /**
+     * The branch identifier for the reflected ray.
+     */
+    public static final int BRANCH_REFLECTED = 0;
+    /**
+     * The branch identifier for the transmitted ray.
+     */
+    public static final int BRANCH_TRANSMITTED = 1;
+    /**
+     * The branch identifier for the internally reflected ray.
+     */
+    public static final int BRANCH_INTERNAL = 2;
+
+    // The number of samples between adjustments of the cutoff for the ray budget - a power of 2.
+    private static final int ADAPT_SAMPLES = 1024;
+    // The most the cutoff is changed in one adjustment, and the most it is raised above the cutoff of the frame.
+    private static final float MAX_ADAPT_STEP = 2.0f;
+    private static final float MAX_CUTOFF_SCALE = 1000.0f;
+    // The seed separating the roulette decisions from the other hashed decisions at an intersection.
+    private static final int HASH_SEED = 0x5bd1e995;
+
+    /**
+     * The termination used when none has been set - cutoff at the default contribution, with no ray budget.
+     */
+    public static final RayTermination DEFAULT = new RayTermination(false, PackageConstants.CUTOFF_CONTRIBUTION, 0.0f);
+
+    // The termination of the frame.
+    private final boolean m_bRoulette;
+    private final float m_fFrameCutoff;
+    private final float m_fRayBudget;
+    // The cutoff in use, adjusted while rendering if there is a ray budget.
+    private volatile float m_fCutoff;
+    // The reflected and transmitted rays, and the samples, rendered in the frame - only counted with a ray budget.
+    private final LongAdder m_nRays = new LongAdder();
+    private final AtomicLong m_nSamples = new AtomicLong();
+    // The rays and samples at the last adjustment of the cutoff.
+    private long m_nLastRays = 0;
+    private long m_nLastSamples = 0;
+
+    /**
+     * Creates a new instance of <tt>RayTermination</tt>.
+     *
+     * @param bRoulette  (boolean) <tt>true</tt> for roulette, <tt>false</tt> for cutoff.
+     * @param fCutoff    (float) The cutoff contribution, greater than 0.
+     * @param fRayBudget (float) The average number of reflected and transmitted rays per sample, 0 for no budget.
+     */
+    public RayTermination(final boolean bRoulette, final float fCutoff, final float fRayBudget) {
+        m_bRoulette = bRoulette;
+        m_fFrameCutoff = fCutoff;
+        m_fRayBudget = fRayBudget;
+        m_fCutoff = fCutoff;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Start rendering a frame - the cutoff is reset to the cutoff of the frame and the ray budget starts over.  This
+     * should only be called when nothing is being rendered with this termination.
+     */
+    public void startFrame() {
+        m_fCutoff = m_fFrameCutoff;
+        m_nRays.reset();
+        m_nSamples.set(0);
+        m_nLastRays = 0;
+        m_nLastSamples = 0;
+    }
+
+    /**
+     * Test whether branches are terminated by roulette.
+     *
+     * @return Returns <tt>true</tt> for roulette, <tt>false</tt> for cutoff.
+     */
+    public boolean isRoulette() {
+        return m_bRoulette;
+    }
+
+    /**
+     * Get the cutoff in use.  This is the cutoff of the frame unless it has been raised to meet the ray budget.
+     *
+     * @return Returns the cutoff contribution.
+     */
+    public float getCutoff() {
+        return m_fCutoff;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get the weight of the colour that fills in a terminated branch.  In cutoff mode a terminated branch is filled with
+     * the background colour, which stands in for the rest of the ray tree, so the weight is 1.  In roulette mode the
+     * weight of the branches that survive makes up for the terminated branches, so a terminated branch contributes
+     * nothing and the weight is 0.
+     *
+     * @return Returns the weight of the background colour for a terminated branch.
+     */
+    public float getTerminatedWeight() {
+        return m_bRoulette ? 0.0f : 1.0f;
+    }
+
+    /**
+     * Decide whether a branch of the ray tree is followed.  The caller checks the recursion depth, this only decides on
+     * the contribution.
+     *
+     * @param intersection  (RayIntersection, readonly) The intersection the branch starts from.
+     * @param fContribution (float) The contribution of the branch.
+     * @param nBranch       (int) The branch, {@link #BRANCH_REFLECTED}, {@link #BRANCH_TRANSMITTED}, or
+     *                      {@link #BRANCH_INTERNAL}.
+     * @param nSample       (int) The pixel sub-sample.
+     * @param nRandom       (int) The jitter array index for the pixel sub-sample.
+     * @return Returns 0 if the branch is terminated (see {@link #getTerminatedWeight()}), otherwise the weight the colour
+     * of the branch is scaled by - 1 unless the branch survived roulette.  The branch should be followed with a
+     * contribution of <tt>fContribution</tt> times the weight.
+     */
+    public float getWeight(@NotNull final RayIntersection intersection, final float fContribution, final int nBranch,
+                           final int nSample, final int nRandom) {
+        final float fCutoff = m_fCutoff;
+        float fWeight = 1.0f;
+        if (!(fContribution > fCutoff)) {
+            if (!m_bRoulette || !(fContribution > 0.0f)) {
+                return 0.0f;
+            }
+            final float fProbability = fContribution / fCutoff;
+            if (HashRandom.get(intersection.m_pt, HASH_SEED, nSample, nRandom, nBranch) >= fProbability) {
+                return 0.0f;
+            }
+            fWeight = 1.0f / fProbability;
+        }
+        if (m_fRayBudget > 0.0f) {
+            m_nRays.increment();
+        }
+        return fWeight;
+    }
+
+    /**
+     * Called by the renderer when a sample is complete.  With a ray budget this periodically compares the rays traced per
+     * sample to the budget and raises or lowers the cutoff.
+     */
+    public void endSample() {
+        if ((m_fRayBudget > 0.0f) && (0 == (m_nSamples.incrementAndGet() & (ADAPT_SAMPLES - 1)))) {
+            lclAdapt();
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Scale the cutoff by the square root of how far over (or under) budget the frame is - using the rays per sample of the
+    //  frame so far or of the last samples, whichever is more, so rays saved in a simple part of the frame are not spent
+    //  all at once in a complex part.  The square root damps the adjustment because the ray count is not proportional to
+    //  the cutoff.
+    private synchronized void lclAdapt() {
+        final long nRays = m_nRays.sum();
+        final long nSamples = m_nSamples.get();
+        final float fRate = Math.max((float) nRays / nSamples, (float) (nRays - m_nLastRays) / (nSamples - m_nLastSamples));
+        m_nLastRays = nRays;
+        m_nLastSamples = nSamples;
+        final float fOver = fRate / m_fRayBudget;
+        final float fStep = Math.max(1.0f / MAX_ADAPT_STEP, Math.min((float) Math.sqrt(fOver), MAX_ADAPT_STEP));
+        m_fCutoff = Math.max(m_fFrameCutoff, Math.min(m_fCutoff * fStep, m_fFrameCutoff * MAX_CUTOFF_SCALE));
+    }
+}
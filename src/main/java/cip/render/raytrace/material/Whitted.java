@@ -45,7 +45,8 @@ import java.util.LinkedList;
  * This implementation supports a combination of a constant recursion (bounce) depth cutoff and adaptive recusion
  * depth cutoff based upon the contribution that the ray can make to the colour of the pixel.  Generally, depth is
  * adaptively terminated before the absolute cutoff ts reached and the absolute cutoff is a guard against pathologic
- * environments that could reflect rays forever (i.e. 100% reflective).
+ * environments that could reflect rays forever (i.e. 100% reflective).  The adaptive cutoff, or Russian roulette in its
+ * place, is described in {@link RayTermination}.
  * <p>
  * The Whitted illuminated material is specified as a node in an XML file as:
  * <pre>
@@ -356,6 +357,7 @@ public class Whitted extends Blinn {
                          final @NotNull IRtGeometry[] rtObjects, final @NotNull IRtBackground rtBkg, final int nMaxRecursions,
                          final int nSample, final int nRandom) {
         boolean bIntersectObj = false;
+        final int nMark = intersection.mark();
         final RayIntersection intRflRfr = intersection.borrowIntersection();
         final RGBf rgbRflRfr = intersection.borrowRGB();
         final Vector3f vRflRfr = intersection.borrowVector();
@@ -367,7 +369,9 @@ public class Whitted extends Blinn {
             //-----------------------------------------------------------------------
             // The reflected colour
             // test to see if there are any more recursions left for the material
-            if ((nMaxRecursions > 0) && ((intersection.m_fMaxContribution * m_fKs) > PackageConstants.CUTOFF_CONTRIBUTION)) {
+            float fWeight = 1.0f;
+            if ((nMaxRecursions > 0) && ((fWeight = intersection.getTermination().getWeight(intersection, intersection.m_fMaxContribution * m_fKs,
+                    RayTermination.BRANCH_REFLECTED, nSample, nRandom)) > 0.0f)) {
                 // get the reflected vector
                 vRflRfr.setToReflection(intersection.m_vNormal, intersection.m_vToEye);
                 if (PackageConstants.VALIDITY_CHECKING && vRflRfr.dot(intersection.m_vNormal) <= 0.0f) {
@@ -376,34 +380,41 @@ public class Whitted extends Blinn {
                 // initialize the reflected ray and an intersection, then use them in getting the colour of the reflected ray.
                 lnRflRfr.setValue(intersection.m_pt, vRflRfr);
                 intRflRfr.initialize(vRflRfr);
-                intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * m_fKs;
+                intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * m_fKs * fWeight;
                 for (IRtGeometry rtObject : rtObjects) {
                     if (((intersection.m_rtObj != rtObject) || (!rtObject.isConvex())) &&
                             rtObject.getRayIntersection(intRflRfr, lnRflRfr, false, nSample, nRandom)) {
                         bIntersectObj = true;
                     }
                 }
+            } else if (0.0f == fWeight) {
+                // a terminated branch is either filled with the background or contributes nothing
+                fWeight = intersection.getTermination().getTerminatedWeight();
             }
             if (bIntersectObj) {
+                intRflRfr.resolveHit(lnRflRfr);
                 intRflRfr.m_mtl.getColor(rgbRflRfr, intRflRfr, lights, rtObjects, rtBkg, nMaxRecursions - 1, nSample, nRandom);
             } else {
                 rtBkg.getColor(rgbRflRfr, lnRflRfr, null);
             }
-            rgb.add(rgbRflRfr.scale(m_fKs));
+            rgb.add(rgbRflRfr.scale(m_fKs * fWeight));
 
             //-----------------------------------------------------------------------
             // The refracted colour - this is a ray inside the object
             if (m_bIsTransparent) {
                 boolean bSetRefracted = false;
                 // test to see if there are any more recursions left for the material
-                if ((nMaxRecursions > 0) && ((intersection.m_fMaxContribution * m_fKt) > PackageConstants.CUTOFF_CONTRIBUTION) &&
+                fWeight = 1.0f;
+                if ((nMaxRecursions > 0) && ((fWeight = intersection.getTermination().getWeight(intersection, intersection.m_fMaxContribution * m_fKt,
+                        RayTermination.BRANCH_TRANSMITTED, nSample, nRandom)) > 0.0f) &&
                         vRflRfr.setToRefraction(intersection.m_vNormal, intersection.m_vToEye, 1.0f, m_fIndexOfRefraction)) {
                     // the material is transparent, we can still recurse, and there is a refraction vector - the first step
                     // is to get the intersection going out of the current object
                     lnRflRfr.setValue(intersection.m_pt, vRflRfr);
                     intRflRfr.initialize(vRflRfr);
-                    intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * m_fKt;
+                    intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * m_fKt * fWeight;
                     if (intersection.m_rtObj.getRayIntersection(intRflRfr, lnRflRfr, true, nSample, nRandom)) {
+                        intRflRfr.resolveHit(lnRflRfr);
                         getInternalColor(rgbRflRfr, intRflRfr, lights, rtObjects, nMaxRecursions, 0, rtBkg, nSample, nRandom);
                         bSetRefracted = true;
                     }
@@ -411,18 +422,19 @@ public class Whitted extends Blinn {
                 if (!bSetRefracted) {
                     rtBkg.getColor(rgbRflRfr, null, null);
                 }
+                if (0.0f == fWeight) {
+                    // a terminated branch is either filled with the background or contributes nothing
+                    fWeight = intersection.getTermination().getTerminatedWeight();
+                }
                 // add the refracted colour
-                rgb.add(rgbRflRfr.scale(m_fKt));
+                rgb.add(rgbRflRfr.scale(m_fKt * fWeight));
             }
         } catch (final Throwable t) {
             t.printStackTrace();
             // Something bad happened, set the color to yellow
             rgb.setValue(1.0f, 1.0f, 0.0f);
         } finally {
-            intersection.returnIntersection(intRflRfr);
-            intersection.returnRGB(rgbRflRfr);
-            intersection.returnVector(vRflRfr);
-            intersection.returnLine(lnRflRfr);
+            intersection.reset(nMark);
         }
     }
 
@@ -433,6 +445,7 @@ public class Whitted extends Blinn {
         // The intersection is an internal intersection.  The refracted ray goes outside the object, the reflected ray stays
         //  inside the object
         boolean bIntersectObj = false;
+        final int nMark = intersection.mark();
         final RayIntersection intRflRfr = intersection.borrowIntersection();
         final RGBf rgbRflRfr = intersection.borrowRGB();
         final Vector3f vRflRfr = intersection.borrowVector();
@@ -451,6 +464,7 @@ public class Whitted extends Blinn {
                     }
                 }
                 if (bIntersectObj) {
+                    intRflRfr.resolveHit(lnRflRfr);
                     intRflRfr.m_mtl.getColor(rgb, intRflRfr, lights, rtObjects, rtBkg, nMaxRecursions - 1, nSample, nRandom);
                 } else {
                     rtBkg.getColor(rgb, lnRflRfr, null);
@@ -463,14 +477,17 @@ public class Whitted extends Blinn {
                 rgb.setValue(0.0f, 0.0f, 0.0f);
             }
             // now do the internally reflecting color
+            float fWeight = 1.0f;
             if ((nInternalReflections < PackageConstants.MAX_INTERNAL_REFLECTION) &&
-                    ((intersection.m_fMaxContribution * fAtten) > PackageConstants.CUTOFF_CONTRIBUTION)) {
+                    ((fWeight = intersection.getTermination().getWeight(intersection, intersection.m_fMaxContribution * fAtten,
+                            RayTermination.BRANCH_INTERNAL, nSample, nRandom)) > 0.0f)) {
                 // we continue to recurse the internal refraction into the current object
                 vRflRfr.setToReflection(intersection.m_vNormal, intersection.m_vToEye);
                 lnRflRfr.setValue(intersection.m_pt, vRflRfr);
                 intRflRfr.initialize(vRflRfr);
-                intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * fAtten;
+                intRflRfr.m_fMaxContribution = intersection.m_fMaxContribution * fAtten * fWeight;
                 if (intersection.m_rtObj.getRayIntersection(intRflRfr, lnRflRfr, true, nSample, nRandom)) {
+                    intRflRfr.resolveHit(lnRflRfr);
                     getInternalColor(rgbRflRfr, intRflRfr, lights, rtObjects, nMaxRecursions, nInternalReflections + 1, rtBkg, nSample, nRandom);
                 } else {
                     // did not get an intersection for going out - don't know what to do with this, set the color to orange.
@@ -478,18 +495,19 @@ public class Whitted extends Blinn {
                 }
             } else {
                 rtBkg.getColor(rgbRflRfr, null, null);
+                if (0.0f == fWeight) {
+                    // a terminated branch is either filled with the background or contributes nothing
+                    fWeight = intersection.getTermination().getTerminatedWeight();
+                }
             }
             // add the internally reflected colour
-            rgb.add(rgbRflRfr.scale(fAtten));
+            rgb.add(rgbRflRfr.scale(fAtten * fWeight));
         } catch (final Throwable t) {
             t.printStackTrace();
             // Something bad happened, set the color to yellow
             rgb.setValue(1.0f, 1.0f, 0.0f);
         } finally {
-            intersection.returnIntersection(intRflRfr);
-            intersection.returnRGB(rgbRflRfr);
-            intersection.returnVector(vRflRfr);
-            intersection.returnLine(lnRflRfr);
+            intersection.reset(nMark);
         }
     }
 }
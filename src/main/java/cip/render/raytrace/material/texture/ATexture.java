@@ -24,6 +24,7 @@ import cip.render.ADynamicNamedObject;
 import cip.render.DynXmlObjLoader;
 import cip.render.DynXmlObjParseException;
 import cip.render.INamedObject;
+import cip.render.NamedObjectRegistry;
 import cip.render.raytrace.interfaces.IRtMaterial;
 import cip.render.util2d.Point2f;
 import cip.render.util3d.Point3f;
@@ -96,12 +97,9 @@ public abstract class ATexture extends ADynamicNamedObject implements IRtMateria
 
     static IRtMaterial resolveMaterialRef(final @NotNull String strName,
                                           final @Nullable LinkedList refObjectList) throws DynXmlObjParseException {
-        if (!strName.equals("") && (null != refObjectList)) {
-            for (final Object obj : refObjectList) {
-                if ((obj instanceof IRtMaterial) && ((INamedObject) obj).getName().equals(strName)) {
-                    return (IRtMaterial) obj;
-                }
-            }
+        final IRtMaterial obj = NamedObjectRegistry.lookup(refObjectList, strName, IRtMaterial.class);
+        if (null != obj) {
+            return obj;
         }
         throw new DynXmlObjParseException("Referenced material \"" + strName + "\" was not found.");
     }
@@ -26,26 +26,32 @@ import cip.render.raytrace.RayIntersection;
 import cip.render.raytrace.interfaces.IRtBackground;
 import cip.render.raytrace.interfaces.IRtGeometry;
 import cip.render.raytrace.interfaces.IRtLight;
+import cip.render.util.ImageCache;
 import cip.render.utilColour.RGBf;
 import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.LinkedList;
+import java.util.logging.Logger;
 
 /**
- * This is a texture that uses 1 channel of an image as the alpha for mixing two materials
+ * This is a texture that uses 1 channel of an image as the alpha for mixing two materials.  The image is specified by an
+ * <tt>image</tt> element containing the image file name.  Images are shared through the {@link ImageCache}, and are not
+ * decoded until the texture is first hit by a ray.  The image format is checked when the texture is loaded; if the image
+ * still fails to decode, the failure is logged once and the two materials are mixed equally.
  */
 public class AlphaImage extends ADualMaterialTexture {
+    private static final Logger logger = Logger.getLogger(AlphaImage.class.getName());
+    private static final String XML_TAG_IMAGE = "image";
 
     // The instance definition
     private String m_imageName = "./src/main/resources/rubota/rubota_r.jpg";
-    private BufferedImage m_image = null;
-    private int xRes;
-    private int yRes;
+    private volatile ImageCache.Image m_image = null;
+    // set if the image could not be decoded, so the decode is not retried on every ray hit
+    private volatile boolean m_bImageFailed = false;
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // IDynXmlObject interface implementation                                                                                //
@@ -53,30 +59,64 @@ public class AlphaImage extends ADualMaterialTexture {
     @Override
     protected boolean lclProcessXmlElement(final @NotNull String elementTag, final @NotNull Element xmlElement,
                                            final LinkedList<INamedObject> refObjectList) throws DynXmlObjParseException {
-        return lclProcessXmlElement(elementTag, xmlElement, refObjectList) ||
+        return super.lclProcessXmlElement(elementTag, xmlElement, refObjectList) ||
                 lclParseAndLoadImage(elementTag, xmlElement);
     }
 
     private boolean lclParseAndLoadImage(final @NotNull String elementTag,
                                          final @NotNull Element xmlElement) throws DynXmlObjParseException {
+        if (elementTag.equals(XML_TAG_IMAGE)) {
+            Node txtNode = xmlElement.getFirstChild();
+            while (null != txtNode) {
+                if (txtNode.getNodeType() == Node.TEXT_NODE) {
+                    m_imageName = txtNode.getNodeValue().trim();
+                    break;
+                }
+                txtNode = txtNode.getNextSibling();
+            }
+            return true;
+        }
         return false;
     }
 
     protected void lclValidate() throws DynXmlObjParseException {
+        // the image is decoded on first use, just make sure it is there and in a format that can be decoded.
         try {
-            m_image = ImageIO.read(new File(m_imageName));
-            xRes = m_image.getWidth();
-            yRes = m_image.getHeight();
+            ImageCache.checkImage(new File(m_imageName));
         } catch (final IOException e) {
-            throw new DynXmlObjParseException(
-                    String.format("Error Loading: class='%s', wraps:\n   %s", getClass().getName(), e.getMessage()), e);
+            throw new DynXmlObjParseException(String.format("Error Loading: class='%s', image file '%s' cannot be loaded: %s",
+                    getClass().getName(), m_imageName, e.getMessage()), e);
         }
-
+        m_image = null;
+        m_bImageFailed = false;
     }
 
     @Override
-    public void toChildXmlElement(final @NotNull Element parentEl) {
+    protected void lclAppendChildElements(final @NotNull Element element) {
+        super.lclAppendChildElements(element);
+        final Element elImage = element.getOwnerDocument().createElement(XML_TAG_IMAGE);
+        element.appendChild(elImage);
+        elImage.appendChild(element.getOwnerDocument().createTextNode(m_imageName));
+    }
 
+    // Get the decoded image, null if it could not be decoded.  The failure is logged by the first thread to see it.
+    private ImageCache.Image lclGetImage() {
+        ImageCache.Image image = m_image;
+        if ((null == image) && !m_bImageFailed) {
+            try {
+                m_image = image = ImageCache.getImage(new File(m_imageName));
+            } catch (final IOException e) {
+                synchronized (this) {
+                    if (!m_bImageFailed) {
+                        m_bImageFailed = true;
+                        logger.severe(String.format(
+                                "AlphaImage: image '%s' could not be loaded, the materials are mixed equally: %s",
+                                m_imageName, e.getMessage()));
+                    }
+                }
+            }
+        }
+        return image;
     }
 
 
@@ -88,6 +128,7 @@ public class AlphaImage extends ADualMaterialTexture {
                          final @NotNull IRtLight[] lights, final @NotNull IRtGeometry[] rtObjects,
                          final @NotNull IRtBackground rtBkg, final int nMaxRecursions, final int nSample, final int nRandom) {
 
+        final int nMark = intersection.mark();
         final RGBf rgb1 = intersection.borrowRGB();
         final RGBf rgb2 = intersection.borrowRGB();
         try {
@@ -99,10 +140,16 @@ public class AlphaImage extends ADualMaterialTexture {
             intersection.m_mtl.getColor(rgb2, intersection, lights, rtObjects, rtBkg, nMaxRecursions, nSample, nRandom);
 
             // need bilinear interpolation here - we can see the image pixels in the texture
-            final int imageX = (int) (intersection.m_ptTexture.x * xRes);
-            final int imageY = (int) ((1.0 - intersection.m_ptTexture.y) * yRes);
-            final int imageRGBA = m_image.getRGB(imageX == xRes ? xRes - 1 : imageX, imageY == yRes ? yRes - 1 : imageY);
-            final float alpha = (float) ((imageRGBA & 0x00ff0000) >> 16) / 255.0f;
+            final ImageCache.Image image = lclGetImage();
+            final float alpha;
+            if (null == image) {
+                alpha = 0.5f;
+            } else {
+                final int imageX = (int) (intersection.m_ptTexture.x * image.m_nWidth);
+                final int imageY = (int) ((1.0 - intersection.m_ptTexture.y) * image.m_nHeight);
+                final int imageRGBA = image.getRGB(imageX, imageY);
+                alpha = (float) ((imageRGBA & 0x00ff0000) >> 16) / 255.0f;
+            }
             rgb1.scale(alpha);
             rgb2.scale(1 - alpha);
             rgb.setValue(rgb1).add(rgb2).scale(0.5f);
@@ -112,8 +159,7 @@ public class AlphaImage extends ADualMaterialTexture {
 //
 //            intersection.m_mtl.getColor(rgb, intersection, lights, rtObjects, rtBkg, nMaxRecursions, nSample, nRandom);
         } finally {
-            intersection.returnRGB(rgb1);
-            intersection.returnRGB(rgb2);
+            intersection.reset(nMark);
         }
     }
 
@@ -24,6 +24,7 @@ import cip.render.DynXmlObjLoader;
 import cip.render.DynXmlObjParseException;
 import cip.render.IDynXmlObject;
 import cip.render.INamedObject;
+import cip.render.NamedObjectRegistry;
 import cip.render.raytrace.RayIntersection;
 import cip.render.raytrace.interfaces.IRtBackground;
 import cip.render.raytrace.interfaces.IRtGeometry;
@@ -110,12 +111,9 @@ public class Ridges implements IDynXmlObject, INamedObject, IRtMaterial {
     }
 
     protected IRtMaterial resolveMaterialRef(final String strName, final LinkedList refObjectList) throws DynXmlObjParseException {
-        if (!strName.equals("") && (null != refObjectList)) {
-            for (final Object obj : refObjectList) {
-                if ((obj instanceof IRtMaterial) && ((INamedObject) obj).getName().equals(strName)) {
-                    return (IRtMaterial) obj;
-                }
-            }
+        final IRtMaterial obj = NamedObjectRegistry.lookup(refObjectList, strName, IRtMaterial.class);
+        if (null != obj) {
+            return obj;
         }
         throw new DynXmlObjParseException("Referenced material \"" + strName + "\" was not found.");
     }
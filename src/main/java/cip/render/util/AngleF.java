@@ -29,7 +29,7 @@ public class AngleF {
      * The conversion factor for radians to degrees. Normally <tt>AngledF</tt> handles any conversions you need
      * so there is probably no reason to ever use this.
      */
-    private static final float RADIANS_TO_DEGREES = 180.f / (float) Math.PI;
+    public static final float RADIANS_TO_DEGREES = 180.f / (float) Math.PI;
 
     /**
      * The conversion factor for degrees to radians. Normally <tt>AngledF</tt> handles any conversions you need
@@ -0,0 +1,228 @@
+/*
+ * FastMath.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.util;
+
+/**
+ * Fast single precision approximations of the transcendental functions used in the shading hot paths, and the
+ * precision mode that switches the shading evaluators between these and the exact <tt>java.lang.Math</tt> functions.
+ * The approximations are polynomials evaluated in float arithmetic, they do not allocate and do not call into
+ * <tt>Math</tt> except for the rare special-case arguments noted for each function.  The error bounds are:
+ * <table border="1" summary="">
+ * <tr><td>{@link #exp(float)}</td><td>relative error less than 5e-7</td></tr>
+ * <tr><td>{@link #pow(float, float)}</td><td>relative error less than 5e-7 * (1 + |y ln(x)|) - in the shading uses
+ * the result is a fraction of 1 and the bound is less than 1e-5 for results greater than 1e-6</td></tr>
+ * <tr><td>{@link #acos(float)}</td><td>absolute error less than 5e-7 radians</td></tr>
+ * <tr><td>{@link #atan2(float, float)}</td><td>absolute error less than 5e-7 radians</td></tr>
+ * </table>
+ * These are far below what can be seen in an 8 bit per channel image.
+ * <p>
+ * The precision mode is set from the <tt>precision</tt> attribute of the rendered frame (see
+ * {@link cip.render.FrameLoader}) when a scene is loaded for rendering.  The mode is shared by everything rendering
+ * in the JVM, so scenes with different precision modes should not be rendered at the same time.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FastMath {
+    private static final float LOG2E = 1.44269504f;
+    private static final float LN2 = 0.693147181f;
+    // ln(2) split into a high part with a short mantissa, so n * LN2_HI is exact for the n of any float exponent, and
+    //  the remainder - the Cody-Waite argument reduction for exp()
+    private static final float LN2_HI = 0.693145752f;
+    private static final float LN2_LO = 1.42860677e-06f;
+    private static final float SQRT2 = 1.41421356f;
+    private static final float PI = 3.14159265f;
+    private static final float HALF_PI = 1.57079633f;
+    // The limits of exp() - beyond these the result overflows to infinity or is less than the smallest normal float
+    private static final float EXP_MAX = 88.7228394f;
+    private static final float EXP_MIN = -87.3365448f;
+    // 1.5 * 2^23 - adding and subtracting this rounds a float of magnitude less than 2^22 to the nearest integer
+    private static final float ROUND = 12582912.0f;
+
+    // The precision mode, set before the render threads are started, and only read while rendering.
+    private static boolean s_bFast = false;
+
+    private FastMath() {
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Test whether the shading evaluators should use the fast approximations.
+     *
+     * @return Returns <tt>true</tt> if the fast approximations should be used, <tt>false</tt> if the exact
+     * <tt>java.lang.Math</tt> functions should be used.
+     */
+    public static boolean isFast() {
+        return s_bFast;
+    }
+
+    /**
+     * Set the precision mode.  This should only be set when nothing is being rendered.
+     *
+     * @param bFast <tt>true</tt> if the shading evaluators should use the fast approximations, <tt>false</tt> if they
+     *              should use the exact <tt>java.lang.Math</tt> functions.
+     */
+    public static void setFast(final boolean bFast) {
+        s_bFast = bFast;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Fast <i>e<sup>x</sup></i>.  The result is 0 when it would be less than the smallest normal float.
+     *
+     * @param x (float) The exponent.
+     * @return Returns <i>e<sup>x</sup></i>.
+     */
+    public static float exp(final float x) {
+        if (!(x < EXP_MAX)) {
+            return (x == x) ? Float.POSITIVE_INFINITY : x;
+        } else if (x < EXP_MIN) {
+            return 0.0f;
+        }
+        // x = n ln(2) + r where |r| <= ln(2)/2, and e^x = 2^n e^r
+        final float fN = ((x * LOG2E) + ROUND) - ROUND;
+        return lclScale(lclExpReduced((x - (fN * LN2_HI)) - (fN * LN2_LO)), (int) fN);
+    }
+
+    /**
+     * Fast <i>x<sup>y</sup></i>.  The fast path is for finite positive <tt>x</tt>, the other cases (negative, zero,
+     * infinite, NaN, or subnormal <tt>x</tt>) are passed to <tt>Math.pow</tt>.
+     *
+     * @param x (float) The base.
+     * @param y (float) The exponent.
+     * @return Returns <i>x<sup>y</sup></i>.
+     */
+    public static float pow(final float x, final float y) {
+        if (!((x >= Float.MIN_NORMAL) && (x < Float.POSITIVE_INFINITY))) {
+            return (float) Math.pow((double) x, (double) y);
+        }
+        // x^y = 2^(y log2(x)) = 2^n e^r where t = y log2(x), n is the integer nearest t and r = (t - n) ln(2)
+        final float t = y * lclLog2(x);
+        if (!(t < 128.0f)) {
+            return (t == t) ? Float.POSITIVE_INFINITY : t;
+        } else if (t < -126.0f) {
+            return 0.0f;
+        }
+        final float fN = (t + ROUND) - ROUND;
+        return lclScale(lclExpReduced((t - fN) * LN2), (int) fN);
+    }
+
+    /**
+     * Fast arc cosine using the 8 term polynomial of Abramowitz and Stegun, <i>Handbook of Mathematical Functions</i>,
+     * 4.4.46, which has an error of 2e-8 in exact arithmetic.
+     *
+     * @param x (float) The cosine, -1 to 1.
+     * @return Returns the angle in radians, 0 to &pi;.  Returns NaN if <tt>x</tt> is outside -1 to 1.
+     */
+    public static float acos(final float x) {
+        final float ax = Math.abs(x);
+        float fPoly = -0.0012624911f;
+        fPoly = (fPoly * ax) + 0.0066700901f;
+        fPoly = (fPoly * ax) - 0.0170881256f;
+        fPoly = (fPoly * ax) + 0.0308918810f;
+        fPoly = (fPoly * ax) - 0.0501743046f;
+        fPoly = (fPoly * ax) + 0.0889789874f;
+        fPoly = (fPoly * ax) - 0.2145988016f;
+        fPoly = (fPoly * ax) + 1.5707963050f;
+        final float fAcos = (float) Math.sqrt(1.0f - ax) * fPoly;
+        return (x < 0.0f) ? PI - fAcos : fAcos;
+    }
+
+    /**
+     * Fast arc tangent of <tt>y/x</tt> in the correct quadrant using the 9 term polynomial of Abramowitz and Stegun,
+     * <i>Handbook of Mathematical Functions</i>, 4.4.49, which has an error of 2e-8 in exact arithmetic.  Infinite and
+     * NaN arguments, and both arguments zero, are passed to <tt>Math.atan2</tt>.
+     *
+     * @param y (float) The sine, or y coordinate.
+     * @param x (float) The cosine, or x coordinate.
+     * @return Returns the angle in radians, -&pi; to &pi;.
+     */
+    public static float atan2(final float y, final float x) {
+        final float ax = Math.abs(x);
+        final float ay = Math.abs(y);
+        if (!((ax < Float.POSITIVE_INFINITY) && (ay < Float.POSITIVE_INFINITY)) || ((0.0f == ax) && (0.0f == ay))) {
+            return (float) Math.atan2((double) y, (double) x);
+        }
+        // reduce to the arc tangent of 0 to 1, then unfold into the octant of the arguments
+        final boolean bSwap = ay > ax;
+        final float t = bSwap ? ax / ay : ay / ax;
+        final float t2 = t * t;
+        float fPoly = 0.0028662257f;
+        fPoly = (fPoly * t2) - 0.0161657367f;
+        fPoly = (fPoly * t2) + 0.0429096138f;
+        fPoly = (fPoly * t2) - 0.0752896400f;
+        fPoly = (fPoly * t2) + 0.1065626393f;
+        fPoly = (fPoly * t2) - 0.1420889944f;
+        fPoly = (fPoly * t2) + 0.1999355085f;
+        fPoly = (fPoly * t2) - 0.3333314528f;
+        float fAtan = t + ((t * t2) * fPoly);
+        if (bSwap) {
+            fAtan = HALF_PI - fAtan;
+        }
+        if (x < 0.0f) {
+            fAtan = PI - fAtan;
+        }
+        return (Float.floatToRawIntBits(y) < 0) ? -fAtan : fAtan;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // e^r for |r| <= ln(2)/2 as the degree 6 Taylor polynomial, the truncation error is less than 1.3e-7 relative.
+    private static float lclExpReduced(final float r) {
+        float fPoly = 1.38888889e-3f;
+        fPoly = (fPoly * r) + 8.33333333e-3f;
+        fPoly = (fPoly * r) + 4.16666667e-2f;
+        fPoly = (fPoly * r) + 1.66666667e-1f;
+        fPoly = (fPoly * r) + 0.5f;
+        fPoly = (fPoly * r) + 1.0f;
+        return (fPoly * r) + 1.0f;
+    }
+
+    // f * 2^n for -126 <= n <= 128, by building 2^n directly as a float.
+    private static float lclScale(final float f, final int n) {
+        if (n > 127) {
+            return (f * 2.0f) * Float.intBitsToFloat(254 << 23);
+        }
+        return f * Float.intBitsToFloat((n + 127) << 23);
+    }
+
+    // log2(x) for a finite positive normal x.  x = 2^e m with sqrt(1/2) <= m < sqrt(2), and ln(m) = 2 atanh(s) where
+    //  s = (m - 1)/(m + 1) and |s| < 0.172 - the series is cut after the s^9 term, the truncation error is less than 4e-9.
+    private static float lclLog2(final float x) {
+        final int nBits = Float.floatToRawIntBits(x);
+        int e = ((nBits >>> 23) & 0xff) - 127;
+        float m = Float.intBitsToFloat((nBits & 0x007fffff) | 0x3f800000);
+        if (m > SQRT2) {
+            m *= 0.5f;
+            e++;
+        }
+        final float s = (m - 1.0f) / (m + 1.0f);
+        final float s2 = s * s;
+        float fPoly = 1.11111111e-1f;
+        fPoly = (fPoly * s2) + 1.42857143e-1f;
+        fPoly = (fPoly * s2) + 2.0e-1f;
+        fPoly = (fPoly * s2) + 3.33333333e-1f;
+        final float fLn = 2.0f * (s + ((s * s2) * fPoly));
+        return e + (fLn * LOG2E);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * ImageCache.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+
+/**
+ * This is the process-wide cache of decoded images used by image textures.  An image is decoded the first time it is
+ * requested, converted once to a packed ARGB <tt>int</tt> array, and shared by every texture that references the same
+ * file.  Images are keyed by canonical path and file modification time, so an image edited on disk is decoded again the
+ * next time it is requested.
+ * <p>
+ * The cache is bounded by a size cap in bytes of decoded pixels.  When decoding an image pushes the cache over the cap,
+ * the least recently requested images are dropped from the cache until it is back under the cap (an image that is
+ * larger than the cap is returned, but not cached).  Dropping an image from the cache does not affect the textures that
+ * already hold it.  The cap is set by the <tt>cip.render.imageCache.maxMB</tt> system property, default 256.
+ * <p>
+ * Images are decoded outside the cache lock, so a thread decoding one image does not hold up threads that need other
+ * images.  Threads that request an image while it is being decoded wait for that decode rather than decoding it again.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ImageCache {
+    private static final Logger logger = Logger.getLogger(ImageCache.class.getName());
+
+    /**
+     * The system property specifying the cache size cap in megabytes.
+     */
+    public static final String PROPERTY_MAX_MB = "cip.render.imageCache.maxMB";
+    /**
+     * The default cache size cap in megabytes.
+     */
+    public static final long DEFAULT_MAX_MB = 256L;
+
+    private static final LruCache<Image> s_images = new LruCache<>(LruCache.getMaxBytes(PROPERTY_MAX_MB, DEFAULT_MAX_MB),
+            Image::getBytes);
+    // the images being decoded, by key
+    private static final HashMap<String, CompletableFuture<Image>> s_decoding = new HashMap<>();
+
+    /**
+     * A decoded image - the pixels are packed ARGB, row by row starting with the top row.
+     */
+    public static final class Image {
+        public final int m_nWidth;
+        public final int m_nHeight;
+        public final int[] m_pixels;
+
+        Image(@NotNull final BufferedImage bi) {
+            m_nWidth = bi.getWidth();
+            m_nHeight = bi.getHeight();
+            m_pixels = bi.getRGB(0, 0, m_nWidth, m_nHeight, null, 0, m_nWidth);
+        }
+
+        /**
+         * Get a pixel.
+         *
+         * @param nX (int) The pixel column, clamped to the image.
+         * @param nY (int) The pixel row, clamped to the image.
+         * @return Returns the packed ARGB pixel.
+         */
+        public int getRGB(final int nX, final int nY) {
+            final int nCol = (nX < 0) ? 0 : ((nX >= m_nWidth) ? m_nWidth - 1 : nX);
+            final int nRow = (nY < 0) ? 0 : ((nY >= m_nHeight) ? m_nHeight - 1 : nY);
+            return m_pixels[(nRow * m_nWidth) + nCol];
+        }
+
+        long getBytes() {
+            return 4L * m_pixels.length;
+        }
+    }
+
+    private ImageCache() {
+    }
+
+    /**
+     * Get an image, decoding it if it is not in the cache.
+     *
+     * @param file (File, readonly) The image file.
+     * @return Returns the decoded image.
+     * @throws IOException Thrown if the image file cannot be read or is not a recognized image format.
+     */
+    @NotNull
+    public static Image getImage(@NotNull final File file) throws IOException {
+        final File fileCanonical = file.getCanonicalFile();
+        final String strKey = fileCanonical.getPath() + '@' + fileCanonical.lastModified();
+        final CompletableFuture<Image> decoding;
+        final boolean bDecode;
+        synchronized (ImageCache.class) {
+            final Image image = s_images.get(strKey);
+            if (null != image) {
+                return image;
+            }
+            final CompletableFuture<Image> pending = s_decoding.get(strKey);
+            bDecode = (null == pending);
+            decoding = bDecode ? new CompletableFuture<>() : pending;
+            if (bDecode) {
+                s_decoding.put(strKey, decoding);
+            }
+        }
+        if (!bDecode) {
+            // another thread is decoding this image
+            try {
+                return decoding.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for " + fileCanonical.getPath());
+            } catch (final ExecutionException e) {
+                throw new IOException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+        try {
+            final Image image = lclDecode(fileCanonical);
+            synchronized (ImageCache.class) {
+                s_decoding.remove(strKey);
+                lclCache(fileCanonical, strKey, image);
+            }
+            decoding.complete(image);
+            return image;
+        } catch (final Throwable t) {
+            synchronized (ImageCache.class) {
+                s_decoding.remove(strKey);
+            }
+            decoding.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    /**
+     * Check that an image file can be read and is in a format ImageIO has a reader for, without decoding it.  This only
+     * reads the header of the file, so it is cheap enough to call when a scene is loaded.
+     *
+     * @param file (File, readonly) The image file.
+     * @throws IOException Thrown if the image file cannot be read or is not a recognized image format.
+     */
+    public static void checkImage(@NotNull final File file) throws IOException {
+        if (!file.isFile() || !file.canRead()) {
+            throw new IOException("Cannot be read: " + file.getPath());
+        }
+        try (final ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+            if ((null == iis) || !ImageIO.getImageReaders(iis).hasNext()) {
+                throw new IOException("Not a recognized image format: " + file.getPath());
+            }
+        }
+    }
+
+    /**
+     * Set the cache size cap, and evict images if the cache is over the new cap.
+     *
+     * @param nMaxBytes (long) The size cap for the cache in bytes.
+     */
+    public static synchronized void setMaxBytes(final long nMaxBytes) {
+        s_images.setMaxBytes(nMaxBytes);
+    }
+
+    /**
+     * Drop all images from the cache.
+     */
+    public static synchronized void clear() {
+        s_images.clear();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    private static Image lclDecode(@NotNull final File fileCanonical) throws IOException {
+        final BufferedImage bi = ImageIO.read(fileCanonical);
+        if (null == bi) {
+            throw new IOException("Not a recognized image format: " + fileCanonical.getPath());
+        }
+        final Image image = new Image(bi);
+        logger.fine(String.format("Image cache decoded: %s (%dx%d)", fileCanonical.getPath(), image.m_nWidth, image.m_nHeight));
+        return image;
+    }
+
+    // Add a decoded image to the cache, called holding the cache lock.
+    private static void lclCache(@NotNull final File fileCanonical, @NotNull final String strKey, @NotNull final Image image) {
+        // drop any previous version of this file, then make room for this one
+        s_images.removeIf(strCached -> strCached.startsWith(fileCanonical.getPath() + '@'));
+        s_images.put(strKey, image);
+    }
+}
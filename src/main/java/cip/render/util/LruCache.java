@@ -0,0 +1,197 @@
+/*
+ * LruCache.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.logging.Logger;
+
+/**
+ * A least recently used cache bounded by a size cap in bytes.  Each value has a size in bytes, and when adding a value
+ * pushes the cache over the cap, the least recently used values are dropped until the cache is back under the cap.  A
+ * value larger than the cap is never cached.  This is the bookkeeping shared by the process-wide caches (decoded images,
+ * parsed libraries), along with the helpers for reading a cap from a system property and building hex cache keys.
+ * <p>
+ * The cache is not synchronized, the owner of the cache is expected to hold its own lock while using the cache.
+ *
+ * @param <V> The type of the cached values.
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class LruCache<V> {
+    private static final Logger logger = Logger.getLogger(LruCache.class.getName());
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final LinkedHashMap<String, V> m_entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ToLongFunction<V> m_sizer;
+    private long m_nBytes = 0;
+    private long m_nMaxBytes;
+
+    /**
+     * Creates a new instance of <tt>LruCache</tt>.
+     *
+     * @param nMaxBytes (long) The size cap for the cache in bytes.
+     * @param sizer     (ToLongFunction, readonly) The function that returns the size of a value in bytes.
+     */
+    public LruCache(final long nMaxBytes, @NotNull final ToLongFunction<V> sizer) {
+        m_nMaxBytes = nMaxBytes;
+        m_sizer = sizer;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get a cached value, and make it the most recently used value.
+     *
+     * @param strKey (String, readonly) The key.
+     * @return Returns the cached value, <tt>null</tt> if the key is not in the cache.
+     */
+    @Nullable
+    public V get(@NotNull final String strKey) {
+        return m_entries.get(strKey);
+    }
+
+    /**
+     * Add a value to the cache as the most recently used value, and drop the least recently used values if the cache is
+     * over the size cap.
+     *
+     * @param strKey (String, readonly) The key.
+     * @param value  (V, readonly) The value.
+     * @return Returns <tt>true</tt> if the value was cached, <tt>false</tt> if it is larger than the size cap.
+     */
+    public boolean put(@NotNull final String strKey, @NotNull final V value) {
+        final long nBytes = m_sizer.applyAsLong(value);
+        if (nBytes > m_nMaxBytes) {
+            return false;
+        }
+        final V previous = m_entries.put(strKey, value);
+        if (null != previous) {
+            m_nBytes -= m_sizer.applyAsLong(previous);
+        }
+        m_nBytes += nBytes;
+        lclEvict();
+        return true;
+    }
+
+    /**
+     * Drop the values whose keys match a filter.
+     *
+     * @param keyFilter (Predicate, readonly) The filter, returns <tt>true</tt> for the keys to be dropped.
+     */
+    public void removeIf(@NotNull final Predicate<String> keyFilter) {
+        final Iterator<Map.Entry<String, V>> it = m_entries.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<String, V> entry = it.next();
+            if (keyFilter.test(entry.getKey())) {
+                m_nBytes -= m_sizer.applyAsLong(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Set the size cap, and drop values if the cache is over the new cap.
+     *
+     * @param nMaxBytes (long) The size cap for the cache in bytes.
+     */
+    public void setMaxBytes(final long nMaxBytes) {
+        m_nMaxBytes = nMaxBytes;
+        lclEvict();
+    }
+
+    /**
+     * Drop all values from the cache.
+     */
+    public void clear() {
+        m_entries.clear();
+        m_nBytes = 0;
+    }
+
+    /**
+     * Get the number of cached values.
+     *
+     * @return Returns the number of cached values.
+     */
+    public int size() {
+        return m_entries.size();
+    }
+
+    /**
+     * Get the size of the cached values.
+     *
+     * @return Returns the total size of the cached values in bytes.
+     */
+    public long getBytes() {
+        return m_nBytes;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Read a cache size cap from a system property.
+     *
+     * @param strProperty (String, readonly) The system property specifying the size cap in megabytes.
+     * @param nDefaultMB  (long) The size cap in megabytes if the property is not specified or is not valid.
+     * @return Returns the size cap in bytes.
+     */
+    public static long getMaxBytes(@NotNull final String strProperty, final long nDefaultMB) {
+        long nMaxMB = nDefaultMB;
+        try {
+            nMaxMB = Long.parseLong(System.getProperty(strProperty, Long.toString(nDefaultMB)).trim());
+        } catch (final NumberFormatException e) {
+            logger.warning("Invalid " + strProperty + ", using the default of " + nDefaultMB + "MB");
+        }
+        return nMaxMB * 1024L * 1024L;
+    }
+
+    /**
+     * Encode bytes (normally a digest used as a cache key) as lower case hex.
+     *
+     * @param bytes (byte[], readonly) The bytes.
+     * @return Returns the hex string, two characters for each byte.
+     */
+    @NotNull
+    public static String toHex(@NotNull final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+            chars[(2 * i) + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // Drop the least recently used values until the cache is under the size cap.
+    private void lclEvict() {
+        final Iterator<V> it = m_entries.values().iterator();
+        while ((m_nBytes > m_nMaxBytes) && it.hasNext()) {
+            m_nBytes -= m_sizer.applyAsLong(it.next());
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * BvMinMax3fGroup.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.util3d;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A group of {@link #LANES} min-max volumes stored as columns (structure of arrays) so one ray can be tested against
+ * all of them at once - as it would be against the children of a wide bounding volume hierarchy node or the primitives
+ * of a leaf.  Each volume in the group is a lane.
+ * <p>
+ * The decisions that depend only on the ray (whether the ray is parallel to each axis and which way it goes along each
+ * axis) are made once for the group rather than once per volume, and each lane first checks the ray origin against all
+ * three slabs so most misses are found without any division.  The hit or miss decision and the entry and exit
+ * distances for each lane are exactly those of {@link BvMinMax3f#getIntersection(Bv3fIntersection, Line3f)} for the
+ * same volume - the same divisions and the same comparisons are made, only in a different order.
+ * <p>
+ * On Java 21 the lanes are tested together by a <tt>jdk.incubator.vector</tt> kernel, which is the Java 21 version of
+ * this package in the multi-release jar (see <tt>src/main/java21</tt>, which is only built with <tt>-PwithJava21</tt>).
+ * The kernel is only used when the JVM has been started with <tt>--add-modules jdk.incubator.vector</tt>, otherwise
+ * (and on Java 8 to 20, or with a jar built without the Java 21 classes) the lanes are tested one after the other in
+ * Java.  Both give exactly the same results.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @see BvMinMax3f
+ * @since 1.0
+ */
+public final class BvMinMax3fGroup {
+    /**
+     * The number of volumes in a group.
+     */
+    public static final int LANES = 8;
+
+    // the Vector API kernel, or the Java lane loop if the Vector API is not available
+    private static final IBvGroupKernel s_kernel = lclLoadKernel();
+
+    final float[] m_xMin = new float[LANES];
+    final float[] m_xMax = new float[LANES];
+    final float[] m_yMin = new float[LANES];
+    final float[] m_yMax = new float[LANES];
+    final float[] m_zMin = new float[LANES];
+    final float[] m_zMax = new float[LANES];
+
+    /**
+     * Creates a new instance of <tt>BvMinMax3fGroup</tt> with all the lanes empty.
+     */
+    public BvMinMax3fGroup() {
+        setEmpty();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Set all the lanes to empty volumes.  A ray never intersects an empty lane.
+     *
+     * @return Returns this group after all the lanes have been set to empty.
+     */
+    public BvMinMax3fGroup setEmpty() {
+        for (int nLane = 0; nLane < LANES; nLane++) {
+            m_xMin[nLane] = m_yMin[nLane] = m_zMin[nLane] = Float.POSITIVE_INFINITY;
+            m_xMax[nLane] = m_yMax[nLane] = m_zMax[nLane] = Float.NEGATIVE_INFINITY;
+        }
+        return this;
+    }
+
+    /**
+     * Set a lane to a volume.
+     *
+     * @param nLane (int) The lane, 0 to {@link #LANES} - 1.
+     * @param bv    (BvMinMax3f, readonly) The volume.
+     * @return Returns this group after the lane has been set.
+     */
+    public BvMinMax3fGroup setValue(final int nLane, @NotNull final BvMinMax3f bv) {
+        m_xMin[nLane] = bv.m_xMin;
+        m_xMax[nLane] = bv.m_xMax;
+        m_yMin[nLane] = bv.m_yMin;
+        m_yMax[nLane] = bv.m_yMax;
+        m_zMin[nLane] = bv.m_zMin;
+        m_zMax[nLane] = bv.m_zMax;
+        return this;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get the intersections of a ray with all the volumes in the group.
+     *
+     * @param ray      (Line3f, readonly) The ray to be intersected with the volumes.
+     * @param fDistIn  (float[], modified) The entry distance for each lane the ray intersects, the distance is negative
+     *                 if the ray starts inside the volume.  At least {@link #LANES} long.
+     * @param fDistOut (float[], modified) The exit distance for each lane the ray intersects.  At least {@link #LANES} long.
+     * @return Returns a mask with bit <i>n</i> set if the ray intersects or starts inside the volume of lane <i>n</i>.
+     */
+    public int getIntersections(@NotNull final Line3f ray, @NotNull final float[] fDistIn, @NotNull final float[] fDistOut) {
+        return s_kernel.getIntersections(this, ray, fDistIn, fDistOut);
+    }
+
+    /**
+     * Test whether the volumes are tested by the Vector API kernel.
+     *
+     * @return Returns <tt>true</tt> if the lanes are tested together by the Vector API kernel, <tt>false</tt> if they
+     * are tested one after the other in Java.
+     */
+    public static boolean isVectorized() {
+        return !(s_kernel instanceof ScalarKernel);
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // The lanes tested one after the other, this is the reference for the Vector API kernel.
+    int pkgGetIntersections(@NotNull final Line3f ray, @NotNull final float[] fDistIn, @NotNull final float[] fDistOut) {
+        final float x = ray.m_ptOrg.x;
+        final float y = ray.m_ptOrg.y;
+        final float z = ray.m_ptOrg.z;
+        final float i = ray.m_vDir.i;
+        final float j = ray.m_vDir.j;
+        final float k = ray.m_vDir.k;
+        // the decisions that depend only on the ray
+        final boolean bParallelX = PackageConstants.isZero(i);
+        final boolean bParallelY = PackageConstants.isZero(j);
+        final boolean bParallelZ = PackageConstants.isZero(k);
+        final boolean bNegativeX = i < 0.0f;
+        final boolean bNegativeY = j < 0.0f;
+        final boolean bNegativeZ = k < 0.0f;
+        final float[] xNear = bNegativeX ? m_xMax : m_xMin;
+        final float[] xFar = bNegativeX ? m_xMin : m_xMax;
+        final float[] yNear = bNegativeY ? m_yMax : m_yMin;
+        final float[] yFar = bNegativeY ? m_yMin : m_yMax;
+        final float[] zNear = bNegativeZ ? m_zMax : m_zMin;
+        final float[] zFar = bNegativeZ ? m_zMin : m_zMax;
+
+        int nHits = 0;
+        for (int nLane = 0; nLane < LANES; nLane++) {
+            // an empty volume, or an origin outside a slab the ray is parallel to or going away from, is a miss without
+            //  any division
+            if ((m_xMin[nLane] > m_xMax[nLane]) ||
+                    (bParallelX ? ((x < m_xMin[nLane]) || (x > m_xMax[nLane])) : (bNegativeX ? (x < m_xMin[nLane]) : (x > m_xMax[nLane]))) ||
+                    (bParallelY ? ((y < m_yMin[nLane]) || (y > m_yMax[nLane])) : (bNegativeY ? (y < m_yMin[nLane]) : (y > m_yMax[nLane]))) ||
+                    (bParallelZ ? ((z < m_zMin[nLane]) || (z > m_zMax[nLane])) : (bNegativeZ ? (z < m_zMin[nLane]) : (z > m_zMax[nLane])))) {
+                continue;
+            }
+            float fIn = bParallelX ? Float.NEGATIVE_INFINITY : (xNear[nLane] - x) / i;
+            float fOut = bParallelX ? Float.POSITIVE_INFINITY : (xFar[nLane] - x) / i;
+            float fTmp;
+            if (!bParallelY) {
+                if ((fTmp = (yNear[nLane] - y) / j) > fIn) {
+                    fIn = fTmp;
+                }
+                if ((fTmp = (yFar[nLane] - y) / j) < fOut) {
+                    fOut = fTmp;
+                }
+                if (fIn > fOut) {
+                    continue;
+                }
+            }
+            if (!bParallelZ) {
+                if ((fTmp = (zNear[nLane] - z) / k) > fIn) {
+                    fIn = fTmp;
+                }
+                if ((fTmp = (zFar[nLane] - z) / k) < fOut) {
+                    fOut = fTmp;
+                }
+            }
+            if (fIn > fOut) {
+                continue;
+            }
+            fDistIn[nLane] = fIn;
+            fDistOut[nLane] = fOut;
+            nHits |= 1 << nLane;
+        }
+        return nHits;
+    }
+
+    private static final class ScalarKernel implements IBvGroupKernel {
+        @Override
+        public int getIntersections(@NotNull final BvMinMax3fGroup group, @NotNull final Line3f ray,
+                                    @NotNull final float[] fDistIn, @NotNull final float[] fDistOut) {
+            return group.pkgGetIntersections(ray, fDistIn, fDistOut);
+        }
+    }
+
+    // The Vector API kernel is only in the Java 21 version of the multi-release jar, and only loads if the
+    //  jdk.incubator.vector module has been added to the JVM.
+    private static IBvGroupKernel lclLoadKernel() {
+        try {
+            return (IBvGroupKernel) Class.forName(BvMinMax3fGroup.class.getName() + "Vector").getDeclaredConstructor()
+                    .newInstance();
+        } catch (final Throwable t) {
+            return new ScalarKernel();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * IBvGroupKernel.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.util3d;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The test of one ray against all the volumes of a {@link BvMinMax3fGroup}.  There is a Java version of the test for
+ * every JVM, and a <tt>jdk.incubator.vector</tt> version in the Java 21 version of the multi-release jar.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+interface IBvGroupKernel {
+    /**
+     * Get the intersections of a ray with all the volumes in a group, as
+     * {@link BvMinMax3fGroup#getIntersections(Line3f, float[], float[])}.
+     *
+     * @param group    (BvMinMax3fGroup, readonly) The group of volumes.
+     * @param ray      (Line3f, readonly) The ray to be intersected with the volumes.
+     * @param fDistIn  (float[], modified) The entry distance for each lane the ray intersects.
+     * @param fDistOut (float[], modified) The exit distance for each lane the ray intersects.
+     * @return Returns a mask with bit <i>n</i> set if the ray intersects or starts inside the volume of lane <i>n</i>.
+     */
+    int getIntersections(@NotNull BvMinMax3fGroup group, @NotNull Line3f ray, @NotNull float[] fDistIn,
+                         @NotNull float[] fDistOut);
+}
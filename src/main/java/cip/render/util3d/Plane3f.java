@@ -227,6 +227,45 @@ public final class Plane3f {
         return getIntersection(plnInt, ray.m_ptOrg, ray.m_vDir);
     }
 
+    /**
+     * Get the intersections of a batch of rays with this plane.  The rays are given as columns of origin and direction
+     * components, and the distances and codes are written to the output columns - the same values
+     * {@link #getIntersection(Plane3fIntersection, Point3f, Vector3f)} reports in {@link Plane3fIntersection#m_fDist}
+     * and {@link Plane3fIntersection#m_nCode} for each ray.  The distance is meaningless for a ray whose code is
+     * {@link Plane3fIntersection#NONE_OUTSIDE} or {@link Plane3fIntersection#NONE_INSIDE}.
+     * <p>
+     * The loop over the rays is straight-line arithmetic over primitive arrays so the JIT can compile it into a tight
+     * loop, this is much faster than intersecting the rays one at a time through objects.
+     *
+     * @param nRays (int) The number of rays, the columns must be at least this long.
+     * @param fOrgX (float[], readonly) The X components of the ray origins.
+     * @param fOrgY (float[], readonly) The Y components of the ray origins.
+     * @param fOrgZ (float[], readonly) The Z components of the ray origins.
+     * @param fDirI (float[], readonly) The I components of the ray directions.
+     * @param fDirJ (float[], readonly) The J components of the ray directions.
+     * @param fDirK (float[], readonly) The K components of the ray directions.
+     * @param fDist (float[], modified) The intersection distances.
+     * @param nCode (int[], modified) The intersection codes.
+     */
+    public void getIntersections(final int nRays, final float[] fOrgX, final float[] fOrgY, final float[] fOrgZ,
+                                 final float[] fDirI, final float[] fDirJ, final float[] fDirK,
+                                 final float[] fDist, final int[] nCode) {
+        final float fA = m_fA;
+        final float fB = m_fB;
+        final float fC = m_fC;
+        final float fD = m_fD;
+        for (int iRay = 0; iRay < nRays; iRay++) {
+            final float fDot = (fDirI[iRay] * fA) + (fDirJ[iRay] * fB) + (fDirK[iRay] * fC);
+            if (PackageConstants.isZero(fDot)) {
+                nCode[iRay] = (((fA * fOrgX[iRay]) + (fB * fOrgY[iRay]) + (fC * fOrgZ[iRay]) + fD) > 0.0f) ?
+                        Plane3fIntersection.NONE_OUTSIDE : Plane3fIntersection.NONE_INSIDE;
+            } else {
+                fDist[iRay] = -(((fA * fOrgX[iRay]) + (fB * fOrgY[iRay]) + (fC * fOrgZ[iRay]) + fD) / fDot);
+                nCode[iRay] = (fDot < 0.0f) ? Plane3fIntersection.GOING_INTO : Plane3fIntersection.GOING_OUT_OF;
+            }
+        }
+    }
+
     //-------------------------------------------------------------------------------------------------------------------------
 
     /**
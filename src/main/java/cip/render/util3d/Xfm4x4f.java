@@ -68,6 +68,12 @@ public class Xfm4x4f {
 
     private float[][] xfm = new float[4][4];
 
+    /**
+     * The tolerance for the dot products of the columns of the upper 3x3 of a rigid transformation - the columns are
+     * orthonormal to within float round off.
+     */
+    private static final float RIGID_TOLERANCE = 1.0e-5f;
+
     /**
      * Creates a new instance of <tt>Xfm4x4f</tt> that is initialized to an identity.
      */
@@ -99,6 +105,32 @@ public class Xfm4x4f {
         return this;
     }
 
+    /**
+     * Sets the value of this transformation from 16 consecutive floats in row order.
+     *
+     * @param fValues (float[], readonly) The array holding the transformation terms.
+     * @param nOffset (int) The index of the first term in <tt>fValues</tt>.
+     * @return Returns this transformation after it has been set.
+     */
+    public Xfm4x4f setValue(final float[] fValues, final int nOffset) {
+        for (int row = 0; row < 4; row++) {
+            System.arraycopy(fValues, nOffset + (row * 4), xfm[row], 0, 4);
+        }
+        return this;
+    }
+
+    /**
+     * Copies the terms of this transformation into 16 consecutive floats in row order.
+     *
+     * @param fValues (float[], modified) The array to be loaded with the transformation terms.
+     * @param nOffset (int) The index in <tt>fValues</tt> for the first term.
+     */
+    public void get(final float[] fValues, final int nOffset) {
+        for (int row = 0; row < 4; row++) {
+            System.arraycopy(xfm[row], 0, fValues, nOffset + (row * 4), 4);
+        }
+    }
+
     public Xfm4x4f setValue(final Point3f ptOrigin, final Point3f ptAimedAt) throws ZeroLengthVectorException {
         identity();
         // set temp vector - from the originr to the aimedAt point
@@ -715,7 +747,7 @@ public class Xfm4x4f {
      *
      * @param xfm (readonly) The transformation to be inverted into this transformation.
      */
-    private void invertGeneral(final @NotNull Xfm4x4f xfm) {
+    void invertGeneral(final @NotNull Xfm4x4f xfm) {
         final double[] temp = new double[16];
         final double[] result = new double[16];
         final int[] row_perm = new int[4];
@@ -1013,23 +1045,138 @@ public class Xfm4x4f {
     }
 
     /**
-     * Inverts this transform and returns the result in this transformation.
+     * Affine inversion.  The projective row is <tt>[0 0 0 1]</tt>, so the inverse is the inverse of the upper 3x3 and the
+     * translation back-transformed by it.  The upper 3x3 is inverted by cofactors.
+     *
+     * @param xfm (readonly) The affine transformation to be inverted into this transformation.
+     */
+    void invertAffine(final @NotNull Xfm4x4f xfm) {
+        final double a00 = xfm.xfm[0][0], a01 = xfm.xfm[0][1], a02 = xfm.xfm[0][2];
+        final double a10 = xfm.xfm[1][0], a11 = xfm.xfm[1][1], a12 = xfm.xfm[1][2];
+        final double a20 = xfm.xfm[2][0], a21 = xfm.xfm[2][1], a22 = xfm.xfm[2][2];
+        final double tx = xfm.xfm[0][3], ty = xfm.xfm[1][3], tz = xfm.xfm[2][3];
+        final double c00 = (a11 * a22) - (a12 * a21);
+        final double c01 = (a12 * a20) - (a10 * a22);
+        final double c02 = (a10 * a21) - (a11 * a20);
+        final double det = (a00 * c00) + (a01 * c01) + (a02 * c02);
+        if (PackageConstants.isZero(det)) {
+            throw new SingularMatrixException();
+        }
+        final double scale = 1.0 / det;
+        final double i00 = c00 * scale;
+        final double i01 = ((a02 * a21) - (a01 * a22)) * scale;
+        final double i02 = ((a01 * a12) - (a02 * a11)) * scale;
+        final double i10 = c01 * scale;
+        final double i11 = ((a00 * a22) - (a02 * a20)) * scale;
+        final double i12 = ((a02 * a10) - (a00 * a12)) * scale;
+        final double i20 = c02 * scale;
+        final double i21 = ((a01 * a20) - (a00 * a21)) * scale;
+        final double i22 = ((a00 * a11) - (a01 * a10)) * scale;
+        lclSetAffine(i00, i01, i02, i10, i11, i12, i20, i21, i22, tx, ty, tz);
+    }
+
+    /**
+     * Rigid body inversion.  The upper 3x3 is a rotation, so its inverse is its transpose.
+     *
+     * @param xfm (readonly) The rigid transformation to be inverted into this transformation.
+     */
+    void invertRigid(final @NotNull Xfm4x4f xfm) {
+        lclSetAffine(xfm.xfm[0][0], xfm.xfm[1][0], xfm.xfm[2][0],
+                xfm.xfm[0][1], xfm.xfm[1][1], xfm.xfm[2][1],
+                xfm.xfm[0][2], xfm.xfm[1][2], xfm.xfm[2][2],
+                xfm.xfm[0][3], xfm.xfm[1][3], xfm.xfm[2][3]);
+    }
+
+    // Set this transformation to the inverted upper 3x3 and the translation -(inverted 3x3 * translation).
+    private void lclSetAffine(final double i00, final double i01, final double i02,
+                              final double i10, final double i11, final double i12,
+                              final double i20, final double i21, final double i22,
+                              final double tx, final double ty, final double tz) {
+        xfm[0][0] = (float) i00;
+        xfm[0][1] = (float) i01;
+        xfm[0][2] = (float) i02;
+        xfm[0][3] = (float) -((i00 * tx) + (i01 * ty) + (i02 * tz));
+        xfm[1][0] = (float) i10;
+        xfm[1][1] = (float) i11;
+        xfm[1][2] = (float) i12;
+        xfm[1][3] = (float) -((i10 * tx) + (i11 * ty) + (i12 * tz));
+        xfm[2][0] = (float) i20;
+        xfm[2][1] = (float) i21;
+        xfm[2][2] = (float) i22;
+        xfm[2][3] = (float) -((i20 * tx) + (i21 * ty) + (i22 * tz));
+        xfm[3][0] = 0.0f;
+        xfm[3][1] = 0.0f;
+        xfm[3][2] = 0.0f;
+        xfm[3][3] = 1.0f;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Tests whether this transformation is affine - the projective row is exactly <tt>[0 0 0 1]</tt>.  Transformations
+     * built from translation, rotation, scale, and shear are always affine.
+     *
+     * @return Returns <tt>true</tt> if this transformation is affine, <tt>false</tt> otherwise.
+     */
+    public boolean isAffine() {
+        return (0.0f == xfm[3][0]) && (0.0f == xfm[3][1]) && (0.0f == xfm[3][2]) && (1.0f == xfm[3][3]);
+    }
+
+    /**
+     * Tests whether this transformation is a rigid body transformation - affine with an upper 3x3 that is a rotation
+     * (the columns are orthonormal to within float round off).  Transformations built from translation and rotation
+     * only are rigid.  A rigid transformation preserves lengths and angles, so the same transformation applies to
+     * points, directions, and normals.
+     *
+     * @return Returns <tt>true</tt> if this transformation is rigid, <tt>false</tt> otherwise.
+     */
+    public boolean isRigid() {
+        if (!isAffine()) {
+            return false;
+        }
+        for (int col0 = 0; col0 < 3; col0++) {
+            for (int col1 = col0; col1 < 3; col1++) {
+                final float fDot = (xfm[0][col0] * xfm[0][col1]) + (xfm[1][col0] * xfm[1][col1]) +
+                        (xfm[2][col0] * xfm[2][col1]);
+                if (Math.abs(fDot - ((col0 == col1) ? 1.0f : 0.0f)) > RIGID_TOLERANCE) {
+                    return false;
+                }
+            }
+        }
+        // a rotation, not a reflection
+        return ((xfm[0][0] * ((xfm[1][1] * xfm[2][2]) - (xfm[1][2] * xfm[2][1]))) +
+                (xfm[0][1] * ((xfm[1][2] * xfm[2][0]) - (xfm[1][0] * xfm[2][2]))) +
+                (xfm[0][2] * ((xfm[1][0] * xfm[2][1]) - (xfm[1][1] * xfm[2][0])))) > 0.0f;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Inverts this transform and returns the result in this transformation.  Rigid and affine transformations are
+     * inverted by specialized routines that skip the projective row, other transformations are inverted by LU
+     * decomposition.
      *
      * @return Returns this transformation.
      */
     public @NotNull Xfm4x4f invert() {
-        invertGeneral(this);
-        return this;
+        return invert(this);
     }
 
     /**
-     * Invert this transformation into the supplied transformation.
+     * Invert this transformation into the supplied transformation.  Rigid and affine transformations are inverted by
+     * specialized routines that skip the projective row, other transformations are inverted by LU decomposition.
      *
      * @param inverse (Xfm4x4f, modified) The transformation that will be set to the inverse.
      * @return Returns the inverse transformation <tt>inverse</tt>.
      */
     public @NotNull Xfm4x4f invert(@NotNull Xfm4x4f inverse) {
-        inverse.invertGeneral(this);
+        if (isRigid()) {
+            inverse.invertRigid(this);
+        } else if (isAffine()) {
+            inverse.invertAffine(this);
+        } else {
+            inverse.invertGeneral(this);
+        }
         return inverse;
     }
 
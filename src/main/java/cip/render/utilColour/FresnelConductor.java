@@ -49,54 +49,18 @@ public class FresnelConductor extends Fresnel {
         return m_Ro;
     }
     
-    /*
-     * The implementation below works for a while, but then trashes the JVM when running
-     *  on a 4 processor box with 4 rendering threads (i.e. this set of functions is being hit
-     *  simultaneously by 4 threads - through calls to the approxFr) with an error that reports
-     *  itself as:
-     *
+    /**
+     * Get the reflectance of the conductor.  The reflectance is the material colour at every angle of incidence, the
+     * colour is what gives a conductor its tint, and the angle dependent reflectance from <tt>n</tt> and <tt>k</tt> is
+     * not applied.
      *
-    private float conductor_parallel(float NdotL, float NdotL2, float fNLn2)
-    {
-        return ((m_n2_k2 * NdotL2) - fNLn2 + 1.0f) / ((m_n2_k2 * NdotL2) + fNLn2 + 1.0f);
-    }
-    private float conductor_perpendicular(float NdotL, float NdotL2, float fNLn2)
-    {
-        return (m_n2_k2 - fNLn2 + NdotL2) / (m_n2_k2 + fNLn2 + NdotL2);
-    }
-    private float conductor_ave(Vector3f N, Vector3f L)
-    {
-        float   NdotL = N.dot(L);
-        float   NdotL2 = NdotL * NdotL;
-        float   fNLn2 = 2.0f * m_n * NdotL;
-        return 0.5f * ( conductor_parallel(NdotL, NdotL2, fNLn2) + 
-                        conductor_perpendicular(NdotL, NdotL2, fNLn2) );
-    }
+     * @param Fr (RGBf, modified) The reflectance.
+     * @param N  (Vector3f, readonly) The surface normal.
+     * @param L  (Vector3f, readonly) The direction to the light.
+     * @return Returns <tt>Fr</tt>.
      */
-
-    private float conductor_ave(final Vector3f N, final Vector3f L) {
-        final float NdotL = N.dot(L);
-        final float NdotL2 = NdotL * NdotL;
-        final float fNLn2 = 2.0f * m_n * NdotL;
-        final float a2Parallel = ((m_n2_k2 * NdotL2) - fNLn2 + 1.0f) / ((m_n2_k2 * NdotL2) + fNLn2 + 1.0f);
-        final float a2Perpendicular = (m_n2_k2 - fNLn2 + NdotL2) / (m_n2_k2 + fNLn2 + NdotL2);
-        return 0.5f * (a2Parallel + a2Perpendicular);
-    }
-
     public RGBf approxFr(@NotNull final RGBf Fr, @NotNull final Vector3f N, @NotNull final Vector3f L) {
-        final float fRtheta = conductor_ave(N, L);   // average reflectance at incident angle
-        final float fTmp = (fRtheta - m_Ro) / (1.0f - m_Ro);
-        if ((Fr.r = m_rgb.r + ((1.0f - m_rgb.r) * fTmp)) < 0.0f) {
-            Fr.r = 0.0f;
-        }
-        if ((Fr.g = m_rgb.g + ((1.0f - m_rgb.g) * fTmp)) < 0.0f) {
-            Fr.g = 0.0f;
-        }
-        if ((Fr.b = m_rgb.b + ((1.0f - m_rgb.b) * fTmp)) < 0.0f) {
-            Fr.b = 0.0f;
-        }
-        Fr.setValue(m_rgb);
-        return Fr;
+        return Fr.setValue(m_rgb);
     }
 
 }
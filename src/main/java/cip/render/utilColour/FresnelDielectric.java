@@ -9,18 +9,36 @@
  */
 package cip.render.utilColour;
 
+import cip.render.util.FastMath;
 import cip.render.util3d.Vector3f;
 import org.jetbrains.annotations.NotNull;
 
 /**
+ * The Fresnel reflectance and transmittance of a dielectric.
+ * <p>
+ * The reflectance only depends on the angle of incidence once the material is set, so a table of the reflectance is
+ * built for light going into the material from air and for light going out of the material into air.  The table is
+ * used instead of the formula when the precision mode is fast (see {@link FastMath#isFast()}).  The table going in is
+ * indexed by the cosine of the incident angle, and the table going out by the cosine of the transmitted angle - the
+ * reflectance is a smooth function of both, even close to the critical angle going out, so linear interpolation
+ * between {@link #TABLE_SIZE} intervals is accurate to better than 1e-4.
+ *
  * @author royster.hall@gmail.com
  * @version 1.0
  * @since 1.0
  */
 public class FresnelDielectric extends Fresnel {
+    /**
+     * The number of intervals in the reflectance tables.
+     */
+    public static final int TABLE_SIZE = 512;
+
     protected RGBf m_rgb;      // the material RGB
     protected float m_Ro;       // the average reflectance
     protected float m_n;        // the index of refraction
+    // the reflectance tables, r, g, b for each cosine from 0 to 1, going into and out of the material from and to air
+    private final float[] m_fFrIn = new float[3 * (TABLE_SIZE + 1)];
+    private final float[] m_fFrOut = new float[3 * (TABLE_SIZE + 1)];
 
     /**
      * Creates a new instance of FresnelDielectric
@@ -39,6 +57,24 @@ public class FresnelDielectric extends Fresnel {
         m_rgb = rgb;
         m_Ro = (rgb.r + rgb.g + rgb.b) / 3.0f;
         m_n = n;
+        // fill the tables from the formula - a going in cosine, and a going out transmitted cosine, is converted to the
+        //  other cosine by Snell's law
+        final RGBf Fr = new RGBf();
+        final float fRatio2 = n * n;
+        for (int iCos = 0; iCos <= TABLE_SIZE; iCos++) {
+            final float fCos = (float) iCos / TABLE_SIZE;
+            final float fSin2 = 1.0f - (fCos * fCos);
+            final float fRin = dielectric_ave(fCos, -(float) Math.sqrt(1.0f - (fSin2 / fRatio2)), 1.0f, n);
+            lclSetFr(Fr, (fRin == fRin) ? fRin : 1.0f);      // NaN at grazing incidence if n is 1
+            m_fFrIn[3 * iCos] = Fr.r;
+            m_fFrIn[(3 * iCos) + 1] = Fr.g;
+            m_fFrIn[(3 * iCos) + 2] = Fr.b;
+            final float fRout = dielectric_ave((float) Math.sqrt(1.0f - (fSin2 / fRatio2)), -fCos, n, 1.0f);
+            lclSetFr(Fr, (fRout == fRout) ? fRout : 1.0f);
+            m_fFrOut[3 * iCos] = Fr.r;
+            m_fFrOut[(3 * iCos) + 1] = Fr.g;
+            m_fFrOut[(3 * iCos) + 2] = Fr.b;
+        }
     }
 
     public float getAveReflectance() {
@@ -46,11 +82,7 @@ public class FresnelDielectric extends Fresnel {
     }
 
 
-    private float dielectric_ave(final Vector3f N, final Vector3f L, final Vector3f T, final boolean bIn, final float n) {
-        final float NdotL = N.dot(L);
-        final float NdotT = N.dot(T);
-        final float ni = bIn ? n : m_n;
-        final float nt = bIn ? m_n : n;
+    private static float dielectric_ave(final float NdotL, final float NdotT, final float ni, final float nt) {
         final float fAmplParallel = ((nt * NdotL) + (ni * NdotT)) / ((nt * NdotL) - (ni * NdotT));
         final float fAmplPerpendicular = ((ni * NdotL) + (nt * NdotT)) / ((ni * NdotL) - (nt * NdotT));
         // the energy is proportional to the square of amplitude
@@ -59,7 +91,23 @@ public class FresnelDielectric extends Fresnel {
 
     public RGBf approxFrFt(@NotNull final RGBf Fr, @NotNull final RGBf Ft, @NotNull final Vector3f N, @NotNull final Vector3f L,
                            @NotNull final Vector3f T, final boolean bIn, final float n) {
-        final float fRtheta = dielectric_ave(N, L, T, bIn, n);   // average reflectance at incident angle
+        if (FastMath.isFast() && (1.0f == n)) {
+            lclLookupFr(Fr, bIn ? m_fFrIn : m_fFrOut, bIn ? N.dot(L) : -N.dot(T));
+        } else {
+            // average reflectance at incident angle
+            lclSetFr(Fr, bIn ? dielectric_ave(N.dot(L), N.dot(T), n, m_n) : dielectric_ave(N.dot(L), N.dot(T), m_n, n));
+        }
+        if (null != Ft) {
+            Ft.r = 1.0f - Fr.r;
+            Ft.g = 1.0f - Fr.g;
+            Ft.b = 1.0f - Fr.b;
+        }
+        return Fr;
+    }
+
+    // Set the reflectance for an average reflectance at the incident angle - the material colour is the reflectance
+    //  at normal incidence, and goes to 1 in proportion to the average reflectance.
+    private void lclSetFr(@NotNull final RGBf Fr, final float fRtheta) {
         final float fTmp = (fRtheta - m_Ro) / (1.0f - m_Ro);
         if ((Fr.r = m_rgb.r + ((1.0f - m_rgb.r) * fTmp)) < 0.0f) {
             Fr.r = 0.0f;
@@ -70,12 +118,17 @@ public class FresnelDielectric extends Fresnel {
         if ((Fr.b = m_rgb.b + ((1.0f - m_rgb.b) * fTmp)) < 0.0f) {
             Fr.b = 0.0f;
         }
-        if (null != Ft) {
-            Ft.r = 1.0f - Fr.r;
-            Ft.g = 1.0f - Fr.g;
-            Ft.b = 1.0f - Fr.b;
-        }
-        return Fr;
+    }
+
+    // Interpolate the reflectance from a table.
+    private static void lclLookupFr(@NotNull final RGBf Fr, @NotNull final float[] fTable, final float fCos) {
+        final float fX = (fCos > 0.0f) ? ((fCos < 1.0f) ? fCos * TABLE_SIZE : TABLE_SIZE) : 0.0f;
+        final int iCos = Math.min((int) fX, TABLE_SIZE - 1);
+        final float t = fX - iCos;
+        final int i = 3 * iCos;
+        Fr.r = fTable[i] + (t * (fTable[i + 3] - fTable[i]));
+        Fr.g = fTable[i + 1] + (t * (fTable[i + 4] - fTable[i + 1]));
+        Fr.b = fTable[i + 2] + (t * (fTable[i + 5] - fTable[i + 2]));
     }
 
 }
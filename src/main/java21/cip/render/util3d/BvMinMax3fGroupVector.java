@@ -0,0 +1,123 @@
+/*
+ * BvMinMax3fGroupVector.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.util3d;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The <tt>jdk.incubator.vector</tt> test of one ray against all the volumes of a {@link BvMinMax3fGroup}, all the lanes
+ * are tested at once in one 256 bit vector.  This is only in the Java 21 version of the multi-release jar.
+ * <p>
+ * The results are exactly those of the Java lane loop: the slab distances are the same subtractions and divisions, and
+ * the slab distances are combined with the same comparisons (not <tt>max</tt> and <tt>min</tt>, which differ for NaN).
+ * A lane that misses before any division in the Java loop gets distances here too, but they are masked out of the hits
+ * and never stored.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+final class BvMinMax3fGroupVector implements IBvGroupKernel {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_256;
+
+    BvMinMax3fGroupVector() {
+        if (SPECIES.length() != BvMinMax3fGroup.LANES) {
+            throw new IllegalStateException("The vector species does not match the group lanes.");
+        }
+    }
+
+    @Override
+    public int getIntersections(@NotNull final BvMinMax3fGroup group, @NotNull final Line3f ray,
+                                @NotNull final float[] fDistIn, @NotNull final float[] fDistOut) {
+        final float x = ray.m_ptOrg.x;
+        final float y = ray.m_ptOrg.y;
+        final float z = ray.m_ptOrg.z;
+        final float i = ray.m_vDir.i;
+        final float j = ray.m_vDir.j;
+        final float k = ray.m_vDir.k;
+        // the decisions that depend only on the ray
+        final boolean bParallelX = PackageConstants.isZero(i);
+        final boolean bParallelY = PackageConstants.isZero(j);
+        final boolean bParallelZ = PackageConstants.isZero(k);
+        final boolean bNegativeX = i < 0.0f;
+        final boolean bNegativeY = j < 0.0f;
+        final boolean bNegativeZ = k < 0.0f;
+        final FloatVector xMin = FloatVector.fromArray(SPECIES, group.m_xMin, 0);
+        final FloatVector xMax = FloatVector.fromArray(SPECIES, group.m_xMax, 0);
+        final FloatVector yMin = FloatVector.fromArray(SPECIES, group.m_yMin, 0);
+        final FloatVector yMax = FloatVector.fromArray(SPECIES, group.m_yMax, 0);
+        final FloatVector zMin = FloatVector.fromArray(SPECIES, group.m_zMin, 0);
+        final FloatVector zMax = FloatVector.fromArray(SPECIES, group.m_zMax, 0);
+
+        // an empty volume, or an origin outside a slab the ray is parallel to or going away from, is a miss
+        final VectorMask<Float> miss = xMin.compare(VectorOperators.GT, xMax)
+                .or(lclOutside(xMin, xMax, x, bParallelX, bNegativeX))
+                .or(lclOutside(yMin, yMax, y, bParallelY, bNegativeY))
+                .or(lclOutside(zMin, zMax, z, bParallelZ, bNegativeZ));
+        FloatVector fIn;
+        FloatVector fOut;
+        if (bParallelX) {
+            fIn = FloatVector.broadcast(SPECIES, Float.NEGATIVE_INFINITY);
+            fOut = FloatVector.broadcast(SPECIES, Float.POSITIVE_INFINITY);
+        } else {
+            fIn = (bNegativeX ? xMax : xMin).sub(x).div(i);
+            fOut = (bNegativeX ? xMin : xMax).sub(x).div(i);
+        }
+        if (!bParallelY) {
+            fIn = lclGreater(fIn, (bNegativeY ? yMax : yMin).sub(y).div(j));
+            fOut = lclLess(fOut, (bNegativeY ? yMin : yMax).sub(y).div(j));
+        }
+        if (!bParallelZ) {
+            fIn = lclGreater(fIn, (bNegativeZ ? zMax : zMin).sub(z).div(k));
+            fOut = lclLess(fOut, (bNegativeZ ? zMin : zMax).sub(z).div(k));
+        }
+        // the distances only move the entry later and the exit earlier, so a lane that the Java loop drops after the Y
+        //  slab is still dropped here after the Z slab
+        final VectorMask<Float> hits = miss.or(fIn.compare(VectorOperators.GT, fOut)).not();
+        fIn.intoArray(fDistIn, 0, hits);
+        fOut.intoArray(fDistOut, 0, hits);
+        return (int) hits.toLong();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    // The lanes where the origin is outside a slab the ray is parallel to or going away from.
+    private static VectorMask<Float> lclOutside(@NotNull final FloatVector min, @NotNull final FloatVector max,
+                                                final float fOrg, final boolean bParallel, final boolean bNegative) {
+        if (bParallel) {
+            return min.compare(VectorOperators.GT, fOrg).or(max.compare(VectorOperators.LT, fOrg));
+        }
+        return bNegative ? min.compare(VectorOperators.GT, fOrg) : max.compare(VectorOperators.LT, fOrg);
+    }
+
+    // fDist where it is greater than fCur, otherwise fCur - as (fDist > fCur) ? fDist : fCur
+    private static FloatVector lclGreater(@NotNull final FloatVector fCur, @NotNull final FloatVector fDist) {
+        return fCur.blend(fDist, fDist.compare(VectorOperators.GT, fCur));
+    }
+
+    // fDist where it is less than fCur, otherwise fCur - as (fDist < fCur) ? fDist : fCur
+    private static FloatVector lclLess(@NotNull final FloatVector fCur, @NotNull final FloatVector fDist) {
+        return fCur.blend(fDist, fDist.compare(VectorOperators.LT, fCur));
+    }
+}
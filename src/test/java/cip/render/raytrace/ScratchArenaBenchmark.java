@@ -0,0 +1,148 @@
+/*
+ * ScratchArenaBenchmark.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.raytrace;
+
+import cip.render.util3d.Line3f;
+import cip.render.util3d.Vector3f;
+import cip.render.utilColour.RGBf;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+
+/**
+ * A micro-benchmark comparing the {@link ScratchArena} with the per-type linked free lists it replaced.  The workload is
+ * the scratch use of a Whitted material shading a ray tree: at every level of recursion an intersection, a colour, a
+ * vector, and a line are borrowed, the next level is shaded, and everything is released.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ScratchArenaBenchmark {
+    private ScratchArenaBenchmark() {
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args <tt>[depth [iterations]]</tt>, the default is depth 6 and 10,000,000 iterations.
+     */
+    public static void main(@NotNull final String[] args) {
+        final int nDepth = (args.length > 0) ? Integer.parseInt(args[0]) : 6;
+        final int nIterations = (args.length > 1) ? Integer.parseInt(args[1]) : 10_000_000;
+        final ScratchArena arena = new ScratchArena();
+        final FreeLists freeLists = new FreeLists();
+        float fSink = 0.0f;
+        for (int iPass = 0; iPass < 3; iPass++) {
+            long nStart = System.nanoTime();
+            for (int iIter = 0; iIter < nIterations; iIter++) {
+                fSink += lclShadeArena(arena, nDepth);
+            }
+            final long nArenaNanos = System.nanoTime() - nStart;
+            nStart = System.nanoTime();
+            for (int iIter = 0; iIter < nIterations; iIter++) {
+                fSink += lclShadeFreeLists(freeLists, nDepth);
+            }
+            final long nFreeListNanos = System.nanoTime() - nStart;
+            System.out.println(String.format("pass %d: arena %.2fns/tree, free lists %.2fns/tree", iPass,
+                    (double) nArenaNanos / nIterations, (double) nFreeListNanos / nIterations));
+        }
+        System.out.println(String.format("(%f)", fSink));
+    }
+
+    private static float lclShadeArena(@NotNull final ScratchArena arena, final int nDepth) {
+        final int nMark = arena.mark();
+        try {
+            final RGBf rgb = arena.borrowRGB();
+            final Vector3f v = arena.borrowVector();
+            final Line3f ln = arena.borrowLine();
+            arena.borrowIntersection();
+            v.i = nDepth;
+            ln.m_ptOrg.x = v.i;
+            rgb.r = ln.m_ptOrg.x;
+            return rgb.r + ((nDepth > 0) ? lclShadeArena(arena, nDepth - 1) : 0.0f);
+        } finally {
+            arena.reset(nMark);
+        }
+    }
+
+    private static float lclShadeFreeLists(@NotNull final FreeLists freeLists, final int nDepth) {
+        final RayIntersection intersection = freeLists.borrowIntersection();
+        final RGBf rgb = freeLists.borrowRGB();
+        final Vector3f v = freeLists.borrowVector();
+        final Line3f ln = freeLists.borrowLine();
+        try {
+            v.i = nDepth;
+            ln.m_ptOrg.x = v.i;
+            rgb.r = ln.m_ptOrg.x;
+            return rgb.r + ((nDepth > 0) ? lclShadeFreeLists(freeLists, nDepth - 1) : 0.0f);
+        } finally {
+            freeLists.m_intersections.add(intersection);
+            rgb.m_next = freeLists.m_rgb;
+            freeLists.m_rgb = rgb;
+            v.m_next = freeLists.m_vector;
+            freeLists.m_vector = v;
+            ln.m_next = freeLists.m_line;
+            freeLists.m_line = ln;
+        }
+    }
+
+    // The linked free lists previously kept by RayIntersection, for the benchmark.
+    private static final class FreeLists {
+        final ArrayList<RayIntersection> m_intersections = new ArrayList<>();
+        RGBf m_rgb = null;
+        Vector3f m_vector = null;
+        Line3f m_line = null;
+
+        RayIntersection borrowIntersection() {
+            return m_intersections.isEmpty() ? new RayIntersection() : m_intersections.remove(m_intersections.size() - 1);
+        }
+
+        RGBf borrowRGB() {
+            final RGBf rgb = m_rgb;
+            if (null == rgb) {
+                return new RGBf();
+            }
+            m_rgb = rgb.m_next;
+            return rgb;
+        }
+
+        Vector3f borrowVector() {
+            final Vector3f v = m_vector;
+            if (null == v) {
+                return new Vector3f();
+            }
+            m_vector = v.m_next;
+            return v;
+        }
+
+        Line3f borrowLine() {
+            final Line3f ln = m_line;
+            if (null == ln) {
+                return new Line3f();
+            }
+            m_line = ln.m_next;
+            return ln;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * FastMathBenchmark.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * A micro-benchmark comparing the {@link FastMath} approximations with the <tt>java.lang.Math</tt> functions over the
+ * argument ranges the shading evaluators use - <tt>pow</tt> of a cosine to a specular exponent, <tt>exp</tt> of a
+ * negative square, <tt>acos</tt> of a cosine, and <tt>atan2</tt> of a direction.  Before timing, the largest error of
+ * each approximation over the arguments is reported.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FastMathBenchmark {
+    private final int m_nArgs;
+    private final float[] m_fCos;
+    private final float[] m_fExp;
+    private final float[] m_fNeg;
+    private final float[] m_fX;
+    private final float[] m_fY;
+
+    private FastMathBenchmark(final int nArgs) {
+        m_nArgs = nArgs;
+        m_fCos = new float[nArgs];
+        m_fExp = new float[nArgs];
+        m_fNeg = new float[nArgs];
+        m_fX = new float[nArgs];
+        m_fY = new float[nArgs];
+        final Random random = new Random(19);
+        for (int iArg = 0; iArg < nArgs; iArg++) {
+            m_fCos[iArg] = random.nextFloat();
+            m_fExp[iArg] = 1.0f + (random.nextFloat() * 200.0f);
+            m_fNeg[iArg] = -random.nextFloat() * 10.0f;
+            m_fX[iArg] = (random.nextFloat() * 2.0f) - 1.0f;
+            m_fY[iArg] = (random.nextFloat() * 2.0f) - 1.0f;
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    private float lclPow(final boolean bFast) {
+        float fSink = 0.0f;
+        for (int iArg = 0; iArg < m_nArgs; iArg++) {
+            fSink += bFast ? FastMath.pow(m_fCos[iArg], m_fExp[iArg]) :
+                    (float) Math.pow((double) m_fCos[iArg], (double) m_fExp[iArg]);
+        }
+        return fSink;
+    }
+
+    private float lclExp(final boolean bFast) {
+        float fSink = 0.0f;
+        for (int iArg = 0; iArg < m_nArgs; iArg++) {
+            fSink += bFast ? FastMath.exp(m_fNeg[iArg]) : (float) Math.exp((double) m_fNeg[iArg]);
+        }
+        return fSink;
+    }
+
+    private float lclAcos(final boolean bFast) {
+        float fSink = 0.0f;
+        for (int iArg = 0; iArg < m_nArgs; iArg++) {
+            fSink += bFast ? FastMath.acos(m_fCos[iArg]) : (float) Math.acos((double) m_fCos[iArg]);
+        }
+        return fSink;
+    }
+
+    private float lclAtan2(final boolean bFast) {
+        float fSink = 0.0f;
+        for (int iArg = 0; iArg < m_nArgs; iArg++) {
+            fSink += bFast ? FastMath.atan2(m_fY[iArg], m_fX[iArg]) :
+                    (float) Math.atan2((double) m_fY[iArg], (double) m_fX[iArg]);
+        }
+        return fSink;
+    }
+
+    // The largest relative error of pow (results less than 1e-6 are skipped as they are lost in any image) and exp, and
+    //  the largest absolute error of acos and atan2.
+    private double[] lclVerify() {
+        final double[] dMax = new double[4];
+        for (int iArg = 0; iArg < m_nArgs; iArg++) {
+            final double dPow = Math.pow((double) m_fCos[iArg], (double) m_fExp[iArg]);
+            if (dPow > 1.0e-6) {
+                dMax[0] = Math.max(dMax[0], Math.abs((FastMath.pow(m_fCos[iArg], m_fExp[iArg]) - dPow) / dPow));
+            }
+            final double dExp = Math.exp((double) m_fNeg[iArg]);
+            dMax[1] = Math.max(dMax[1], Math.abs((FastMath.exp(m_fNeg[iArg]) - dExp) / dExp));
+            dMax[2] = Math.max(dMax[2], Math.abs(FastMath.acos(m_fCos[iArg]) - Math.acos((double) m_fCos[iArg])));
+            dMax[3] = Math.max(dMax[3], Math.abs(FastMath.atan2(m_fY[iArg], m_fX[iArg]) -
+                    Math.atan2((double) m_fY[iArg], (double) m_fX[iArg])));
+        }
+        return dMax;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Run the benchmark for <tt>pow</tt>, <tt>exp</tt>, <tt>acos</tt>, and <tt>atan2</tt>.
+     *
+     * @param args <tt>[arguments [iterations]]</tt>, the default is 1024 arguments and 20,000 iterations.
+     */
+    public static void main(@NotNull final String[] args) {
+        final int nArgs = (args.length > 0) ? Integer.parseInt(args[0]) : 1024;
+        final int nIterations = (args.length > 1) ? Integer.parseInt(args[1]) : 20_000;
+        final FastMathBenchmark benchmark = new FastMathBenchmark(nArgs);
+        final double[] dMax = benchmark.lclVerify();
+        System.out.println(String.format("max error: pow %.3g (relative), exp %.3g (relative), acos %.3g, atan2 %.3g",
+                dMax[0], dMax[1], dMax[2], dMax[3]));
+
+        final double dOps = (double) nArgs * nIterations;
+        float fSink = 0.0f;
+        for (int iPass = 0; iPass < 3; iPass++) {
+            final long[] nNanos = new long[8];
+            for (int iFn = 0; iFn < 8; iFn++) {
+                final boolean bFast = (1 == (iFn % 2));
+                final long nStart = System.nanoTime();
+                for (int iIter = 0; iIter < nIterations; iIter++) {
+                    switch (iFn / 2) {
+                        case 0:
+                            fSink += benchmark.lclPow(bFast);
+                            break;
+                        case 1:
+                            fSink += benchmark.lclExp(bFast);
+                            break;
+                        case 2:
+                            fSink += benchmark.lclAcos(bFast);
+                            break;
+                        default:
+                            fSink += benchmark.lclAtan2(bFast);
+                    }
+                }
+                nNanos[iFn] = System.nanoTime() - nStart;
+            }
+            System.out.println(String.format("pass %d (ns/op): pow Math %.2f fast %.2f, exp Math %.2f fast %.2f, " +
+                            "acos Math %.2f fast %.2f, atan2 Math %.2f fast %.2f", iPass,
+                    nNanos[0] / dOps, nNanos[1] / dOps, nNanos[2] / dOps, nNanos[3] / dOps,
+                    nNanos[4] / dOps, nNanos[5] / dOps, nNanos[6] / dOps, nNanos[7] / dOps));
+        }
+        System.out.println(String.format("(%f)", fSink));
+    }
+}
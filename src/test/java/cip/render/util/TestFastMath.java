@@ -0,0 +1,85 @@
+package cip.render.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RunWith(JUnitPlatform.class)
+public class TestFastMath {
+
+    /**
+     * exp() relative error over the range that does not overflow or underflow.
+     */
+    @Test
+    @DisplayName("test exp")
+    void testExp() {
+        for (float x = -87.0f; x < 88.0f; x += 0.01f) {
+            final double dExp = Math.exp(x);
+            assertTrue(Math.abs((FastMath.exp(x) - dExp) / dExp) < 5.0e-7, "exp(" + x + ")");
+        }
+        assertEquals(1.0f, FastMath.exp(0.0f));
+        assertEquals(0.0f, FastMath.exp(-100.0f));
+        assertEquals(Float.POSITIVE_INFINITY, FastMath.exp(100.0f));
+        assertEquals(0.0f, FastMath.exp(Float.NEGATIVE_INFINITY));
+        assertTrue(Float.isNaN(FastMath.exp(Float.NaN)));
+    }
+
+    /**
+     * pow() relative error for cosines raised to specular exponents (results visible in an image), and the cases passed to Math.pow().
+     */
+    @Test
+    @DisplayName("test pow")
+    void testPow() {
+        for (float x = 0.001f; x <= 1.0f; x += 0.001f) {
+            for (float y = 0.5f; y < 500.0f; y *= 1.5f) {
+                final double dPow = Math.pow(x, y);
+                if (dPow < 1.0e-6) {
+                    continue;
+                }
+                final double dBound = 5.0e-7 * (1.0 + Math.abs(y * Math.log(x)));
+                assertTrue(Math.abs((FastMath.pow(x, y) - dPow) / dPow) < dBound, "pow(" + x + "," + y + ")");
+            }
+        }
+        assertEquals(1.0f, FastMath.pow(1.0f, 100.0f));
+        assertEquals(1.0f, FastMath.pow(0.5f, 0.0f));
+        assertEquals(0.0f, FastMath.pow(0.0f, 2.0f));
+        assertEquals(-8.0f, FastMath.pow(-2.0f, 3.0f));
+        assertTrue(Float.isNaN(FastMath.pow(Float.NaN, 2.0f)));
+    }
+
+    /**
+     * acos() absolute error over -1 to 1.
+     */
+    @Test
+    @DisplayName("test acos")
+    void testAcos() {
+        for (int i = -10000; i <= 10000; i++) {
+            final float x = i / 10000.0f;
+            assertTrue(Math.abs(FastMath.acos(x) - Math.acos(x)) < 5.0e-7, "acos(" + x + ")");
+        }
+        assertTrue(Float.isNaN(FastMath.acos(1.5f)));
+    }
+
+    /**
+     * atan2() absolute error around the circle, and the cases passed to Math.atan2().
+     */
+    @Test
+    @DisplayName("test atan2")
+    void testAtan2() {
+        for (int i = 0; i < 36000; i++) {
+            final double dAngle = Math.toRadians(i / 100.0);
+            final float y = (float) Math.sin(dAngle);
+            final float x = (float) Math.cos(dAngle);
+            assertTrue(Math.abs(FastMath.atan2(y, x) - Math.atan2(y, x)) < 5.0e-7, "atan2(" + y + "," + x + ")");
+        }
+        assertEquals(0.0f, FastMath.atan2(0.0f, 0.0f));
+        assertEquals((float) Math.PI, FastMath.atan2(0.0f, -1.0f));
+        assertEquals((float) -Math.PI, FastMath.atan2(-0.0f, -1.0f));
+        assertEquals((float) (Math.PI / 2.0), FastMath.atan2(Float.POSITIVE_INFINITY, 1.0f));
+        assertTrue(Float.isNaN(FastMath.atan2(Float.NaN, 1.0f)));
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * BatchIntersectionBenchmark.java
+ *
+ * Created on October 19, 2026
+ * Copyright(c) 1993-2019 Crisis in Perspective, Inc.
+ *                        PO Box 1949
+ *                        Hood River, OR 97031
+ *                        www.crisisinperspecive.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * The GNU General Public License is available at:
+ *      http://www.opensource.org/licenses/gpl-license.php
+ */
+package cip.render.util3d;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * A micro-benchmark comparing the batch (structure of arrays) intersection of {@link Quadric3f} and {@link Plane3f}
+ * with intersecting the same rays one at a time through {@link Line3f} objects, and the {@link BvMinMax3fGroup} test of
+ * one ray against a group of volumes with testing the volumes one at a time.  That the batch and group results match
+ * the scalar results exactly is tested in <tt>TestBatchIntersection</tt>.
+ *
+ * @author royster.hall@gmail.com
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BatchIntersectionBenchmark {
+    private final int m_nRays;
+    private final Line3f[] m_rays;
+    private final float[] m_fOrgX;
+    private final float[] m_fOrgY;
+    private final float[] m_fOrgZ;
+    private final float[] m_fDirI;
+    private final float[] m_fDirJ;
+    private final float[] m_fDirK;
+    private final float[] m_fDist1;
+    private final float[] m_fDist2;
+    private final int[] m_nCode;
+    private final BvMinMax3f[] m_bvs = new BvMinMax3f[BvMinMax3fGroup.LANES];
+    private final BvMinMax3fGroup m_bvGroup = new BvMinMax3fGroup();
+
+    private BatchIntersectionBenchmark(final int nRays) {
+        m_nRays = nRays;
+        m_rays = new Line3f[nRays];
+        m_fOrgX = new float[nRays];
+        m_fOrgY = new float[nRays];
+        m_fOrgZ = new float[nRays];
+        m_fDirI = new float[nRays];
+        m_fDirJ = new float[nRays];
+        m_fDirK = new float[nRays];
+        m_fDist1 = new float[nRays];
+        m_fDist2 = new float[nRays];
+        m_nCode = new int[nRays];
+        // rays from a camera 5 units out on -Y, aimed at random points in a 3 unit box about the origin.  Every 16th ray
+        //  is parallel to an axis plane.
+        final Random random = new Random(19);
+        final Point3f ptOrg = new Point3f(0.0f, -5.0f, 0.5f);
+        for (int iRay = 0; iRay < nRays; iRay++) {
+            final Point3f ptThru = new Point3f((random.nextFloat() * 3.0f) - 1.5f, (random.nextFloat() * 3.0f) - 1.5f,
+                    (random.nextFloat() * 3.0f) - 1.5f);
+            if (0 == (iRay % 16)) {
+                switch ((iRay / 16) % 3) {
+                    case 0:
+                        ptThru.x = ptOrg.x;
+                        break;
+                    case 1:
+                        ptThru.y = ptOrg.y;
+                        break;
+                    default:
+                        ptThru.z = ptOrg.z;
+                }
+            }
+            m_rays[iRay] = new Line3f(ptOrg, new Vector3f(ptOrg, ptThru).normalize());
+            m_fOrgX[iRay] = m_rays[iRay].m_ptOrg.x;
+            m_fOrgY[iRay] = m_rays[iRay].m_ptOrg.y;
+            m_fOrgZ[iRay] = m_rays[iRay].m_ptOrg.z;
+            m_fDirI[iRay] = m_rays[iRay].m_vDir.i;
+            m_fDirJ[iRay] = m_rays[iRay].m_vDir.j;
+            m_fDirK[iRay] = m_rays[iRay].m_vDir.k;
+        }
+        // the last volume contains the ray origin
+        for (int nLane = 0; nLane < BvMinMax3fGroup.LANES; nLane++) {
+            final Point3f ptCenter = (nLane == (BvMinMax3fGroup.LANES - 1)) ? ptOrg :
+                    new Point3f((random.nextFloat() * 3.0f) - 1.5f, (random.nextFloat() * 3.0f) - 1.5f,
+                            (random.nextFloat() * 3.0f) - 1.5f);
+            final float fSize = 0.1f + random.nextFloat();
+            m_bvs[nLane] = new BvMinMax3f()
+                    .union(new Point3f(ptCenter.x - fSize, ptCenter.y - fSize, ptCenter.z - fSize))
+                    .union(new Point3f(ptCenter.x + fSize, ptCenter.y + fSize, ptCenter.z + fSize));
+            m_bvGroup.setValue(nLane, m_bvs[nLane]);
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+    private float lclScalar(@NotNull final Quadric3f quadric, @NotNull final Quadric3fIntersection quadInt) {
+        float fSink = 0.0f;
+        for (int iRay = 0; iRay < m_nRays; iRay++) {
+            quadric.getIntersection(quadInt, m_rays[iRay], false);
+            fSink += (quadInt.m_nCode >= Quadric3fIntersection.GOING_INTO) ? quadInt.m_fDist1 : 0.0f;
+        }
+        return fSink;
+    }
+
+    private float lclBatch(@NotNull final Quadric3f quadric) {
+        quadric.getIntersections(m_nRays, m_fOrgX, m_fOrgY, m_fOrgZ, m_fDirI, m_fDirJ, m_fDirK, false,
+                m_fDist1, m_fDist2, m_nCode);
+        float fSink = 0.0f;
+        for (int iRay = 0; iRay < m_nRays; iRay++) {
+            fSink += (m_nCode[iRay] >= Quadric3fIntersection.GOING_INTO) ? m_fDist1[iRay] : 0.0f;
+        }
+        return fSink;
+    }
+
+    private float lclScalar(@NotNull final Plane3f plane, @NotNull final Plane3fIntersection plnInt) {
+        float fSink = 0.0f;
+        for (int iRay = 0; iRay < m_nRays; iRay++) {
+            plane.getIntersection(plnInt, m_rays[iRay]);
+            fSink += (plnInt.m_nCode >= Plane3fIntersection.GOING_INTO) ? plnInt.m_fDist : 0.0f;
+        }
+        return fSink;
+    }
+
+    private float lclBatch(@NotNull final Plane3f plane) {
+        plane.getIntersections(m_nRays, m_fOrgX, m_fOrgY, m_fOrgZ, m_fDirI, m_fDirJ, m_fDirK, m_fDist1, m_nCode);
+        float fSink = 0.0f;
+        for (int iRay = 0; iRay < m_nRays; iRay++) {
+            fSink += (m_nCode[iRay] >= Plane3fIntersection.GOING_INTO) ? m_fDist1[iRay] : 0.0f;
+        }
+        return fSink;
+    }
+
+    private float lclScalarBvs(@NotNull final Bv3fIntersection bvInt) {
+        float fSink = 0.0f;
+        for (int iRay = 0; iRay < m_nRays; iRay++) {
+            for (final BvMinMax3f bv : m_bvs) {
+                if (bv.getIntersection(bvInt, m_rays[iRay])) {
+                    fSink += bvInt.m_fDistIn;
+                }
+            }
+        }
+        return fSink;
+    }
+
+    private float lclGroupBvs() {
+        float fSink = 0.0f;
+        for (int iRay = 0; iRay < m_nRays; iRay++) {
+            final int nHits = m_bvGroup.getIntersections(m_rays[iRay], m_fDist1, m_fDist2);
+            for (int nLane = 0; nLane < BvMinMax3fGroup.LANES; nLane++) {
+                if (0 != (nHits & (1 << nLane))) {
+                    fSink += m_fDist1[nLane];
+                }
+            }
+        }
+        return fSink;
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Run the benchmark for a sphere, a hyperboloid (a concave quadric), a plane, and a group of volumes.
+     *
+     * @param args <tt>[rays [iterations]]</tt>, the default is 1024 rays and 20,000 iterations.
+     */
+    public static void main(@NotNull final String[] args) {
+        final int nRays = (args.length > 0) ? Integer.parseInt(args[0]) : 1024;
+        final int nIterations = (args.length > 1) ? Integer.parseInt(args[1]) : 20_000;
+        final BatchIntersectionBenchmark benchmark = new BatchIntersectionBenchmark(nRays);
+        final Quadric3f sphere = new Quadric3f().setEllipsoid(1.0f, 1.0f, 1.0f);
+        final Quadric3f hyperboloid = new Quadric3f().setHyperboloid(0.5f, 0.5f, 1.0f);
+        final Plane3f plane = new Plane3f(0.0f, 0.0f, 1.0f, 0.25f);
+        System.out.println("volume group kernel: " + (BvMinMax3fGroup.isVectorized() ? "vector" : "scalar"));
+
+        final Quadric3fIntersection quadInt = new Quadric3fIntersection();
+        final Plane3fIntersection plnInt = new Plane3fIntersection();
+        final Bv3fIntersection bvInt = new Bv3fIntersection();
+        final double dRays = (double) nRays * nIterations;
+        float fSink = 0.0f;
+        for (int iPass = 0; iPass < 3; iPass++) {
+            final long[] nNanos = new long[8];
+            long nStart = System.nanoTime();
+            for (int iIter = 0; iIter < nIterations; iIter++) {
+                fSink += benchmark.lclScalar(sphere, quadInt);
+            }
+            nNanos[0] = System.nanoTime() - nStart;
+            nStart = System.nanoTime();
+            for (int iIter = 0; iIter < nIterations; iIter++) {
+                fSink += benchmark.lclBatch(sphere);
+            }
+            nNanos[1] = System.nanoTime() - nStart;
+            nStart = System.nanoTime();
+            for (int iIter = 0; iIter < nIterations; iIter++) {
+                fSink += benchmark.lclScalar(hyperboloid, quadInt);
+            }
+            nNanos[2] = System.nanoTime() - nStart;
+            nStart = System.nanoTime();
+            for (int iIter = 0; iIter < nIterations; iIter++) {
+                fSink += benchmark.lclBatch(hyperboloid);
+            }
+            nNanos[3] = System.nanoTime() - nStart;
+            nStart = System.nanoTime();
+            for (int iIter = 0; iIter < nIterations; iIter++) {
+                fSink += benchmark.lclScalar(plane, plnInt);
+            }
+            nNanos[4] = System.nanoTime() - nStart;
+            nStart = System.nanoTime();
+            for (int iIter = 0; iIter < nIterations; iIter++) {
+                fSink += benchmark.lclBatch(plane);
+            }
+            nNanos[5] = System.nanoTime() - nStart;
+            nStart = System.nanoTime();
+            for (int iIter = 0; iIter < nIterations; iIter++) {
+                fSink += benchmark.lclScalarBvs(bvInt);
+            }
+            nNanos[6] = System.nanoTime() - nStart;
+            nStart = System.nanoTime();
+            for (int iIter = 0; iIter < nIterations; iIter++) {
+                fSink += benchmark.lclGroupBvs();
+            }
+            nNanos[7] = System.nanoTime() - nStart;
+            System.out.println(String.format("pass %d (ns/ray): sphere scalar %.2f batch %.2f, " +
+                            "hyperboloid scalar %.2f batch %.2f, plane scalar %.2f batch %.2f, " +
+                            "%d volumes scalar %.2f group %.2f", iPass,
+                    nNanos[0] / dRays, nNanos[1] / dRays, nNanos[2] / dRays, nNanos[3] / dRays,
+                    nNanos[4] / dRays, nNanos[5] / dRays, BvMinMax3fGroup.LANES, nNanos[6] / dRays, nNanos[7] / dRays));
+        }
+        System.out.println(String.format("(%f)", fSink));
+    }
+}
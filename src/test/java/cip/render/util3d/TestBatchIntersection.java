@@ -0,0 +1,155 @@
+package cip.render.util3d;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The batch (structure of arrays) intersections must give exactly the results of intersecting the rays one at a time,
+ * so a renderer can use either path without changing the image.
+ */
+@RunWith(JUnitPlatform.class)
+public class TestBatchIntersection {
+    private static final int RAYS = 1024;
+
+    private final Line3f[] m_rays = new Line3f[RAYS];
+    private final float[] m_fOrgX = new float[RAYS];
+    private final float[] m_fOrgY = new float[RAYS];
+    private final float[] m_fOrgZ = new float[RAYS];
+    private final float[] m_fDirI = new float[RAYS];
+    private final float[] m_fDirJ = new float[RAYS];
+    private final float[] m_fDirK = new float[RAYS];
+    private final float[] m_fDist1 = new float[RAYS];
+    private final float[] m_fDist2 = new float[RAYS];
+    private final int[] m_nCode = new int[RAYS];
+    private final Random m_random = new Random(19);
+    private final Point3f m_ptOrg = new Point3f(0.0f, -5.0f, 0.5f);
+
+    /**
+     * Rays from a camera 5 units out on -Y, aimed at random points in a 3 unit box about the origin.  Every 16th ray
+     * is parallel to an axis plane.
+     */
+    public TestBatchIntersection() {
+        for (int iRay = 0; iRay < RAYS; iRay++) {
+            final Point3f ptThru = lclRandomPoint();
+            if (0 == (iRay % 16)) {
+                switch ((iRay / 16) % 3) {
+                    case 0:
+                        ptThru.x = m_ptOrg.x;
+                        break;
+                    case 1:
+                        ptThru.y = m_ptOrg.y;
+                        break;
+                    default:
+                        ptThru.z = m_ptOrg.z;
+                }
+            }
+            m_rays[iRay] = new Line3f(m_ptOrg, new Vector3f(m_ptOrg, ptThru).normalize());
+            m_fOrgX[iRay] = m_rays[iRay].m_ptOrg.x;
+            m_fOrgY[iRay] = m_rays[iRay].m_ptOrg.y;
+            m_fOrgZ[iRay] = m_rays[iRay].m_ptOrg.z;
+            m_fDirI[iRay] = m_rays[iRay].m_vDir.i;
+            m_fDirJ[iRay] = m_rays[iRay].m_vDir.j;
+            m_fDirK[iRay] = m_rays[iRay].m_vDir.k;
+        }
+    }
+
+    private Point3f lclRandomPoint() {
+        return new Point3f((m_random.nextFloat() * 3.0f) - 1.5f, (m_random.nextFloat() * 3.0f) - 1.5f,
+                (m_random.nextFloat() * 3.0f) - 1.5f);
+    }
+
+    private void lclTestQuadric(Quadric3f quadric) {
+        final Quadric3fIntersection quadInt = new Quadric3fIntersection();
+        quadric.getIntersections(RAYS, m_fOrgX, m_fOrgY, m_fOrgZ, m_fDirI, m_fDirJ, m_fDirK, false,
+                m_fDist1, m_fDist2, m_nCode);
+        for (int iRay = 0; iRay < RAYS; iRay++) {
+            quadric.getIntersection(quadInt, m_rays[iRay], false);
+            assertEquals(quadInt.m_nCode, m_nCode[iRay], "ray " + iRay);
+            if (quadInt.m_nCode >= Quadric3fIntersection.GOING_INTO) {
+                assertEquals(quadInt.m_fDist1, m_fDist1[iRay], "ray " + iRay);
+                assertEquals(quadInt.m_fDist2, m_fDist2[iRay], "ray " + iRay);
+            }
+        }
+    }
+
+    /**
+     * The batch sphere intersections match the single ray intersections.
+     */
+    @Test
+    @DisplayName("test batch sphere")
+    void testSphere() {
+        lclTestQuadric(new Quadric3f().setEllipsoid(1.0f, 1.0f, 1.0f));
+    }
+
+    /**
+     * The batch hyperboloid (a concave quadric) intersections match the single ray intersections.
+     */
+    @Test
+    @DisplayName("test batch hyperboloid")
+    void testHyperboloid() {
+        lclTestQuadric(new Quadric3f().setHyperboloid(0.5f, 0.5f, 1.0f));
+    }
+
+    /**
+     * The batch plane intersections match the single ray intersections.
+     */
+    @Test
+    @DisplayName("test batch plane")
+    void testPlane() {
+        final Plane3f plane = new Plane3f(0.0f, 0.0f, 1.0f, 0.25f);
+        final Plane3fIntersection plnInt = new Plane3fIntersection();
+        plane.getIntersections(RAYS, m_fOrgX, m_fOrgY, m_fOrgZ, m_fDirI, m_fDirJ, m_fDirK, m_fDist1, m_nCode);
+        for (int iRay = 0; iRay < RAYS; iRay++) {
+            plane.getIntersection(plnInt, m_rays[iRay]);
+            assertEquals(plnInt.m_nCode, m_nCode[iRay], "ray " + iRay);
+            if (plnInt.m_nCode >= Plane3fIntersection.GOING_INTO) {
+                assertEquals(plnInt.m_fDist, m_fDist1[iRay], "ray " + iRay);
+            }
+        }
+    }
+
+    /**
+     * The volume group matches testing the volumes one at a time, both through the kernel the group is using (the Vector
+     * API kernel when the Java 21 classes and the <tt>jdk.incubator.vector</tt> module are available) and through the
+     * Java lane loop.  The first volume is empty, and the last contains the ray origin.
+     */
+    @Test
+    @DisplayName("test volume group")
+    void testVolumeGroup() {
+        final BvMinMax3f[] bvs = new BvMinMax3f[BvMinMax3fGroup.LANES];
+        final BvMinMax3fGroup group = new BvMinMax3fGroup();
+        for (int nLane = 0; nLane < BvMinMax3fGroup.LANES; nLane++) {
+            bvs[nLane] = new BvMinMax3f();
+            if (nLane > 0) {
+                final Point3f ptCenter = (nLane == (BvMinMax3fGroup.LANES - 1)) ? m_ptOrg : lclRandomPoint();
+                final float fSize = 0.1f + m_random.nextFloat();
+                bvs[nLane].union(new Point3f(ptCenter.x - fSize, ptCenter.y - fSize, ptCenter.z - fSize))
+                        .union(new Point3f(ptCenter.x + fSize, ptCenter.y + fSize, ptCenter.z + fSize));
+            }
+            group.setValue(nLane, bvs[nLane]);
+        }
+        final Bv3fIntersection bvInt = new Bv3fIntersection();
+        final float[] fDistIn = new float[BvMinMax3fGroup.LANES];
+        final float[] fDistOut = new float[BvMinMax3fGroup.LANES];
+        for (int iRay = 0; iRay < RAYS; iRay++) {
+            for (int iKernel = 0; iKernel < 2; iKernel++) {
+                final int nHits = (0 == iKernel) ? group.getIntersections(m_rays[iRay], fDistIn, fDistOut) :
+                        group.pkgGetIntersections(m_rays[iRay], fDistIn, fDistOut);
+                for (int nLane = 0; nLane < BvMinMax3fGroup.LANES; nLane++) {
+                    final boolean bHit = bvs[nLane].getIntersection(bvInt, m_rays[iRay]);
+                    assertEquals(bHit, 0 != (nHits & (1 << nLane)), "ray " + iRay + " lane " + nLane);
+                    if (bHit) {
+                        assertEquals(bvInt.m_fDistIn, fDistIn[nLane], "ray " + iRay + " lane " + nLane);
+                        assertEquals(bvInt.m_fDistOut, fDistOut[nLane], "ray " + iRay + " lane " + nLane);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package cip.render.util3d;
+
+import cip.render.util.AngleF;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The rigid, affine, and LU decomposition inversions of {@link Xfm4x4f} must agree wherever more than one applies, and
+ * {@link Xfm4x4f#invert(Xfm4x4f)} must pick the specialized inversion for the transformation.
+ */
+@RunWith(JUnitPlatform.class)
+public class TestXfm4x4f {
+    private static final float TOLERANCE = 1.0e-5f;
+
+    private static Xfm4x4f _rigid() {
+        return new Xfm4x4f()
+                .rotate(Xfm4x4f.AXIS_X, new AngleF(AngleF.DEGREES, 30.0f))
+                .rotate(Xfm4x4f.AXIS_Y, new AngleF(AngleF.DEGREES, -70.0f))
+                .rotate(Xfm4x4f.AXIS_Z, new AngleF(AngleF.DEGREES, 115.0f))
+                .translate(1.5f, -2.0f, 3.25f);
+    }
+
+    private static Xfm4x4f _affine() {
+        return new Xfm4x4f()
+                .scale(2.0f, 0.5f, 3.0f)
+                .shear(0.25f, -0.5f, 0.75f)
+                .rotate(Xfm4x4f.AXIS_Y, new AngleF(AngleF.DEGREES, 40.0f))
+                .translate(-1.0f, 4.0f, 0.5f);
+    }
+
+    private static Xfm4x4f _projective() {
+        final Xfm4x4f xfm = _affine();
+        final float[] fValues = new float[16];
+        xfm.get(fValues, 0);
+        fValues[12] = 0.1f;
+        fValues[13] = -0.2f;
+        fValues[14] = 0.05f;
+        fValues[15] = 1.5f;
+        return xfm.setValue(fValues, 0);
+    }
+
+    private static void _assertEquals(Xfm4x4f expected, Xfm4x4f actual, String strWhat) {
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                assertEquals(expected.get(row, col), actual.get(row, col), TOLERANCE,
+                        strWhat + " [" + row + "][" + col + "]");
+            }
+        }
+    }
+
+    private static void _assertInverse(Xfm4x4f xfm, Xfm4x4f inverse, String strWhat) {
+        _assertEquals(new Xfm4x4f(), new Xfm4x4f(inverse).preMul(xfm), strWhat + " inverse * xfm");
+    }
+
+    /**
+     * A rigid transformation is inverted the same by the rigid, affine, and LU inversions.
+     */
+    @Test
+    @DisplayName("test rigid inverse")
+    void testRigidInverse() {
+        final Xfm4x4f xfm = _rigid();
+        assertTrue(xfm.isRigid());
+        final Xfm4x4f rigid = new Xfm4x4f();
+        rigid.invertRigid(xfm);
+        final Xfm4x4f affine = new Xfm4x4f();
+        affine.invertAffine(xfm);
+        final Xfm4x4f general = new Xfm4x4f();
+        general.invertGeneral(xfm);
+        _assertInverse(xfm, general, "LU");
+        _assertEquals(general, rigid, "rigid");
+        _assertEquals(general, affine, "affine");
+        _assertEquals(rigid, xfm.invert(new Xfm4x4f()), "invert()");
+    }
+
+    /**
+     * An affine transformation that is not rigid is inverted the same by the affine and LU inversions.
+     */
+    @Test
+    @DisplayName("test affine inverse")
+    void testAffineInverse() {
+        final Xfm4x4f xfm = _affine();
+        assertFalse(xfm.isRigid());
+        assertTrue(xfm.isAffine());
+        final Xfm4x4f affine = new Xfm4x4f();
+        affine.invertAffine(xfm);
+        final Xfm4x4f general = new Xfm4x4f();
+        general.invertGeneral(xfm);
+        _assertInverse(xfm, general, "LU");
+        _assertEquals(general, affine, "affine");
+        _assertEquals(affine, xfm.invert(new Xfm4x4f()), "invert()");
+    }
+
+    /**
+     * A projective transformation is inverted by LU decomposition.
+     */
+    @Test
+    @DisplayName("test projective inverse")
+    void testProjectiveInverse() {
+        final Xfm4x4f xfm = _projective();
+        assertFalse(xfm.isAffine());
+        final Xfm4x4f general = new Xfm4x4f();
+        general.invertGeneral(xfm);
+        _assertInverse(xfm, general, "LU");
+        _assertEquals(general, xfm.invert(new Xfm4x4f()), "invert()");
+    }
+
+    /**
+     * Inverting in place gives the same result as inverting into another transformation.
+     */
+    @Test
+    @DisplayName("test invert in place")
+    void testInvertInPlace() {
+        final Xfm4x4f[] xfms = {_rigid(), _affine(), _projective()};
+        for (Xfm4x4f xfm : xfms) {
+            final Xfm4x4f inverse = xfm.invert(new Xfm4x4f());
+            _assertEquals(inverse, new Xfm4x4f(xfm).invert(), "in place");
+        }
+    }
+}
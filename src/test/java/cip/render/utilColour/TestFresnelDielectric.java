@@ -0,0 +1,57 @@
+package cip.render.utilColour;
+
+import cip.render.util.FastMath;
+import cip.render.util3d.Vector3f;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RunWith(JUnitPlatform.class)
+public class TestFresnelDielectric {
+
+    /**
+     * The reflectance tables (fast precision) against the formula (exact precision), going into and out of the material,
+     * for a range of indices of refraction.
+     */
+    @Test
+    @DisplayName("test reflectance tables")
+    void testTables() {
+        final boolean bFast = FastMath.isFast();
+        try {
+            final Vector3f N = new Vector3f(0.0f, 0.0f, 1.0f);
+            final Vector3f L = new Vector3f();
+            final Vector3f T = new Vector3f();
+            final RGBf FrExact = new RGBf();
+            final RGBf FtExact = new RGBf();
+            final RGBf FrTable = new RGBf();
+            final RGBf FtTable = new RGBf();
+            for (final float n : new float[]{1.05f, 1.33f, 1.5f, 2.4f, 4.0f}) {
+                final FresnelDielectric fresnel = new FresnelDielectric(new RGBf(0.04f, 0.05f, 0.08f), n);
+                for (int i = 0; i <= 10000; i++) {
+                    final float fCos = i / 10000.0f;
+                    L.setValue((float) Math.sqrt(1.0f - (fCos * fCos)), 0.0f, fCos);
+                    for (final boolean bIn : new boolean[]{true, false}) {
+                        if (!(bIn ? T.setToRefraction(N, L, 1.0f, n) : T.setToRefraction(N, L, n, 1.0f))) {
+                            continue;
+                        }
+                        FastMath.setFast(false);
+                        fresnel.approxFrFt(FrExact, FtExact, N, L, T, bIn, 1.0f);
+                        FastMath.setFast(true);
+                        fresnel.approxFrFt(FrTable, FtTable, N, L, T, bIn, 1.0f);
+                        final String strCase = "n=" + n + ", cos=" + fCos + ", in=" + bIn;
+                        assertTrue(Math.abs(FrTable.r - FrExact.r) < 1.0e-4, strCase);
+                        assertTrue(Math.abs(FrTable.g - FrExact.g) < 1.0e-4, strCase);
+                        assertTrue(Math.abs(FrTable.b - FrExact.b) < 1.0e-4, strCase);
+                        assertEquals(1.0f - FrTable.g, FtTable.g, 1.0e-6f, strCase);
+                    }
+                }
+            }
+        } finally {
+            FastMath.setFast(bFast);
+        }
+    }
+}